@@ -0,0 +1,76 @@
+package com.reviewcode.ai.benchmark;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.ReviewFinding;
+import com.reviewcode.ai.service.ConfigurableArchitectureValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One rule category at a time, every other category switched off through the configuration
+ * Lexing and indexing are paid by every category, so the difference to {@link #NONE} is the cost of
+ * the category's rules alone
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class RuleCategoryBenchmark {
+
+    static final String NONE = "NONE";
+
+    @Param({"CLEAN_CODE", "SOLID", "DDD", "SECURITY", "PERFORMANCE", NONE})
+    public String category;
+
+    @Param({"SMALL", "MEDIUM", "LARGE", "PATHOLOGICAL"})
+    public SourceCorpus.FileSize size;
+
+    private ConfigurableArchitectureValidationService service;
+    private String fileName;
+    private String code;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ReviewConfiguration config = uncachedConfiguration();
+        ReviewConfiguration.Rules rules = config.getRules();
+        rules.setEnableCleanCode(category.equals("CLEAN_CODE"));
+        rules.setEnableSolid(category.equals("SOLID"));
+        rules.setEnableDdd(category.equals("DDD"));
+        rules.setEnableSecurity(category.equals("SECURITY"));
+        rules.setEnablePerformance(category.equals("PERFORMANCE"));
+
+        service = new ConfigurableArchitectureValidationService(config);
+        fileName = "src/main/java/com/example/GeneratedService.java";
+        code = SourceCorpus.file(size);
+    }
+
+    @Benchmark
+    public List<ReviewFinding> validate() {
+        return service.validateArchitecturalPrinciples(fileName, code);
+    }
+
+    /**
+     * Default configuration without the findings cache, which would otherwise answer every
+     * invocation after the first
+     */
+    static ReviewConfiguration uncachedConfiguration() {
+        ReviewConfiguration config = new ReviewConfiguration();
+        config.getCache().setEnabled(false);
+        return config;
+    }
+}
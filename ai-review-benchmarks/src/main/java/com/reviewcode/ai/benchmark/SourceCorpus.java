@@ -0,0 +1,160 @@
+package com.reviewcode.ai.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generated Java sources the benchmarks validate, the same for every run of a given size and seed
+ * Files mix clean members with code every rule category reacts to, so each benchmark pays for both
+ * scanning and reporting
+ */
+public final class SourceCorpus {
+
+    /**
+     * Shape of a generated file
+     */
+    public enum FileSize {
+        // A small service, about 30 lines
+        SMALL(2),
+        // A typical class, about 250 lines
+        MEDIUM(20),
+        // A legacy class, about 2700 lines
+        LARGE(200),
+        // A generated or minified class: one long line, deep nesting and huge literals
+        PATHOLOGICAL(400);
+
+        private final int members;
+
+        FileSize(int members) {
+            this.members = members;
+        }
+    }
+
+    private static final long SEED = 42;
+
+    private SourceCorpus() {
+    }
+
+    public static String file(FileSize size) {
+        return file(size, "Generated", new Random(SEED));
+    }
+
+    /**
+     * Files of one review, named by their path; generated members repeat their bodies, so duplication
+     * within and across files is exercised too
+     */
+    public static Map<String, String> review(FileSize size, int files) {
+        Random random = new Random(SEED);
+        Map<String, String> review = new LinkedHashMap<>();
+        for (int i = 0; i < files; i++) {
+            String className = "Generated" + i;
+            review.put("src/main/java/com/example/" + className + ".java", file(size, className, random));
+        }
+        return review;
+    }
+
+    private static String file(FileSize size, String className, Random random) {
+        StringBuilder code = new StringBuilder(size.members * 400);
+        code.append("package com.example;\n\n")
+            .append("import jakarta.persistence.*;\n")
+            .append("import org.springframework.beans.factory.annotation.Autowired;\n\n")
+            .append("@Entity\n")
+            .append("public class ").append(className).append("Service {\n\n")
+            .append("    @Autowired\n")
+            .append("    private OrderRepository orderRepository;\n\n")
+            .append("    @OneToMany(fetch = FetchType.EAGER)\n")
+            .append("    private List<Order> orders;\n\n");
+
+        for (int member = 0; member < size.members; member++) {
+            switch (random.nextInt(6)) {
+                case 0 -> cleanMethod(code, member);
+                case 1 -> longMethod(code, member, random);
+                case 2 -> securityMethod(code, member, random);
+                case 3 -> performanceMethod(code, member);
+                case 4 -> nestedMethod(code, member, 4 + random.nextInt(3));
+                default -> accessors(code, member);
+            }
+        }
+        code.append("}\n");
+
+        if (size == FileSize.PATHOLOGICAL) {
+            // Minified output: no line breaks at all, plus a literal and nesting far beyond real code
+            StringBuilder pathological = new StringBuilder(code.length() + 200_000);
+            pathological.append(code.toString().replace('\n', ' '));
+            pathological.setLength(pathological.length() - 2);
+            pathological.append(" String blob = \"").append("x".repeat(100_000)).append("\"; void deep() {");
+            nestedBody(pathological, 200);
+            pathological.append("} }");
+            return pathological.toString();
+        }
+        return code.toString();
+    }
+
+    private static void cleanMethod(StringBuilder code, int member) {
+        code.append("    public int total").append(member).append("(List<Order> items) {\n")
+            .append("        return items.stream().mapToInt(Order::quantity).sum();\n")
+            .append("    }\n\n");
+    }
+
+    private static void longMethod(StringBuilder code, int member, Random random) {
+        code.append("    public void process").append(member)
+            .append("(String a, String b, String c, String d, String e, String f) {\n");
+        int statements = 30 + random.nextInt(30);
+        for (int i = 0; i < statements; i++) {
+            code.append("        int value").append(i).append(" = compute(a, ").append(random.nextInt(10_000)).append(");\n");
+        }
+        code.append("        PaymentGateway gateway = new PaymentGatewayService();\n")
+            .append("    }\n\n");
+    }
+
+    private static void securityMethod(StringBuilder code, int member, Random random) {
+        code.append("    public User find").append(member).append("(@RequestBody UserRequest request) {\n")
+            .append("        String password = \"Secret").append(random.nextInt(100_000)).append("\";\n")
+            .append("        String sql = \"SELECT * FROM users WHERE name = '\" + request.getName() + \"'\";\n")
+            .append("        Random random = new Random();\n")
+            .append("        MessageDigest digest = MessageDigest.getInstance(\"MD5\");\n")
+            .append("        try {\n")
+            .append("            return jdbcTemplate.queryForObject(sql, User.class);\n")
+            .append("        } catch (Exception e) {\n")
+            .append("        }\n")
+            .append("        throw new IllegalStateException(e.getMessage());\n")
+            .append("    }\n\n");
+    }
+
+    private static void performanceMethod(StringBuilder code, int member) {
+        code.append("    public String render").append(member).append("(List<String> lines) {\n")
+            .append("        String result = \"\";\n")
+            .append("        for (String line : lines) {\n")
+            .append("            result += line + \"\\n\";\n")
+            .append("        }\n")
+            .append("        return result;\n")
+            .append("    }\n\n");
+    }
+
+    private static void nestedMethod(StringBuilder code, int member, int depth) {
+        code.append("    public void handle").append(member).append("(Order order) {\n");
+        StringBuilder body = new StringBuilder();
+        nestedBody(body, depth);
+        code.append("        ").append(body).append('\n')
+            .append("    }\n\n");
+    }
+
+    private static void nestedBody(StringBuilder code, int depth) {
+        for (int level = 0; level < depth; level++) {
+            code.append(level % 2 == 0 ? "if (order.isOpen()) { " : "for (Line line : order.lines()) { ");
+        }
+        code.append("order.ship(); ");
+        code.append("} ".repeat(depth));
+    }
+
+    private static void accessors(StringBuilder code, int member) {
+        code.append("    private String field").append(member).append(";\n\n")
+            .append("    public String getField").append(member).append("() {\n")
+            .append("        return field").append(member).append(";\n")
+            .append("    }\n\n")
+            .append("    public void setField").append(member).append("(String value) {\n")
+            .append("        this.field").append(member).append(" = value;\n")
+            .append("    }\n\n");
+    }
+}
@@ -0,0 +1,70 @@
+package com.reviewcode.ai.benchmark;
+
+import com.reviewcode.ai.model.ReviewFinding;
+import com.reviewcode.ai.service.ArchitectureValidationService;
+import com.reviewcode.ai.service.ConfigurableArchitectureValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole {@code validateArchitecturalPrinciples} calls, for one file and for a review of many files
+ * with duplication across files
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    // Files of the review benchmark; about the size of a large pull request
+    private static final int REVIEW_FILES = 20;
+
+    @Param({"SMALL", "MEDIUM", "LARGE", "PATHOLOGICAL"})
+    public SourceCorpus.FileSize size;
+
+    private ArchitectureValidationService defaultService;
+    private ConfigurableArchitectureValidationService configurableService;
+    private String fileName;
+    private String code;
+    private Map<String, String> review;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        defaultService = new ArchitectureValidationService();
+        configurableService = new ConfigurableArchitectureValidationService(RuleCategoryBenchmark.uncachedConfiguration());
+        fileName = "src/main/java/com/example/GeneratedService.java";
+        code = SourceCorpus.file(size);
+        review = SourceCorpus.review(size, REVIEW_FILES);
+    }
+
+    @Benchmark
+    public List<ReviewFinding> defaultRules() {
+        return defaultService.validateArchitecturalPrinciples(fileName, code);
+    }
+
+    @Benchmark
+    public List<ReviewFinding> configurableRules() {
+        return configurableService.validateArchitecturalPrinciples(fileName, code);
+    }
+
+    @Benchmark
+    public List<ReviewFinding> configurableReview() {
+        return configurableService.validateArchitecturalPrinciples(review);
+    }
+}
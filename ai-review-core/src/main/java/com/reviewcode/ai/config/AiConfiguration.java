@@ -1,8 +1,10 @@
 package com.reviewcode.ai.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
@@ -12,23 +14,40 @@ import java.util.List;
 @ConfigurationProperties(prefix = "ai")
 public class AiConfiguration {
     
+    /**
+     * Request attribute marking an AI call as safe to send more than once, so the transport may
+     * retry and hedge it
+     */
+    public static final String IDEMPOTENT_ATTRIBUTE = AiConfiguration.class.getName() + ".idempotent";
+    
     private Mcp mcp = new Mcp();
     private Review review = new Review();
+    private ResultCache resultCache = new ResultCache();
+    private Coalescing coalescing = new Coalescing();
+    private Limiter limiter = new Limiter();
+    private Transport transport = new Transport();
+    private Streaming streaming = new Streaming();
     
+    /**
+     * Client for every AI call; exchange filters declared as beans, such as the concurrency limiter,
+     * apply to all of them
+     */
     @Bean
-    public WebClient aiWebClient() {
-        return WebClient.builder()
+    public WebClient aiWebClient(ObjectProvider<ExchangeFilterFunction> exchangeFilters) {
+        WebClient.Builder builder = WebClient.builder()
                 .baseUrl(mcp.getEndpoint())
                 .defaultHeader("Authorization", "Bearer " + mcp.getApiKey())
                 .defaultHeader("Content-Type", "application/json")
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
-                .build();
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024));
+        exchangeFilters.orderedStream().forEach(builder::filter);
+        return builder.build();
     }
     
     public static class Mcp {
         private String endpoint = "http://localhost:3000";
         private String apiKey = "";
         private int timeout = 30000;
+        private String modelVersion = "";
         
         public String getEndpoint() { return endpoint; }
         public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
@@ -38,17 +57,189 @@ public class AiConfiguration {
         
         public int getTimeout() { return timeout; }
         public void setTimeout(int timeout) { this.timeout = timeout; }
+        
+        public String getModelVersion() { return modelVersion; }
+        public void setModelVersion(String modelVersion) { this.modelVersion = modelVersion; }
     }
     
     public static class Review {
         private int maxFileSize = 1048576;
         private List<String> supportedExtensions = List.of(".java", ".js", ".ts", ".py");
+        private int maxAverageLineLength = 250;
+        private List<String> generatedMarkers = List.of(
+            "@Generated", "@javax.annotation.Generated", "@javax.annotation.processing.Generated",
+            "@jakarta.annotation.Generated", "@generated", "DO NOT EDIT", "Code generated by",
+            "<auto-generated", "AUTO-GENERATED", "AUTOGENERATED");
+        private List<String> vendorPaths = List.of(
+            "node_modules/*", "*/node_modules/*", "vendor/*", "*/vendor/*", "third_party/*", "*/third_party/*",
+            "*.min.js", "*.min.css", "*.lock", "*-lock.json", "*-lock.yaml", "go.sum", "*/go.sum");
         
         public int getMaxFileSize() { return maxFileSize; }
         public void setMaxFileSize(int maxFileSize) { this.maxFileSize = maxFileSize; }
         
         public List<String> getSupportedExtensions() { return supportedExtensions; }
         public void setSupportedExtensions(List<String> supportedExtensions) { this.supportedExtensions = supportedExtensions; }
+        
+        public int getMaxAverageLineLength() { return maxAverageLineLength; }
+        public void setMaxAverageLineLength(int maxAverageLineLength) { this.maxAverageLineLength = maxAverageLineLength; }
+        
+        public List<String> getGeneratedMarkers() { return generatedMarkers; }
+        public void setGeneratedMarkers(List<String> generatedMarkers) { this.generatedMarkers = generatedMarkers; }
+        
+        public List<String> getVendorPaths() { return vendorPaths; }
+        public void setVendorPaths(List<String> vendorPaths) { this.vendorPaths = vendorPaths; }
+    }
+    
+    public static class ResultCache {
+        private boolean enabled = true;
+        private int maxEntries = 1000;
+        private long ttlMillis = 3_600_000L;
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        
+        public int getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+        
+        public long getTtlMillis() { return ttlMillis; }
+        public void setTtlMillis(long ttlMillis) { this.ttlMillis = ttlMillis; }
+    }
+    
+    public static class Coalescing {
+        private long graceMillis = 5_000L;
+        
+        public long getGraceMillis() { return graceMillis; }
+        public void setGraceMillis(long graceMillis) { this.graceMillis = graceMillis; }
+    }
+    
+    public static class Limiter {
+        private boolean enabled = true;
+        private int initialLimit = 10;
+        private int minLimit = 1;
+        private int maxLimit = 100;
+        private double backoffRatio = 0.9;
+        private long latencyThresholdMillis = 10_000L;
+        private int maxQueue = 50;
+        private long queueTimeoutMillis = 5_000L;
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+        
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+        
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+        
+        public double getBackoffRatio() { return backoffRatio; }
+        public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+        
+        public long getLatencyThresholdMillis() { return latencyThresholdMillis; }
+        public void setLatencyThresholdMillis(long latencyThresholdMillis) { this.latencyThresholdMillis = latencyThresholdMillis; }
+        
+        public int getMaxQueue() { return maxQueue; }
+        public void setMaxQueue(int maxQueue) { this.maxQueue = maxQueue; }
+        
+        public long getQueueTimeoutMillis() { return queueTimeoutMillis; }
+        public void setQueueTimeoutMillis(long queueTimeoutMillis) { this.queueTimeoutMillis = queueTimeoutMillis; }
+    }
+    
+    public static class Transport {
+        private boolean enabled = true;
+        private long attemptTimeoutMillis = 0L;
+        private Retry retry = new Retry();
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private Hedging hedging = new Hedging();
+        
+        public static class Retry {
+            private int maxRetries = 2;
+            private long initialBackoffMillis = 200L;
+            private long maxBackoffMillis = 2_000L;
+            private double jitter = 0.5;
+            
+            public int getMaxRetries() { return maxRetries; }
+            public void setMaxRetries(int maxRetries) { this.maxRetries = maxRetries; }
+            
+            public long getInitialBackoffMillis() { return initialBackoffMillis; }
+            public void setInitialBackoffMillis(long initialBackoffMillis) { this.initialBackoffMillis = initialBackoffMillis; }
+            
+            public long getMaxBackoffMillis() { return maxBackoffMillis; }
+            public void setMaxBackoffMillis(long maxBackoffMillis) { this.maxBackoffMillis = maxBackoffMillis; }
+            
+            public double getJitter() { return jitter; }
+            public void setJitter(double jitter) { this.jitter = jitter; }
+        }
+        
+        public static class CircuitBreaker {
+            private int failureRateThreshold = 50;
+            private int slidingWindowSize = 20;
+            private int minimumCalls = 10;
+            private long openMillis = 30_000L;
+            private int halfOpenCalls = 3;
+            
+            public int getFailureRateThreshold() { return failureRateThreshold; }
+            public void setFailureRateThreshold(int failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+            
+            public int getSlidingWindowSize() { return slidingWindowSize; }
+            public void setSlidingWindowSize(int slidingWindowSize) { this.slidingWindowSize = slidingWindowSize; }
+            
+            public int getMinimumCalls() { return minimumCalls; }
+            public void setMinimumCalls(int minimumCalls) { this.minimumCalls = minimumCalls; }
+            
+            public long getOpenMillis() { return openMillis; }
+            public void setOpenMillis(long openMillis) { this.openMillis = openMillis; }
+            
+            public int getHalfOpenCalls() { return halfOpenCalls; }
+            public void setHalfOpenCalls(int halfOpenCalls) { this.halfOpenCalls = halfOpenCalls; }
+        }
+        
+        public static class Hedging {
+            private boolean enabled = false;
+            private long minDelayMillis = 500L;
+            private int minSamples = 20;
+            
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+            
+            public long getMinDelayMillis() { return minDelayMillis; }
+            public void setMinDelayMillis(long minDelayMillis) { this.minDelayMillis = minDelayMillis; }
+            
+            public int getMinSamples() { return minSamples; }
+            public void setMinSamples(int minSamples) { this.minSamples = minSamples; }
+        }
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        
+        public long getAttemptTimeoutMillis() { return attemptTimeoutMillis; }
+        public void setAttemptTimeoutMillis(long attemptTimeoutMillis) { this.attemptTimeoutMillis = attemptTimeoutMillis; }
+        
+        public Retry getRetry() { return retry; }
+        public void setRetry(Retry retry) { this.retry = retry; }
+        
+        public CircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+        public void setCircuitBreaker(CircuitBreaker circuitBreaker) { this.circuitBreaker = circuitBreaker; }
+        
+        public Hedging getHedging() { return hedging; }
+        public void setHedging(Hedging hedging) { this.hedging = hedging; }
+    }
+    
+    public static class Streaming {
+        private int batchSize = 100;
+        private int maxFindingBytes = 1024 * 1024;
+        private int maxCachedFindings = 1000;
+        
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        
+        public int getMaxFindingBytes() { return maxFindingBytes; }
+        public void setMaxFindingBytes(int maxFindingBytes) { this.maxFindingBytes = maxFindingBytes; }
+        
+        public int getMaxCachedFindings() { return maxCachedFindings; }
+        public void setMaxCachedFindings(int maxCachedFindings) { this.maxCachedFindings = maxCachedFindings; }
     }
     
     public Mcp getMcp() { return mcp; }
@@ -56,4 +247,19 @@ public class AiConfiguration {
     
     public Review getReview() { return review; }
     public void setReview(Review review) { this.review = review; }
+    
+    public ResultCache getResultCache() { return resultCache; }
+    public void setResultCache(ResultCache resultCache) { this.resultCache = resultCache; }
+    
+    public Coalescing getCoalescing() { return coalescing; }
+    public void setCoalescing(Coalescing coalescing) { this.coalescing = coalescing; }
+    
+    public Limiter getLimiter() { return limiter; }
+    public void setLimiter(Limiter limiter) { this.limiter = limiter; }
+    
+    public Transport getTransport() { return transport; }
+    public void setTransport(Transport transport) { this.transport = transport; }
+    
+    public Streaming getStreaming() { return streaming; }
+    public void setStreaming(Streaming streaming) { this.streaming = streaming; }
 }
\ No newline at end of file
@@ -14,6 +14,10 @@ public class ReviewConfiguration {
     private Rules rules = new Rules();
     private Patterns patterns = new Patterns();
     private Teams teams = new Teams();
+    private Cache cache = new Cache();
+    private Batch batch = new Batch();
+    private Baseline baseline = new Baseline();
+    private Reload reload = new Reload();
 
     public static class Thresholds {
         private int autoApproveScore = 80;
@@ -23,6 +27,9 @@ public class ReviewConfiguration {
         private int maxParameters = 5;
         private int criticalFindingsThreshold = 0;
         private int highFindingsThreshold = 3;
+        private long ruleStepBudget = 100_000_000L;
+        private long ruleTimeBudgetMillis = 1_000L;
+        private long fileTimeBudgetMillis = 5_000L;
         
         // Getters and setters
         public int getAutoApproveScore() { return autoApproveScore; }
@@ -45,6 +52,15 @@ public class ReviewConfiguration {
         
         public int getHighFindingsThreshold() { return highFindingsThreshold; }
         public void setHighFindingsThreshold(int highFindingsThreshold) { this.highFindingsThreshold = highFindingsThreshold; }
+        
+        public long getRuleStepBudget() { return ruleStepBudget; }
+        public void setRuleStepBudget(long ruleStepBudget) { this.ruleStepBudget = ruleStepBudget; }
+        
+        public long getRuleTimeBudgetMillis() { return ruleTimeBudgetMillis; }
+        public void setRuleTimeBudgetMillis(long ruleTimeBudgetMillis) { this.ruleTimeBudgetMillis = ruleTimeBudgetMillis; }
+        
+        public long getFileTimeBudgetMillis() { return fileTimeBudgetMillis; }
+        public void setFileTimeBudgetMillis(long fileTimeBudgetMillis) { this.fileTimeBudgetMillis = fileTimeBudgetMillis; }
     }
 
     public static class Rules {
@@ -56,6 +72,48 @@ public class ReviewConfiguration {
         private boolean enableDdd = true;
         private boolean enableSecurity = true;
         private boolean enablePerformance = true;
+        private CostPolicy costPolicy = new CostPolicy();
+        private MagicNumbers magicNumbers = new MagicNumbers();
+        
+        public static class MagicNumbers {
+            private String groupBy = "METHOD";
+            private int sampleSize = 5;
+            private int maxFindingsPerFile = 10;
+            
+            // Getters and setters
+            public String getGroupBy() { return groupBy; }
+            public void setGroupBy(String groupBy) { this.groupBy = groupBy; }
+            
+            public int getSampleSize() { return sampleSize; }
+            public void setSampleSize(int sampleSize) { this.sampleSize = sampleSize; }
+            
+            public int getMaxFindingsPerFile() { return maxFindingsPerFile; }
+            public void setMaxFindingsPerFile(int maxFindingsPerFile) { this.maxFindingsPerFile = maxFindingsPerFile; }
+        }
+        
+        public static class CostPolicy {
+            private boolean enabled = false;
+            private String action = "DEMOTE";
+            private long maxAverageMillis = 50;
+            private long minEvaluations = 50;
+            private int probeInterval = 100;
+            
+            // Getters and setters
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+            
+            public String getAction() { return action; }
+            public void setAction(String action) { this.action = action; }
+            
+            public long getMaxAverageMillis() { return maxAverageMillis; }
+            public void setMaxAverageMillis(long maxAverageMillis) { this.maxAverageMillis = maxAverageMillis; }
+            
+            public long getMinEvaluations() { return minEvaluations; }
+            public void setMinEvaluations(long minEvaluations) { this.minEvaluations = minEvaluations; }
+            
+            public int getProbeInterval() { return probeInterval; }
+            public void setProbeInterval(int probeInterval) { this.probeInterval = probeInterval; }
+        }
         
         // Getters and setters
         public List<String> getDisabled() { return disabled; }
@@ -81,6 +139,12 @@ public class ReviewConfiguration {
         
         public boolean isEnablePerformance() { return enablePerformance; }
         public void setEnablePerformance(boolean enablePerformance) { this.enablePerformance = enablePerformance; }
+        
+        public CostPolicy getCostPolicy() { return costPolicy; }
+        public void setCostPolicy(CostPolicy costPolicy) { this.costPolicy = costPolicy; }
+        
+        public MagicNumbers getMagicNumbers() { return magicNumbers; }
+        public void setMagicNumbers(MagicNumbers magicNumbers) { this.magicNumbers = magicNumbers; }
     }
 
     public static class Patterns {
@@ -151,6 +215,58 @@ public class ReviewConfiguration {
         public void setTeamConfigs(Map<String, TeamConfig> teamConfigs) { this.teamConfigs = teamConfigs; }
     }
 
+    public static class Cache {
+        private boolean enabled = true;
+        private int maxEntries = 10_000;
+        private String directory;
+        private int maxDiskEntries = 100_000;
+        
+        // Getters and setters
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        
+        public int getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+        
+        public String getDirectory() { return directory; }
+        public void setDirectory(String directory) { this.directory = directory; }
+        
+        public int getMaxDiskEntries() { return maxDiskEntries; }
+        public void setMaxDiskEntries(int maxDiskEntries) { this.maxDiskEntries = maxDiskEntries; }
+    }
+
+    public static class Batch {
+        private int parallelism = 0;
+        private int maxFilesInFlight = 256;
+        
+        // Getters and setters
+        public int getParallelism() { return parallelism; }
+        public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+        
+        public int getMaxFilesInFlight() { return maxFilesInFlight; }
+        public void setMaxFilesInFlight(int maxFilesInFlight) { this.maxFilesInFlight = maxFilesInFlight; }
+    }
+
+    public static class Baseline {
+        private String directory;
+        
+        // Getters and setters
+        public String getDirectory() { return directory; }
+        public void setDirectory(String directory) { this.directory = directory; }
+    }
+
+    public static class Reload {
+        private String file;
+        private long debounceMillis = 200L;
+        
+        // Getters and setters
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+        
+        public long getDebounceMillis() { return debounceMillis; }
+        public void setDebounceMillis(long debounceMillis) { this.debounceMillis = debounceMillis; }
+    }
+
     // Main getters and setters
     public Thresholds getThresholds() { return thresholds; }
     public void setThresholds(Thresholds thresholds) { this.thresholds = thresholds; }
@@ -163,4 +279,16 @@ public class ReviewConfiguration {
     
     public Teams getTeams() { return teams; }
     public void setTeams(Teams teams) { this.teams = teams; }
+    
+    public Cache getCache() { return cache; }
+    public void setCache(Cache cache) { this.cache = cache; }
+    
+    public Batch getBatch() { return batch; }
+    public void setBatch(Batch batch) { this.batch = batch; }
+    
+    public Baseline getBaseline() { return baseline; }
+    public void setBaseline(Baseline baseline) { this.baseline = baseline; }
+    
+    public Reload getReload() { return reload; }
+    public void setReload(Reload reload) { this.reload = reload; }
 }
\ No newline at end of file
@@ -4,11 +4,14 @@ import com.reviewcode.ai.model.CodeReview;
 import com.reviewcode.ai.model.PullRequest;
 import com.reviewcode.ai.model.ReviewSuggestion;
 import com.reviewcode.ai.service.CodeReviewService;
+import com.reviewcode.ai.service.FindingsExport;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -18,6 +21,9 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class PullRequestController {
     
+    // Digest of the pull request's diff, set by callers that know it so unchanged AI reviews are cached
+    static final String DIFF_HASH_HEADER = "X-Diff-Hash";
+    
     private final CodeReviewService codeReviewService;
     
     @Autowired
@@ -59,9 +65,10 @@ public class PullRequestController {
     @PostMapping("/{id}/ai-suggestions")
     public Mono<ResponseEntity<List<ReviewSuggestion>>> triggerAiSuggestions(
             @PathVariable Long id,
-            @RequestBody List<String> filesToReview) {
+            @RequestBody List<String> filesToReview,
+            @RequestHeader(name = DIFF_HASH_HEADER, required = false) String diffHash) {
         
-        return codeReviewService.triggerAiSuggestions(id, filesToReview)
+        return codeReviewService.triggerAiSuggestions(id, filesToReview, diffHash)
             .map(suggestions -> ResponseEntity.ok(suggestions))
             .onErrorReturn(ResponseEntity.badRequest().build());
     }
@@ -69,9 +76,10 @@ public class PullRequestController {
     @PostMapping("/{id}/ai-final-review")
     public Mono<ResponseEntity<CodeReview>> triggerFinalReview(
             @PathVariable Long id,
-            @RequestBody List<String> filesToReview) {
+            @RequestBody List<String> filesToReview,
+            @RequestHeader(name = DIFF_HASH_HEADER, required = false) String diffHash) {
         
-        return codeReviewService.triggerFinalReview(id, filesToReview)
+        return codeReviewService.triggerFinalReview(id, filesToReview, diffHash)
             .map(review -> ResponseEntity.ok(review))
             .onErrorReturn(ResponseEntity.badRequest().build());
     }
@@ -105,4 +113,28 @@ public class PullRequestController {
         List<CodeReview> reviews = codeReviewService.getReviewsForPullRequest(id);
         return ResponseEntity.ok(reviews);
     }
+    
+    /**
+     * Findings of all reviews of the pull request as SARIF or NDJSON, streamed from the database
+     * instead of loading the reviews with their findings
+     */
+    @GetMapping("/{id}/findings/export")
+    public ResponseEntity<StreamingResponseBody> exportFindings(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "sarif") String format) {
+        
+        FindingsExport.Format exportFormat;
+        try {
+            exportFormat = FindingsExport.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (codeReviewService.getPullRequest(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.mediaType()))
+            .body(out -> codeReviewService.exportFindings(id, exportFormat, out));
+    }
 }
\ No newline at end of file
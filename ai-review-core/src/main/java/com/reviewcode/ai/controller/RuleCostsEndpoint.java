@@ -0,0 +1,30 @@
+package com.reviewcode.ai.controller;
+
+import com.reviewcode.ai.service.ConfigurableArchitectureValidationService;
+import com.reviewcode.ai.service.RuleCost;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint at /actuator/rulecosts listing what each validation rule has cost so far
+ * Per rule and file type: evaluations, time, tokens visited, characters scanned, findings, aborts
+ * and what the cost policy currently does to the rule
+ */
+@Component
+@Endpoint(id = "rulecosts")
+public class RuleCostsEndpoint {
+
+    private final ConfigurableArchitectureValidationService validationService;
+
+    public RuleCostsEndpoint(ConfigurableArchitectureValidationService validationService) {
+        this.validationService = validationService;
+    }
+
+    @ReadOperation
+    public List<RuleCost> ruleCosts() {
+        return validationService.getRuleCosts();
+    }
+}
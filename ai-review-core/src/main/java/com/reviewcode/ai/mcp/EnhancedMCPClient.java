@@ -158,6 +158,7 @@ public class EnhancedMCPClient {
         return aiWebClient
             .post()
             .uri("/api/ai/comprehensive-review")
+            .attribute(AiConfiguration.IDEMPOTENT_ATTRIBUTE, true)
             .bodyValue(aiRequest)
             .retrieve()
             .bodyToMono(AIResponse.class)
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
-@Table(name = "review_findings")
+@Table(name = "review_findings", indexes = @Index(name = "idx_review_findings_fingerprint", columnList = "fingerprint"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -49,6 +49,20 @@ public class ReviewFinding {
     @Column
     private String ruleId;
     
+    // Set when only the lines of a change were validated; null for a whole-file review
+    @Enumerated(EnumType.STRING)
+    @Column
+    private Origin origin;
+    
+    // Stable across edits that only move the finding; matched against a repository baseline
+    @Column(length = 16)
+    private String fingerprint;
+    
+    public ReviewFinding(Long id, CodeReview codeReview, String fileName, Integer lineNumber, FindingType type,
+                         Severity severity, String description, String suggestion, String codeSnippet, String ruleId) {
+        this(id, codeReview, fileName, lineNumber, type, severity, description, suggestion, codeSnippet, ruleId, null, null);
+    }
+    
     public enum FindingType {
         // Quality & Style
         CODE_STYLE, DOCUMENTATION, BEST_PRACTICE,
@@ -84,4 +98,8 @@ public class ReviewFinding {
     public enum Severity {
         INFO, LOW, MEDIUM, HIGH, CRITICAL
     }
+    
+    public enum Origin {
+        INTRODUCED, PRE_EXISTING
+    }
 }
\ No newline at end of file
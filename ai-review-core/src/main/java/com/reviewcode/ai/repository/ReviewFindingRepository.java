@@ -0,0 +1,27 @@
+package com.reviewcode.ai.repository;
+
+import com.reviewcode.ai.model.ReviewFinding;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+@Repository
+public interface ReviewFindingRepository extends JpaRepository<ReviewFinding, Long> {
+    
+    /**
+     * Findings of every review of the pull request, read through a database cursor in batches of the
+     * fetch size; the stream must be consumed and closed within a transaction
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT rf FROM ReviewFinding rf WHERE rf.codeReview.pullRequest.id = :pullRequestId ORDER BY rf.id")
+    Stream<ReviewFinding> streamByPullRequestId(@Param("pullRequestId") Long pullRequestId);
+}
@@ -0,0 +1,277 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.AiConfiguration;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the requests in flight to the AI endpoint with a limit found by additive increase and
+ * multiplicative decrease: a request answered in time while the limit is in use raises it by one, and
+ * one that is throttled, fails to connect or is slower than the latency threshold cuts it by the
+ * backoff ratio, so throughput settles near what the endpoint sustains
+ * Requests over the limit wait in a bounded queue, first come first served, and fail fast with
+ * {@link LimitExceededException} when it is full or they waited too long. A request holds its permit
+ * until its response body has been read, so a streamed response counts against the limit for as long
+ * as the endpoint is still producing it; its latency is taken when the response headers arrive, since
+ * a long healthy stream says nothing about overload
+ */
+@Component
+@Order(2)
+public class AiConcurrencyLimiter implements ExchangeFilterFunction, MeterBinder {
+
+    /**
+     * The request was not sent because the endpoint is already at its limit
+     */
+    public static class LimitExceededException extends RuntimeException {
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    enum Outcome {
+        SUCCESS,
+        DROPPED,
+        IGNORED
+    }
+
+    /**
+     * Leave to send one request; released exactly once
+     */
+    final class Permit {
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long latency = -1;
+
+        /**
+         * Take the latency now, when the response headers arrived, rather than at release
+         */
+        void responded() {
+            if (latency < 0) {
+                latency = System.nanoTime() - start;
+            }
+        }
+
+        void release(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                long elapsed = latency;
+                onRelease(elapsed < 0 ? System.nanoTime() - start : elapsed, outcome);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAt = System.nanoTime();
+
+        private Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final int maxQueue;
+    private final Duration queueTimeout;
+
+    private final Object lock = new Object();
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+
+    private final LongAdder queueFull = new LongAdder();
+    private final LongAdder queueTimeouts = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+    private volatile Timer queueTimer;
+
+    @Autowired
+    public AiConcurrencyLimiter(AiConfiguration aiConfiguration) {
+        AiConfiguration.Limiter config = aiConfiguration.getLimiter();
+        this.enabled = config.isEnabled();
+        this.minLimit = Math.max(1, config.getMinLimit());
+        this.maxLimit = Math.max(minLimit, config.getMaxLimit());
+        this.backoffRatio = Math.min(0.99, Math.max(0.1, config.getBackoffRatio()));
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getLatencyThresholdMillis());
+        this.maxQueue = Math.max(0, config.getMaxQueue());
+        this.queueTimeout = Duration.ofMillis(Math.max(1, config.getQueueTimeoutMillis()));
+        this.limit = Math.min(maxLimit, Math.max(minLimit, config.getInitialLimit()));
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled) {
+            return next.exchange(request);
+        }
+        return acquire().flatMap(permit -> next.exchange(request)
+                .map(response -> {
+                    permit.responded();
+                    if (isOverloaded(response.statusCode())) {
+                        permit.release(Outcome.DROPPED);
+                        return response;
+                    }
+                    return response.mutate()
+                        // Released before the end of the body reaches the reader
+                        .body(body -> body
+                            .doOnComplete(() -> permit.release(Outcome.SUCCESS))
+                            .doOnError(error -> permit.release(Outcome.DROPPED))
+                            .doOnCancel(() -> permit.release(Outcome.IGNORED)))
+                        .build();
+                })
+                .doOnError(error -> permit.release(Outcome.DROPPED))
+                // Cancelled by the caller, usually its timeout; a slow response still counts through its latency
+                .doOnCancel(() -> permit.release(Outcome.IGNORED)))
+            .doOnDiscard(Permit.class, permit -> permit.release(Outcome.IGNORED));
+    }
+
+    /**
+     * A permit as soon as the request is within the limit, or an error if it cannot wait for one
+     */
+    Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+                Permit permit = null;
+                boolean full = false;
+                synchronized (lock) {
+                    if (queue.isEmpty() && inFlight < (int) limit) {
+                        inFlight++;
+                        permit = new Permit();
+                    } else if (queue.size() >= maxQueue) {
+                        full = true;
+                    } else {
+                        Waiter waiter = new Waiter(sink);
+                        queue.add(waiter);
+                        sink.onCancel(() -> {
+                            synchronized (lock) {
+                                queue.remove(waiter);
+                            }
+                        });
+                    }
+                }
+
+                if (permit != null) {
+                    recordQueueTime(0);
+                    sink.success(permit);
+                } else if (full) {
+                    queueFull.increment();
+                    sink.error(new LimitExceededException("AI endpoint at its limit of " + limit() + " requests and "
+                        + maxQueue + " queued"));
+                }
+            })
+            .timeout(queueTimeout, Mono.defer(() -> {
+                queueTimeouts.increment();
+                return Mono.error(new LimitExceededException("Waited " + queueTimeout.toMillis()
+                    + " ms for the AI endpoint's limit of " + limit() + " requests"));
+            }));
+    }
+
+    int limit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+
+    int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    int queued() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    long rejected() {
+        return queueFull.sum() + queueTimeouts.sum();
+    }
+
+    long drops() {
+        return drops.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ai.client.limit", this, AiConcurrencyLimiter::limit)
+            .register(registry);
+        Gauge.builder("ai.client.inflight", this, AiConcurrencyLimiter::inFlight)
+            .register(registry);
+        Gauge.builder("ai.client.queue.size", this, AiConcurrencyLimiter::queued)
+            .register(registry);
+        FunctionCounter.builder("ai.client.rejected", queueFull, LongAdder::sum)
+            .tag("reason", "queue-full")
+            .register(registry);
+        FunctionCounter.builder("ai.client.rejected", queueTimeouts, LongAdder::sum)
+            .tag("reason", "queue-timeout")
+            .register(registry);
+        FunctionCounter.builder("ai.client.dropped", drops, LongAdder::sum)
+            .register(registry);
+        this.queueTimer = Timer.builder("ai.client.queue.time").register(registry);
+    }
+
+    private void onRelease(long latencyNanos, Outcome outcome) {
+        if (outcome == Outcome.DROPPED) {
+            drops.increment();
+        }
+
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (lock) {
+            if (outcome == Outcome.DROPPED || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (outcome == Outcome.SUCCESS && inFlight * 2 >= limit) {
+                // Grow only while the limit is what holds requests back
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            inFlight--;
+
+            while (!queue.isEmpty() && inFlight < (int) limit) {
+                granted.add(queue.poll());
+                inFlight++;
+            }
+        }
+
+        long now = System.nanoTime();
+        for (Waiter waiter : granted) {
+            recordQueueTime(now - waiter.enqueuedAt);
+            // A waiter cancelled meanwhile discards the permit, which gives it back
+            waiter.sink.success(new Permit());
+        }
+    }
+
+    private void recordQueueTime(long nanos) {
+        Timer timer = queueTimer;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+            || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+            || status.value() == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+}
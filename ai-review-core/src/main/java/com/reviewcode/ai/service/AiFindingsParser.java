@@ -0,0 +1,153 @@
+package com.reviewcode.ai.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses AI findings as the bytes of a response arrive, holding the tokens of one finding at a time
+ * Reads newline-delimited JSON with a finding per line, a top-level array of findings, or a review
+ * object whose "findings" array is read element by element while its other fields are skipped
+ */
+final class AiFindingsParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final String FINDINGS_FIELD = "findings";
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final boolean findingsAtRoot;
+    private final long maxFindingBytes;
+
+    private TokenBuffer finding;
+    private int depth;
+    private long findingStart;
+
+    /**
+     * @param findingsAtRoot whether objects at the top level are findings, as in newline-delimited
+     *                       JSON, rather than a review holding them
+     */
+    AiFindingsParser(boolean findingsAtRoot, long maxFindingBytes) throws IOException {
+        this.parser = MAPPER.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.findingsAtRoot = findingsAtRoot;
+        this.maxFindingBytes = maxFindingBytes;
+    }
+
+    /**
+     * Findings of the body, each emitted as soon as its closing brace arrives; buffers are released
+     * once read
+     *
+     * @throws DataBufferLimitException through the flux for a finding larger than the limit
+     */
+    static Flux<AiReviewResponse.Finding> parse(Flux<DataBuffer> body, boolean findingsAtRoot, long maxFindingBytes) {
+        return Flux.using(() -> new AiFindingsParser(findingsAtRoot, maxFindingBytes),
+                parser -> body.concatMapIterable(parser::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(parser.end())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release),
+                AiFindingsParser::close);
+    }
+
+    /**
+     * Findings completed by the buffer, which is released
+     */
+    List<AiReviewResponse.Finding> feed(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            feeder.feedInput(bytes, 0, bytes.length);
+            return drain();
+        } catch (IOException e) {
+            throw new DecodingException("Unreadable AI findings: " + e.getMessage(), e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    /**
+     * Findings completed by the end of the input
+     *
+     * @throws DecodingException when the input stops inside a finding
+     */
+    List<AiReviewResponse.Finding> end() {
+        try {
+            feeder.endOfInput();
+            List<AiReviewResponse.Finding> findings = drain();
+            if (finding != null) {
+                throw new DecodingException("AI findings ended inside a finding");
+            }
+            return findings;
+        } catch (IOException e) {
+            throw new DecodingException("Unreadable AI findings: " + e.getMessage(), e);
+        }
+    }
+
+    void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // Nothing is left to read
+        }
+    }
+
+    private List<AiReviewResponse.Finding> drain() throws IOException {
+        List<AiReviewResponse.Finding> findings = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (finding == null) {
+                if (token != JsonToken.START_OBJECT || !startsFinding()) {
+                    continue;
+                }
+                finding = new TokenBuffer(parser);
+                findingStart = parser.currentTokenLocation().getByteOffset();
+                depth = 0;
+            }
+
+            finding.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd() && --depth == 0) {
+                try (JsonParser tokens = finding.asParser(MAPPER)) {
+                    findings.add(MAPPER.readValue(tokens, AiReviewResponse.Finding.class));
+                }
+                finding = null;
+                continue;
+            }
+            if (parser.currentLocation().getByteOffset() - findingStart > maxFindingBytes) {
+                throw new DataBufferLimitException("AI finding exceeds the limit of " + maxFindingBytes + " bytes");
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Whether the object just started is a finding, judging by what holds it
+     */
+    private boolean startsFinding() {
+        JsonStreamContext holder = parser.getParsingContext().getParent();
+        if (holder.inRoot()) {
+            return findingsAtRoot;
+        }
+        if (!holder.inArray()) {
+            return false;
+        }
+        JsonStreamContext owner = holder.getParent();
+        return owner.inRoot()
+            || owner.inObject() && owner.getParent().inRoot() && FINDINGS_FIELD.equals(owner.getCurrentName());
+    }
+}
@@ -0,0 +1,174 @@
+package com.reviewcode.ai.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Responses of the AI endpoint keyed by a digest of the pull request's diff, the files reviewed, the
+ * review mode and the endpoint and model answering it, so an unchanged pull request is not sent
+ * again within the time to live
+ * Entries expire after the time to live and the least recently used are evicted beyond the maximum
+ * size. Responses are copied in and out, since callers map them onto entities they go on to change
+ */
+final class AiResponseCache implements MeterBinder {
+
+    // Part of every key; bump it when the request sent for a mode changes
+    private static final String FORMAT_VERSION = "1";
+
+    private record Entry(AiReviewResponse response, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    AiResponseCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::nanoTime);
+    }
+
+    AiResponseCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, ttlMillis));
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > AiResponseCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cache key of one review request
+     *
+     * @param diffHash     digest of the pull request's diff, supplied by the caller
+     * @param modelVersion with the endpoint, so switching either never serves older answers
+     */
+    static String key(String diffHash, Long pullRequestId, String title, String description,
+                      List<String> files, String mode, String endpoint, String modelVersion) {
+        List<String> parts = new ArrayList<>(files.size() + 8);
+        parts.add(FORMAT_VERSION);
+        parts.add(endpoint);
+        parts.add(modelVersion);
+        parts.add(mode);
+        parts.add(diffHash);
+        parts.add(String.valueOf(pullRequestId));
+        parts.add(title);
+        parts.add(description);
+        parts.addAll(files);
+        return FindingsCache.digest(parts.toArray(String[]::new));
+    }
+
+    /**
+     * A copy of the cached response, or null when the key is absent or has expired
+     */
+    AiReviewResponse get(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && clock.getAsLong() - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(entry.response());
+    }
+
+    void put(String key, AiReviewResponse response) {
+        Entry entry = new Entry(copy(response), clock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    long expirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * Share of lookups answered from the cache, 0 before the first lookup
+     */
+    double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ai.review.cache.requests", this, AiResponseCache::hits)
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("ai.review.cache.requests", this, AiResponseCache::misses)
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("ai.review.cache.evictions", this, AiResponseCache::evictions)
+            .tag("cause", "size")
+            .register(registry);
+        FunctionCounter.builder("ai.review.cache.evictions", this, AiResponseCache::expirations)
+            .tag("cause", "expired")
+            .register(registry);
+        Gauge.builder("ai.review.cache.hit.ratio", this, AiResponseCache::hitRatio)
+            .register(registry);
+        Gauge.builder("ai.review.cache.size", this, AiResponseCache::size)
+            .register(registry);
+    }
+
+    private static AiReviewResponse copy(AiReviewResponse response) {
+        List<AiReviewResponse.Finding> findings = null;
+        if (response.getFindings() != null) {
+            findings = new ArrayList<>(response.getFindings().size());
+            for (AiReviewResponse.Finding finding : response.getFindings()) {
+                findings.add(new AiReviewResponse.Finding(finding.getFileName(), finding.getLineNumber(),
+                    finding.getType(), finding.getSeverity(), finding.getDescription(), finding.getSuggestion(),
+                    finding.getCodeSnippet(), finding.getProposedCode(), finding.getRuleId()));
+            }
+        }
+        return new AiReviewResponse(response.getDecision(), response.getSummary(), response.getScore(), findings);
+    }
+}
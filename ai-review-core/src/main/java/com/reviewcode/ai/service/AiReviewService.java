@@ -4,7 +4,10 @@ import com.reviewcode.ai.config.AiConfiguration;
 import com.reviewcode.ai.mcp.EnhancedMCPClient;
 import com.reviewcode.ai.mcp.EnhancedReviewResult;
 import com.reviewcode.ai.model.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
@@ -12,8 +15,10 @@ import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class AiReviewService {
@@ -22,6 +27,7 @@ public class AiReviewService {
     private final AiConfiguration aiConfig;
     private final ReviewSuggestionService reviewSuggestionService;
     private final EnhancedMCPClient mcpClient;
+    private final AiResponseCache resultCache;
     
     @Autowired
     public AiReviewService(WebClient aiWebClient, 
@@ -32,9 +38,46 @@ public class AiReviewService {
         this.aiConfig = aiConfig;
         this.reviewSuggestionService = reviewSuggestionService;
         this.mcpClient = mcpClient;
+        
+        AiConfiguration.ResultCache cache = aiConfig.getResultCache();
+        this.resultCache = cache.isEnabled() ? new AiResponseCache(cache.getMaxEntries(), cache.getTtlMillis()) : null;
+    }
+    
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        if (resultCache != null) {
+            resultCache.bindTo(meterRegistry);
+        }
     }
     
     public Mono<List<ReviewSuggestion>> generateSuggestions(PullRequest pullRequest, List<String> filesToReview) {
+        return generateSuggestions(pullRequest, filesToReview, null);
+    }
+    
+    /**
+     * Suggestions for the files, served from the result cache when the same diff was reviewed before
+     * If the response breaks off, the suggestions saved until then are returned
+     *
+     * @param diffHash digest of the pull request's diff, or null to always call the endpoint
+     */
+    public Mono<List<ReviewSuggestion>> generateSuggestions(PullRequest pullRequest, List<String> filesToReview,
+                                                            String diffHash) {
+        return streamSuggestions(pullRequest, filesToReview, diffHash)
+            .onErrorResume(error -> {
+                System.err.println("AI Suggestions generation failed: " + error.getMessage());
+                return Flux.empty();
+            })
+            .collectList();
+    }
+    
+    /**
+     * Suggestions for the files, saved in batches as the endpoint's findings arrive so that memory use
+     * does not grow with their number
+     *
+     * @param diffHash digest of the pull request's diff, or null to always call the endpoint
+     */
+    public Flux<ReviewSuggestion> streamSuggestions(PullRequest pullRequest, List<String> filesToReview,
+                                                    String diffHash) {
         Map<String, Object> reviewRequest = Map.of(
             "pullRequestId", pullRequest.getId(),
             "title", pullRequest.getTitle(),
@@ -45,21 +88,22 @@ public class AiReviewService {
             "mode", "suggestions"
         );
         
-        return aiWebClient
-            .post()
-            .uri("/api/review/suggestions")
-            .bodyValue(reviewRequest)
-            .retrieve()
-            .bodyToMono(AiReviewResponse.class)
-            .timeout(Duration.ofMillis(aiConfig.getMcp().getTimeout()))
-            .map(response -> reviewSuggestionService.createSuggestionsFromAiResponse(pullRequest, response))
-            .onErrorResume(error -> {
-                System.err.println("AI Suggestions generation failed: " + error.getMessage());
-                return Mono.just(List.of());
-            });
+        return requestFindings("/api/review/suggestions", reviewRequest,
+                cacheKey(pullRequest, filesToReview, "suggestions", diffHash))
+            .buffer(Math.max(1, aiConfig.getStreaming().getBatchSize()))
+            .concatMapIterable(findings -> reviewSuggestionService.createSuggestionsFromFindings(pullRequest, findings));
     }
     
     public Mono<CodeReview> performFinalReview(PullRequest pullRequest, List<String> filesToReview) {
+        return performFinalReview(pullRequest, filesToReview, null);
+    }
+    
+    /**
+     * Final review of the files, served from the result cache when the same diff was reviewed before
+     *
+     * @param diffHash digest of the pull request's diff, or null to always call the endpoint
+     */
+    public Mono<CodeReview> performFinalReview(PullRequest pullRequest, List<String> filesToReview, String diffHash) {
         Map<String, Object> reviewRequest = Map.of(
             "pullRequestId", pullRequest.getId(),
             "title", pullRequest.getTitle(),
@@ -70,13 +114,8 @@ public class AiReviewService {
             "mode", "final-review"
         );
         
-        return aiWebClient
-            .post()
-            .uri("/api/review/final")
-            .bodyValue(reviewRequest)
-            .retrieve()
-            .bodyToMono(AiReviewResponse.class)
-            .timeout(Duration.ofMillis(aiConfig.getMcp().getTimeout()))
+        return requestReview("/api/review/final", reviewRequest,
+                cacheKey(pullRequest, filesToReview, "final-review", diffHash))
             .map(response -> mapToCodeReview(pullRequest, response))
             .onErrorResume(error -> {
                 CodeReview errorReview = new CodeReview();
@@ -90,6 +129,101 @@ public class AiReviewService {
             });
     }
     
+    /**
+     * Response of the endpoint, looked up in the result cache first when there is a key; only
+     * successful responses are stored
+     */
+    private Mono<AiReviewResponse> requestReview(String uri, Map<String, Object> reviewRequest, String cacheKey) {
+        Mono<AiReviewResponse> call = aiWebClient
+            .post()
+            .uri(uri)
+            // Reviews change nothing on the endpoint, so a failed one can be sent again
+            .attribute(AiConfiguration.IDEMPOTENT_ATTRIBUTE, true)
+            .bodyValue(reviewRequest)
+            .retrieve()
+            .bodyToMono(AiReviewResponse.class)
+            .timeout(Duration.ofMillis(aiConfig.getMcp().getTimeout()));
+        if (cacheKey == null) {
+            return call;
+        }
+        
+        return Mono.defer(() -> {
+            AiReviewResponse cached = resultCache.get(cacheKey);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return call.doOnNext(response -> resultCache.put(cacheKey, response));
+        });
+    }
+    
+    /**
+     * Findings of the endpoint, parsed as they arrive from NDJSON or from a JSON review; the timeout
+     * applies to the wait for each finding rather than to the whole response
+     * With a key, a cached response is replayed and a complete one is stored unless it has more findings
+     * than the cache keeps
+     */
+    private Flux<AiReviewResponse.Finding> requestFindings(String uri, Map<String, Object> reviewRequest,
+                                                           String cacheKey) {
+        long maxFindingBytes = aiConfig.getStreaming().getMaxFindingBytes();
+        Flux<AiReviewResponse.Finding> call = aiWebClient
+            .post()
+            .uri(uri)
+            .attribute(AiConfiguration.IDEMPOTENT_ATTRIBUTE, true)
+            .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON)
+            .bodyValue(reviewRequest)
+            .exchangeToFlux(response -> {
+                if (response.statusCode().isError()) {
+                    return response.createException().flatMapMany(Flux::error);
+                }
+                boolean ndjson = response.headers().contentType()
+                    .map(MediaType.APPLICATION_NDJSON::isCompatibleWith)
+                    .orElse(false);
+                return AiFindingsParser.parse(response.bodyToFlux(DataBuffer.class), ndjson, maxFindingBytes);
+            })
+            .timeout(Duration.ofMillis(aiConfig.getMcp().getTimeout()));
+        if (cacheKey == null) {
+            return call;
+        }
+        
+        int maxCachedFindings = aiConfig.getStreaming().getMaxCachedFindings();
+        return Flux.defer(() -> {
+            AiReviewResponse cached = resultCache.get(cacheKey);
+            if (cached != null) {
+                return Flux.fromIterable(cached.getFindings());
+            }
+            // Dropped once there are more findings than the cache keeps, so memory stays bounded
+            AtomicReference<List<AiReviewResponse.Finding>> findings = new AtomicReference<>(new ArrayList<>());
+            return call
+                .doOnNext(finding -> {
+                    List<AiReviewResponse.Finding> kept = findings.get();
+                    if (kept == null) {
+                        return;
+                    }
+                    if (kept.size() < maxCachedFindings) {
+                        kept.add(finding);
+                    } else {
+                        findings.set(null);
+                    }
+                })
+                .doOnComplete(() -> {
+                    List<AiReviewResponse.Finding> kept = findings.get();
+                    if (kept != null) {
+                        resultCache.put(cacheKey, new AiReviewResponse(null, null, null, kept));
+                    }
+                });
+        });
+    }
+    
+    private String cacheKey(PullRequest pullRequest, List<String> filesToReview, String mode, String diffHash) {
+        // Without the diff there is no telling whether the pull request changed since the last call
+        if (resultCache == null || diffHash == null || diffHash.isBlank()) {
+            return null;
+        }
+        AiConfiguration.Mcp mcp = aiConfig.getMcp();
+        return AiResponseCache.key(diffHash, pullRequest.getId(), pullRequest.getTitle(), pullRequest.getDescription(),
+            filesToReview, mode, mcp.getEndpoint(), mcp.getModelVersion());
+    }
+    
     @Deprecated
     public Mono<CodeReview> performAiReview(PullRequest pullRequest, List<String> filesToReview) {
         return performFinalReview(pullRequest, filesToReview);
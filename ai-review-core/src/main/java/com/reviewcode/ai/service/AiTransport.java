@@ -0,0 +1,290 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.AiConfiguration;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Makes calls to the AI endpoint survive its transient failures without piling onto it while it is
+ * down: idempotent requests are retried with exponential backoff and jitter after a connection error,
+ * a timeout or a throttled response, a circuit breaker fails every request fast while most recent
+ * ones failed, and a request slower than the recent 95th percentile can be hedged with a second one
+ * whose response is used if it comes first
+ * Runs before {@link AiConcurrencyLimiter}, so each attempt and hedge takes its own permit. A request
+ * is idempotent when its method is, or when it carries {@link AiConfiguration#IDEMPOTENT_ATTRIBUTE}
+ */
+@Component
+@Order(1)
+public class AiTransport implements ExchangeFilterFunction, MeterBinder {
+
+    /**
+     * The request was not sent because recent calls to the endpoint mostly failed
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    enum Outcome {
+        SUCCESS,
+        FAILURE,
+        THROTTLED,
+        CIRCUIT_OPEN,
+        LIMITED
+    }
+
+    private static final int LATENCY_WINDOW = 128;
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS =
+        Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.OPTIONS);
+
+    private final boolean enabled;
+    private final Duration attemptTimeout;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double jitter;
+    private final boolean hedging;
+    private final long minHedgeDelayNanos;
+    private final int minSamples;
+    private final CircuitBreaker breaker;
+    private final LongSupplier clock;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyNext;
+
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    @Autowired
+    public AiTransport(AiConfiguration aiConfiguration) {
+        this(aiConfiguration, System::nanoTime);
+    }
+
+    AiTransport(AiConfiguration aiConfiguration, LongSupplier clock) {
+        AiConfiguration.Transport config = aiConfiguration.getTransport();
+        this.enabled = config.isEnabled();
+        this.attemptTimeout = config.getAttemptTimeoutMillis() > 0 ? Duration.ofMillis(config.getAttemptTimeoutMillis()) : null;
+        this.maxRetries = Math.max(0, config.getRetry().getMaxRetries());
+        this.initialBackoff = Duration.ofMillis(Math.max(1, config.getRetry().getInitialBackoffMillis()));
+        this.maxBackoff = Duration.ofMillis(Math.max(initialBackoff.toMillis(), config.getRetry().getMaxBackoffMillis()));
+        this.jitter = Math.min(1.0, Math.max(0.0, config.getRetry().getJitter()));
+        this.hedging = config.getHedging().isEnabled();
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getHedging().getMinDelayMillis()));
+        this.minSamples = Math.min(LATENCY_WINDOW, Math.max(1, config.getHedging().getMinSamples()));
+        AiConfiguration.Transport.CircuitBreaker breakerConfig = config.getCircuitBreaker();
+        this.breaker = new CircuitBreaker(breakerConfig.getFailureRateThreshold(), breakerConfig.getSlidingWindowSize(),
+            breakerConfig.getMinimumCalls(), breakerConfig.getOpenMillis(), breakerConfig.getHalfOpenCalls(), clock);
+        this.clock = clock;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled) {
+            return next.exchange(request);
+        }
+        if (!isIdempotent(request)) {
+            return attempt(request, next, false);
+        }
+
+        Mono<ClientResponse> exchange = hedging ? hedged(request, next) : attempt(request, next, maxRetries > 0);
+        if (maxRetries == 0) {
+            return exchange;
+        }
+        return exchange.retryWhen(Retry.backoff(maxRetries, initialBackoff)
+            .maxBackoff(maxBackoff)
+            .jitter(jitter)
+            .filter(AiTransport::isTransient)
+            .doBeforeRetry(signal -> retries.increment())
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    CircuitBreaker.State circuitState() {
+        return breaker.state();
+    }
+
+    long calls(Outcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    long retries() {
+        return retries.sum();
+    }
+
+    long hedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    long hedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Outcome outcome : Outcome.values()) {
+            FunctionCounter.builder("ai.transport.calls", outcomes.get(outcome), LongAdder::sum)
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(registry);
+        }
+        FunctionCounter.builder("ai.transport.retries", retries, LongAdder::sum)
+            .register(registry);
+        FunctionCounter.builder("ai.transport.hedges", hedgesSent, LongAdder::sum)
+            .tag("result", "sent")
+            .register(registry);
+        FunctionCounter.builder("ai.transport.hedges", hedgesWon, LongAdder::sum)
+            .tag("result", "won")
+            .register(registry);
+        // 0 closed, 1 half open, 2 open
+        Gauge.builder("ai.transport.circuit.state", breaker, b -> b.state().ordinal())
+            .register(registry);
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            FunctionCounter.builder("ai.transport.circuit.transitions", breaker, b -> b.transitions(state))
+                .tag("state", state.name().toLowerCase())
+                .register(registry);
+        }
+    }
+
+    /**
+     * One attempt through the circuit breaker; with retried set, responses worth retrying become errors
+     */
+    private Mono<ClientResponse> attempt(ClientRequest request, ExchangeFunction next, boolean retried) {
+        return Mono.defer(() -> {
+            CircuitBreaker.Call call = breaker.tryCall();
+            if (call == null) {
+                outcomes.get(Outcome.CIRCUIT_OPEN).increment();
+                return Mono.error(new CircuitOpenException("AI endpoint circuit is open after repeated failures"));
+            }
+
+            long start = clock.getAsLong();
+            Mono<ClientResponse> exchange = attemptTimeout != null
+                ? next.exchange(request).timeout(attemptTimeout)
+                : next.exchange(request);
+            return exchange
+                .doOnError(error -> {
+                    if (error instanceof AiConcurrencyLimiter.LimitExceededException) {
+                        // Never sent, so it tells nothing about the endpoint
+                        call.ignore();
+                        outcomes.get(Outcome.LIMITED).increment();
+                    } else {
+                        call.failure();
+                        outcomes.get(Outcome.FAILURE).increment();
+                    }
+                })
+                .flatMap(response -> {
+                    int status = response.statusCode().value();
+                    if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                        call.ignore();
+                        outcomes.get(Outcome.THROTTLED).increment();
+                    } else if (response.statusCode().is5xxServerError()) {
+                        call.failure();
+                        outcomes.get(Outcome.FAILURE).increment();
+                    } else {
+                        call.success();
+                        outcomes.get(Outcome.SUCCESS).increment();
+                        recordLatency(clock.getAsLong() - start);
+                    }
+                    return retried && isRetryable(status)
+                        ? response.createException().flatMap(Mono::error)
+                        : Mono.just(response);
+                })
+                .doOnCancel(call::ignore);
+        });
+    }
+
+    /**
+     * The first attempt, raced against a second one sent once the first is slower than most recent
+     * calls; the second one's failures are left to the first
+     */
+    private Mono<ClientResponse> hedged(ClientRequest request, ExchangeFunction next) {
+        boolean retried = maxRetries > 0;
+        return Mono.defer(() -> {
+            Duration delay = hedgeDelay();
+            if (delay == null) {
+                return attempt(request, next, retried);
+            }
+
+            Mono<ClientResponse> hedge = Mono.delay(delay)
+                .doOnNext(tick -> hedgesSent.increment())
+                .then(attempt(request, next, retried))
+                .doOnNext(response -> hedgesWon.increment())
+                .onErrorResume(error -> Mono.never());
+            return Mono.firstWithSignal(attempt(request, next, retried), hedge)
+                .doOnDiscard(ClientResponse.class, response -> response.releaseBody().subscribe());
+        });
+    }
+
+    /**
+     * The 95th percentile of recent latencies, at least the minimum delay, or null until there are
+     * enough of them
+     */
+    private Duration hedgeDelay() {
+        long[] sorted;
+        synchronized (latencies) {
+            if (latencyCount < minSamples) {
+                return null;
+            }
+            sorted = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(sorted);
+        long p95 = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+        return Duration.ofNanos(Math.max(minHedgeDelayNanos, p95));
+    }
+
+    private void recordLatency(long nanos) {
+        synchronized (latencies) {
+            latencies[latencyNext] = nanos;
+            latencyNext = (latencyNext + 1) % latencies.length;
+            latencyCount = Math.min(latencyCount + 1, latencies.length);
+        }
+    }
+
+    private static boolean isIdempotent(ClientRequest request) {
+        return Boolean.TRUE.equals(request.attribute(AiConfiguration.IDEMPOTENT_ATTRIBUTE).orElse(null))
+            || IDEMPOTENT_METHODS.contains(request.method());
+    }
+
+    private static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return isRetryable(response.getStatusCode().value());
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == HttpStatus.TOO_MANY_REQUESTS.value()
+            || status == HttpStatus.BAD_GATEWAY.value()
+            || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+            || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+}
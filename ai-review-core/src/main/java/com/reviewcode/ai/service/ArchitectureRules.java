@@ -0,0 +1,802 @@
+package com.reviewcode.ai.service;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Rules shared by the architecture validation services, evaluated on the {@link TokenStream} of a file
+ * Each rule runs under the file's {@link RuleBudget}, charging one step per token it visits, and
+ * answers with the index of the token it flags, or -1 when the file is clean or the rule was aborted;
+ * rules on the shape of methods are lookups on the file's {@link SourceStructure}
+ */
+final class ArchitectureRules {
+
+    static final int MAX_METHOD_LINES = 20;
+    static final int MAX_PARAMETERS = 5;
+    // Control-flow blocks nested deeper than this are flagged
+    static final int MAX_NESTING = 3;
+
+    static final String MAGIC_NUMBER = "MAGIC_NUMBER";
+    static final String EMPTY_CATCH = "EMPTY_CATCH";
+    static final String STRING_CONCAT_LOOP = "STRING_CONCAT_LOOP";
+    static final String FIELD_INJECTION = "FIELD_INJECTION";
+    static final String HARD_DEPENDENCY = "HARD_DEPENDENCY";
+    static final String ENTITY_WITHOUT_ID = "ENTITY_WITHOUT_ID";
+    static final String ANEMIC_ENTITY = "ANEMIC_ENTITY";
+    static final String HARDCODED_SECRET = "HARDCODED_SECRET";
+    static final String SQL_INJECTION = "SQL_INJECTION";
+    static final String INSECURE_RANDOM = "INSECURE_RANDOM";
+    static final String WEAK_CRYPTO = "WEAK_CRYPTO";
+    static final String MISSING_VALIDATION = "MISSING_VALIDATION";
+    static final String EXPOSED_EXCEPTION = "EXPOSED_EXCEPTION";
+    static final String SELECT_ALL = "SELECT_ALL";
+    static final String EAGER_ONE_TO_MANY = "EAGER_ONE_TO_MANY";
+    static final String DUPLICATE_CODE = "DUPLICATE_CODE";
+    static final String DUPLICATE_ACROSS_FILES = "DUPLICATE_ACROSS_FILES";
+
+    // Keywords that can directly precede the name of a declared method or constructor
+    static final Set<String> DECLARATION_KEYWORDS = Set.of(
+        "void", "boolean", "byte", "char", "short", "int", "long", "float", "double",
+        "public", "protected", "private");
+    private static final Set<String> MODIFIERS = Set.of(
+        "public", "protected", "private", "static", "final", "transient", "volatile");
+    private static final Set<String> VAGUE_NAMES = Set.of(
+        "get", "set", "do", "handle", "process", "manage", "data", "info", "obj", "temp", "var");
+    private static final String[] SECRET_NAMES = {"password", "secret", "apikey", "token", "key"};
+    private static final String[] COLLABORATOR_SUFFIXES = {
+        "Service", "Repository", "Dao", "Client", "Gateway", "Sender", "Connection", "Database",
+        "Manager", "Provider"};
+    private static final String[] WEAK_ALGORITHMS = {
+        "DES", "RC4", "MD2", "MD5", "SHA1", "SHA-1", "HmacMD5", "HmacSHA1"};
+    private static final String[] SQL_STATEMENTS = {"select", "insert", "update", "delete"};
+    private static final String[] SQL_CLAUSES = {"from", "into", "set", "where"};
+    private static final int MIN_SECRET_LENGTH = 8;
+
+    private ArchitectureRules() {
+    }
+
+    /**
+     * Name of the longest method when it spans more than the given number of lines, brace to brace
+     */
+    static int longMethod(SourceStructure structure, int maxLines) {
+        SourceStructure.Method method = structure.longestMethod();
+        return method != null && method.lines() > maxLines ? method.name() : -1;
+    }
+
+    /**
+     * Name of the method or constructor declaring the most parameters when there are more than the given number
+     */
+    static int manyParameters(SourceStructure structure, int maxParameters) {
+        SourceStructure.Method method = structure.widestMethod();
+        return method != null && method.parameters() > maxParameters ? method.name() : -1;
+    }
+
+    /**
+     * First block of the most deeply nested method when it sits inside more than {@link #MAX_NESTING}
+     * if, loop, switch or try blocks
+     */
+    static int deepNesting(SourceStructure structure) {
+        SourceStructure.Method method = structure.deepestMethod();
+        return method != null && method.nesting() > MAX_NESTING ? method.deepestBlock() : -1;
+    }
+
+    /**
+     * Number literals other than 0 and 1 that neither initialise a final variable nor configure an annotation
+     */
+    static void forEachMagicNumber(TokenStream tokens, RuleBudget budget, IntConsumer action) {
+        budget.run(MAGIC_NUMBER, null, meter -> {
+            byte[] named = new byte[tokens.size()];
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.kind(i) == TokenStream.Kind.NUMBER && !isZeroOrOne(tokens, i)
+                    && !isNamedValue(tokens, i, named, meter)) {
+                    action.accept(i);
+                }
+            }
+            return null;
+        });
+    }
+
+    static int firstMagicNumber(TokenStream tokens, RuleBudget budget) {
+        int[] first = {-1};
+        forEachMagicNumber(tokens, budget, i -> {
+            if (first[0] < 0) {
+                first[0] = i;
+            }
+        });
+        return first[0];
+    }
+
+    /**
+     * First method named only by a vague verb or noun such as {@code process} or {@code data1}
+     */
+    static int poorNaming(TokenStream tokens, SourceStructure structure) {
+        for (SourceStructure.Method method : structure.methods()) {
+            if (isVagueName(tokens, method.name())) {
+                return method.name();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * First catch block without statements; comments do not count as handling the exception
+     */
+    static int emptyCatch(TokenStream tokens, RuleBudget budget) {
+        return budget.run(EMPTY_CATCH, -1, meter -> {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isKeyword(i, "catch") && tokens.isOperator(i + 1, '(')) {
+                    int body = tokens.pair(i + 1) + 1;
+                    if (body > 0 && tokens.isOperator(body, '{') && tokens.pair(body) == body + 1) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * First string variable grown with {@code +} or {@code +=} inside a loop body
+     * A variable counts as a string when it is declared as one in the file or the appended
+     * expression contains a string literal, so numeric accumulators are left alone
+     */
+    static int stringConcatInLoop(TokenStream tokens, RuleBudget budget) {
+        return budget.run(STRING_CONCAT_LOOP, -1, meter -> {
+            Set<String> stringVariables = new HashSet<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isIdentifier(i, "String") && tokens.kind(i + 1) == TokenStream.Kind.IDENTIFIER
+                    && !tokens.isOperator(i + 2, '(')) {
+                    stringVariables.add(tokens.text(i + 1));
+                }
+            }
+
+            int loopEnd = -1;
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.kind(i) == TokenStream.Kind.KEYWORD) {
+                    loopEnd = Math.max(loopEnd, loopBodyEnd(tokens, i));
+                } else if (i < loopEnd && tokens.kind(i) == TokenStream.Kind.IDENTIFIER
+                    && !tokens.isOperator(i - 1, '.')) {
+                    int appended = appendedExpression(tokens, i);
+                    if (appended >= 0 && (stringVariables.contains(tokens.text(i))
+                        || statementHasString(tokens, appended, meter))) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * First field annotated with {@code @Autowired}; constructor and setter injection are fine
+     */
+    static int fieldInjection(TokenStream tokens, RuleBudget budget) {
+        return budget.run(FIELD_INJECTION, -1, meter -> {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isAnnotation(i, "Autowired") && isFieldDeclaration(tokens, skipModifiers(tokens, i))) {
+                    return i;
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * First {@code new} of a collaborator such as a service, repository or client
+     */
+    static int hardDependency(TokenStream tokens, RuleBudget budget) {
+        return budget.run(HARD_DEPENDENCY, -1, meter -> {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isKeyword(i, "new")) {
+                    int type = qualifiedNameEnd(tokens, i + 1);
+                    if (type >= 0 && (tokens.isOperator(type + 1, '(') || tokens.isOperator(type + 1, '<'))
+                        && endsWithAny(tokens, type, COLLABORATOR_SUFFIXES)) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * The {@code @Entity} annotation of a file that declares no {@code @Id} or {@code @EmbeddedId}
+     */
+    static int entityWithoutId(TokenStream tokens, RuleBudget budget) {
+        return budget.run(ENTITY_WITHOUT_ID, -1, meter -> {
+            int entity = -1;
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isAnnotation(i, "Id") || tokens.isAnnotation(i, "EmbeddedId")) {
+                    return -1;
+                }
+                if (entity < 0 && tokens.isAnnotation(i, "Entity")) {
+                    entity = i;
+                }
+            }
+            return entity;
+        });
+    }
+
+    /**
+     * The {@code @Entity} annotation of a file without public members that only reads and writes state
+     */
+    static int anemicEntity(TokenStream tokens, RuleBudget budget) {
+        return budget.run(ANEMIC_ENTITY, -1, meter -> {
+            int entity = -1;
+            boolean getter = false;
+            boolean setter = false;
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isKeyword(i, "public")) {
+                    return -1;
+                }
+                if (entity < 0 && tokens.isAnnotation(i, "Entity")) {
+                    entity = i;
+                } else if (tokens.kind(i) == TokenStream.Kind.IDENTIFIER) {
+                    getter |= startsWith(tokens, i, "get");
+                    setter |= startsWith(tokens, i, "set");
+                }
+            }
+            return getter && setter ? entity : -1;
+        });
+    }
+
+    /**
+     * String literals of at least eight characters assigned to, or passed to a setter of, a name that
+     * suggests a credential; the action receives the index of the literal
+     */
+    static void forEachHardcodedSecret(TokenStream tokens, RuleBudget budget, IntConsumer action) {
+        budget.run(HARDCODED_SECRET, null, meter -> {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.kind(i) == TokenStream.Kind.IDENTIFIER && containsAny(tokens, i, SECRET_NAMES)
+                    && tokens.kind(i + 2) == TokenStream.Kind.STRING && isSecretValue(tokens, i + 2)) {
+                    if (tokens.isOperator(i + 1, '=')
+                        || (tokens.isOperator(i + 1, '(') && tokens.isOperator(i + 3, ')') && !startsWith(tokens, i, "get"))) {
+                        action.accept(i + 2);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    static int firstHardcodedSecret(TokenStream tokens, RuleBudget budget) {
+        int[] first = {-1};
+        forEachHardcodedSecret(tokens, budget, i -> {
+            if (first[0] < 0) {
+                first[0] = i;
+            }
+        });
+        return first[0];
+    }
+
+    /**
+     * Source of a hardcoded secret, from the name it is bound to up to the literal or the closing parenthesis
+     */
+    static String secretSnippet(TokenStream tokens, int literal) {
+        return tokens.text(literal - 2, tokens.isOperator(literal - 1, '(') ? literal + 1 : literal);
+    }
+
+    /**
+     * First SQL statement literal concatenated with something other than another literal
+     */
+    static int sqlInjection(TokenStream tokens, RuleBudget budget) {
+        return budget.run(SQL_INJECTION, -1, meter -> {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.kind(i) == TokenStream.Kind.STRING && isSqlStatement(tokens, i)
+                    && (isConcatenatedWithExpression(tokens, i + 1, i + 2)
+                        || isConcatenatedWithExpression(tokens, i - 1, i - 2))) {
+                    return i;
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * First {@code new Random(...)}; {@code SecureRandom} and other generators are fine
+     */
+    static int insecureRandom(TokenStream tokens, RuleBudget budget) {
+        return budget.run(INSECURE_RANDOM, -1, meter -> {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isKeyword(i, "new")) {
+                    int type = qualifiedNameEnd(tokens, i + 1);
+                    if (type >= 0 && tokens.is(type, "Random") && tokens.isOperator(type + 1, '(')) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * First string literal naming a broken cipher or digest, alone or as the algorithm of a transformation
+     */
+    static int weakCrypto(TokenStream tokens, RuleBudget budget) {
+        return budget.run(WEAK_CRYPTO, -1, meter -> {
+            String text = tokens.source().text();
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.kind(i) != TokenStream.Kind.STRING) {
+                    continue;
+                }
+                int start = tokens.contentStart(i);
+                int end = tokens.contentEnd(i);
+                int slash = text.indexOf('/', start, end);
+                int algorithmEnd = slash >= 0 ? slash : end;
+                for (String algorithm : WEAK_ALGORITHMS) {
+                    if (algorithm.length() == algorithmEnd - start
+                        && text.regionMatches(true, start, algorithm, 0, algorithm.length())) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * First {@code @RequestBody} parameter not also annotated with {@code @Valid} or {@code @Validated}
+     */
+    static int missingValidation(TokenStream tokens, RuleBudget budget) {
+        return budget.run(MISSING_VALIDATION, -1, meter -> {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isAnnotation(i, "RequestBody") && !isValidated(tokens, i)) {
+                    return i;
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * First call of {@code printStackTrace()} or {@code getMessage()}
+     */
+    static int exposedException(TokenStream tokens, RuleBudget budget) {
+        return budget.run(EXPOSED_EXCEPTION, -1, meter -> {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if ((tokens.isIdentifier(i, "printStackTrace") || tokens.isIdentifier(i, "getMessage"))
+                    && tokens.isOperator(i + 1, '(') && tokens.isOperator(i + 2, ')')) {
+                    return i;
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * First string literal containing a {@code SELECT * FROM} query, in any case and spacing
+     */
+    static int selectAll(TokenStream tokens, RuleBudget budget) {
+        return budget.run(SELECT_ALL, -1, meter -> {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.kind(i) == TokenStream.Kind.STRING && containsSelectAll(tokens, i)) {
+                    return i;
+                }
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * First {@code @OneToMany} fetched eagerly: explicitly, or in a file that never asks for lazy fetching
+     */
+    static int eagerOneToMany(TokenStream tokens, RuleBudget budget) {
+        return budget.run(EAGER_ONE_TO_MANY, -1, meter -> {
+            int first = -1;
+            boolean lazy = false;
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isAnnotation(i, "OneToMany")) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    int close = tokens.pair(i + 2);
+                    for (int k = i + 3; k < close; k++) {
+                        if (tokens.isIdentifier(k, "EAGER")) {
+                            return i;
+                        }
+                    }
+                } else if (tokens.isIdentifier(i, "LAZY")) {
+                    lazy = true;
+                }
+            }
+            return lazy ? -1 : first;
+        });
+    }
+
+    private static boolean isZeroOrOne(TokenStream tokens, int i) {
+        String text = tokens.source().text();
+        int start = tokens.start(i);
+        int end = tokens.end(i);
+        if (end - start > 1 && "lLfFdD".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        int k = start;
+        while (k < end && text.charAt(k) == '0') {
+            k++;
+        }
+        if (k < end && text.charAt(k) == '1') {
+            k++;
+        }
+        if (k < end && text.charAt(k) == '.') {
+            k++;
+            while (k < end && text.charAt(k) == '0') {
+                k++;
+            }
+        }
+        return k == end;
+    }
+
+    /**
+     * Whether the number initialises a final variable or is an annotation argument, found by walking
+     * back to the start of its statement
+     * The answer of every walk is kept for each token it passed, so later numbers of the same
+     * statement, such as the entries of a data table, stop where an earlier walk already went
+     *
+     * @param named per token, 0 until a walk passed it, then 1 for false or 2 for true
+     */
+    private static boolean isNamedValue(TokenStream tokens, int number, byte[] named, RuleBudget.Meter meter) {
+        int from = number - 1;
+        boolean result = false;
+        int k = from;
+        for (; k >= 0; k--) {
+            meter.step();
+            if (named[k] != 0) {
+                result = named[k] == 2;
+                break;
+            }
+            if (tokens.isOperator(k, ')') || tokens.isOperator(k, ']')) {
+                int open = tokens.pair(k);
+                if (open < 0) {
+                    break;
+                }
+                k = open;
+            } else if (tokens.isOperator(k, '}')) {
+                // Earlier rows of an array initialiser are part of the same declaration
+                int open = tokens.pair(k);
+                if (open < 0 || !isInitializerBrace(tokens, open)) {
+                    break;
+                }
+                k = open;
+            } else if (tokens.isOperator(k, '(')) {
+                if (isAnnotationArguments(tokens, k)) {
+                    result = true;
+                    break;
+                }
+            } else if (tokens.isOperator(k, '{')) {
+                if (!isInitializerBrace(tokens, k)) {
+                    break;
+                }
+            } else if (tokens.isOperator(k, ';')) {
+                break;
+            } else if (tokens.isKeyword(k, "final")) {
+                result = true;
+                break;
+            }
+        }
+
+        byte answer = result ? (byte) 2 : (byte) 1;
+        for (int j = from; j > k && j >= 0; j--) {
+            named[j] = answer;
+        }
+        return result;
+    }
+
+    /**
+     * Whether the brace opens an array initialiser, which belongs to the declaration it starts in
+     */
+    private static boolean isInitializerBrace(TokenStream tokens, int open) {
+        return tokens.isOperator(open - 1, '=') || tokens.isOperator(open - 1, ']')
+            || tokens.isOperator(open - 1, ',') || tokens.isOperator(open - 1, '{');
+    }
+
+    private static boolean isAnnotationArguments(TokenStream tokens, int open) {
+        int name = open - 1;
+        while (tokens.kind(name) == TokenStream.Kind.IDENTIFIER && tokens.isOperator(name - 1, '.')) {
+            name -= 2;
+        }
+        return tokens.kind(name) == TokenStream.Kind.IDENTIFIER && tokens.isOperator(name - 1, '@');
+    }
+
+    private static boolean isVagueName(TokenStream tokens, int i) {
+        String name = tokens.text(i);
+        int end = name.length();
+        while (end > 0 && Character.isDigit(name.charAt(end - 1))) {
+            end--;
+        }
+        return VAGUE_NAMES.contains(name.substring(0, end));
+    }
+
+    /**
+     * Index just past the body of the loop started by the keyword, or -1 if it does not start a loop
+     */
+    private static int loopBodyEnd(TokenStream tokens, int keyword) {
+        int body;
+        if (tokens.isKeyword(keyword, "do")) {
+            body = keyword + 1;
+        } else if ((tokens.isKeyword(keyword, "for") || tokens.isKeyword(keyword, "while"))
+            && tokens.isOperator(keyword + 1, '(')) {
+            body = tokens.pair(keyword + 1) + 1;
+            if (body == 0) {
+                return -1;
+            }
+        } else {
+            return -1;
+        }
+        if (tokens.isOperator(body, '{')) {
+            return tokens.pair(body);
+        }
+        return statementEnd(tokens, body);
+    }
+
+    private static int statementEnd(TokenStream tokens, int from) {
+        for (int k = from; k < tokens.size(); k++) {
+            if (tokens.isOperator(k, ';') || tokens.isOperator(k, '}')) {
+                return k;
+            }
+            if (tokens.isOperator(k, '(') || tokens.isOperator(k, '[') || tokens.isOperator(k, '{')) {
+                k = tokens.pair(k);
+                if (k < 0) {
+                    return tokens.size();
+                }
+            }
+        }
+        return tokens.size();
+    }
+
+    /**
+     * Index where the expression appended to the variable starts, for {@code s += e} and
+     * {@code s = s + e}; -1 for any other statement
+     */
+    private static int appendedExpression(TokenStream tokens, int variable) {
+        if (tokens.isOperator(variable + 1, "+=")) {
+            return variable + 2;
+        }
+        if (tokens.isOperator(variable + 1, '=') && tokens.kind(variable + 2) == TokenStream.Kind.IDENTIFIER
+            && tokens.text(variable).equals(tokens.text(variable + 2)) && tokens.isOperator(variable + 3, '+')) {
+            return variable + 4;
+        }
+        return -1;
+    }
+
+    private static boolean statementHasString(TokenStream tokens, int from, RuleBudget.Meter meter) {
+        for (int k = from; k < tokens.size() && !tokens.isOperator(k, ';'); k++) {
+            meter.step();
+            if (tokens.kind(k) == TokenStream.Kind.STRING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Index of the first token after the annotation at the index and any annotations and modifiers following it
+     */
+    private static int skipModifiers(TokenStream tokens, int annotation) {
+        int k = annotation;
+        while (true) {
+            if (tokens.isOperator(k, '@') && tokens.kind(k + 1) == TokenStream.Kind.IDENTIFIER) {
+                k = qualifiedNameEnd(tokens, k + 1) + 1;
+                if (tokens.isOperator(k, '(')) {
+                    k = tokens.pair(k) + 1;
+                    if (k == 0) {
+                        return -1;
+                    }
+                }
+            } else if (tokens.kind(k) == TokenStream.Kind.KEYWORD && MODIFIERS.contains(tokens.text(k))) {
+                k++;
+            } else {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Whether a field is declared at the index: a type, a name, then {@code ;}, {@code =} or {@code ,}
+     */
+    private static boolean isFieldDeclaration(TokenStream tokens, int type) {
+        int k;
+        if (tokens.kind(type) == TokenStream.Kind.IDENTIFIER) {
+            k = qualifiedNameEnd(tokens, type) + 1;
+        } else if (tokens.kind(type) == TokenStream.Kind.KEYWORD && DECLARATION_KEYWORDS.contains(tokens.text(type))) {
+            k = type + 1;
+        } else {
+            return false;
+        }
+        if (tokens.isOperator(k, '<')) {
+            int depth = 0;
+            for (; k < tokens.size(); k++) {
+                if (tokens.isOperator(k, '<')) {
+                    depth++;
+                } else if (tokens.isOperator(k, '>') && --depth == 0) {
+                    break;
+                } else if (tokens.isOperator(k, ';') || tokens.isOperator(k, '(') || tokens.isOperator(k, '{')) {
+                    return false;
+                }
+            }
+            k++;
+        }
+        while (tokens.isOperator(k, '[') && tokens.isOperator(k + 1, ']')) {
+            k += 2;
+        }
+        return tokens.kind(k) == TokenStream.Kind.IDENTIFIER
+            && (tokens.isOperator(k + 1, ';') || tokens.isOperator(k + 1, '=') || tokens.isOperator(k + 1, ','));
+    }
+
+    /**
+     * Index of the last identifier of a dotted name starting at the index, or -1 if no name starts there
+     */
+    private static int qualifiedNameEnd(TokenStream tokens, int start) {
+        if (tokens.kind(start) != TokenStream.Kind.IDENTIFIER) {
+            return -1;
+        }
+        int k = start;
+        while (tokens.isOperator(k + 1, '.') && tokens.kind(k + 2) == TokenStream.Kind.IDENTIFIER) {
+            k += 2;
+        }
+        return k;
+    }
+
+    private static boolean isValidated(TokenStream tokens, int requestBody) {
+        // Annotations written before @RequestBody on the same parameter
+        int k = requestBody - 1;
+        while (k >= 0) {
+            if (tokens.isOperator(k, ')')) {
+                k = tokens.pair(k) - 1;
+            }
+            if (tokens.kind(k) != TokenStream.Kind.IDENTIFIER || !tokens.isOperator(k - 1, '@')) {
+                break;
+            }
+            if (tokens.is(k, "Valid") || tokens.is(k, "Validated")) {
+                return true;
+            }
+            k -= 2;
+        }
+
+        // And those written after it
+        k = requestBody;
+        while (tokens.isOperator(k, '@') && tokens.kind(k + 1) == TokenStream.Kind.IDENTIFIER) {
+            if (tokens.is(k + 1, "Valid") || tokens.is(k + 1, "Validated")) {
+                return true;
+            }
+            k += 2;
+            if (tokens.isOperator(k, '(')) {
+                k = tokens.pair(k) + 1;
+                if (k == 0) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSecretValue(TokenStream tokens, int literal) {
+        String text = tokens.source().text();
+        int start = tokens.contentStart(literal);
+        int end = tokens.contentEnd(literal);
+        if (end - start < MIN_SECRET_LENGTH) {
+            return false;
+        }
+        for (int k = start; k < end; k++) {
+            char ch = text.charAt(k);
+            if (ch == '"' || ch == '\'') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the literal starts a SQL statement such as {@code SELECT ... FROM} or {@code UPDATE ... SET}
+     */
+    private static boolean isSqlStatement(TokenStream tokens, int literal) {
+        String text = tokens.source().text();
+        int start = tokens.contentStart(literal);
+        int end = tokens.contentEnd(literal);
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+
+        boolean statement = false;
+        for (String keyword : SQL_STATEMENTS) {
+            statement |= isWordAt(text, start, end, keyword);
+        }
+        if (!statement) {
+            return false;
+        }
+        for (int k = start + 6; k < end; k++) {
+            for (String clause : SQL_CLAUSES) {
+                if (isWordAt(text, k, end, clause)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isConcatenatedWithExpression(TokenStream tokens, int operator, int operand) {
+        return tokens.isOperator(operator, '+') && tokens.kind(operand) != null
+            && tokens.kind(operand) != TokenStream.Kind.STRING;
+    }
+
+    private static boolean containsSelectAll(TokenStream tokens, int literal) {
+        String text = tokens.source().text();
+        int start = tokens.contentStart(literal);
+        int end = tokens.contentEnd(literal);
+        for (int k = start; k < end; k++) {
+            if (!isWordAt(text, k, end, "select")) {
+                continue;
+            }
+            int star = skipWhitespace(text, k + 6, end);
+            if (star < end && text.charAt(star) == '*' && isWordAt(text, skipWhitespace(text, star + 1, end), end, "from")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipWhitespace(String text, int from, int end) {
+        while (from < end && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Whether the word occurs at the offset, in any case and not as part of a longer word
+     */
+    private static boolean isWordAt(String text, int offset, int end, String word) {
+        int wordEnd = offset + word.length();
+        return wordEnd <= end
+            && text.regionMatches(true, offset, word, 0, word.length())
+            && (offset == 0 || !Character.isLetterOrDigit(text.charAt(offset - 1)))
+            && (wordEnd == end || !Character.isLetterOrDigit(text.charAt(wordEnd)));
+    }
+
+    private static boolean containsAny(TokenStream tokens, int i, String[] words) {
+        String text = tokens.source().text();
+        int start = tokens.start(i);
+        int end = tokens.end(i);
+        for (String word : words) {
+            for (int k = start; k + word.length() <= end; k++) {
+                if (text.regionMatches(true, k, word, 0, word.length())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean endsWithAny(TokenStream tokens, int i, String[] suffixes) {
+        String text = tokens.source().text();
+        int end = tokens.end(i);
+        for (String suffix : suffixes) {
+            int start = end - suffix.length();
+            if (start >= tokens.start(i) && text.startsWith(suffix, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(TokenStream tokens, int i, String prefix) {
+        return tokens.end(i) - tokens.start(i) >= prefix.length()
+            && tokens.source().text().startsWith(prefix, tokens.start(i));
+    }
+}
@@ -1,376 +1,633 @@
 package com.reviewcode.ai.service;
 
+import com.reviewcode.ai.config.AiConfiguration;
 import com.reviewcode.ai.model.ReviewFinding;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
-import java.util.stream.Collectors;
-import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class ArchitectureValidationService {
     
-    // Enhanced regex patterns for better detection
-    private static final Pattern LONG_METHOD_PATTERN = Pattern.compile("(?s)public\\s+\\w+[^{]*\\{([^{}]*\\{[^{}]*\\}[^{}]*)*[^{}]*\\}");
-    private static final Pattern MANY_PARAMETERS_PATTERN = Pattern.compile("\\([^)]*,.*,.*,.*,.*,.*[^)]*\\)");
-    private static final Pattern HARDCODED_SECRET_PATTERN = Pattern.compile("(?i)(password|secret|apikey|token|key)\\s*[=:]\\s*[\"'][^\"']{8,}[\"']");
-    private static final Pattern FIELD_INJECTION_PATTERN = Pattern.compile("@Autowired\\s+private");
-    private static final Pattern SELECT_ALL_PATTERN = Pattern.compile("(?i)select\\s+\\*\\s+from");
-    
-    // New patterns for enhanced detection
-    private static final Pattern DEEP_NESTING_PATTERN = Pattern.compile("(?s)if\\s*\\([^{]*\\{[^{}]*if\\s*\\([^{]*\\{[^{}]*if\\s*\\([^{]*\\{[^{}]*if\\s*\\(");
-    private static final Pattern MAGIC_NUMBER_PATTERN = Pattern.compile("\\b(?<!\\.)(?:(?:[2-9]|[1-9][0-9]+)(?:\\.[0-9]+)?)\\b(?!\\s*[)}]|\\s*;\\s*//)");
-    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile("(?i)(select|insert|update|delete).*\\+.*[\"'].*[\"']");
-    private static final Pattern POOR_NAMING_PATTERN = Pattern.compile("(?:public|private|protected)\\s+\\w+\\s+(get|set|do|handle|process|manage|data|info|obj|temp|var)\\d*\\s*\\(");
-    private static final Pattern EMPTY_CATCH_PATTERN = Pattern.compile("catch\\s*\\([^)]*\\)\\s*\\{\\s*(?://.*)?\\s*\\}");
-    private static final Pattern INSECURE_RANDOM_PATTERN = Pattern.compile("new\\s+Random\\s*\\(");
-    private static final Pattern WEAK_CRYPTO_PATTERN = Pattern.compile("(?i)(DES|MD5|SHA1)[\"']|getInstance\\s*\\(\\s*[\"'](DES|MD5|SHA1)[\"']");
-    private static final Pattern MISSING_VALIDATION_PATTERN = Pattern.compile("@RequestBody\\s+(?!@Valid)\\w+");
-    private static final Pattern EXPOSED_EXCEPTION_PATTERN = Pattern.compile("(?:printStackTrace|getMessage)\\(\\)");
-    private static final Pattern STRING_CONCAT_LOOP_PATTERN = Pattern.compile("(?s)for\\s*\\([^{]*\\{[^{}]*\\w+\\s*\\+=?\\s*\\w+\\s*\\+");
+    /**
+     * A file skipped before validation, with the name of the reason
+     */
+    public record SkippedFile(String fileName, String reason) {
+    }
+    
+    static final String RULE_ABORTED = "ARCH_RULE_ABORTED";
+    
+    // Skipped files listed by getSkippedFiles; older ones are only counted
+    static final int MAX_SKIPPED_FILES = 1000;
+    
+    private static final FindingTemplate ABORTED = new FindingTemplate(RULE_ABORTED,
+        ReviewFinding.FindingType.MAINTAINABILITY, ReviewFinding.Severity.INFO, "Rule aborted",
+        "The file could not be fully analysed. Minified or generated files can be excluded with review.patterns.ignore-files.",
+        "Rule aborted");
+    
+    // Clean Code
+    private static final FindingTemplate LONG_METHOD = FindingTemplate.of(
+        ReviewFinding.FindingType.KISS_VIOLATION, ReviewFinding.Severity.MEDIUM,
+        "Method appears to be too long",
+        "Break down long methods into smaller, focused methods. Each method should do one thing well.",
+        "Long method detected");
+    private static final FindingTemplate MANY_PARAMETERS = FindingTemplate.of(
+        ReviewFinding.FindingType.BEST_PRACTICE, ReviewFinding.Severity.MEDIUM,
+        "Method has too many parameters",
+        "Consider using a parameter object or builder pattern to reduce parameter count.",
+        "Method with many parameters");
+    private static final FindingTemplate DEEP_NESTING = FindingTemplate.of(
+        ReviewFinding.FindingType.KISS_VIOLATION, ReviewFinding.Severity.HIGH,
+        "Deep nesting detected (4+ levels)",
+        "Avoid deep nesting. Use guard clauses, early returns, or extract methods.",
+        "Deep nesting violation");
+    private static final FindingTemplate MAGIC_NUMBER = FindingTemplate.of(
+        ReviewFinding.FindingType.BEST_PRACTICE, ReviewFinding.Severity.MEDIUM,
+        "Magic number detected",
+        "Extract magic numbers to named constants for better readability.",
+        null);
+    private static final FindingTemplate POOR_NAMING = FindingTemplate.of(
+        ReviewFinding.FindingType.BEST_PRACTICE, ReviewFinding.Severity.MEDIUM,
+        "Poor naming convention detected",
+        "Use descriptive method names that clearly indicate their purpose.",
+        "Vague method names");
+    private static final FindingTemplate STRING_CONCAT_LOOP = FindingTemplate.of(
+        ReviewFinding.FindingType.PERFORMANCE, ReviewFinding.Severity.MEDIUM,
+        "String concatenation in loop detected",
+        "Use StringBuilder for efficient string concatenation in loops.",
+        "Inefficient string concatenation");
+    private static final FindingTemplate DUPLICATE_CODE = FindingTemplate.of(
+        ReviewFinding.FindingType.DRY_VIOLATION, ReviewFinding.Severity.HIGH,
+        "Duplicate code block detected",
+        "Extract duplicate code into a reusable method to follow DRY principle.",
+        null);
+    private static final FindingTemplate DUPLICATE_ACROSS_FILES = FindingTemplate.of(
+        ReviewFinding.FindingType.DRY_VIOLATION, ReviewFinding.Severity.HIGH,
+        "Duplicate code block detected",
+        "Extract code shared between files into a common class or method to follow DRY principle.",
+        null);
+    
+    // SOLID
+    private static final FindingTemplate FIELD_INJECTION = FindingTemplate.of(
+        ReviewFinding.FindingType.DEPENDENCY_INJECTION, ReviewFinding.Severity.MEDIUM,
+        "Field injection detected",
+        "Use constructor injection instead of field injection for better testability and immutability.",
+        "@Autowired field injection");
+    private static final FindingTemplate LARGE_CLASS = FindingTemplate.of(
+        ReviewFinding.FindingType.SOLID_PRINCIPLES, ReviewFinding.Severity.HIGH,
+        "Class is too large",
+        "Large classes often violate Single Responsibility Principle. Consider breaking into smaller, focused classes.",
+        "Large class detected");
+    private static final FindingTemplate HARD_DEPENDENCY = FindingTemplate.of(
+        ReviewFinding.FindingType.DEPENDENCY_INJECTION, ReviewFinding.Severity.MEDIUM,
+        "Potential hard dependency detected",
+        "Avoid creating dependencies with 'new'. Use dependency injection instead.",
+        "Hard dependency creation");
+    
+    // DDD
+    private static final FindingTemplate ENTITY_WITHOUT_ID = FindingTemplate.of(
+        ReviewFinding.FindingType.DDD_AGGREGATE, ReviewFinding.Severity.HIGH,
+        "Entity missing @Id annotation",
+        "Domain entities must have identity. Add @Id annotation to the identifier field.",
+        "@Entity without @Id");
+    private static final FindingTemplate ANEMIC_ENTITY = FindingTemplate.of(
+        ReviewFinding.FindingType.DDD_DOMAIN_SERVICE, ReviewFinding.Severity.MEDIUM,
+        "Potential anemic domain model",
+        "Domain entities should contain business logic, not just getters/setters. Consider adding domain methods.",
+        "Mostly getters/setters");
+    
+    // Performance & Security
+    private static final FindingTemplate HARDCODED_SECRET = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.CRITICAL,
+        "Hardcoded secret detected",
+        "Never hardcode passwords, API keys, or secrets. Use configuration properties or environment variables.",
+        "Hardcoded secret");
+    private static final FindingTemplate SQL_INJECTION = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.CRITICAL,
+        "Potential SQL injection vulnerability",
+        "Use parameterized queries or prepared statements instead of string concatenation.",
+        "SQL injection risk");
+    private static final FindingTemplate INSECURE_RANDOM = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.HIGH,
+        "Insecure random number generation",
+        "Use SecureRandom instead of Random for security-sensitive operations.",
+        "Insecure Random usage");
+    private static final FindingTemplate WEAK_CRYPTO = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.HIGH,
+        "Weak cryptographic algorithm detected",
+        "Use strong cryptographic algorithms like AES, SHA-256, or SHA-3.",
+        "Weak cryptography");
+    private static final FindingTemplate MISSING_VALIDATION = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.MEDIUM,
+        "Missing input validation",
+        "Add @Valid annotation to validate input data automatically.",
+        "Missing validation");
+    private static final FindingTemplate EXPOSED_EXCEPTION = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.MEDIUM,
+        "Exception information exposure",
+        "Avoid exposing internal exception details to clients.",
+        "Information disclosure");
+    private static final FindingTemplate EMPTY_CATCH = FindingTemplate.of(
+        ReviewFinding.FindingType.BEST_PRACTICE, ReviewFinding.Severity.HIGH,
+        "Empty catch block detected",
+        "Handle exceptions properly or at least log them for debugging.",
+        "Empty exception handling");
+    private static final FindingTemplate SELECT_ALL = FindingTemplate.of(
+        ReviewFinding.FindingType.PERFORMANCE, ReviewFinding.Severity.MEDIUM,
+        "SELECT * query detected",
+        "Avoid SELECT * queries. Specify only the required columns for better performance.",
+        "SELECT * query");
+    private static final FindingTemplate EAGER_ONE_TO_MANY = FindingTemplate.of(
+        ReviewFinding.FindingType.PERFORMANCE, ReviewFinding.Severity.MEDIUM,
+        "Potential N+1 query problem",
+        "Use LAZY loading for @OneToMany relationships to avoid N+1 query problems.",
+        "@OneToMany without LAZY loading");
+    
+    private final Map<String, LongAdder> abortedRules = new ConcurrentHashMap<>();
+    private final Map<FileClassifier.Reason, LongAdder> skippedFiles = new ConcurrentHashMap<>();
+    private final Deque<SkippedFile> recentSkippedFiles = new ArrayDeque<>();
+    private RuleCosts ruleCosts = new RuleCosts();
+    private MeterRegistry meterRegistry;
+    private FindingsCache findingsCache;
+    private FileClassifier fileClassifier;
+    
+    /**
+     * Account rule costs in the one shared by every validation service, which is bound to the registry as a bean
+     */
+    @Autowired
+    void setRuleCosts(RuleCosts ruleCosts) {
+        this.ruleCosts = ruleCosts;
+    }
+    
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        if (findingsCache != null) {
+            findingsCache.bindTo(meterRegistry);
+        }
+    }
+    
+    /**
+     * Serve files validated before, unchanged and under the same rules, from the cache
+     */
+    void setFindingsCache(FindingsCache findingsCache) {
+        this.findingsCache = findingsCache;
+        if (meterRegistry != null) {
+            findingsCache.bindTo(meterRegistry);
+        }
+    }
+    
+    /**
+     * Skip binary, minified, generated, vendored and oversized files as configured under ai.review
+     */
+    @Autowired(required = false)
+    public void setAiConfiguration(AiConfiguration aiConfiguration) {
+        setFileClassifier(FileClassifier.of(aiConfiguration.getReview()));
+    }
+    
+    void setFileClassifier(FileClassifier fileClassifier) {
+        this.fileClassifier = fileClassifier;
+    }
     
     public List<ReviewFinding> validateArchitecturalPrinciples(String fileName, String code) {
+        if (isSkipped(fileName, code)) {
+            return new ArrayList<>();
+        }
+        return validateCached(fileName, SourceText.of(code));
+    }
+    
+    /**
+     * Validate all files of one review, additionally reporting code copied from one file to another
+     * Files are compared in iteration order, so pass an ordered map to get stable findings
+     */
+    public List<ReviewFinding> validateArchitecturalPrinciples(Map<String, String> filesByName) {
+        List<ReviewFinding> findings = new ArrayList<>();
+        
+        // Index the lines of each file once for both the per-file and the cross-file rules
+        Map<String, SourceText> sources = new LinkedHashMap<>();
+        filesByName.forEach((fileName, code) -> {
+            if (!isSkipped(fileName, code)) {
+                sources.put(fileName, SourceText.of(code));
+            }
+        });
+        
+        sources.forEach((fileName, source) -> 
+            findings.addAll(validateCached(fileName, source)));
+        
+        findings.addAll(validateDuplicationAcrossFiles(sources));
+        
+        return findings;
+    }
+    
+    /**
+     * Validate only what a change touched: line-local rules run on the changed lines plus a few lines
+     * of context, method and class rules on the methods and classes the change reaches, and whole-file
+     * rules only when the file changed at all; findings are tagged as introduced or pre-existing
+     */
+    public List<ReviewFinding> validateChangedLines(String fileName, String code, ChangedLines changes) {
+        if (changes.isEmpty() || isSkipped(fileName, code)) {
+            return new ArrayList<>();
+        }
+        return validateSource(fileName, SourceText.of(code), changes);
+    }
+    
+    /**
+     * Validate the new versions of the files of a unified diff, each only where the diff changed it
+     * Files the diff does not touch are skipped, and so is duplication across files, which needs every
+     * file of the review in full
+     */
+    public List<ReviewFinding> validateDiff(Map<String, String> filesByName, String unifiedDiff) {
         List<ReviewFinding> findings = new ArrayList<>();
+        Map<String, ChangedLines> changesByFile = ChangedLines.parseUnifiedDiff(unifiedDiff);
+        
+        filesByName.forEach((fileName, code) -> {
+            ChangedLines changes = changesByFile.get(fileName);
+            if (changes != null) {
+                findings.addAll(validateChangedLines(fileName, code, changes));
+            }
+        });
+        
+        return findings;
+    }
+    
+    /**
+     * @param changes the changed lines to validate, or null for the whole file
+     */
+    protected List<ReviewFinding> validateSource(String fileName, SourceText source, ChangedLines changes) {
+        List<FindingTemplate.Hit> hits = new ArrayList<>();
+        
+        // Lex and index the file once; every rule of the file's language walks the same tokens and
+        // structure under one budget
+        RuleBudget budget = RuleBudget.startDefault()
+            .limitedTo(RulePack.rulesFor(fileName))
+            .observedBy(ruleCosts.forFile(fileName, source.text().length(), null));
+        ValidationScope scope = ValidationScope.of(source, changes, budget);
         
         // Clean Code Principles
-        findings.addAll(validateCleanCodePrinciples(fileName, code));
+        validateCleanCodePrinciples(scope, budget, hits);
         
         // SOLID Principles
-        findings.addAll(validateSolidPrinciples(fileName, code));
+        validateSolidPrinciples(scope, budget, hits);
         
         // DDD Principles
-        findings.addAll(validateDddPrinciples(fileName, code));
+        validateDddPrinciples(scope, budget, hits);
         
         // Performance & Security
-        findings.addAll(validatePerformanceAndSecurity(fileName, code));
+        validatePerformanceAndSecurity(scope, budget, hits);
+        
+        // Rules stopped by the budget
+        hits.addAll(abortedRuleHits(budget));
+        
+        return scope.findings(fileName, hits);
+    }
+    
+    /**
+     * Fingerprint of the rules {@link #validateSource} applies, part of the key of every cached result
+     */
+    protected String rulesFingerprint() {
+        return "default";
+    }
+    
+    /**
+     * Number of rule evaluations aborted for exceeding their budget, by rule name
+     */
+    public Map<String, Long> getAbortedRuleCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        abortedRules.forEach((rule, count) -> counts.put(rule, count.sum()));
+        return counts;
+    }
+    
+    /**
+     * Number of files skipped before validation, by reason
+     */
+    public Map<String, Long> getSkippedFileCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        skippedFiles.forEach((reason, count) -> counts.put(reason.name(), count.sum()));
+        return counts;
+    }
+    
+    /**
+     * The most recently skipped files with the reason for each, the oldest first
+     */
+    public List<SkippedFile> getSkippedFiles() {
+        synchronized (recentSkippedFiles) {
+            return List.copyOf(recentSkippedFiles);
+        }
+    }
+    
+    /**
+     * What each rule has cost so far, per rule and file type, the most expensive first
+     */
+    public List<RuleCost> getRuleCosts() {
+        return ruleCosts.snapshot(costPolicy());
+    }
+    
+    protected RuleCosts ruleCosts() {
+        return ruleCosts;
+    }
+    
+    /**
+     * Budget for duplication across all files of a review, observed as one evaluation over their
+     * combined size
+     */
+    protected RuleBudget startCrossFileBudget(int characters) {
+        return RuleBudget.startDefault()
+            .observedBy(ruleCosts.forReview(characters, null));
+    }
+    
+    /**
+     * Policy applied to rules over their time budget, or null for none
+     */
+    protected RuleCosts.Policy costPolicy() {
+        return null;
+    }
+    
+    /**
+     * Count a hit against the rule that produced it, reporting it as INFO while the cost policy
+     * demotes the rule
+     */
+    protected FindingTemplate.Hit reported(RuleBudget budget, String rule, FindingTemplate.Hit hit) {
+        budget.reported(rule);
+        return budget.demotes(rule) ? hit.withSeverity(ReviewFinding.Severity.INFO) : hit;
+    }
+    
+    /**
+     * One hit per rule the budget stopped, so a pathological file yields a partial review instead
+     * of a hung request; aborts are also counted per rule
+     */
+    protected List<FindingTemplate.Hit> abortedRuleHits(RuleBudget budget) {
+        List<FindingTemplate.Hit> hits = new ArrayList<>();
+        
+        for (RuleBudget.Abort abort : budget.aborts()) {
+            abortedRules.computeIfAbsent(abort.rule(), rule -> new LongAdder()).increment();
+            if (meterRegistry != null) {
+                meterRegistry.counter("review.rules.aborted",
+                    "rule", abort.rule(), "reason", abort.reason().name()).increment();
+            }
+            
+            hits.add(ABORTED.at(0, ABORTED.severity(),
+                "Rule " + abort.rule() + " aborted: exceeded its " + abort.reason().label(), null));
+        }
+        
+        return hits;
+    }
+    
+    /**
+     * Classify the file before any rule runs, recording the file and counting the reason when it is
+     * skipped
+     */
+    protected boolean isSkipped(String fileName, String code) {
+        if (fileClassifier == null) {
+            return false;
+        }
+        FileClassifier.Reason reason = fileClassifier.skipReason(fileName, code);
+        if (reason == null) {
+            return false;
+        }
+        recordSkip(fileName, reason);
+        return true;
+    }
+    
+    /**
+     * Whether a file of this many bytes is skipped as too large, so that its content need not be read;
+     * recorded like any other skipped file
+     */
+    public boolean isTooLarge(String fileName, long size) {
+        if (fileClassifier == null || !fileClassifier.isTooLarge(size)) {
+            return false;
+        }
+        recordSkip(fileName, FileClassifier.Reason.TOO_LARGE);
+        return true;
+    }
+    
+    private void recordSkip(String fileName, FileClassifier.Reason reason) {
+        skippedFiles.computeIfAbsent(reason, skipped -> new LongAdder()).increment();
+        synchronized (recentSkippedFiles) {
+            if (recentSkippedFiles.size() == MAX_SKIPPED_FILES) {
+                recentSkippedFiles.removeFirst();
+            }
+            recentSkippedFiles.addLast(new SkippedFile(fileName, reason.name()));
+        }
+        if (meterRegistry != null) {
+            meterRegistry.counter("review.files.skipped", "reason", reason.name()).increment();
+        }
+    }
+    
+    private List<ReviewFinding> validateCached(String fileName, SourceText source) {
+        if (findingsCache == null) {
+            return validateSource(fileName, source, null);
+        }
+        
+        String key = FindingsCache.key(fileName, source.text(), rulesFingerprint());
+        List<ReviewFinding> cached = findingsCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
         
+        List<ReviewFinding> findings = validateSource(fileName, source, null);
+        // An aborted rule depends on machine load, so a partial review is validated again next time
+        if (findings.stream().noneMatch(finding -> RULE_ABORTED.equals(finding.getRuleId()))) {
+            findingsCache.put(key, findings);
+        }
         return findings;
     }
     
-    private List<ReviewFinding> validateCleanCodePrinciples(String fileName, String code) {
+    protected List<ReviewFinding> validateDuplicationAcrossFiles(Map<String, SourceText> sourcesByName) {
         List<ReviewFinding> findings = new ArrayList<>();
+        if (sourcesByName.isEmpty()) {
+            return findings;
+        }
+        FindingsBaseline.Fingerprinter fingerprinter = new FindingsBaseline.Fingerprinter();
+        
+        int characters = sourcesByName.values().stream().mapToInt(source -> source.text().length()).sum();
+        RuleBudget budget = startCrossFileBudget(characters);
+        List<DuplicateBlockDetector.CrossFileDuplicate> duplicates = budget.run(ArchitectureRules.DUPLICATE_ACROSS_FILES,
+            List.of(), meter -> DuplicateBlockDetector.crossFileDuplicates(sourcesByName, meter));
+        // The files share one budget, so an abort is reported once, on the first of them
+        String firstFile = sourcesByName.keySet().iterator().next();
+        for (FindingTemplate.Hit hit : abortedRuleHits(budget)) {
+            findings.add(hit.toFinding(firstFile));
+        }
+        
+        for (DuplicateBlockDetector.CrossFileDuplicate duplicate : duplicates) {
+            ReviewFinding finding = DUPLICATE_ACROSS_FILES.at(
+                duplicate.startLine(),
+                DUPLICATE_ACROSS_FILES.severity(),
+                "Duplicate code block detected (lines " + duplicate.startLine() + "-" + duplicate.endLine()
+                    + " also in " + duplicate.originalFileName() + ":" + duplicate.originalLine() + ")",
+                duplicate.snippet()
+            ).toFinding(duplicate.fileName());
+            // The copy is known by its code and the file it was copied to, wherever the lines moved
+            finding.setFingerprint(fingerprinter.next(finding.getRuleId(), duplicate.fileName(), duplicate.snippet()));
+            findings.add(finding);
+        }
+        
+        return findings;
+    }
+    
+    private void validateCleanCodePrinciples(ValidationScope scope, RuleBudget budget, List<FindingTemplate.Hit> hits) {
+        TokenStream tokens = scope.tokens();
+        TokenStream fileTokens = scope.fileTokens();
+        SourceStructure structure = scope.structure();
         
         // Check for long methods
-        if (LONG_METHOD_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 
-                0, 
-                ReviewFinding.FindingType.KISS_VIOLATION,
-                ReviewFinding.Severity.MEDIUM,
-                "Method appears to be too long",
-                "Break down long methods into smaller, focused methods. Each method should do one thing well.",
-                "Long method detected"
-            ));
+        int longMethod = ArchitectureRules.longMethod(structure, ArchitectureRules.MAX_METHOD_LINES);
+        if (longMethod >= 0) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, LONG_METHOD.at(fileTokens.line(longMethod))));
         }
         
         // Check for many parameters
-        if (MANY_PARAMETERS_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName,
-                0,
-                ReviewFinding.FindingType.BEST_PRACTICE,
-                ReviewFinding.Severity.MEDIUM,
-                "Method has too many parameters",
-                "Consider using a parameter object or builder pattern to reduce parameter count.",
-                "Method with many parameters"
-            ));
+        int manyParameters = ArchitectureRules.manyParameters(structure, ArchitectureRules.MAX_PARAMETERS);
+        if (manyParameters >= 0) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, MANY_PARAMETERS.at(fileTokens.line(manyParameters))));
         }
         
         // Check for deep nesting
-        if (DEEP_NESTING_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 0, ReviewFinding.FindingType.KISS_VIOLATION,
-                ReviewFinding.Severity.HIGH,
-                "Deep nesting detected (4+ levels)",
-                "Avoid deep nesting. Use guard clauses, early returns, or extract methods.",
-                "Deep nesting violation"
-            ));
+        int deepNesting = ArchitectureRules.deepNesting(structure);
+        if (deepNesting >= 0) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, DEEP_NESTING.at(fileTokens.line(deepNesting))));
         }
         
         // Check for magic numbers
-        Matcher magicMatcher = MAGIC_NUMBER_PATTERN.matcher(code);
-        if (magicMatcher.find()) {
-            findings.add(createFinding(
-                fileName, getLineNumber(code, magicMatcher.start()),
-                ReviewFinding.FindingType.BEST_PRACTICE,
-                ReviewFinding.Severity.MEDIUM,
-                "Magic number detected: " + magicMatcher.group(),
-                "Extract magic numbers to named constants for better readability.",
-                magicMatcher.group()
-            ));
+        int magicNumber = ArchitectureRules.firstMagicNumber(tokens, budget);
+        if (magicNumber >= 0) {
+            String number = tokens.text(magicNumber);
+            hits.add(reported(budget, ArchitectureRules.MAGIC_NUMBER, MAGIC_NUMBER.at(
+                tokens.line(magicNumber), MAGIC_NUMBER.severity(), "Magic number detected: " + number, number)));
         }
         
         // Check for poor naming
-        if (POOR_NAMING_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 0, ReviewFinding.FindingType.BEST_PRACTICE,
-                ReviewFinding.Severity.MEDIUM,
-                "Poor naming convention detected",
-                "Use descriptive method names that clearly indicate their purpose.",
-                "Vague method names"
-            ));
+        int poorNaming = ArchitectureRules.poorNaming(fileTokens, structure);
+        if (poorNaming >= 0) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, POOR_NAMING.at(fileTokens.line(poorNaming))));
         }
         
         // Check for string concatenation in loops
-        if (STRING_CONCAT_LOOP_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 0, ReviewFinding.FindingType.PERFORMANCE,
-                ReviewFinding.Severity.MEDIUM,
-                "String concatenation in loop detected",
-                "Use StringBuilder for efficient string concatenation in loops.",
-                "Inefficient string concatenation"
-            ));
+        int stringConcat = ArchitectureRules.stringConcatInLoop(tokens, budget);
+        if (stringConcat >= 0) {
+            hits.add(reported(budget, ArchitectureRules.STRING_CONCAT_LOOP, STRING_CONCAT_LOOP.at(tokens.line(stringConcat))));
         }
         
         // Check for code duplication indicators
-        String[] lines = code.split("\n");
-        for (int i = 0; i < lines.length - 5; i++) {
-            String currentBlock = String.join("\n", 
-                lines[i], lines[i+1], lines[i+2], lines[i+3], lines[i+4]);
-            
-            for (int j = i + 5; j < lines.length - 5; j++) {
-                String compareBlock = String.join("\n", 
-                    lines[j], lines[j+1], lines[j+2], lines[j+3], lines[j+4]);
-                
-                if (currentBlock.trim().equals(compareBlock.trim()) && 
-                    currentBlock.trim().length() > 50) {
-                    findings.add(createFinding(
-                        fileName,
-                        i + 1,
-                        ReviewFinding.FindingType.DRY_VIOLATION,
-                        ReviewFinding.Severity.HIGH,
-                        "Duplicate code block detected",
-                        "Extract duplicate code into a reusable method to follow DRY principle.",
-                        currentBlock.substring(0, Math.min(100, currentBlock.length()))
-                    ));
-                    break;
-                }
+        SourceText source = scope.source();
+        List<Integer> windows = budget.run(ArchitectureRules.DUPLICATE_CODE, List.of(),
+            meter -> DuplicateBlockDetector.repeatedWindows(source, meter));
+        for (int window : windows) {
+            if (!scope.covers(window + 1, window + DuplicateBlockDetector.WINDOW_LINES)) {
+                continue;
             }
+            hits.add(reported(budget, ArchitectureRules.DUPLICATE_CODE, DUPLICATE_CODE.at(
+                window + 1, DUPLICATE_CODE.severity(), null, DuplicateBlockDetector.snippet(source, window))));
         }
-        
-        return findings;
     }
     
-    private List<ReviewFinding> validateSolidPrinciples(String fileName, String code) {
-        List<ReviewFinding> findings = new ArrayList<>();
+    private void validateSolidPrinciples(ValidationScope scope, RuleBudget budget, List<FindingTemplate.Hit> hits) {
+        TokenStream tokens = scope.tokens();
         
         // Check for field injection (violates Dependency Inversion)
-        if (FIELD_INJECTION_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName,
-                0,
-                ReviewFinding.FindingType.DEPENDENCY_INJECTION,
-                ReviewFinding.Severity.MEDIUM,
-                "Field injection detected",
-                "Use constructor injection instead of field injection for better testability and immutability.",
-                "@Autowired field injection"
-            ));
+        int fieldInjection = ArchitectureRules.fieldInjection(tokens, budget);
+        if (fieldInjection >= 0) {
+            hits.add(reported(budget, ArchitectureRules.FIELD_INJECTION, FIELD_INJECTION.at(tokens.line(fieldInjection))));
         }
         
         // Check for large classes (violates Single Responsibility)
-        long lineCount = code.lines().count();
-        if (lineCount > 300) {
-            findings.add(createFinding(
-                fileName,
-                0,
-                ReviewFinding.FindingType.SOLID_PRINCIPLES,
-                ReviewFinding.Severity.HIGH,
-                "Class is too large (" + lineCount + " lines)",
-                "Large classes often violate Single Responsibility Principle. Consider breaking into smaller, focused classes.",
-                "Large class detected"
-            ));
-        }
-        
-        // Check for concrete dependencies in constructors
-        if (code.contains("new ") && code.contains("public ") && code.contains("(")) {
-            findings.add(createFinding(
-                fileName,
-                0,
-                ReviewFinding.FindingType.DEPENDENCY_INJECTION,
-                ReviewFinding.Severity.MEDIUM,
-                "Potential hard dependency detected",
-                "Avoid creating dependencies with 'new'. Use dependency injection instead.",
-                "Hard dependency creation"
-            ));
+        SourceStructure.TypeDeclaration largestType = scope.structure().largestType();
+        if (largestType != null && largestType.lines() > 300) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, LARGE_CLASS.at(
+                scope.fileTokens().line(largestType.keyword()), LARGE_CLASS.severity(),
+                "Class is too large (" + largestType.lines() + " lines)", null)));
         }
         
-        return findings;
+        // Check for concrete dependencies created in place
+        int hardDependency = ArchitectureRules.hardDependency(tokens, budget);
+        if (hardDependency >= 0) {
+            hits.add(reported(budget, ArchitectureRules.HARD_DEPENDENCY, HARD_DEPENDENCY.at(tokens.line(hardDependency))));
+        }
     }
     
-    private List<ReviewFinding> validateDddPrinciples(String fileName, String code) {
-        List<ReviewFinding> findings = new ArrayList<>();
+    private void validateDddPrinciples(ValidationScope scope, RuleBudget budget, List<FindingTemplate.Hit> hits) {
+        // Whether an entity has an identity or behaviour depends on the whole class
+        TokenStream tokens = scope.fileTokens();
         
         // Check if Entity has proper ID
-        if (code.contains("@Entity") && !code.contains("@Id")) {
-            findings.add(createFinding(
-                fileName,
-                0,
-                ReviewFinding.FindingType.DDD_AGGREGATE,
-                ReviewFinding.Severity.HIGH,
-                "Entity missing @Id annotation",
-                "Domain entities must have identity. Add @Id annotation to the identifier field.",
-                "@Entity without @Id"
-            ));
+        int entityWithoutId = ArchitectureRules.entityWithoutId(tokens, budget);
+        if (entityWithoutId >= 0) {
+            hits.add(reported(budget, ArchitectureRules.ENTITY_WITHOUT_ID, ENTITY_WITHOUT_ID.at(tokens.line(entityWithoutId))));
         }
         
         // Check for anemic domain model
-        if (code.contains("@Entity") && !code.contains("public ") && code.contains("get") && code.contains("set")) {
-            long methodCount = code.split("public ").length - 1;
-            long getterSetterCount = code.split("get|set").length - 1;
-            
-            if (getterSetterCount > methodCount * 0.8) {
-                findings.add(createFinding(
-                    fileName,
-                    0,
-                    ReviewFinding.FindingType.DDD_DOMAIN_SERVICE,
-                    ReviewFinding.Severity.MEDIUM,
-                    "Potential anemic domain model",
-                    "Domain entities should contain business logic, not just getters/setters. Consider adding domain methods.",
-                    "Mostly getters/setters"
-                ));
-            }
+        int anemicEntity = ArchitectureRules.anemicEntity(tokens, budget);
+        if (anemicEntity >= 0) {
+            hits.add(reported(budget, ArchitectureRules.ANEMIC_ENTITY, ANEMIC_ENTITY.at(tokens.line(anemicEntity))));
         }
-        
-        return findings;
     }
     
-    private List<ReviewFinding> validatePerformanceAndSecurity(String fileName, String code) {
-        List<ReviewFinding> findings = new ArrayList<>();
+    private void validatePerformanceAndSecurity(ValidationScope scope, RuleBudget budget, List<FindingTemplate.Hit> hits) {
+        TokenStream tokens = scope.tokens();
         
         // Check for hardcoded secrets
-        if (HARDCODED_SECRET_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName,
-                0,
-                ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.CRITICAL,
-                "Hardcoded secret detected",
-                "Never hardcode passwords, API keys, or secrets. Use configuration properties or environment variables.",
-                "Hardcoded secret"
-            ));
+        int secret = ArchitectureRules.firstHardcodedSecret(tokens, budget);
+        if (secret >= 0) {
+            hits.add(reported(budget, ArchitectureRules.HARDCODED_SECRET, HARDCODED_SECRET.at(tokens.line(secret))));
         }
         
         // Check for SQL injection vulnerabilities
-        if (SQL_INJECTION_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.CRITICAL,
-                "Potential SQL injection vulnerability",
-                "Use parameterized queries or prepared statements instead of string concatenation.",
-                "SQL injection risk"
-            ));
+        int sqlInjection = ArchitectureRules.sqlInjection(tokens, budget);
+        if (sqlInjection >= 0) {
+            hits.add(reported(budget, ArchitectureRules.SQL_INJECTION, SQL_INJECTION.at(tokens.line(sqlInjection))));
         }
         
         // Check for insecure random usage
-        if (INSECURE_RANDOM_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.HIGH,
-                "Insecure random number generation",
-                "Use SecureRandom instead of Random for security-sensitive operations.",
-                "Insecure Random usage"
-            ));
+        int insecureRandom = ArchitectureRules.insecureRandom(tokens, budget);
+        if (insecureRandom >= 0) {
+            hits.add(reported(budget, ArchitectureRules.INSECURE_RANDOM, INSECURE_RANDOM.at(tokens.line(insecureRandom))));
         }
         
         // Check for weak cryptography
-        if (WEAK_CRYPTO_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.HIGH,
-                "Weak cryptographic algorithm detected",
-                "Use strong cryptographic algorithms like AES, SHA-256, or SHA-3.",
-                "Weak cryptography"
-            ));
+        int weakCrypto = ArchitectureRules.weakCrypto(tokens, budget);
+        if (weakCrypto >= 0) {
+            hits.add(reported(budget, ArchitectureRules.WEAK_CRYPTO, WEAK_CRYPTO.at(tokens.line(weakCrypto))));
         }
         
         // Check for missing input validation
-        if (MISSING_VALIDATION_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.MEDIUM,
-                "Missing input validation",
-                "Add @Valid annotation to validate input data automatically.",
-                "Missing validation"
-            ));
+        int missingValidation = ArchitectureRules.missingValidation(tokens, budget);
+        if (missingValidation >= 0) {
+            hits.add(reported(budget, ArchitectureRules.MISSING_VALIDATION, MISSING_VALIDATION.at(tokens.line(missingValidation))));
         }
         
         // Check for exposed exception information
-        if (EXPOSED_EXCEPTION_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.MEDIUM,
-                "Exception information exposure",
-                "Avoid exposing internal exception details to clients.",
-                "Information disclosure"
-            ));
+        int exposedException = ArchitectureRules.exposedException(tokens, budget);
+        if (exposedException >= 0) {
+            hits.add(reported(budget, ArchitectureRules.EXPOSED_EXCEPTION, EXPOSED_EXCEPTION.at(tokens.line(exposedException))));
         }
         
         // Check for empty catch blocks
-        if (EMPTY_CATCH_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName, 0, ReviewFinding.FindingType.BEST_PRACTICE,
-                ReviewFinding.Severity.HIGH,
-                "Empty catch block detected",
-                "Handle exceptions properly or at least log them for debugging.",
-                "Empty exception handling"
-            ));
+        int emptyCatch = ArchitectureRules.emptyCatch(tokens, budget);
+        if (emptyCatch >= 0) {
+            hits.add(reported(budget, ArchitectureRules.EMPTY_CATCH, EMPTY_CATCH.at(tokens.line(emptyCatch))));
         }
         
         // Check for SELECT * queries
-        if (SELECT_ALL_PATTERN.matcher(code).find()) {
-            findings.add(createFinding(
-                fileName,
-                0,
-                ReviewFinding.FindingType.PERFORMANCE,
-                ReviewFinding.Severity.MEDIUM,
-                "SELECT * query detected",
-                "Avoid SELECT * queries. Specify only the required columns for better performance.",
-                "SELECT * query"
-            ));
-        }
-        
-        // Check for potential N+1 query problem
-        if (code.contains("@OneToMany") && !code.contains("fetch = FetchType.LAZY")) {
-            findings.add(createFinding(
-                fileName,
-                0,
-                ReviewFinding.FindingType.PERFORMANCE,
-                ReviewFinding.Severity.MEDIUM,
-                "Potential N+1 query problem",
-                "Use LAZY loading for @OneToMany relationships to avoid N+1 query problems.",
-                "@OneToMany without LAZY loading"
-            ));
+        int selectAll = ArchitectureRules.selectAll(tokens, budget);
+        if (selectAll >= 0) {
+            hits.add(reported(budget, ArchitectureRules.SELECT_ALL, SELECT_ALL.at(tokens.line(selectAll))));
         }
         
-        return findings;
-    }
-    
-    private ReviewFinding createFinding(String fileName, int lineNumber, 
-                                       ReviewFinding.FindingType type, 
-                                       ReviewFinding.Severity severity,
-                                       String description, String suggestion, 
-                                       String codeSnippet) {
-        ReviewFinding finding = new ReviewFinding();
-        finding.setFileName(fileName);
-        finding.setLineNumber(lineNumber > 0 ? lineNumber : null);
-        finding.setType(type);
-        finding.setSeverity(severity);
-        finding.setDescription(description);
-        finding.setSuggestion(suggestion);
-        finding.setCodeSnippet(codeSnippet);
-        finding.setRuleId("ARCH_" + type.name());
-        return finding;
-    }
-    
-    private int getLineNumber(String code, int position) {
-        if (position < 0 || position >= code.length()) {
-            return 1;
+        // Check for potential N+1 query problem; lazy fetching may be asked for anywhere in the file
+        int eagerOneToMany = ArchitectureRules.eagerOneToMany(scope.fileTokens(), budget);
+        if (eagerOneToMany >= 0) {
+            hits.add(reported(budget, ArchitectureRules.EAGER_ONE_TO_MANY,
+                EAGER_ONE_TO_MANY.at(scope.fileTokens().line(eagerOneToMany))));
         }
-        
-        String beforePosition = code.substring(0, position);
-        return (int) beforePosition.chars().filter(ch -> ch == '\n').count() + 1;
     }
-}
\ No newline at end of file
+}
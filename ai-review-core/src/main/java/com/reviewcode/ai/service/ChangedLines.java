@@ -0,0 +1,162 @@
+package com.reviewcode.ai.service;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One-based lines of the new version of a file that a change added or modified
+ * A deletion marks the line now standing where the removed lines were, so code around a removal
+ * still counts as touched by the change
+ */
+public final class ChangedLines {
+
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@");
+
+    private static final String NEW_FILE_PREFIX = "+++ ";
+    private static final String DEV_NULL = "/dev/null";
+
+    private final BitSet lines;
+
+    private ChangedLines(BitSet lines) {
+        this.lines = lines;
+    }
+
+    public static ChangedLines none() {
+        return new ChangedLines(new BitSet());
+    }
+
+    /**
+     * The lines from first to last, both included
+     */
+    public static ChangedLines range(int first, int last) {
+        return none().plus(first, last);
+    }
+
+    /**
+     * These lines together with the ones from first to last, both included
+     */
+    public ChangedLines plus(int first, int last) {
+        BitSet union = (BitSet) lines.clone();
+        if (last >= first && last > 0) {
+            union.set(Math.max(1, first), last + 1);
+        }
+        return new ChangedLines(union);
+    }
+
+    /**
+     * Changed lines of every file in a unified diff, keyed by the path of its new version with the
+     * {@code b/} prefix of git diffs removed; deleted files are left out
+     */
+    public static Map<String, ChangedLines> parseUnifiedDiff(String diff) {
+        Map<String, ChangedLines> files = new LinkedHashMap<>();
+        BitSet current = null;
+        int newLine = 0;
+        int oldRemaining = 0;
+        int newRemaining = 0;
+
+        for (String line : diff.split("\r?\n", -1)) {
+            if (oldRemaining > 0 || newRemaining > 0) {
+                if (line.startsWith("+")) {
+                    current.set(newLine++);
+                    newRemaining--;
+                } else if (line.startsWith("-")) {
+                    current.set(Math.max(1, newLine));
+                    oldRemaining--;
+                } else if (!line.startsWith("\\")) {
+                    // Context line, or an empty one whose leading space was stripped on the way
+                    newLine++;
+                    oldRemaining--;
+                    newRemaining--;
+                }
+                continue;
+            }
+
+            if (line.startsWith(NEW_FILE_PREFIX)) {
+                String path = newFilePath(line.substring(NEW_FILE_PREFIX.length()));
+                current = path == null ? null : new BitSet();
+                if (current != null) {
+                    files.put(path, new ChangedLines(current));
+                }
+            } else if (current != null) {
+                Matcher hunk = HUNK_HEADER.matcher(line);
+                if (hunk.find()) {
+                    oldRemaining = count(hunk.group(2));
+                    newLine = Integer.parseInt(hunk.group(3));
+                    newRemaining = count(hunk.group(4));
+                }
+            }
+        }
+        return files;
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public boolean contains(int line) {
+        return line > 0 && lines.get(line);
+    }
+
+    /**
+     * Whether any line from first to last, both included, changed
+     */
+    public boolean intersects(int first, int last) {
+        if (last < first) {
+            return false;
+        }
+        int next = lines.nextSetBit(Math.max(0, first));
+        return next >= 0 && next <= last;
+    }
+
+    /**
+     * These lines together with the given number of lines of context above and below every run
+     */
+    ChangedLines widen(int margin) {
+        BitSet widened = new BitSet();
+        for (int start = lines.nextSetBit(0); start >= 0; ) {
+            int end = lines.nextClearBit(start);
+            widened.set(Math.max(1, start - margin), end + margin);
+            start = lines.nextSetBit(end);
+        }
+        return new ChangedLines(widened);
+    }
+
+    /**
+     * Number of changed lines
+     */
+    public int size() {
+        return lines.cardinality();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ChangedLines changed && lines.equals(changed.lines);
+    }
+
+    @Override
+    public int hashCode() {
+        return lines.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return lines.toString();
+    }
+
+    private static int count(String group) {
+        return group == null ? 1 : Integer.parseInt(group);
+    }
+
+    private static String newFilePath(String header) {
+        // Timestamps of non-git diffs follow the path after a tab
+        int tab = header.indexOf('\t');
+        String path = (tab >= 0 ? header.substring(0, tab) : header).trim();
+        if (path.equals(DEV_NULL)) {
+            return null;
+        }
+        return path.startsWith("b/") ? path.substring(2) : path;
+    }
+}
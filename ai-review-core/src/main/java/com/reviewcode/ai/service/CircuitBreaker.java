@@ -0,0 +1,192 @@
+package com.reviewcode.ai.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to an endpoint while most recent ones fail, and lets a few trial calls through once it
+ * has had time to recover
+ * Outcomes are kept for the last calls in a fixed window; once it holds enough of them and the share
+ * of failures reaches the threshold the breaker opens and refuses calls. After the open period it is
+ * half open: the next calls are trials, any failing reopens it, and as many succeeding closes it
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    /**
+     * One call let through, reporting its outcome exactly once
+     */
+    final class Call {
+        private final int generation;
+        private boolean done;
+
+        private Call(int generation) {
+            this.generation = generation;
+        }
+
+        void success() {
+            synchronized (CircuitBreaker.this) {
+                if (finish()) {
+                    onSuccess();
+                }
+            }
+        }
+
+        void failure() {
+            synchronized (CircuitBreaker.this) {
+                if (finish()) {
+                    onFailure();
+                }
+            }
+        }
+
+        /**
+         * The call ended without telling anything about the endpoint, e.g. it was cancelled
+         */
+        void ignore() {
+            synchronized (CircuitBreaker.this) {
+                if (finish() && state == State.HALF_OPEN) {
+                    trialsInFlight--;
+                }
+            }
+        }
+
+        /**
+         * Whether this is the first outcome and the breaker is still in the state the call started in;
+         * later outcomes of calls started before a transition tell nothing about the current state
+         */
+        private boolean finish() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            return generation == CircuitBreaker.this.generation;
+        }
+    }
+
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    private final boolean[] failed;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private int generation;
+    private long openedAt;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    private final Map<State, LongAdder> transitions = new EnumMap<>(State.class);
+
+    CircuitBreaker(int failureRateThreshold, int slidingWindowSize, int minimumCalls, long openMillis,
+                   int halfOpenCalls, LongSupplier clock) {
+        this.failureRateThreshold = Math.min(100, Math.max(1, failureRateThreshold));
+        this.failed = new boolean[Math.max(1, slidingWindowSize)];
+        this.minimumCalls = Math.min(failed.length, Math.max(1, minimumCalls));
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openMillis));
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+        for (State to : State.values()) {
+            transitions.put(to, new LongAdder());
+        }
+    }
+
+    /**
+     * A call to make, or null while the breaker refuses calls
+     */
+    synchronized Call tryCall() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                return null;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsInFlight >= halfOpenCalls) {
+                return null;
+            }
+            trialsInFlight++;
+        }
+        return new Call(generation);
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Times the breaker moved into the state
+     */
+    long transitions(State to) {
+        return transitions.get(to).sum();
+    }
+
+    private void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight--;
+            if (++trialSuccesses >= halfOpenCalls) {
+                transition(State.CLOSED);
+            }
+        } else {
+            record(false);
+        }
+    }
+
+    private void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN);
+        } else {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failed.length) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % failed.length;
+    }
+
+    private void transition(State to) {
+        state = to;
+        generation++;
+        transitions.get(to).increment();
+        switch (to) {
+            case OPEN -> openedAt = clock.getAsLong();
+            case HALF_OPEN -> {
+                trialsInFlight = 0;
+                trialSuccesses = 0;
+            }
+            case CLOSED -> {
+                // Start over, so failures from before the breaker opened do not count again
+                next = 0;
+                recorded = 0;
+                failures = 0;
+            }
+        }
+    }
+}
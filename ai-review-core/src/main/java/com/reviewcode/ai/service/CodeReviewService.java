@@ -1,37 +1,73 @@
 package com.reviewcode.ai.service;
 
+import com.reviewcode.ai.config.AiConfiguration;
 import com.reviewcode.ai.model.CodeReview;
 import com.reviewcode.ai.model.PullRequest;
+import com.reviewcode.ai.model.ReviewFinding;
 import com.reviewcode.ai.model.ReviewSuggestion;
 import com.reviewcode.ai.repository.CodeReviewRepository;
 import com.reviewcode.ai.repository.PullRequestRepository;
+import com.reviewcode.ai.repository.ReviewFindingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class CodeReviewService {
     
+    /**
+     * Identity of an AI review request; identical requests arriving together share one AI call
+     */
+    private record ReviewFlight(Long pullRequestId, List<String> files, String diffHash) {
+    }
+    
     private final PullRequestRepository pullRequestRepository;
     private final CodeReviewRepository codeReviewRepository;
     private final AiReviewService aiReviewService;
     private final ReviewSuggestionService reviewSuggestionService;
+    private final ReviewFindingRepository reviewFindingRepository;
+    private final SingleFlight<ReviewFlight, List<ReviewSuggestion>> suggestionFlights;
+    private final SingleFlight<ReviewFlight, CodeReview> finalReviewFlights;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     @Autowired
     public CodeReviewService(PullRequestRepository pullRequestRepository,
                            CodeReviewRepository codeReviewRepository,
                            AiReviewService aiReviewService,
-                           ReviewSuggestionService reviewSuggestionService) {
+                           ReviewSuggestionService reviewSuggestionService,
+                           ReviewFindingRepository reviewFindingRepository,
+                           AiConfiguration aiConfiguration) {
         this.pullRequestRepository = pullRequestRepository;
         this.codeReviewRepository = codeReviewRepository;
         this.aiReviewService = aiReviewService;
         this.reviewSuggestionService = reviewSuggestionService;
+        this.reviewFindingRepository = reviewFindingRepository;
+        
+        Duration grace = Duration.ofMillis(Math.max(0, aiConfiguration.getCoalescing().getGraceMillis()));
+        this.suggestionFlights = new SingleFlight<>(grace);
+        this.finalReviewFlights = new SingleFlight<>(grace);
+    }
+    
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        suggestionFlights.bindTo(meterRegistry, "suggestions");
+        finalReviewFlights.bindTo(meterRegistry, "final-review");
     }
     
     public PullRequest createPullRequest(PullRequest pullRequest) {
@@ -60,6 +96,22 @@ public class CodeReviewService {
     }
     
     public Mono<List<ReviewSuggestion>> triggerAiSuggestions(Long pullRequestId, List<String> filesToReview) {
+        return triggerAiSuggestions(pullRequestId, filesToReview, null);
+    }
+    
+    /**
+     * @param diffHash digest of the pull request's diff, letting an unchanged pull request be answered
+     *                 from the AI result cache; null to always call the AI endpoint
+     */
+    public Mono<List<ReviewSuggestion>> triggerAiSuggestions(Long pullRequestId, List<String> filesToReview,
+                                                             String diffHash) {
+        // Requests repeated while one is running, or just after, are answered by that one
+        return suggestionFlights.execute(new ReviewFlight(pullRequestId, List.copyOf(filesToReview), diffHash),
+            () -> requestAiSuggestions(pullRequestId, filesToReview, diffHash));
+    }
+    
+    private Mono<List<ReviewSuggestion>> requestAiSuggestions(Long pullRequestId, List<String> filesToReview,
+                                                              String diffHash) {
         Optional<PullRequest> pullRequestOpt = pullRequestRepository.findById(pullRequestId);
         
         if (pullRequestOpt.isEmpty()) {
@@ -70,7 +122,7 @@ public class CodeReviewService {
         pullRequest.setReviewStatus(PullRequest.ReviewStatus.IN_PROGRESS);
         pullRequestRepository.save(pullRequest);
         
-        return aiReviewService.generateSuggestions(pullRequest, filesToReview)
+        return aiReviewService.generateSuggestions(pullRequest, filesToReview, diffHash)
             .map(suggestions -> {
                 if (!suggestions.isEmpty()) {
                     pullRequest.setReviewStatus(PullRequest.ReviewStatus.SUGGESTIONS_PENDING);
@@ -81,6 +133,20 @@ public class CodeReviewService {
     }
     
     public Mono<CodeReview> triggerFinalReview(Long pullRequestId, List<String> filesToReview) {
+        return triggerFinalReview(pullRequestId, filesToReview, null);
+    }
+    
+    /**
+     * @param diffHash digest of the pull request's diff, letting an unchanged pull request be answered
+     *                 from the AI result cache; null to always call the AI endpoint
+     */
+    public Mono<CodeReview> triggerFinalReview(Long pullRequestId, List<String> filesToReview, String diffHash) {
+        // One review is requested and saved for requests repeated while it runs, or just after
+        return finalReviewFlights.execute(new ReviewFlight(pullRequestId, List.copyOf(filesToReview), diffHash),
+            () -> requestFinalReview(pullRequestId, filesToReview, diffHash));
+    }
+    
+    private Mono<CodeReview> requestFinalReview(Long pullRequestId, List<String> filesToReview, String diffHash) {
         Optional<PullRequest> pullRequestOpt = pullRequestRepository.findById(pullRequestId);
         
         if (pullRequestOpt.isEmpty()) {
@@ -91,7 +157,7 @@ public class CodeReviewService {
         pullRequest.setReviewStatus(PullRequest.ReviewStatus.IN_PROGRESS);
         pullRequestRepository.save(pullRequest);
         
-        return aiReviewService.performFinalReview(pullRequest, filesToReview)
+        return aiReviewService.performFinalReview(pullRequest, filesToReview, diffHash)
             .map(review -> {
                 CodeReview savedReview = codeReviewRepository.save(review);
                 updatePullRequestAfterReview(pullRequest, savedReview);
@@ -126,6 +192,27 @@ public class CodeReviewService {
         return codeReviewRepository.findByPullRequestId(pullRequestId);
     }
     
+    /**
+     * Write the findings of every review of the pull request as they come off the database cursor
+     * Each finding is detached once written, so neither the persistence context nor the export grows
+     * with the number of findings
+     *
+     * @return the number of findings written
+     */
+    @Transactional(readOnly = true)
+    public long exportFindings(Long pullRequestId, FindingsExport.Format format, OutputStream out) throws IOException {
+        try (Stream<ReviewFinding> findings = reviewFindingRepository.streamByPullRequestId(pullRequestId);
+             FindingsExport export = FindingsExport.open(format, out)) {
+            Iterator<ReviewFinding> iterator = findings.iterator();
+            while (iterator.hasNext()) {
+                ReviewFinding finding = iterator.next();
+                export.write(finding);
+                entityManager.detach(finding);
+            }
+            return export.count();
+        }
+    }
+    
     private void updatePullRequestAfterReview(PullRequest pullRequest, CodeReview review) {
         List<CodeReview> allReviews = codeReviewRepository.findByPullRequestId(pullRequest.getId());
         
@@ -5,450 +5,793 @@ import com.reviewcode.ai.model.ReviewFinding;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
 public class ConfigurableArchitectureValidationService extends ArchitectureValidationService {
     
-    private final ReviewConfiguration reviewConfig;
+    // Clean Code; severities are those of ordinary files, critical files raise some
+    private static final FindingTemplate LONG_METHOD = FindingTemplate.of(
+        ReviewFinding.FindingType.KISS_VIOLATION, ReviewFinding.Severity.MEDIUM,
+        "Method is too long",
+        "Break down long methods into smaller, focused methods.",
+        "Long method detected");
+    private static final FindingTemplate MANY_PARAMETERS = FindingTemplate.of(
+        ReviewFinding.FindingType.BEST_PRACTICE, ReviewFinding.Severity.MEDIUM,
+        "Method has too many parameters",
+        "Consider using a parameter object or builder pattern.",
+        "Too many parameters");
+    private static final FindingTemplate DEEP_NESTING = FindingTemplate.of(
+        ReviewFinding.FindingType.KISS_VIOLATION, ReviewFinding.Severity.HIGH,
+        "Deep nesting detected (4+ levels)",
+        "Use guard clauses, early returns, or extract methods.",
+        "Deep nesting violation");
+    private static final FindingTemplate MAGIC_NUMBER = FindingTemplate.of(
+        ReviewFinding.FindingType.BEST_PRACTICE, ReviewFinding.Severity.MEDIUM,
+        "Magic number detected",
+        "Extract magic numbers to named constants.",
+        null);
+    private static final FindingTemplate POOR_NAMING = FindingTemplate.of(
+        ReviewFinding.FindingType.BEST_PRACTICE, ReviewFinding.Severity.MEDIUM,
+        "Poor naming convention detected",
+        "Use descriptive method names that clearly indicate their purpose.",
+        "Vague method names");
+    private static final FindingTemplate EMPTY_CATCH = FindingTemplate.of(
+        ReviewFinding.FindingType.BEST_PRACTICE, ReviewFinding.Severity.MEDIUM,
+        "Empty catch block detected",
+        "Handle exceptions properly or at least log them.",
+        "Empty exception handling");
+    
+    // SOLID & DDD
+    private static final FindingTemplate FIELD_INJECTION = FindingTemplate.of(
+        ReviewFinding.FindingType.DEPENDENCY_INJECTION, ReviewFinding.Severity.MEDIUM,
+        "Field injection detected",
+        "Use constructor injection for better testability.",
+        "@Autowired field injection");
+    private static final FindingTemplate LARGE_CLASS = FindingTemplate.of(
+        ReviewFinding.FindingType.SOLID_PRINCIPLES, ReviewFinding.Severity.HIGH,
+        "Class is too large",
+        "Large classes violate Single Responsibility Principle. Break into smaller classes.",
+        "Large class detected");
+    private static final FindingTemplate ENTITY_WITHOUT_ID = FindingTemplate.of(
+        ReviewFinding.FindingType.DDD_AGGREGATE, ReviewFinding.Severity.HIGH,
+        "Entity missing @Id annotation",
+        "Domain entities must have identity. Add @Id annotation.",
+        "@Entity without @Id");
+    
+    // Security
+    private static final FindingTemplate HARDCODED_SECRET = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.HIGH,
+        "Hardcoded secret detected",
+        "Use configuration properties or environment variables.",
+        "Hardcoded secret");
+    private static final FindingTemplate SQL_INJECTION = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.CRITICAL,
+        "Potential SQL injection vulnerability",
+        "Use parameterized queries instead of string concatenation.",
+        "SQL injection risk");
+    private static final FindingTemplate INSECURE_RANDOM = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.HIGH,
+        "Insecure random number generation",
+        "Use SecureRandom for security-sensitive operations.",
+        "Insecure Random usage");
+    private static final FindingTemplate WEAK_CRYPTO = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.HIGH,
+        "Weak cryptographic algorithm detected",
+        "Use strong algorithms like AES, SHA-256, or SHA-3.",
+        "Weak cryptography");
+    private static final FindingTemplate MISSING_VALIDATION = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.MEDIUM,
+        "Missing input validation",
+        "Add @Valid annotation to validate input data.",
+        "Missing validation");
+    private static final FindingTemplate EXPOSED_EXCEPTION = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.MEDIUM,
+        "Exception information exposure",
+        "Avoid exposing internal exception details to clients.",
+        "Information disclosure");
+    
+    // Performance
+    private static final FindingTemplate SELECT_ALL = FindingTemplate.of(
+        ReviewFinding.FindingType.PERFORMANCE, ReviewFinding.Severity.MEDIUM,
+        "SELECT * query detected",
+        "Specify only required columns for better performance.",
+        "SELECT * query");
+    private static final FindingTemplate STRING_CONCAT_LOOP = FindingTemplate.of(
+        ReviewFinding.FindingType.PERFORMANCE, ReviewFinding.Severity.MEDIUM,
+        "String concatenation in loop detected",
+        "Use StringBuilder for efficient string concatenation.",
+        "Inefficient string concatenation");
+    private static final FindingTemplate EAGER_ONE_TO_MANY = FindingTemplate.of(
+        ReviewFinding.FindingType.PERFORMANCE, ReviewFinding.Severity.MEDIUM,
+        "Potential N+1 query problem",
+        "Use LAZY loading for @OneToMany relationships.",
+        "@OneToMany without LAZY loading");
+    
+    /**
+     * Outcome of a gate check against the critical and high findings thresholds
+     *
+     * @param complete whether every enabled rule ran on every file; a gate stops as soon as its
+     *                 outcome is decided, so the findings of an incomplete result are partial
+     */
+    public record GateResult(boolean passed, boolean complete, int criticalFindings, int highFindings,
+                             List<ReviewFinding> findings) {
+    }
+    
+    /**
+     * Rules of one category, run on one file
+     */
+    @FunctionalInterface
+    private interface CategoryValidator {
+        void validate(String fileName, ValidationScope scope, RuleBudget budget, RuleSet rules,
+                      boolean isCriticalFile, List<FindingTemplate.Hit> hits);
+    }
+    
+    /**
+     * One category of rules as the gate schedules it: the most severe finding it can report and its
+     * relative cost; a null validator stands for duplication across files
+     */
+    private record GateStage(CategoryValidator validator, ReviewFinding.Severity maxSeverity, int cost) {
+    }
+    
+    /**
+     * A file of a gate check, lexed by the first stage that reaches it and reused by the others
+     */
+    private static final class GateFile {
+        private final SourceText source;
+        private final boolean critical;
+        private ValidationScope scope;
+        
+        private GateFile(SourceText source, boolean critical) {
+            this.source = source;
+            this.critical = critical;
+        }
+    }
+    
+    /**
+     * Findings of a gate check so far, counted against the thresholds
+     */
+    private static final class GateTally {
+        private final ReviewConfiguration.Thresholds thresholds;
+        private final List<ReviewFinding> findings = new ArrayList<>();
+        private int critical;
+        private int high;
+        
+        private GateTally(ReviewConfiguration.Thresholds thresholds) {
+            this.thresholds = thresholds;
+        }
+        
+        /**
+         * Count the findings; true once a threshold is exceeded
+         */
+        private boolean add(List<ReviewFinding> batch) {
+            for (ReviewFinding finding : batch) {
+                if (finding.getSeverity() == ReviewFinding.Severity.CRITICAL) {
+                    critical++;
+                } else if (finding.getSeverity() == ReviewFinding.Severity.HIGH) {
+                    high++;
+                }
+            }
+            findings.addAll(batch);
+            return critical > thresholds.getCriticalFindingsThreshold() || high > thresholds.getHighFindingsThreshold();
+        }
+        
+        private GateResult result(boolean passed, boolean complete) {
+            return new GateResult(passed, complete, critical, high, findings);
+        }
+    }
+    
+    // Holds the configuration with its compiled rules, so a reload swaps both at once
+    private final AtomicReference<RuleSet> ruleSet;
+    private final FindingsBaseline baseline;
     
-    // Enhanced patterns with configuration support
-    private static final Pattern LONG_METHOD_PATTERN = Pattern.compile("(?s)public\\s+\\w+[^{]*\\{([^{}]*\\{[^{}]*\\}[^{}]*)*[^{}]*\\}");
-    private static final Pattern MANY_PARAMETERS_PATTERN = Pattern.compile("\\([^)]*,.*,.*,.*,.*,.*[^)]*\\)");
-    private static final Pattern HARDCODED_SECRET_PATTERN = Pattern.compile("(?i)(password|secret|apikey|token|key)\\s*[=:]\\s*[\"'][^\"']{8,}[\"']");
-    private static final Pattern FIELD_INJECTION_PATTERN = Pattern.compile("@Autowired\\s+private");
-    private static final Pattern SELECT_ALL_PATTERN = Pattern.compile("(?i)select\\s+\\*\\s+from");
-    private static final Pattern DEEP_NESTING_PATTERN = Pattern.compile("(?s)if\\s*\\([^{]*\\{[^{}]*if\\s*\\([^{]*\\{[^{}]*if\\s*\\([^{]*\\{[^{}]*if\\s*\\(");
-    private static final Pattern MAGIC_NUMBER_PATTERN = Pattern.compile("\\b(?<!\\.)(?:(?:[2-9]|[1-9][0-9]+)(?:\\.[0-9]+)?)\\b(?!\\s*[)}]|\\s*;\\s*//)");
-    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile("(?i)(select|insert|update|delete).*\\+.*[\"'].*[\"']");
-    private static final Pattern POOR_NAMING_PATTERN = Pattern.compile("(?:public|private|protected)\\s+\\w+\\s+(get|set|do|handle|process|manage|data|info|obj|temp|var)\\d*\\s*\\(");
-    private static final Pattern EMPTY_CATCH_PATTERN = Pattern.compile("catch\\s*\\([^)]*\\)\\s*\\{\\s*(?://.*)?\\s*\\}");
-    private static final Pattern INSECURE_RANDOM_PATTERN = Pattern.compile("new\\s+Random\\s*\\(");
-    private static final Pattern WEAK_CRYPTO_PATTERN = Pattern.compile("(?i)(DES|MD5|SHA1)[\"']|getInstance\\s*\\(\\s*[\"'](DES|MD5|SHA1)[\"']");
-    private static final Pattern MISSING_VALIDATION_PATTERN = Pattern.compile("@RequestBody\\s+(?!@Valid)\\w+");
-    private static final Pattern EXPOSED_EXCEPTION_PATTERN = Pattern.compile("(?:printStackTrace|getMessage)\\(\\)");
-    private static final Pattern STRING_CONCAT_LOOP_PATTERN = Pattern.compile("(?s)for\\s*\\([^{]*\\{[^{}]*\\w+\\s*\\+=?\\s*\\w+\\s*\\+");
-
     @Autowired
     public ConfigurableArchitectureValidationService(ReviewConfiguration reviewConfig) {
-        this.reviewConfig = reviewConfig;
+        this.ruleSet = new AtomicReference<>(RuleSet.compile(reviewConfig));
+        
+        ReviewConfiguration.Cache cache = reviewConfig.getCache();
+        if (cache.isEnabled()) {
+            String directory = cache.getDirectory();
+            setFindingsCache(new FindingsCache(cache.getMaxEntries(),
+                directory == null || directory.isBlank() ? null : Path.of(directory), cache.getMaxDiskEntries()));
+        }
+        
+        String baselineDirectory = reviewConfig.getBaseline().getDirectory();
+        this.baseline = new FindingsBaseline(
+            baselineDirectory == null || baselineDirectory.isBlank() ? null : Path.of(baselineDirectory));
+    }
+    
+    /**
+     * Recompile the rule set from the configuration and swap it in for subsequent validations
+     * Changed properties are also picked up on the next validation; call this after mutating a
+     * configured list in place
+     */
+    public void reloadRules() {
+        ruleSet.set(RuleSet.compile(ruleSet.get().source()));
+    }
+    
+    /**
+     * Swap in rules compiled from a new configuration; validations already running finish on the
+     * rules they started with
+     * Only thresholds, rules and patterns take effect, cache and baseline settings are read once
+     */
+    void applyRules(RuleSet rules) {
+        ruleSet.set(rules);
     }
 
     @Override
-    public List<ReviewFinding> validateArchitecturalPrinciples(String fileName, String code) {
-        List<ReviewFinding> findings = new ArrayList<>();
+    protected String rulesFingerprint() {
+        // Rules the cost policy currently demotes or skips change findings as much as the configuration
+        return FindingsCache.digest(currentRules().fingerprint(), ruleCosts().policyState());
+    }
+
+    @Override
+    protected RuleCosts.Policy costPolicy() {
+        return currentRules().costPolicy();
+    }
+
+    @Override
+    protected List<ReviewFinding> validateSource(String fileName, SourceText source, ChangedLines changes) {
+        List<FindingTemplate.Hit> hits = new ArrayList<>();
+        
+        RuleSet rules = currentRules();
         
         // Skip files matching ignore patterns
-        if (shouldIgnoreFile(fileName)) {
-            return findings;
+        if (rules.isIgnored(fileName)) {
+            return new ArrayList<>();
         }
         
         // Check if file is critical (higher scrutiny)
-        boolean isCriticalFile = isCriticalFile(fileName);
+        boolean isCriticalFile = rules.isCritical(fileName);
+        
+        // Lex and index the file once; every rule of the file's language walks the same tokens and
+        // structure under one budget
+        RuleBudget budget = startBudget(fileName, source, rules);
+        ValidationScope scope = ValidationScope.of(source, changes, budget);
         
         // Apply validations based on configuration
-        if (reviewConfig.getRules().isEnableCleanCode()) {
-            findings.addAll(validateCleanCodePrinciples(fileName, code, isCriticalFile));
+        if (rules.isCleanCodeEnabled()) {
+            validateCleanCodePrinciples(fileName, scope, budget, rules, isCriticalFile, hits);
         }
         
-        if (reviewConfig.getRules().isEnableSolid()) {
-            findings.addAll(validateSolidPrinciples(fileName, code, isCriticalFile));
+        if (rules.isSolidEnabled()) {
+            validateSolidPrinciples(fileName, scope, budget, rules, isCriticalFile, hits);
         }
         
-        if (reviewConfig.getRules().isEnableDdd()) {
-            findings.addAll(validateDddPrinciples(fileName, code, isCriticalFile));
+        if (rules.isDddEnabled()) {
+            validateDddPrinciples(fileName, scope, budget, rules, isCriticalFile, hits);
         }
         
-        if (reviewConfig.getRules().isEnableSecurity()) {
-            findings.addAll(validateSecurityPrinciples(fileName, code, isCriticalFile));
+        if (rules.isSecurityEnabled()) {
+            validateSecurityPrinciples(fileName, scope, budget, rules, isCriticalFile, hits);
         }
         
-        if (reviewConfig.getRules().isEnablePerformance()) {
-            findings.addAll(validatePerformancePrinciples(fileName, code, isCriticalFile));
+        if (rules.isPerformanceEnabled()) {
+            validatePerformancePrinciples(fileName, scope, budget, rules, isCriticalFile, hits);
         }
         
-        // Filter disabled rules
-        findings = filterByRuleConfiguration(findings);
+        // Rules stopped by the budget
+        hits.addAll(abortedRuleHits(budget));
         
-        // Apply custom severity overrides
-        findings = applySeverityOverrides(findings);
+        // Filter disabled rules and apply custom severity overrides
+        return scope.findings(fileName, applyRuleConfiguration(hits, rules));
+    }
+
+    /**
+     * Gate mode for CI pre-checks: decide only whether the files pass the critical and high findings
+     * thresholds, stopping as soon as that is decided
+     * Categories run across all files most severe first and, among equally severe ones, cheapest
+     * first; once a threshold is exceeded the gate fails, and once no remaining category can report a
+     * critical or high finding it passes. Each file is lexed once, while every stage starts a fresh
+     * budget for it
+     */
+    public GateResult validateGate(Map<String, String> filesByName) {
+        RuleSet rules = currentRules();
+        ReviewConfiguration.Thresholds thresholds = rules.thresholds();
+        
+        Map<String, GateFile> files = new LinkedHashMap<>();
+        filesByName.forEach((fileName, code) -> {
+            if (!rules.isIgnored(fileName) && !isSkipped(fileName, code)) {
+                files.put(fileName, new GateFile(SourceText.of(code), rules.isCritical(fileName)));
+            }
+        });
+        boolean anyCriticalFile = files.values().stream().anyMatch(file -> file.critical);
+        
+        GateTally tally = new GateTally(thresholds);
+        for (GateStage stage : gateStages(rules, anyCriticalFile)) {
+            // Stages are sorted by severity, so no later stage can fail the gate either
+            if (stage.maxSeverity().compareTo(ReviewFinding.Severity.HIGH) < 0) {
+                return tally.result(true, false);
+            }
+            
+            if (stage.validator() == null) {
+                Map<String, SourceText> sources = new LinkedHashMap<>();
+                files.forEach((fileName, file) -> sources.put(fileName, file.source));
+                if (tally.add(validateDuplicationAcrossFiles(sources))) {
+                    return tally.result(false, false);
+                }
+                continue;
+            }
+            
+            for (Map.Entry<String, GateFile> file : files.entrySet()) {
+                if (tally.add(validateGateStage(stage, file.getKey(), file.getValue(), rules))) {
+                    return tally.result(false, false);
+                }
+            }
+        }
+        return tally.result(true, true);
+    }
+
+    /**
+     * Scan every file of the repository and store the fingerprints of the findings as its baseline,
+     * replacing any earlier one
+     *
+     * @return the number of distinct fingerprints in the baseline
+     */
+    public int recordBaseline(String repository, Map<String, String> filesByName) {
+        return recordBaseline(repository, validateArchitecturalPrinciples(filesByName));
+    }
+
+    /**
+     * Store the fingerprints of the findings of a full scan done elsewhere, e.g. by a batch scan
+     */
+    public int recordBaseline(String repository, List<ReviewFinding> findings) {
+        return baseline.record(repository, findings);
+    }
+
+    public boolean hasBaseline(String repository) {
+        return baseline.has(repository);
+    }
+
+    /**
+     * The findings not in the baseline of the repository, all of them when it has none
+     */
+    public List<ReviewFinding> newSinceBaseline(String repository, List<ReviewFinding> findings) {
+        return baseline.newFindings(repository, findings);
+    }
+
+    /**
+     * Validate the files of a review and report only the findings not in the baseline of the repository
+     */
+    public List<ReviewFinding> validateAgainstBaseline(String repository, Map<String, String> filesByName) {
+        return newSinceBaseline(repository, validateArchitecturalPrinciples(filesByName));
+    }
+
+    @Override
+    protected List<ReviewFinding> validateDuplicationAcrossFiles(Map<String, SourceText> sourcesByName) {
+        RuleSet rules = currentRules();
+        if (!rules.isCleanCodeEnabled()) {
+            return new ArrayList<>();
+        }
         
-        return findings;
+        Map<String, SourceText> reviewedFiles = new LinkedHashMap<>();
+        sourcesByName.forEach((fileName, source) -> {
+            if (!rules.isIgnored(fileName)) {
+                reviewedFiles.put(fileName, source);
+            }
+        });
+        
+        List<ReviewFinding> findings = filterByRuleConfiguration(super.validateDuplicationAcrossFiles(reviewedFiles), rules);
+        return applySeverityOverrides(findings, rules);
     }
 
-    private List<ReviewFinding> validateCleanCodePrinciples(String fileName, String code, boolean isCriticalFile) {
-        List<ReviewFinding> findings = new ArrayList<>();
+    private void validateCleanCodePrinciples(String fileName, ValidationScope scope, RuleBudget budget,
+                                             RuleSet rules, boolean isCriticalFile, List<FindingTemplate.Hit> hits) {
+        TokenStream tokens = scope.tokens();
+        TokenStream fileTokens = scope.fileTokens();
+        SourceStructure structure = scope.structure();
         
         // Configurable method length check
-        if (isMethodTooLong(code)) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.KISS_VIOLATION,
+        int longMethod = ArchitectureRules.longMethod(structure, rules.maxMethodLength());
+        if (longMethod >= 0) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, LONG_METHOD.at(
+                fileTokens.line(longMethod),
                 isCriticalFile ? ReviewFinding.Severity.HIGH : ReviewFinding.Severity.MEDIUM,
-                "Method exceeds " + reviewConfig.getThresholds().getMaxMethodLength() + " lines",
-                "Break down long methods into smaller, focused methods.",
-                "Long method detected"
-            ));
+                "Method exceeds " + rules.maxMethodLength() + " lines", null)));
         }
         
         // Configurable parameter count check
-        if (hasTooManyParameters(code)) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.BEST_PRACTICE,
-                ReviewFinding.Severity.MEDIUM,
-                "Method has more than " + reviewConfig.getThresholds().getMaxParameters() + " parameters",
-                "Consider using a parameter object or builder pattern.",
-                "Too many parameters"
-            ));
+        int manyParameters = ArchitectureRules.manyParameters(structure, rules.maxParameters());
+        if (manyParameters >= 0) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, MANY_PARAMETERS.at(
+                fileTokens.line(manyParameters), MANY_PARAMETERS.severity(),
+                "Method has more than " + rules.maxParameters() + " parameters", null)));
         }
         
         // Deep nesting check
-        if (DEEP_NESTING_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.KISS_VIOLATION,
-                isCriticalFile ? ReviewFinding.Severity.CRITICAL : ReviewFinding.Severity.HIGH,
-                "Deep nesting detected (4+ levels)",
-                "Use guard clauses, early returns, or extract methods.",
-                "Deep nesting violation"
-            ));
+        int deepNesting = ArchitectureRules.deepNesting(structure);
+        if (deepNesting >= 0) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, DEEP_NESTING.at(
+                fileTokens.line(deepNesting), isCriticalFile ? ReviewFinding.Severity.CRITICAL : ReviewFinding.Severity.HIGH)));
         }
         
         // Magic numbers check with whitelist
-        findings.addAll(detectMagicNumbers(fileName, code));
+        detectMagicNumbers(scope, budget, rules, hits);
         
         // Poor naming check
-        if (POOR_NAMING_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.BEST_PRACTICE,
-                ReviewFinding.Severity.MEDIUM,
-                "Poor naming convention detected",
-                "Use descriptive method names that clearly indicate their purpose.",
-                "Vague method names"
-            ));
+        int poorNaming = ArchitectureRules.poorNaming(fileTokens, structure);
+        if (poorNaming >= 0) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, POOR_NAMING.at(fileTokens.line(poorNaming))));
         }
         
         // Empty catch blocks
-        if (EMPTY_CATCH_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.BEST_PRACTICE,
-                isCriticalFile ? ReviewFinding.Severity.HIGH : ReviewFinding.Severity.MEDIUM,
-                "Empty catch block detected",
-                "Handle exceptions properly or at least log them.",
-                "Empty exception handling"
-            ));
+        int emptyCatch = ArchitectureRules.emptyCatch(tokens, budget);
+        if (emptyCatch >= 0) {
+            hits.add(reported(budget, ArchitectureRules.EMPTY_CATCH, EMPTY_CATCH.at(
+                tokens.line(emptyCatch), isCriticalFile ? ReviewFinding.Severity.HIGH : ReviewFinding.Severity.MEDIUM)));
         }
-        
-        return findings;
     }
 
-    private List<ReviewFinding> validateSolidPrinciples(String fileName, String code, boolean isCriticalFile) {
-        List<ReviewFinding> findings = new ArrayList<>();
+    private void validateSolidPrinciples(String fileName, ValidationScope scope, RuleBudget budget,
+                                         RuleSet rules, boolean isCriticalFile, List<FindingTemplate.Hit> hits) {
+        TokenStream tokens = scope.tokens();
         
         // Field injection check
-        if (FIELD_INJECTION_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.DEPENDENCY_INJECTION,
-                ReviewFinding.Severity.MEDIUM,
-                "Field injection detected",
-                "Use constructor injection for better testability.",
-                "@Autowired field injection"
-            ));
+        int fieldInjection = ArchitectureRules.fieldInjection(tokens, budget);
+        if (fieldInjection >= 0) {
+            hits.add(reported(budget, ArchitectureRules.FIELD_INJECTION, FIELD_INJECTION.at(tokens.line(fieldInjection))));
         }
         
         // Class size check
-        long lineCount = code.lines().count();
-        if (lineCount > reviewConfig.getThresholds().getMaxClassLength()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.SOLID_PRINCIPLES,
+        SourceStructure.TypeDeclaration largestType = scope.structure().largestType();
+        if (largestType != null && largestType.lines() > rules.maxClassLength()) {
+            hits.add(reported(budget, SourceStructure.STRUCTURE, LARGE_CLASS.at(
+                scope.fileTokens().line(largestType.keyword()),
                 isCriticalFile ? ReviewFinding.Severity.CRITICAL : ReviewFinding.Severity.HIGH,
-                "Class is too large (" + lineCount + " lines, max: " + reviewConfig.getThresholds().getMaxClassLength() + ")",
-                "Large classes violate Single Responsibility Principle. Break into smaller classes.",
-                "Large class detected"
-            ));
+                "Class is too large (" + largestType.lines() + " lines, max: " + rules.maxClassLength() + ")", null)));
         }
-        
-        return findings;
     }
 
-    private List<ReviewFinding> validateDddPrinciples(String fileName, String code, boolean isCriticalFile) {
-        List<ReviewFinding> findings = new ArrayList<>();
+    private void validateDddPrinciples(String fileName, ValidationScope scope, RuleBudget budget,
+                                       RuleSet rules, boolean isCriticalFile, List<FindingTemplate.Hit> hits) {
+        // Whether an entity has an identity depends on the whole class
+        TokenStream tokens = scope.fileTokens();
         
         // Entity without ID check
-        if (code.contains("@Entity") && !code.contains("@Id")) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.DDD_AGGREGATE,
-                ReviewFinding.Severity.HIGH,
-                "Entity missing @Id annotation",
-                "Domain entities must have identity. Add @Id annotation.",
-                "@Entity without @Id"
-            ));
+        int entityWithoutId = ArchitectureRules.entityWithoutId(tokens, budget);
+        if (entityWithoutId >= 0) {
+            hits.add(reported(budget, ArchitectureRules.ENTITY_WITHOUT_ID, ENTITY_WITHOUT_ID.at(tokens.line(entityWithoutId))));
         }
-        
-        return findings;
     }
 
-    private List<ReviewFinding> validateSecurityPrinciples(String fileName, String code, boolean isCriticalFile) {
-        List<ReviewFinding> findings = new ArrayList<>();
+    private void validateSecurityPrinciples(String fileName, ValidationScope scope, RuleBudget budget,
+                                            RuleSet rules, boolean isCriticalFile, List<FindingTemplate.Hit> hits) {
+        TokenStream tokens = scope.tokens();
         
         // Skip security checks for whitelisted files
-        if (shouldSkipSecurityChecks(fileName)) {
-            return findings;
+        if (rules.skipsSecurityChecks(fileName)) {
+            return;
         }
         
         // Hardcoded secrets with whitelist
-        findings.addAll(detectHardcodedSecrets(fileName, code, isCriticalFile));
+        detectHardcodedSecrets(tokens, budget, rules, isCriticalFile, hits);
         
         // SQL injection check
-        if (SQL_INJECTION_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.CRITICAL,
-                "Potential SQL injection vulnerability",
-                "Use parameterized queries instead of string concatenation.",
-                "SQL injection risk"
-            ));
+        int sqlInjection = ArchitectureRules.sqlInjection(tokens, budget);
+        if (sqlInjection >= 0) {
+            hits.add(reported(budget, ArchitectureRules.SQL_INJECTION, SQL_INJECTION.at(tokens.line(sqlInjection))));
         }
         
         // Insecure random check
-        if (INSECURE_RANDOM_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                isCriticalFile ? ReviewFinding.Severity.CRITICAL : ReviewFinding.Severity.HIGH,
-                "Insecure random number generation",
-                "Use SecureRandom for security-sensitive operations.",
-                "Insecure Random usage"
-            ));
+        int insecureRandom = ArchitectureRules.insecureRandom(tokens, budget);
+        if (insecureRandom >= 0) {
+            hits.add(reported(budget, ArchitectureRules.INSECURE_RANDOM, INSECURE_RANDOM.at(
+                tokens.line(insecureRandom), isCriticalFile ? ReviewFinding.Severity.CRITICAL : ReviewFinding.Severity.HIGH)));
         }
         
         // Weak cryptography check
-        if (WEAK_CRYPTO_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.HIGH,
-                "Weak cryptographic algorithm detected",
-                "Use strong algorithms like AES, SHA-256, or SHA-3.",
-                "Weak cryptography"
-            ));
+        int weakCrypto = ArchitectureRules.weakCrypto(tokens, budget);
+        if (weakCrypto >= 0) {
+            hits.add(reported(budget, ArchitectureRules.WEAK_CRYPTO, WEAK_CRYPTO.at(tokens.line(weakCrypto))));
         }
         
         // Missing validation check
-        if (MISSING_VALIDATION_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.MEDIUM,
-                "Missing input validation",
-                "Add @Valid annotation to validate input data.",
-                "Missing validation"
-            ));
+        int missingValidation = ArchitectureRules.missingValidation(tokens, budget);
+        if (missingValidation >= 0) {
+            hits.add(reported(budget, ArchitectureRules.MISSING_VALIDATION, MISSING_VALIDATION.at(tokens.line(missingValidation))));
         }
         
         // Exposed exception information
-        if (EXPOSED_EXCEPTION_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.SECURITY,
-                ReviewFinding.Severity.MEDIUM,
-                "Exception information exposure",
-                "Avoid exposing internal exception details to clients.",
-                "Information disclosure"
-            ));
+        int exposedException = ArchitectureRules.exposedException(tokens, budget);
+        if (exposedException >= 0) {
+            hits.add(reported(budget, ArchitectureRules.EXPOSED_EXCEPTION, EXPOSED_EXCEPTION.at(tokens.line(exposedException))));
         }
-        
-        return findings;
     }
 
-    private List<ReviewFinding> validatePerformancePrinciples(String fileName, String code, boolean isCriticalFile) {
-        List<ReviewFinding> findings = new ArrayList<>();
+    private void validatePerformancePrinciples(String fileName, ValidationScope scope, RuleBudget budget,
+                                               RuleSet rules, boolean isCriticalFile, List<FindingTemplate.Hit> hits) {
+        TokenStream tokens = scope.tokens();
         
         // SELECT * check
-        if (SELECT_ALL_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.PERFORMANCE,
-                ReviewFinding.Severity.MEDIUM,
-                "SELECT * query detected",
-                "Specify only required columns for better performance.",
-                "SELECT * query"
-            ));
+        int selectAll = ArchitectureRules.selectAll(tokens, budget);
+        if (selectAll >= 0) {
+            hits.add(reported(budget, ArchitectureRules.SELECT_ALL, SELECT_ALL.at(tokens.line(selectAll))));
         }
         
         // String concatenation in loops
-        if (STRING_CONCAT_LOOP_PATTERN.matcher(code).find()) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.PERFORMANCE,
-                ReviewFinding.Severity.MEDIUM,
-                "String concatenation in loop detected",
-                "Use StringBuilder for efficient string concatenation.",
-                "Inefficient string concatenation"
-            ));
-        }
-        
-        // N+1 query check
-        if (code.contains("@OneToMany") && !code.contains("fetch = FetchType.LAZY")) {
-            findings.add(createConfigurableFinding(
-                fileName, 0, ReviewFinding.FindingType.PERFORMANCE,
-                ReviewFinding.Severity.MEDIUM,
-                "Potential N+1 query problem",
-                "Use LAZY loading for @OneToMany relationships.",
-                "@OneToMany without LAZY loading"
-            ));
+        int stringConcat = ArchitectureRules.stringConcatInLoop(tokens, budget);
+        if (stringConcat >= 0) {
+            hits.add(reported(budget, ArchitectureRules.STRING_CONCAT_LOOP, STRING_CONCAT_LOOP.at(tokens.line(stringConcat))));
         }
         
-        return findings;
+        // N+1 query check; lazy fetching may be asked for anywhere in the file
+        int eagerOneToMany = ArchitectureRules.eagerOneToMany(scope.fileTokens(), budget);
+        if (eagerOneToMany >= 0) {
+            hits.add(reported(budget, ArchitectureRules.EAGER_ONE_TO_MANY,
+                EAGER_ONE_TO_MANY.at(scope.fileTokens().line(eagerOneToMany))));
+        }
     }
 
-    private boolean shouldIgnoreFile(String fileName) {
-        return reviewConfig.getPatterns().getIgnoreFiles().stream()
-            .anyMatch(pattern -> matchesPattern(fileName, pattern));
+    @Override
+    protected RuleBudget startCrossFileBudget(int characters) {
+        RuleSet rules = currentRules();
+        return rules.startBudget()
+            .observedBy(ruleCosts().forReview(characters, rules.costPolicy()));
     }
 
-    private boolean isCriticalFile(String fileName) {
-        return reviewConfig.getPatterns().getCriticalFiles().stream()
-            .anyMatch(pattern -> matchesPattern(fileName, pattern));
+    private RuleBudget startBudget(String fileName, SourceText source, RuleSet rules) {
+        return rules.startBudget()
+            .limitedTo(RulePack.rulesFor(fileName))
+            .observedBy(ruleCosts().forFile(fileName, source.text().length(), rules.costPolicy()));
     }
 
-    private boolean shouldSkipSecurityChecks(String fileName) {
-        return reviewConfig.getPatterns().getWhitelist().getSkipSecurityChecks().stream()
-            .anyMatch(pattern -> matchesPattern(fileName, pattern));
+    /**
+     * Enabled categories in the order the gate runs them: most severe first, then cheapest first
+     * Severity overrides count, so a category raised to critical by configuration runs early
+     */
+    private List<GateStage> gateStages(RuleSet rules, boolean anyCriticalFile) {
+        ReviewFinding.Severity structural = anyCriticalFile ? ReviewFinding.Severity.CRITICAL : ReviewFinding.Severity.HIGH;
+        List<GateStage> stages = new ArrayList<>();
+        if (rules.isSecurityEnabled()) {
+            stages.add(gateStage(this::validateSecurityPrinciples, ReviewFinding.Severity.CRITICAL, 1, rules,
+                ReviewFinding.FindingType.SECURITY));
+        }
+        if (rules.isDddEnabled()) {
+            stages.add(gateStage(this::validateDddPrinciples, ReviewFinding.Severity.HIGH, 1, rules,
+                ReviewFinding.FindingType.DDD_AGGREGATE));
+        }
+        if (rules.isPerformanceEnabled()) {
+            stages.add(gateStage(this::validatePerformancePrinciples, ReviewFinding.Severity.MEDIUM, 1, rules,
+                ReviewFinding.FindingType.PERFORMANCE));
+        }
+        if (rules.isSolidEnabled()) {
+            stages.add(gateStage(this::validateSolidPrinciples, structural, 2, rules,
+                ReviewFinding.FindingType.DEPENDENCY_INJECTION, ReviewFinding.FindingType.SOLID_PRINCIPLES));
+        }
+        if (rules.isCleanCodeEnabled()) {
+            stages.add(gateStage(this::validateCleanCodePrinciples, structural, 3, rules,
+                ReviewFinding.FindingType.KISS_VIOLATION, ReviewFinding.FindingType.BEST_PRACTICE));
+            stages.add(gateStage(null, ReviewFinding.Severity.HIGH, 4, rules,
+                ReviewFinding.FindingType.DRY_VIOLATION));
+        }
+        stages.sort(Comparator.comparing(GateStage::maxSeverity).reversed().thenComparingInt(GateStage::cost));
+        return stages;
     }
 
-    private boolean matchesPattern(String fileName, String pattern) {
-        String regex = pattern.replace("*", ".*").replace("?", ".");
-        return fileName.matches(regex);
+    private GateStage gateStage(CategoryValidator validator, ReviewFinding.Severity maxSeverity, int cost,
+                                RuleSet rules, ReviewFinding.FindingType... types) {
+        for (ReviewFinding.FindingType type : types) {
+            ReviewFinding.Severity override = rules.severityOverride(FindingTemplate.ruleId(type));
+            if (override != null && override.compareTo(maxSeverity) > 0) {
+                maxSeverity = override;
+            }
+        }
+        return new GateStage(validator, maxSeverity, cost);
     }
 
-    private boolean isMethodTooLong(String code) {
-        // Simple line counting approach - could be enhanced
-        String[] lines = code.split("\\n");
-        int maxLength = reviewConfig.getThresholds().getMaxMethodLength();
-        
-        boolean inMethod = false;
-        int methodLineCount = 0;
-        
-        for (String line : lines) {
-            if (line.trim().matches(".*public\\s+\\w+.*\\{.*")) {
-                inMethod = true;
-                methodLineCount = 1;
-            } else if (inMethod) {
-                methodLineCount++;
-                if (line.trim().equals("}")) {
-                    if (methodLineCount > maxLength) {
-                        return true;
-                    }
-                    inMethod = false;
-                    methodLineCount = 0;
-                }
-            }
+    private List<ReviewFinding> validateGateStage(GateStage stage, String fileName, GateFile file, RuleSet rules) {
+        RuleBudget budget = startBudget(fileName, file.source, rules);
+        if (file.scope == null) {
+            file.scope = ValidationScope.of(file.source, null, budget);
         }
         
-        return false;
+        List<FindingTemplate.Hit> hits = new ArrayList<>();
+        stage.validator().validate(fileName, file.scope.under(budget), budget, rules, file.critical, hits);
+        hits.addAll(abortedRuleHits(budget));
+        // Only counted against the thresholds, so left unfingerprinted to keep token-only stages off the structure
+        return file.scope.findings(fileName, applyRuleConfiguration(hits, rules), false);
     }
 
-    private boolean hasTooManyParameters(String code) {
-        int maxParams = reviewConfig.getThresholds().getMaxParameters();
-        Pattern dynamicPattern = Pattern.compile("\\([^)]*" + ",.*".repeat(Math.max(0, maxParams)) + "[^)]*\\)");
-        return dynamicPattern.matcher(code).find();
+    private RuleSet currentRules() {
+        RuleSet rules = ruleSet.get();
+        if (rules.isCompiledFrom(rules.source())) {
+            return rules;
+        }
+        
+        // Configuration was rebound since the last compile
+        RuleSet recompiled = RuleSet.compile(rules.source());
+        ruleSet.compareAndSet(rules, recompiled);
+        return recompiled;
     }
 
-    private List<ReviewFinding> detectMagicNumbers(String fileName, String code) {
-        List<ReviewFinding> findings = new ArrayList<>();
-        List<String> whitelist = reviewConfig.getPatterns().getWhitelist().getMagicNumbers();
-        
-        Matcher matcher = MAGIC_NUMBER_PATTERN.matcher(code);
-        while (matcher.find()) {
-            String number = matcher.group();
-            if (!whitelist.contains(number)) {
-                findings.add(createConfigurableFinding(
-                    fileName, getLineNumber(code, matcher.start()),
-                    ReviewFinding.FindingType.BEST_PRACTICE,
-                    ReviewFinding.Severity.MEDIUM,
-                    "Magic number detected: " + number,
-                    "Extract magic numbers to named constants.",
-                    number
-                ));
+    /**
+     * One finding per method, or per file, holding every magic number in it; a file yields at most
+     * the configured number of findings, further groups being folded into the last one
+     */
+    private void detectMagicNumbers(ValidationScope scope, RuleBudget budget, RuleSet rules,
+                                    List<FindingTemplate.Hit> hits) {
+        TokenStream tokens = scope.tokens();
+        int[] methodByLine = rules.groupsMagicNumbersByMethod() ? methodByLine(scope) : new int[0];
+        
+        // Groups by method index, -1 for numbers outside any method
+        Map<Integer, MagicNumberGroup> groups = new LinkedHashMap<>();
+        ArchitectureRules.forEachMagicNumber(tokens, budget, index -> {
+            String number = tokens.text(index);
+            if (!rules.isWhitelistedNumber(number)) {
+                int line = tokens.line(index);
+                int method = line < methodByLine.length ? methodByLine[line] : -1;
+                groups.computeIfAbsent(method, key -> new MagicNumberGroup(rules.magicNumberSampleSize()))
+                    .add(number, line);
             }
+        });
+        
+        List<Map.Entry<Integer, MagicNumberGroup>> grouped = new ArrayList<>(groups.entrySet());
+        int cap = rules.maxMagicNumberFindings();
+        if (grouped.size() > cap) {
+            MagicNumberGroup rest = grouped.get(cap - 1).getValue();
+            for (Map.Entry<Integer, MagicNumberGroup> folded : grouped.subList(cap, grouped.size())) {
+                rest.addAll(folded.getValue());
+            }
+            grouped.set(cap - 1, Map.entry(-1, rest));
+            grouped = grouped.subList(0, cap);
         }
         
-        return findings;
+        for (Map.Entry<Integer, MagicNumberGroup> entry : grouped) {
+            MagicNumberGroup group = entry.getValue();
+            String method = entry.getKey() < 0 ? null
+                : scope.fileTokens().text(scope.structure().methods().get(entry.getKey()).name());
+            hits.add(reported(budget, ArchitectureRules.MAGIC_NUMBER, MAGIC_NUMBER.at(
+                group.firstLine, MAGIC_NUMBER.severity(), group.description(method), group.firstNumber)));
+        }
     }
 
-    private List<ReviewFinding> detectHardcodedSecrets(String fileName, String code, boolean isCriticalFile) {
-        List<ReviewFinding> findings = new ArrayList<>();
-        List<String> allowedSecrets = reviewConfig.getPatterns().getWhitelist().getAllowedSecrets();
-        
-        Matcher matcher = HARDCODED_SECRET_PATTERN.matcher(code);
-        while (matcher.find()) {
-            String secret = matcher.group();
-            boolean isAllowed = allowedSecrets.stream()
-                .anyMatch(allowed -> secret.toLowerCase().contains(allowed.toLowerCase()));
-                
-            if (!isAllowed) {
-                findings.add(createConfigurableFinding(
-                    fileName, getLineNumber(code, matcher.start()),
-                    ReviewFinding.FindingType.SECURITY,
-                    isCriticalFile ? ReviewFinding.Severity.CRITICAL : ReviewFinding.Severity.HIGH,
-                    "Hardcoded secret detected",
-                    "Use configuration properties or environment variables.",
-                    "Hardcoded secret"
-                ));
-            }
+    /**
+     * Index of the innermost method spanning each line, -1 for lines outside methods
+     */
+    private static int[] methodByLine(ValidationScope scope) {
+        List<SourceStructure.Method> methods = scope.structure().methods();
+        TokenStream fileTokens = scope.fileTokens();
+        int lastLine = 0;
+        for (SourceStructure.Method method : methods) {
+            lastLine = Math.max(lastLine, fileTokens.line(method.name()) + method.lines() - 1);
         }
         
-        return findings;
+        int[] methodByLine = new int[lastLine + 1];
+        Arrays.fill(methodByLine, -1);
+        // Methods come in declaration order, so a nested method overwrites the lines of its enclosing one
+        for (int m = 0; m < methods.size(); m++) {
+            int first = fileTokens.line(methods.get(m).name());
+            Arrays.fill(methodByLine, first, first + methods.get(m).lines(), m);
+        }
+        return methodByLine;
     }
 
-    private List<ReviewFinding> filterByRuleConfiguration(List<ReviewFinding> findings) {
-        List<String> disabledRules = reviewConfig.getRules().getDisabled();
+    /**
+     * Magic numbers of one method or file: an occurrence count and a bounded sample of values and lines
+     */
+    private static final class MagicNumberGroup {
+        private final int sampleSize;
+        private final Set<String> numbers = new LinkedHashSet<>();
+        private final List<Integer> lines = new ArrayList<>();
+        private String firstNumber;
+        private int firstLine;
+        private int occurrences;
+        private boolean moreNumbers;
+        private boolean moreLines;
+        
+        private MagicNumberGroup(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
         
-        return findings.stream()
-            .filter(finding -> !disabledRules.contains(finding.getRuleId()))
-            .filter(finding -> !disabledRules.contains(finding.getType().name()))
-            .collect(Collectors.toList());
+        private void add(String number, int line) {
+            if (occurrences++ == 0) {
+                firstNumber = number;
+                firstLine = line;
+            }
+            if (numbers.size() < sampleSize) {
+                numbers.add(number);
+            } else if (!numbers.contains(number)) {
+                moreNumbers = true;
+            }
+            addLine(line);
+        }
+        
+        private void addAll(MagicNumberGroup other) {
+            occurrences += other.occurrences;
+            moreNumbers |= other.moreNumbers;
+            for (String number : other.numbers) {
+                if (numbers.size() < sampleSize) {
+                    numbers.add(number);
+                } else if (!numbers.contains(number)) {
+                    moreNumbers = true;
+                }
+            }
+            moreLines |= other.moreLines;
+            for (int line : other.lines) {
+                addLine(line);
+            }
+        }
+        
+        private void addLine(int line) {
+            if (lines.contains(line)) {
+                return;
+            }
+            if (lines.size() < sampleSize) {
+                lines.add(line);
+            } else {
+                moreLines = true;
+            }
+        }
+        
+        private String description(String method) {
+            if (occurrences == 1) {
+                return "Magic number detected: " + firstNumber;
+            }
+            StringBuilder description = new StringBuilder("Magic numbers detected");
+            if (method != null) {
+                description.append(" in ").append(method).append("()");
+            }
+            description.append(": ").append(String.join(", ", numbers)).append(moreNumbers ? ", ..." : "")
+                .append(" (").append(occurrences).append(lines.size() == 1 ? " occurrences on line " : " occurrences on lines ");
+            for (int i = 0; i < lines.size(); i++) {
+                description.append(i == 0 ? "" : ", ").append(lines.get(i));
+            }
+            return description.append(moreLines ? ", ...)" : ")").toString();
+        }
     }
 
-    private List<ReviewFinding> applySeverityOverrides(List<ReviewFinding> findings) {
-        var severityOverrides = reviewConfig.getRules().getSeverity();
-        
+    private void detectHardcodedSecrets(TokenStream tokens, RuleBudget budget, RuleSet rules,
+                                        boolean isCriticalFile, List<FindingTemplate.Hit> hits) {
+        ReviewFinding.Severity severity = isCriticalFile ? ReviewFinding.Severity.CRITICAL : ReviewFinding.Severity.HIGH;
+        ArchitectureRules.forEachHardcodedSecret(tokens, budget, literal -> {
+            if (!rules.isAllowedSecret(ArchitectureRules.secretSnippet(tokens, literal))) {
+                hits.add(reported(budget, ArchitectureRules.HARDCODED_SECRET,
+                    HARDCODED_SECRET.at(tokens.line(literal), severity)));
+            }
+        });
+    }
+
+    private List<ReviewFinding> filterByRuleConfiguration(List<ReviewFinding> findings, RuleSet rules) {
         return findings.stream()
-            .map(finding -> {
-                String override = severityOverrides.get(finding.getRuleId());
-                if (override != null) {
-                    try {
-                        ReviewFinding.Severity newSeverity = ReviewFinding.Severity.valueOf(override.toUpperCase());
-                        finding.setSeverity(newSeverity);
-                    } catch (IllegalArgumentException e) {
-                        // Invalid severity override, keep original
-                    }
-                }
-                return finding;
-            })
+            .filter(finding -> !rules.isDisabled(finding))
             .collect(Collectors.toList());
     }
 
-    private ReviewFinding createConfigurableFinding(String fileName, int lineNumber,
-                                                   ReviewFinding.FindingType type,
-                                                   ReviewFinding.Severity severity,
-                                                   String description, String suggestion,
-                                                   String codeSnippet) {
-        ReviewFinding finding = new ReviewFinding();
-        finding.setFileName(fileName);
-        finding.setLineNumber(lineNumber > 0 ? lineNumber : null);
-        finding.setType(type);
-        finding.setSeverity(severity);
-        finding.setDescription(description);
-        finding.setSuggestion(suggestion);
-        finding.setCodeSnippet(codeSnippet);
-        finding.setRuleId("ARCH_" + type.name());
-        return finding;
+    /**
+     * Drop the hits of disabled rules and apply severity overrides; an explicit severity override
+     * wins over a demotion by the cost policy
+     */
+    private List<FindingTemplate.Hit> applyRuleConfiguration(List<FindingTemplate.Hit> hits, RuleSet rules) {
+        List<FindingTemplate.Hit> configured = new ArrayList<>(hits.size());
+        for (FindingTemplate.Hit hit : hits) {
+            if (!rules.isDisabled(hit.ruleId(), hit.type())) {
+                ReviewFinding.Severity override = rules.severityOverride(hit.ruleId());
+                configured.add(override != null ? hit.withSeverity(override) : hit);
+            }
+        }
+        return configured;
     }
 
-    private int getLineNumber(String code, int position) {
-        if (position < 0 || position >= code.length()) {
-            return 1;
+    /**
+     * An explicit severity override wins over a demotion by the cost policy
+     */
+    private List<ReviewFinding> applySeverityOverrides(List<ReviewFinding> findings, RuleSet rules) {
+        for (ReviewFinding finding : findings) {
+            ReviewFinding.Severity override = rules.severityOverride(finding.getRuleId());
+            if (override != null) {
+                finding.setSeverity(override);
+            }
         }
-        
-        String beforePosition = code.substring(0, position);
-        return (int) beforePosition.chars().filter(ch -> ch == '\n').count() + 1;
+        return findings;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,330 @@
+package com.reviewcode.ai.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rabin-Karp style duplicate block detection over fixed windows of source lines
+ * Every line is hashed once; a window's fingerprint is composed from its line hashes in constant
+ * time, and windows are grouped by fingerprint with a content check on collision, so detection is
+ * linear in the size of the input instead of comparing every window against every other window
+ */
+final class DuplicateBlockDetector {
+
+    static final int WINDOW_LINES = 5;
+    static final int MIN_BLOCK_LENGTH = 50;
+    static final int SNIPPET_LENGTH = 100;
+
+    private static final long LINE_PRIME = 0x100000001B3L;
+    private static final long WINDOW_PRIME = 0x9E3779B97F4A7C15L;
+
+    /**
+     * A block of one file that was copied from a block of an earlier file in the same review
+     */
+    record CrossFileDuplicate(String fileName, int startLine, int endLine,
+                              String originalFileName, int originalLine, String snippet) {
+    }
+
+    private DuplicateBlockDetector() {
+    }
+
+    /**
+     * Windows that reappear, without overlapping, further down the same file
+     * A window counts when its whitespace-trimmed text is longer than {@link #MIN_BLOCK_LENGTH}
+     *
+     * @param meter charged a step per line and per window
+     * @return zero-based indexes of the first line of each repeated window, ascending
+     */
+    static List<Integer> repeatedWindows(SourceText source, RuleBudget.Meter meter) {
+        LineIndex index = new LineIndex(source, meter);
+        int windows = index.windowCount();
+        List<Integer> repeated = new ArrayList<>();
+        if (windows == 0) {
+            return repeated;
+        }
+
+        WindowGroups groups = new WindowGroups();
+        int[] groupOf = new int[windows];
+        int[] lastOccurrence = new int[windows];
+        for (int i = 0; i < windows; i++) {
+            meter.step();
+            groupOf[i] = -1;
+            if (index.isEligible(i)) {
+                int group = groups.groupOf(index, i, 0);
+                groupOf[i] = group;
+                lastOccurrence[group] = i;
+            }
+        }
+
+        for (int i = 0; i < windows; i++) {
+            if (groupOf[i] >= 0 && lastOccurrence[groupOf[i]] >= i + WINDOW_LINES) {
+                repeated.add(i);
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * Blocks copied between files of one review; each copy is reported against the first file,
+     * in iteration order, that contains it, with consecutive copied windows merged into one block
+     *
+     * @param meter charged a step per line and per window of every file
+     */
+    static List<CrossFileDuplicate> crossFileDuplicates(Map<String, SourceText> files, RuleBudget.Meter meter) {
+        List<String> names = new ArrayList<>(files.keySet());
+        List<LineIndex> indexes = new ArrayList<>(names.size());
+        for (String name : names) {
+            indexes.add(new LineIndex(files.get(name), meter));
+        }
+
+        WindowGroups groups = new WindowGroups();
+        List<CrossFileDuplicate> duplicates = new ArrayList<>();
+
+        for (int file = 0; file < indexes.size(); file++) {
+            LineIndex index = indexes.get(file);
+            int runStart = -1;
+            int runEnd = -1;
+            long runOrigin = -1;
+
+            for (int i = 0; i < index.windowCount(); i++) {
+                meter.step();
+                long origin = -1;
+                if (index.isEligible(i)) {
+                    int group = groups.groupOf(index, i, file);
+                    long first = groups.firstOccurrence(group);
+                    if (fileOf(first) < file) {
+                        origin = first;
+                    }
+                }
+
+                boolean extendsRun = origin >= 0 && runStart >= 0 && origin == runOrigin + (i - runStart);
+                if (!extendsRun) {
+                    if (runStart >= 0) {
+                        duplicates.add(duplicate(names, indexes, file, runStart, runEnd, runOrigin));
+                    }
+                    runStart = origin >= 0 ? i : -1;
+                    runOrigin = origin;
+                }
+                runEnd = i;
+            }
+            if (runStart >= 0) {
+                duplicates.add(duplicate(names, indexes, file, runStart, runEnd, runOrigin));
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Text of the window as it appears in the file, cut to {@link #SNIPPET_LENGTH} characters
+     */
+    static String snippet(SourceText source, int window) {
+        int start = source.lineStart(window);
+        int end = source.lineEnd(window + WINDOW_LINES - 1);
+        return source.text().substring(start, Math.min(start + SNIPPET_LENGTH, end));
+    }
+
+    private static CrossFileDuplicate duplicate(List<String> names, List<LineIndex> indexes, int file,
+                                                int runStart, int runEnd, long origin) {
+        return new CrossFileDuplicate(
+            names.get(file), runStart + 1, runEnd + WINDOW_LINES,
+            names.get(fileOf(origin)), windowOf(origin) + 1,
+            snippet(indexes.get(file).source, runStart));
+    }
+
+    private static long occurrence(int file, int window) {
+        return ((long) file << 32) | window;
+    }
+
+    private static int fileOf(long occurrence) {
+        return (int) (occurrence >>> 32);
+    }
+
+    private static int windowOf(long occurrence) {
+        return (int) occurrence;
+    }
+
+    /**
+     * Windows grouped by identical trimmed content; groups are found through the window
+     * fingerprint and confirmed against the group's first window
+     */
+    private static final class WindowGroups {
+
+        private final Map<Long, int[]> groupsByFingerprint = new HashMap<>();
+        private final List<LineIndex> representativeIndex = new ArrayList<>();
+        private final List<Long> firstOccurrence = new ArrayList<>();
+
+        int groupOf(LineIndex index, int window, int file) {
+            long fingerprint = index.fingerprint(window);
+            int[] candidates = groupsByFingerprint.get(fingerprint);
+            if (candidates != null) {
+                for (int group : candidates) {
+                    long first = firstOccurrence.get(group);
+                    if (index.sameWindow(window, representativeIndex.get(group), windowOf(first))) {
+                        return group;
+                    }
+                }
+            }
+
+            int group = firstOccurrence.size();
+            representativeIndex.add(index);
+            firstOccurrence.add(occurrence(file, window));
+            if (candidates == null) {
+                groupsByFingerprint.put(fingerprint, new int[] { group });
+            } else {
+                int[] grown = Arrays.copyOf(candidates, candidates.length + 1);
+                grown[candidates.length] = group;
+                groupsByFingerprint.put(fingerprint, grown);
+            }
+            return group;
+        }
+
+        long firstOccurrence(int group) {
+            return firstOccurrence.get(group);
+        }
+    }
+
+    /**
+     * Per-line hashes and whitespace extents of one file
+     * A window is compared the way {@code String.join("\n", window).trim()} would compare it: blank
+     * lines at either end are dropped, then leading and trailing whitespace of the outer lines
+     */
+    private static final class LineIndex {
+
+        private final SourceText source;
+        private final String text;
+        private final int[] leading;
+        private final int[] trailing;
+        private final long[] exactHash;
+        private final long[] leadingTrimmedHash;
+        private final long[] trailingTrimmedHash;
+        private final long[] trimmedHash;
+
+        LineIndex(SourceText source, RuleBudget.Meter meter) {
+            this.source = source;
+            this.text = source.text();
+            int count = source.contentLineCount();
+            this.leading = new int[count];
+            this.trailing = new int[count];
+            this.exactHash = new long[count];
+            this.leadingTrimmedHash = new long[count];
+            this.trailingTrimmedHash = new long[count];
+            this.trimmedHash = new long[count];
+
+            for (int i = 0; i < count; i++) {
+                meter.step();
+                int lineStart = source.lineStart(i);
+                int lineEnd = source.lineEnd(i);
+                int start = lineStart;
+                while (start < lineEnd && text.charAt(start) <= ' ') {
+                    start++;
+                }
+                int end = lineEnd;
+                while (end > start && text.charAt(end - 1) <= ' ') {
+                    end--;
+                }
+                leading[i] = start - lineStart;
+                trailing[i] = lineEnd - end;
+
+                // Hash the trimmed core and the untrimmed prefix, then extend both over the trailing whitespace
+                long core = hash(text, start, end, LINE_PRIME);
+                trimmedHash[i] = core;
+                trailingTrimmedHash[i] = hash(text, lineStart, end, LINE_PRIME);
+                leadingTrimmedHash[i] = hash(text, end, lineEnd, core);
+                exactHash[i] = hash(text, end, lineEnd, trailingTrimmedHash[i]);
+            }
+        }
+
+        int windowCount() {
+            return Math.max(0, leading.length - WINDOW_LINES);
+        }
+
+        boolean isBlank(int line) {
+            return leading[line] == lineLength(line);
+        }
+
+        /**
+         * Whether the trimmed window text is long enough to count as duplicated code
+         */
+        boolean isEligible(int window) {
+            int first = firstNonBlank(window);
+            if (first < 0) {
+                return false;
+            }
+            int last = lastNonBlank(window);
+            int length = last - first;
+            for (int line = first; line <= last; line++) {
+                length += lineLength(line);
+            }
+            length -= leading[first] + trailing[last];
+            return length > MIN_BLOCK_LENGTH;
+        }
+
+        long fingerprint(int window) {
+            int first = firstNonBlank(window);
+            int last = lastNonBlank(window);
+            if (first == last) {
+                return trimmedHash[first];
+            }
+            long fingerprint = leadingTrimmedHash[first];
+            for (int line = first + 1; line < last; line++) {
+                fingerprint = fingerprint * WINDOW_PRIME + exactHash[line];
+            }
+            return fingerprint * WINDOW_PRIME + trailingTrimmedHash[last];
+        }
+
+        boolean sameWindow(int window, LineIndex other, int otherWindow) {
+            int first = firstNonBlank(window);
+            int last = lastNonBlank(window);
+            int otherFirst = other.firstNonBlank(otherWindow);
+            int otherLast = other.lastNonBlank(otherWindow);
+            if (last - first != otherLast - otherFirst) {
+                return false;
+            }
+            for (int offset = 0; offset <= last - first; offset++) {
+                int line = first + offset;
+                int otherLine = otherFirst + offset;
+                int from = source.lineStart(line) + (line == first ? leading[line] : 0);
+                int to = source.lineEnd(line) - (line == last ? trailing[line] : 0);
+                int otherFrom = other.source.lineStart(otherLine) + (otherLine == otherFirst ? other.leading[otherLine] : 0);
+                int otherTo = other.source.lineEnd(otherLine) - (otherLine == otherLast ? other.trailing[otherLine] : 0);
+                if (to - from != otherTo - otherFrom || !text.regionMatches(from, other.text, otherFrom, to - from)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int firstNonBlank(int window) {
+            for (int line = window; line < window + WINDOW_LINES; line++) {
+                if (!isBlank(line)) {
+                    return line;
+                }
+            }
+            return -1;
+        }
+
+        private int lastNonBlank(int window) {
+            for (int line = window + WINDOW_LINES - 1; line >= window; line--) {
+                if (!isBlank(line)) {
+                    return line;
+                }
+            }
+            return -1;
+        }
+
+        private int lineLength(int line) {
+            return source.lineEnd(line) - source.lineStart(line);
+        }
+
+        private static long hash(String text, int from, int to, long seed) {
+            long hash = seed;
+            for (int i = from; i < to; i++) {
+                hash = (hash ^ text.charAt(i)) * LINE_PRIME;
+            }
+            return hash;
+        }
+    }
+}
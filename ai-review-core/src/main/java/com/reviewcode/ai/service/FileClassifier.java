@@ -0,0 +1,102 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.AiConfiguration;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Cheap check run before any rule, telling files not worth reviewing: too large, binary, minified,
+ * generated or vendored
+ * Only the path, the length and the first {@link #SAMPLE_CHARS} characters are looked at, so the
+ * cost per file is constant however large the file is
+ */
+final class FileClassifier {
+
+    static final int SAMPLE_CHARS = 4096;
+
+    /**
+     * Why a file was skipped
+     */
+    enum Reason {
+        VENDORED("vendored or lock file path"),
+        TOO_LARGE("file size limit"),
+        BINARY("binary content"),
+        MINIFIED("average line length limit"),
+        GENERATED("generated code marker");
+
+        private final String label;
+
+        Reason(String label) {
+            this.label = label;
+        }
+
+        String label() {
+            return label;
+        }
+    }
+
+    private final int maxFileSize;
+    private final int maxAverageLineLength;
+    private final List<String> generatedMarkers;
+    private final List<Pattern> vendorPaths;
+
+    FileClassifier(int maxFileSize, int maxAverageLineLength, List<String> generatedMarkers, List<String> vendorPaths) {
+        this.maxFileSize = maxFileSize;
+        this.maxAverageLineLength = maxAverageLineLength;
+        this.generatedMarkers = List.copyOf(generatedMarkers);
+        this.vendorPaths = Globs.compile(vendorPaths);
+    }
+
+    static FileClassifier of(AiConfiguration.Review review) {
+        return new FileClassifier(review.getMaxFileSize(), review.getMaxAverageLineLength(),
+            review.getGeneratedMarkers(), review.getVendorPaths());
+    }
+
+    /**
+     * Whether a file of this size is over the limit, which can be checked before its content is read
+     */
+    boolean isTooLarge(long size) {
+        return size > maxFileSize;
+    }
+
+    /**
+     * Why the file should not be reviewed, or null to review it
+     * The size limit is compared with the number of characters, which equals the number of bytes
+     * for the ASCII most source code is written in
+     */
+    Reason skipReason(String fileName, String content) {
+        String path = fileName.replace('\\', '/');
+        for (Pattern vendorPath : vendorPaths) {
+            if (vendorPath.matcher(path).matches()) {
+                return Reason.VENDORED;
+            }
+        }
+        if (isTooLarge(content.length())) {
+            return Reason.TOO_LARGE;
+        }
+
+        int sampleEnd = Math.min(content.length(), SAMPLE_CHARS);
+        int lines = 1;
+        for (int i = 0; i < sampleEnd; i++) {
+            char ch = content.charAt(i);
+            if (ch == '\0') {
+                return Reason.BINARY;
+            }
+            if (ch == '\n') {
+                lines++;
+            }
+        }
+        if (sampleEnd / lines > maxAverageLineLength) {
+            return Reason.MINIFIED;
+        }
+
+        String sample = content.substring(0, sampleEnd);
+        for (String marker : generatedMarkers) {
+            if (sample.contains(marker)) {
+                return Reason.GENERATED;
+            }
+        }
+        return null;
+    }
+}
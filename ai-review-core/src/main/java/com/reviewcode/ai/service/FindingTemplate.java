@@ -0,0 +1,90 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.model.ReviewFinding;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What every finding of one rule has in common: rule id, type, default severity and texts
+ * Templates are constants shared by all validations, so a rule reports a {@link Hit} holding only
+ * what differs per occurrence, and the {@link ReviewFinding} entity is built once the findings of a
+ * file are final
+ */
+record FindingTemplate(String ruleId, ReviewFinding.FindingType type, ReviewFinding.Severity severity,
+                       String description, String suggestion, String codeSnippet) {
+
+    private static final Map<ReviewFinding.FindingType, String> RULE_IDS = new EnumMap<>(ReviewFinding.FindingType.class);
+
+    static {
+        for (ReviewFinding.FindingType type : ReviewFinding.FindingType.values()) {
+            RULE_IDS.put(type, "ARCH_" + type.name());
+        }
+    }
+
+    /**
+     * Template of the rule reporting findings of the type, whose rule id is derived from it
+     */
+    static FindingTemplate of(ReviewFinding.FindingType type, ReviewFinding.Severity severity,
+                              String description, String suggestion, String codeSnippet) {
+        return new FindingTemplate(ruleId(type), type, severity, description, suggestion, codeSnippet);
+    }
+
+    static String ruleId(ReviewFinding.FindingType type) {
+        return RULE_IDS.get(type);
+    }
+
+    /**
+     * An occurrence on the line with the template's severity and texts
+     */
+    Hit at(int line) {
+        return new Hit(this, line, severity, null, null);
+    }
+
+    Hit at(int line, ReviewFinding.Severity severity) {
+        return new Hit(this, line, severity, null, null);
+    }
+
+    /**
+     * An occurrence whose description or snippet depends on what was found; null keeps the template's
+     */
+    Hit at(int line, ReviewFinding.Severity severity, String description, String codeSnippet) {
+        return new Hit(this, line, severity, description, codeSnippet);
+    }
+
+    /**
+     * One occurrence of a rule in a file, the compact form findings take until validation is over
+     *
+     * @param line        the line of the occurrence, 0 when it has none
+     * @param description the description, or null for the template's
+     * @param codeSnippet the snippet, or null for the template's
+     */
+    record Hit(FindingTemplate template, int line, ReviewFinding.Severity severity,
+               String description, String codeSnippet) {
+
+        Hit withSeverity(ReviewFinding.Severity severity) {
+            return severity == this.severity ? this : new Hit(template, line, severity, description, codeSnippet);
+        }
+
+        String ruleId() {
+            return template.ruleId();
+        }
+
+        ReviewFinding.FindingType type() {
+            return template.type();
+        }
+
+        ReviewFinding toFinding(String fileName) {
+            ReviewFinding finding = new ReviewFinding();
+            finding.setFileName(fileName);
+            finding.setLineNumber(line > 0 ? line : null);
+            finding.setType(template.type());
+            finding.setSeverity(severity);
+            finding.setDescription(description != null ? description : template.description());
+            finding.setSuggestion(template.suggestion());
+            finding.setCodeSnippet(codeSnippet != null ? codeSnippet : template.codeSnippet());
+            finding.setRuleId(template.ruleId());
+            return finding;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.model.ReviewFinding;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fingerprints of the findings a full scan of a repository reported, so later reviews report only
+ * the findings not in it
+ * A fingerprint hashes the rule id, the line of the finding with whitespace removed and the symbol
+ * enclosing it, never the line number, so it survives edits that only move the code. Baselines are
+ * kept in memory and, when a directory is configured, each in a file of sorted 64-bit fingerprints
+ */
+final class FindingsBaseline {
+
+    // Leads every baseline file; bump the version when fingerprints are computed differently
+    private static final int MAGIC = 0x5243424C;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Fingerprints of the findings of one file, telling apart findings that would otherwise share
+     * one by the order they occur in
+     */
+    static final class Fingerprinter {
+        private final Map<String, Integer> occurrences = new HashMap<>();
+
+        /**
+         * @param symbol  the file and the type and method enclosing the finding
+         * @param snippet the code of the finding, compared with its whitespace removed
+         */
+        String next(String ruleId, String symbol, CharSequence snippet) {
+            String normalized = normalize(snippet);
+            String key = ruleId + '\0' + symbol + '\0' + normalized;
+            int occurrence = occurrences.merge(key, 1, Integer::sum) - 1;
+            return FindingsCache.digest(ruleId, symbol, normalized, Integer.toString(occurrence)).substring(0, 16);
+        }
+
+        private static String normalize(CharSequence snippet) {
+            if (snippet == null) {
+                return "";
+            }
+            StringBuilder normalized = new StringBuilder(snippet.length());
+            for (int i = 0; i < snippet.length(); i++) {
+                char ch = snippet.charAt(i);
+                if (!Character.isWhitespace(ch)) {
+                    normalized.append(ch);
+                }
+            }
+            return normalized.toString();
+        }
+    }
+
+    private final Path directory;
+    private final Map<String, Set<Long>> baselines = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory where baselines survive restarts, or null to keep them in memory only
+     */
+    FindingsBaseline(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Replace the baseline of the repository with the fingerprints of the findings
+     *
+     * @return the number of distinct fingerprints stored
+     */
+    int record(String repository, List<ReviewFinding> findings) {
+        Set<Long> fingerprints = new HashSet<>();
+        for (ReviewFinding finding : findings) {
+            if (finding.getFingerprint() != null) {
+                fingerprints.add(HexFormat.fromHexDigitsToLong(finding.getFingerprint()));
+            }
+        }
+        baselines.put(repository, fingerprints);
+        if (directory != null) {
+            writeToDisk(repository, fingerprints);
+        }
+        return fingerprints.size();
+    }
+
+    boolean has(String repository) {
+        return fingerprints(repository) != null;
+    }
+
+    /**
+     * The findings whose fingerprint is not in the baseline of the repository; all of them when the
+     * repository has no baseline, and always those without a fingerprint
+     */
+    List<ReviewFinding> newFindings(String repository, List<ReviewFinding> findings) {
+        Set<Long> known = fingerprints(repository);
+        if (known == null) {
+            return findings;
+        }
+
+        List<ReviewFinding> fresh = new ArrayList<>();
+        for (ReviewFinding finding : findings) {
+            if (finding.getFingerprint() == null
+                || !known.contains(HexFormat.fromHexDigitsToLong(finding.getFingerprint()))) {
+                fresh.add(finding);
+            }
+        }
+        return fresh;
+    }
+
+    private Set<Long> fingerprints(String repository) {
+        Set<Long> fingerprints = baselines.get(repository);
+        if (fingerprints == null && directory != null) {
+            fingerprints = readFromDisk(repository);
+            if (fingerprints != null) {
+                baselines.putIfAbsent(repository, fingerprints);
+            }
+        }
+        return fingerprints;
+    }
+
+    private Set<Long> readFromDisk(String repository) {
+        Path file = baselinePath(repository);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            int count = in.readInt();
+            Set<Long> fingerprints = new HashSet<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                fingerprints.add(in.readLong());
+            }
+            return fingerprints;
+        } catch (IOException e) {
+            // A truncated or foreign file counts as no baseline until the next full scan records one
+            return null;
+        }
+    }
+
+    private void writeToDisk(String repository, Set<Long> fingerprints) {
+        long[] sorted = fingerprints.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+
+        Path file = baselinePath(repository);
+        Path partial = null;
+        try {
+            Files.createDirectories(directory);
+            // Write aside and move into place so concurrent readers never see a partial baseline
+            partial = Files.createTempFile(directory, "baseline", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(sorted.length);
+                for (long fingerprint : sorted) {
+                    out.writeLong(fingerprint);
+                }
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The baseline stays in memory; a full or read-only disk must not fail the scan
+            deleteQuietly(partial);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Left for the next cleanup of the baseline directory
+        }
+    }
+
+    private Path baselinePath(String repository) {
+        // Repository names are URLs or paths, so the file is named after their digest
+        return directory.resolve(FindingsCache.digest(repository) + ".baseline");
+    }
+}
@@ -0,0 +1,328 @@
+package com.reviewcode.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcode.ai.model.ReviewFinding;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Findings of files already validated, keyed by a SHA-256 digest of the file name, its content and the
+ * fingerprint of the rules that produced them, so an unchanged file is never scanned twice
+ * A bounded in-memory tier evicts the least recently used entries; an optional directory keeps
+ * entries across restarts and is pruned of the entries least recently written or read. Entries are immutable snapshots copied on every hit, since callers attach
+ * the returned findings to a review and may change their severity
+ */
+final class FindingsCache implements MeterBinder {
+
+    // Part of every key; bump it when rule behaviour changes so stale entries on disk are never served
+    private static final String FORMAT_VERSION = "2";
+
+    // A full directory is pruned to this share of its limit, so it is not walked again on the next put
+    private static final double DISK_PRUNE_RATIO = 0.9;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Stored form of one finding, free of the persistence state of {@link ReviewFinding}
+     */
+    record CachedFinding(String fileName, Integer lineNumber, ReviewFinding.FindingType type,
+                         ReviewFinding.Severity severity, String description, String suggestion,
+                         String codeSnippet, String ruleId, String fingerprint) {
+
+        static CachedFinding of(ReviewFinding finding) {
+            return new CachedFinding(finding.getFileName(), finding.getLineNumber(), finding.getType(),
+                finding.getSeverity(), finding.getDescription(), finding.getSuggestion(),
+                finding.getCodeSnippet(), finding.getRuleId(), finding.getFingerprint());
+        }
+
+        ReviewFinding toFinding() {
+            ReviewFinding finding = new ReviewFinding();
+            finding.setFileName(fileName);
+            finding.setLineNumber(lineNumber);
+            finding.setType(type);
+            finding.setSeverity(severity);
+            finding.setDescription(description);
+            finding.setSuggestion(suggestion);
+            finding.setCodeSnippet(codeSnippet);
+            finding.setRuleId(ruleId);
+            finding.setFingerprint(fingerprint);
+            return finding;
+        }
+    }
+
+    private final int maxEntries;
+    private final Path directory;
+    private final int maxDiskEntries;
+    private final Map<String, List<CachedFinding>> entries;
+
+    // Entries in the directory, counted on the first write and tracked from then on; -1 until counted
+    private final AtomicInteger diskEntries = new AtomicInteger(-1);
+    private final Object diskLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder diskEvictions = new LongAdder();
+
+    /**
+     * @param directory where entries survive restarts, or null for a memory-only cache
+     * @param maxDiskEntries entries kept in the directory before the oldest are deleted
+     */
+    FindingsCache(int maxEntries, Path directory, int maxDiskEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.directory = directory;
+        this.maxDiskEntries = Math.max(1, maxDiskEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<CachedFinding>> eldest) {
+                if (size() > FindingsCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cache key of a file validated under the rules with the given fingerprint
+     */
+    static String key(String fileName, String content, String rulesFingerprint) {
+        return digest(FORMAT_VERSION, rulesFingerprint, fileName, content);
+    }
+
+    /**
+     * Hex SHA-256 of the parts, each terminated so that no two different part lists collide
+     */
+    static String digest(String... parts) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                sha256.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                sha256.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Fresh copies of the cached findings, or null when the key is in neither tier
+     */
+    List<ReviewFinding> get(String key) {
+        List<CachedFinding> cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached == null && directory != null) {
+            cached = readFromDisk(key);
+            if (cached != null) {
+                diskHits.increment();
+                synchronized (entries) {
+                    entries.put(key, cached);
+                }
+            }
+        }
+
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+
+        List<ReviewFinding> findings = new ArrayList<>(cached.size());
+        for (CachedFinding finding : cached) {
+            findings.add(finding.toFinding());
+        }
+        return findings;
+    }
+
+    void put(String key, List<ReviewFinding> findings) {
+        List<CachedFinding> snapshot = findings.stream().map(CachedFinding::of).toList();
+        synchronized (entries) {
+            entries.put(key, snapshot);
+        }
+        if (directory != null) {
+            writeToDisk(key, snapshot);
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long diskHits() {
+        return diskHits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    long diskEvictions() {
+        return diskEvictions.sum();
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("review.findings.cache.requests", this, FindingsCache::hits)
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("review.findings.cache.requests", this, FindingsCache::misses)
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("review.findings.cache.disk.hits", this, FindingsCache::diskHits)
+            .register(registry);
+        FunctionCounter.builder("review.findings.cache.evictions", this, FindingsCache::evictions)
+            .tag("tier", "memory")
+            .register(registry);
+        FunctionCounter.builder("review.findings.cache.evictions", this, FindingsCache::diskEvictions)
+            .tag("tier", "disk")
+            .register(registry);
+        Gauge.builder("review.findings.cache.size", this, FindingsCache::size)
+            .register(registry);
+    }
+
+    private List<CachedFinding> readFromDisk(String key) {
+        Path file = entryPath(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            List<CachedFinding> cached = List.of(MAPPER.readValue(file.toFile(), CachedFinding[].class));
+            // Served entries count as recently used when the directory is pruned
+            touchQuietly(file);
+            return cached;
+        } catch (IOException e) {
+            // A truncated or foreign file is treated as a miss and overwritten by the next put
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, List<CachedFinding> snapshot) {
+        Path file = entryPath(key);
+        Path partial = null;
+        try {
+            Files.createDirectories(file.getParent());
+            // Write aside and move into place so concurrent readers never see a partial entry
+            partial = Files.createTempFile(file.getParent(), key, ".tmp");
+            MAPPER.writeValue(partial.toFile(), snapshot);
+            boolean added = !Files.exists(file);
+            // Counted before the move so a first count does not include this entry
+            AtomicInteger counted = countDiskEntries();
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (added && counted.incrementAndGet() > maxDiskEntries) {
+                pruneDisk();
+            }
+        } catch (IOException e) {
+            // The entry stays in memory; a full or read-only disk must not fail the review
+            deleteQuietly(partial);
+        }
+    }
+
+    private AtomicInteger countDiskEntries() throws IOException {
+        if (diskEntries.get() < 0) {
+            synchronized (diskLock) {
+                if (diskEntries.get() < 0) {
+                    diskEntries.set(diskEntryFiles().size());
+                }
+            }
+        }
+        return diskEntries;
+    }
+
+    /**
+     * Delete the entries least recently written or read until the directory is back under its limit
+     */
+    private void pruneDisk() throws IOException {
+        synchronized (diskLock) {
+            List<Path> files = new ArrayList<>(diskEntryFiles());
+            int keep = (int) (maxDiskEntries * DISK_PRUNE_RATIO);
+            if (files.size() > keep) {
+                files.sort(Comparator.comparing(FindingsCache::lastModifiedQuietly));
+                for (Path file : files.subList(0, files.size() - keep)) {
+                    deleteQuietly(file);
+                    diskEvictions.increment();
+                }
+            }
+            diskEntries.set(Math.min(files.size(), keep));
+        }
+    }
+
+    private List<Path> diskEntryFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json"))
+                .filter(Files::isRegularFile)
+                .toList();
+        }
+    }
+
+    private static FileTime lastModifiedQuietly(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            // Already deleted by a concurrent prune; sorts first and its delete is a no-op
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void touchQuietly(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            // Only the pruning order suffers
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Left for the next cleanup of the cache directory
+        }
+    }
+
+    private Path entryPath(String key) {
+        // Fan out over subdirectories so no single directory holds every entry
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+}
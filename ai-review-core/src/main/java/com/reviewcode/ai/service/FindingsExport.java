@@ -0,0 +1,197 @@
+package com.reviewcode.ai.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.reviewcode.ai.model.ReviewFinding;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * Writes findings to an output stream one at a time as SARIF 2.1.0 or newline-delimited JSON, so an
+ * export holds a single finding in memory however many it writes
+ * Output goes through the generator's buffer and is flushed on {@link #close()}, which also ends the
+ * SARIF document; the stream itself is left open for its owner to close
+ */
+public final class FindingsExport implements Closeable {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final String TOOL_NAME = "review-code-ai";
+    private static final String SARIF_VERSION = "2.1.0";
+    private static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    // Key of the baseline fingerprint among the partial fingerprints of a SARIF result
+    private static final String FINGERPRINT_KEY = "reviewFingerprint/v1";
+
+    public enum Format {
+        SARIF("application/sarif+json"),
+        NDJSON("application/x-ndjson");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Format by its case-insensitive name
+         *
+         * @throws IllegalArgumentException for an unknown format
+         */
+        public static Format of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Format format;
+    private final JsonGenerator generator;
+    private long count;
+    private boolean closed;
+
+    private FindingsExport(Format format, JsonGenerator generator) {
+        this.format = format;
+        this.generator = generator;
+    }
+
+    /**
+     * Start an export, writing the SARIF header right away
+     */
+    public static FindingsExport open(Format format, OutputStream out) throws IOException {
+        JsonGenerator generator = JSON.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        FindingsExport export = new FindingsExport(format, generator);
+        if (format == Format.SARIF) {
+            export.startSarif();
+        } else {
+            // Every record ends with its own line break instead
+            generator.setRootValueSeparator(null);
+        }
+        return export;
+    }
+
+    public void write(ReviewFinding finding) throws IOException {
+        if (format == Format.SARIF) {
+            writeSarifResult(finding);
+        } else {
+            writeRecord(finding);
+            generator.writeRaw('\n');
+        }
+        count++;
+    }
+
+    /**
+     * Number of findings written so far
+     */
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (format == Format.SARIF) {
+            // results, run, runs and the log itself
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.close();
+    }
+
+    private void startSarif() throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("version", SARIF_VERSION);
+        generator.writeStringField("$schema", SARIF_SCHEMA);
+        generator.writeArrayFieldStart("runs");
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("tool");
+        generator.writeObjectFieldStart("driver");
+        generator.writeStringField("name", TOOL_NAME);
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("results");
+    }
+
+    private void writeSarifResult(ReviewFinding finding) throws IOException {
+        generator.writeStartObject();
+        writeOptional("ruleId", finding.getRuleId());
+        generator.writeStringField("level", level(finding.getSeverity()));
+        generator.writeObjectFieldStart("message");
+        generator.writeStringField("text", finding.getDescription());
+        generator.writeEndObject();
+
+        generator.writeArrayFieldStart("locations");
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("physicalLocation");
+        generator.writeObjectFieldStart("artifactLocation");
+        generator.writeStringField("uri", finding.getFileName());
+        generator.writeEndObject();
+        if (finding.getLineNumber() != null && finding.getLineNumber() > 0) {
+            generator.writeObjectFieldStart("region");
+            generator.writeNumberField("startLine", finding.getLineNumber());
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeEndArray();
+
+        if (finding.getFingerprint() != null) {
+            generator.writeObjectFieldStart("partialFingerprints");
+            generator.writeStringField(FINGERPRINT_KEY, finding.getFingerprint());
+            generator.writeEndObject();
+        }
+
+        generator.writeObjectFieldStart("properties");
+        writeOptional("type", finding.getType());
+        writeOptional("severity", finding.getSeverity());
+        writeOptional("suggestion", finding.getSuggestion());
+        writeOptional("codeSnippet", finding.getCodeSnippet());
+        writeOptional("origin", finding.getOrigin());
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private void writeRecord(ReviewFinding finding) throws IOException {
+        generator.writeStartObject();
+        writeOptional("fileName", finding.getFileName());
+        if (finding.getLineNumber() != null) {
+            generator.writeNumberField("lineNumber", finding.getLineNumber());
+        }
+        writeOptional("type", finding.getType());
+        writeOptional("severity", finding.getSeverity());
+        writeOptional("ruleId", finding.getRuleId());
+        writeOptional("description", finding.getDescription());
+        writeOptional("suggestion", finding.getSuggestion());
+        writeOptional("codeSnippet", finding.getCodeSnippet());
+        writeOptional("origin", finding.getOrigin());
+        writeOptional("fingerprint", finding.getFingerprint());
+        generator.writeEndObject();
+    }
+
+    private void writeOptional(String field, Object value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value.toString());
+        }
+    }
+
+    private static String level(ReviewFinding.Severity severity) {
+        if (severity == null) {
+            return "none";
+        }
+        return switch (severity) {
+            case CRITICAL, HIGH -> "error";
+            case MEDIUM -> "warning";
+            case LOW, INFO -> "note";
+        };
+    }
+}
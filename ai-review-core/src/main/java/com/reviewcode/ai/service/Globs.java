@@ -0,0 +1,43 @@
+package com.reviewcode.ai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * File name globs as used in the configuration: {@code *} matches any characters, slashes included,
+ * {@code ?} matches one character, and everything else matches itself
+ */
+final class Globs {
+
+    private Globs() {
+    }
+
+    static List<Pattern> compile(List<String> globs) {
+        List<Pattern> compiled = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            compiled.add(compile(glob));
+        }
+        return List.copyOf(compiled);
+    }
+
+    static Pattern compile(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 16);
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char ch = glob.charAt(i);
+            if (ch != '*' && ch != '?') {
+                continue;
+            }
+            if (i > literalStart) {
+                regex.append(Pattern.quote(glob.substring(literalStart, i)));
+            }
+            regex.append(ch == '*' ? ".*" : ".");
+            literalStart = i + 1;
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
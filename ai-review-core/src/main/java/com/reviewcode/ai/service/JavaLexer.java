@@ -0,0 +1,263 @@
+package com.reviewcode.ai.service;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass lexer turning Java source into a {@link TokenStream}
+ * Comments are set aside and string, text block and character literals are classified up front,
+ * so rules no longer match code words inside them; malformed input never fails, an unterminated
+ * literal or comment simply runs to the end of its line or of the file
+ */
+final class JavaLexer {
+
+    private static final String[] KEYWORDS = {
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+        "continue", "default", "do", "double", "else", "enum", "extends", "false", "final", "finally",
+        "float", "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long",
+        "native", "new", "null", "package", "private", "protected", "public", "return", "short", "static",
+        "strictfp", "super", "switch", "synchronized", "this", "throw", "throws", "transient", "true", "try",
+        "void", "volatile", "while"
+    };
+
+    // Keywords bucketed by first letter, so classifying an identifier compares in place without a copy
+    private static final String[][] KEYWORDS_BY_LETTER = new String[26][];
+
+    // Longest operators first, the rest are single characters; '<' and '>' never combine so nested
+    // type arguments close one bracket per token
+    private static final String[] OPERATORS = {
+        "...", "->", "::", "==", "!=", "<=", ">=", "&&", "||", "++", "--",
+        "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^="
+    };
+
+    static {
+        for (int letter = 0; letter < 26; letter++) {
+            char first = (char) ('a' + letter);
+            KEYWORDS_BY_LETTER[letter] = Arrays.stream(KEYWORDS)
+                .filter(keyword -> keyword.charAt(0) == first)
+                .toArray(String[]::new);
+        }
+    }
+
+    private final SourceText source;
+    private final String text;
+    private final int length;
+
+    private byte[] kinds;
+    private int[] starts;
+    private int[] ends;
+    private int[] lines;
+    private int[] pairs;
+    private int size;
+
+    private int[] commentStarts = new int[16];
+    private int[] commentEnds = new int[16];
+    private int commentCount;
+
+    private int[] openBrackets = new int[16];
+    private int openCount;
+
+    private int line = 1;
+    private int lineCursor;
+
+    private JavaLexer(SourceText source) {
+        this.source = source;
+        this.text = source.text();
+        this.length = text.length();
+
+        int capacity = Math.max(16, length / 4);
+        this.kinds = new byte[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.lines = new int[capacity];
+        this.pairs = new int[capacity];
+    }
+
+    static TokenStream tokenize(SourceText source) {
+        return new JavaLexer(source).run();
+    }
+
+    private TokenStream run() {
+        int pos = 0;
+        while (pos < length) {
+            char ch = text.charAt(pos);
+            if (ch <= ' ') {
+                pos++;
+                continue;
+            }
+
+            int start = pos;
+            char next = pos + 1 < length ? text.charAt(pos + 1) : 0;
+            if (ch == '/' && next == '/') {
+                int lineBreak = text.indexOf('\n', pos + 2);
+                pos = lineBreak < 0 ? length : lineBreak;
+                addComment(start, pos);
+            } else if (ch == '/' && next == '*') {
+                int close = text.indexOf("*/", pos + 2);
+                pos = close < 0 ? length : close + 2;
+                addComment(start, pos);
+            } else if (ch == '"') {
+                pos = text.startsWith("\"\"\"", pos) ? textBlockEnd(pos + 3) : quotedEnd(pos + 1, '"');
+                add(TokenStream.Kind.STRING, start, pos);
+            } else if (ch == '\'') {
+                pos = quotedEnd(pos + 1, '\'');
+                add(TokenStream.Kind.CHAR, start, pos);
+            } else if (isDigit(ch) || (ch == '.' && isDigit(next))) {
+                pos = numberEnd(pos);
+                add(TokenStream.Kind.NUMBER, start, pos);
+            } else if (Character.isJavaIdentifierStart(ch)) {
+                pos++;
+                while (pos < length && Character.isJavaIdentifierPart(text.charAt(pos))) {
+                    pos++;
+                }
+                add(isKeyword(start, pos) ? TokenStream.Kind.KEYWORD : TokenStream.Kind.IDENTIFIER, start, pos);
+            } else {
+                pos = operatorEnd(pos);
+                add(TokenStream.Kind.OPERATOR, start, pos);
+                if (pos - start == 1) {
+                    pairBracket(ch);
+                }
+            }
+        }
+
+        return new TokenStream(source, kinds, starts, ends, lines, pairs, size,
+            commentStarts, commentEnds, commentCount);
+    }
+
+    private int quotedEnd(int pos, char quote) {
+        while (pos < length) {
+            char ch = text.charAt(pos);
+            if (ch == '\\') {
+                pos += 2;
+            } else if (ch == quote) {
+                return pos + 1;
+            } else if (ch == '\n') {
+                return pos;
+            } else {
+                pos++;
+            }
+        }
+        return length;
+    }
+
+    private int textBlockEnd(int pos) {
+        while (pos < length) {
+            char ch = text.charAt(pos);
+            if (ch == '\\') {
+                pos += 2;
+            } else if (ch == '"' && text.startsWith("\"\"\"", pos)) {
+                return pos + 3;
+            } else {
+                pos++;
+            }
+        }
+        return length;
+    }
+
+    private int numberEnd(int pos) {
+        boolean hex = text.charAt(pos) == '0' && pos + 1 < length && (text.charAt(pos + 1) | 0x20) == 'x';
+        pos++;
+        while (pos < length) {
+            char ch = text.charAt(pos);
+            if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '.') {
+                pos++;
+            } else if ((ch == '+' || ch == '-') && isExponent(text.charAt(pos - 1), hex)) {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return pos;
+    }
+
+    private int operatorEnd(int pos) {
+        for (String operator : OPERATORS) {
+            if (text.startsWith(operator, pos)) {
+                return pos + operator.length();
+            }
+        }
+        return pos + 1;
+    }
+
+    private boolean isKeyword(int start, int end) {
+        int letter = text.charAt(start) - 'a';
+        if (letter < 0 || letter >= 26) {
+            return false;
+        }
+        int tokenLength = end - start;
+        for (String keyword : KEYWORDS_BY_LETTER[letter]) {
+            if (keyword.length() == tokenLength && text.startsWith(keyword, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(TokenStream.Kind kind, int start, int end) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            pairs = Arrays.copyOf(pairs, capacity);
+        }
+
+        // Lines are counted as the cursor catches up with each token, so every character is read once
+        while (lineCursor < start) {
+            if (text.charAt(lineCursor++) == '\n') {
+                line++;
+            }
+        }
+
+        kinds[size] = (byte) kind.ordinal();
+        starts[size] = start;
+        ends[size] = Math.min(end, length);
+        lines[size] = line;
+        pairs[size] = -1;
+        size++;
+    }
+
+    private void addComment(int start, int end) {
+        if (commentCount == commentStarts.length) {
+            commentStarts = Arrays.copyOf(commentStarts, commentCount * 2);
+            commentEnds = Arrays.copyOf(commentEnds, commentCount * 2);
+        }
+        commentStarts[commentCount] = start;
+        commentEnds[commentCount] = end;
+        commentCount++;
+    }
+
+    /**
+     * Link the bracket just added with its counterpart; a closing bracket that does not match the
+     * innermost open one is left unpaired rather than unwinding the stack
+     */
+    private void pairBracket(char ch) {
+        int index = size - 1;
+        if (ch == '(' || ch == '[' || ch == '{') {
+            if (openCount == openBrackets.length) {
+                openBrackets = Arrays.copyOf(openBrackets, openCount * 2);
+            }
+            openBrackets[openCount++] = index;
+        } else if ((ch == ')' || ch == ']' || ch == '}') && openCount > 0) {
+            int open = openBrackets[openCount - 1];
+            if (text.charAt(starts[open]) == opening(ch)) {
+                openCount--;
+                pairs[open] = index;
+                pairs[index] = open;
+            }
+        }
+    }
+
+    private static char opening(char closing) {
+        return closing == ')' ? '(' : closing == ']' ? '[' : '{';
+    }
+
+    private static boolean isExponent(char ch, boolean hex) {
+        char lower = (char) (ch | 0x20);
+        return hex ? lower == 'p' : lower == 'e';
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+}
@@ -0,0 +1,48 @@
+package com.reviewcode.ai.service;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Language of a reviewed file, told by its extension
+ */
+enum Language {
+
+    JAVA("java"),
+    JAVASCRIPT("js", "jsx", "mjs", "cjs"),
+    TYPESCRIPT("ts", "tsx"),
+    PYTHON("py"),
+    GO("go"),
+    RUST("rs"),
+    C_FAMILY("c", "h", "cpp", "cc", "cxx", "hpp"),
+    OTHER;
+
+    private static final Map<String, Language> BY_EXTENSION = new HashMap<>();
+
+    static {
+        for (Language language : values()) {
+            for (String extension : language.extensions) {
+                BY_EXTENSION.put(extension, language);
+            }
+        }
+    }
+
+    private final String[] extensions;
+
+    Language(String... extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     * Language of the file; a name without extension is taken for a Java snippet, as the rules always
+     * assumed, and an unknown extension for some other language
+     */
+    static Language of(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot < fileName.lastIndexOf('/')) {
+            return JAVA;
+        }
+        return BY_EXTENSION.getOrDefault(fileName.substring(dot + 1).toLowerCase(Locale.ROOT), OTHER);
+    }
+}
@@ -0,0 +1,294 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.ReviewFinding;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reloads thresholds, rules and patterns from a watched YAML file while the service runs
+ * The file's review section is bound over the application's own, checked and compiled on the
+ * watcher thread; only a configuration that passes is swapped in, so validations never wait for a
+ * compile and those already running finish on the rules they started with
+ */
+@Component
+public class ReviewConfigurationReloader implements SmartLifecycle {
+
+    private static final Set<String> COST_POLICY_ACTIONS = Set.of("DEMOTE", "SKIP");
+    private static final Set<String> MAGIC_NUMBER_GROUPS = Set.of("METHOD", "FILE");
+
+    public enum Outcome {
+        APPLIED,
+        UNCHANGED,
+        REJECTED
+    }
+
+    private final Path file;
+    private final long debounceMillis;
+    private final ConfigurableArchitectureValidationService validationService;
+    private final Map<Outcome, LongAdder> reloads = new EnumMap<>(Outcome.class);
+    private ConfigurableEnvironment environment;
+    private volatile Timer compileTimer;
+    private volatile String lastRejection;
+    private String lastDigest;
+    private WatchService watchService;
+    private volatile Thread watcher;
+
+    @Autowired
+    public ReviewConfigurationReloader(ReviewConfiguration reviewConfig,
+                                       ConfigurableArchitectureValidationService validationService) {
+        ReviewConfiguration.Reload reload = reviewConfig.getReload();
+        String configured = reload.getFile();
+        this.file = configured == null || configured.isBlank() ? null : Path.of(configured).toAbsolutePath();
+        this.debounceMillis = Math.max(0, reload.getDebounceMillis());
+        this.validationService = validationService;
+        for (Outcome outcome : Outcome.values()) {
+            reloads.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Settings the file does not set keep the values the application was started with
+     */
+    @Autowired(required = false)
+    public void setEnvironment(ConfigurableEnvironment environment) {
+        this.environment = environment;
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        for (Outcome outcome : Outcome.values()) {
+            FunctionCounter.builder("review.config.reloads", reloads.get(outcome), LongAdder::sum)
+                .tag("result", outcome.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        }
+        this.compileTimer = Timer.builder("review.config.compile").register(meterRegistry);
+    }
+
+    /**
+     * Apply the file as it is on disk now, unless it is unchanged since the last attempt
+     */
+    public synchronized Outcome reload() {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (IOException e) {
+            return reject("Cannot read " + file + ": " + e.getMessage());
+        }
+
+        // Any event in the directory triggers a read, so most of them find the file as it was
+        String digest = FindingsCache.digest(new String(content, StandardCharsets.UTF_8));
+        if (digest.equals(lastDigest)) {
+            return count(Outcome.UNCHANGED);
+        }
+        lastDigest = digest;
+
+        ReviewConfiguration config;
+        try {
+            config = bind(content);
+        } catch (IOException | RuntimeException e) {
+            return reject("Cannot bind " + file + ": " + e.getMessage());
+        }
+
+        List<String> problems = problems(config);
+        if (!problems.isEmpty()) {
+            return reject(String.join("; ", problems));
+        }
+
+        RuleSet rules;
+        long start = System.nanoTime();
+        try {
+            rules = RuleSet.compile(config);
+        } catch (RuntimeException e) {
+            // A file pattern that is not a valid expression once translated
+            return reject("Cannot compile " + file + ": " + e.getMessage());
+        }
+        Timer timer = compileTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        validationService.applyRules(rules);
+        lastRejection = null;
+        return count(Outcome.APPLIED);
+    }
+
+    /**
+     * Why the last changed file was not applied, or null when it was
+     */
+    public String getLastRejection() {
+        return lastRejection;
+    }
+
+    /**
+     * Reloads by outcome since startup
+     */
+    public Map<String, Long> getReloadCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        reloads.forEach((outcome, count) -> counts.put(outcome.name(), count.sum()));
+        return counts;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (file == null || watcher != null) {
+            return;
+        }
+        if (Files.exists(file)) {
+            reload();
+        }
+
+        Path directory = file.getParent();
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            // Creations and deletions too, for editors and mounts that replace the file instead of writing it
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot watch " + directory, e);
+        }
+        watcher = Thread.ofPlatform().daemon().name("review-config-reload").start(this::watch);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // The watcher thread stops either way
+        }
+        watcher.interrupt();
+        watcher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return watcher != null;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                // Saves come in bursts of events; read the file once they have been quiet for a while
+                while (key != null) {
+                    key.pollEvents();
+                    if (!key.reset()) {
+                        // The directory is gone, nothing left to watch
+                        return;
+                    }
+                    key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                reload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    private ReviewConfiguration bind(byte[] content) throws IOException {
+        List<ConfigurationPropertySource> sources = new ArrayList<>();
+        ConfigurationPropertySources.from(new YamlPropertySourceLoader()
+            .load(file.toString(), new ByteArrayResource(content))).forEach(sources::add);
+        if (environment != null) {
+            ConfigurationPropertySources.get(environment).forEach(sources::add);
+        }
+
+        Binder binder = new Binder(sources,
+            environment == null ? null : new PropertySourcesPlaceholdersResolver(environment));
+        return binder.bind("review", ReviewConfiguration.class).orElseGet(ReviewConfiguration::new);
+    }
+
+    /**
+     * Settings that would bind but make no sense, each described by its property
+     */
+    static List<String> problems(ReviewConfiguration config) {
+        List<String> problems = new ArrayList<>();
+
+        ReviewConfiguration.Thresholds thresholds = config.getThresholds();
+        requirePositive(problems, "thresholds.max-method-length", thresholds.getMaxMethodLength());
+        requirePositive(problems, "thresholds.max-class-length", thresholds.getMaxClassLength());
+        requirePositive(problems, "thresholds.max-parameters", thresholds.getMaxParameters());
+        requirePositive(problems, "thresholds.rule-step-budget", thresholds.getRuleStepBudget());
+        requirePositive(problems, "thresholds.rule-time-budget-millis", thresholds.getRuleTimeBudgetMillis());
+        requirePositive(problems, "thresholds.file-time-budget-millis", thresholds.getFileTimeBudgetMillis());
+        if (thresholds.getCriticalFindingsThreshold() < 0 || thresholds.getHighFindingsThreshold() < 0) {
+            problems.add("thresholds.critical-findings-threshold and high-findings-threshold must not be negative");
+        }
+        if (thresholds.getAutoRejectScore() > thresholds.getAutoApproveScore()) {
+            problems.add("thresholds.auto-reject-score must not be above auto-approve-score");
+        }
+
+        ReviewConfiguration.Rules rules = config.getRules();
+        rules.getSeverity().forEach((ruleId, severity) -> {
+            try {
+                ReviewFinding.Severity.valueOf(severity.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                problems.add("rules.severity." + ruleId + " is not a severity: " + severity);
+            }
+        });
+        String action = rules.getCostPolicy().getAction();
+        if (action == null || !COST_POLICY_ACTIONS.contains(action.toUpperCase(Locale.ROOT))) {
+            problems.add("rules.cost-policy.action must be DEMOTE or SKIP: " + action);
+        }
+        ReviewConfiguration.Rules.MagicNumbers magicNumbers = rules.getMagicNumbers();
+        String groupBy = magicNumbers.getGroupBy();
+        if (groupBy == null || !MAGIC_NUMBER_GROUPS.contains(groupBy.toUpperCase(Locale.ROOT))) {
+            problems.add("rules.magic-numbers.group-by must be METHOD or FILE: " + groupBy);
+        }
+        requirePositive(problems, "rules.magic-numbers.sample-size", magicNumbers.getSampleSize());
+        requirePositive(problems, "rules.magic-numbers.max-findings-per-file", magicNumbers.getMaxFindingsPerFile());
+        return problems;
+    }
+
+    private static void requirePositive(List<String> problems, String property, long value) {
+        if (value <= 0) {
+            problems.add(property + " must be positive: " + value);
+        }
+    }
+
+    private Outcome reject(String reason) {
+        lastRejection = reason;
+        return count(Outcome.REJECTED);
+    }
+
+    private Outcome count(Outcome outcome) {
+        reloads.get(outcome).increment();
+        return outcome;
+    }
+}
@@ -185,9 +185,17 @@ public class ReviewSuggestionService {
     }
     
     public List<ReviewSuggestion> createSuggestionsFromAiResponse(PullRequest pullRequest, AiReviewResponse aiResponse) {
+        return createSuggestionsFromFindings(pullRequest, aiResponse.getFindings());
+    }
+    
+    /**
+     * Save pending suggestions for one batch of AI findings
+     */
+    public List<ReviewSuggestion> createSuggestionsFromFindings(PullRequest pullRequest,
+                                                                List<AiReviewResponse.Finding> findings) {
         List<ReviewSuggestion> suggestions = new ArrayList<>();
         
-        for (AiReviewResponse.Finding finding : aiResponse.getFindings()) {
+        for (AiReviewResponse.Finding finding : findings) {
             ReviewSuggestion suggestion = new ReviewSuggestion();
             suggestion.setPullRequest(pullRequest);
             suggestion.setFileName(finding.getFileName());
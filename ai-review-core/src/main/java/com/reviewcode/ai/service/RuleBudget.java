@@ -0,0 +1,219 @@
+package com.reviewcode.ai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * CPU budget for validating one file
+ * Every rule charges a step to its meter for each token it visits, so a rule that degrades on a
+ * pathological file is stopped after its step or time budget instead of pinning a core; once the
+ * file budget is spent, remaining rules are skipped
+ */
+final class RuleBudget {
+
+    static final long DEFAULT_RULE_STEPS = 100_000_000L;
+    static final long DEFAULT_RULE_MILLIS = 1_000L;
+    static final long DEFAULT_FILE_MILLIS = 5_000L;
+
+    // Clock and interrupt checks are amortised over this many steps
+    private static final int CHECK_INTERVAL = 1 << 12;
+
+    /**
+     * A rule that was stopped, with the budget it ran out of
+     */
+    record Abort(String rule, Reason reason) {
+    }
+
+    enum Reason {
+        STEP_BUDGET("step budget"),
+        RULE_TIME_BUDGET("time budget"),
+        FILE_TIME_BUDGET("file time budget"),
+        INTERRUPTED("request interruption");
+
+        private final String label;
+
+        Reason(String label) {
+            this.label = label;
+        }
+
+        String label() {
+            return label;
+        }
+    }
+
+    /**
+     * Accounts for the rules a budget evaluates, and may keep a rule from running or demote its findings
+     */
+    interface Observer {
+
+        boolean admits(String rule);
+
+        /**
+         * One evaluation of a rule, aborted or not; steps are the tokens it visited
+         */
+        void evaluated(String rule, long nanos, long steps, boolean aborted);
+
+        void reported(String rule);
+
+        boolean demotes(String rule);
+    }
+
+    private final long ruleSteps;
+    private final long ruleNanos;
+    private final long fileDeadline;
+    private final List<Abort> aborts = new ArrayList<>();
+    private Set<String> admittedRules;
+    private Observer observer;
+
+    private RuleBudget(long ruleSteps, long ruleMillis, long fileMillis) {
+        this.ruleSteps = ruleSteps;
+        this.ruleNanos = ruleMillis * 1_000_000L;
+        this.fileDeadline = System.nanoTime() + fileMillis * 1_000_000L;
+    }
+
+    /**
+     * Start the clock for one file; non-positive limits fall back to the defaults
+     */
+    static RuleBudget start(long ruleSteps, long ruleMillis, long fileMillis) {
+        return new RuleBudget(
+            ruleSteps > 0 ? ruleSteps : DEFAULT_RULE_STEPS,
+            ruleMillis > 0 ? ruleMillis : DEFAULT_RULE_MILLIS,
+            fileMillis > 0 ? fileMillis : DEFAULT_FILE_MILLIS);
+    }
+
+    static RuleBudget startDefault() {
+        return start(DEFAULT_RULE_STEPS, DEFAULT_RULE_MILLIS, DEFAULT_FILE_MILLIS);
+    }
+
+    /**
+     * Evaluate only the named rules; every other rule answers with its fallback at no cost
+     */
+    RuleBudget limitedTo(Set<String> rules) {
+        this.admittedRules = rules;
+        return this;
+    }
+
+    /**
+     * Report every rule evaluation of this budget to the observer
+     */
+    RuleBudget observedBy(Observer observer) {
+        this.observer = observer;
+        return this;
+    }
+
+    /**
+     * Evaluate one rule under its budget; when the budget runs out the abort is recorded and the
+     * fallback is returned, as if the rule had not matched. A rule outside the admitted rules, or
+     * one the observer does not admit, is not evaluated and also answers with the fallback
+     */
+    <T> T run(String rule, T fallback, Function<Meter, T> evaluation) {
+        if (admittedRules != null && !admittedRules.contains(rule)) {
+            return fallback;
+        }
+        if (observer != null && !observer.admits(rule)) {
+            return fallback;
+        }
+        long now = System.nanoTime();
+        if (now - fileDeadline >= 0) {
+            aborts.add(new Abort(rule, Reason.FILE_TIME_BUDGET));
+            if (observer != null) {
+                observer.evaluated(rule, 0, 0, true);
+            }
+            return fallback;
+        }
+        long ruleDeadline = now + ruleNanos;
+        boolean fileBound = ruleDeadline - fileDeadline > 0;
+        Meter meter = new Meter(ruleSteps, fileBound ? fileDeadline : ruleDeadline, fileBound);
+        boolean aborted = false;
+        try {
+            return evaluation.apply(meter);
+        } catch (Exhausted e) {
+            aborts.add(new Abort(rule, e.reason));
+            aborted = true;
+            return fallback;
+        } finally {
+            if (observer != null) {
+                observer.evaluated(rule, System.nanoTime() - now, meter.steps(), aborted);
+            }
+        }
+    }
+
+    /**
+     * Count a finding against the rule that produced it
+     */
+    void reported(String rule) {
+        if (observer != null) {
+            observer.reported(rule);
+        }
+    }
+
+    /**
+     * Whether findings of the rule are to be reported at reduced severity on this file
+     */
+    boolean demotes(String rule) {
+        return observer != null && observer.demotes(rule);
+    }
+
+    List<Abort> aborts() {
+        return aborts;
+    }
+
+    /**
+     * Step counter of the rule being evaluated
+     */
+    static final class Meter {
+
+        private final long steps;
+        private final long deadline;
+        private final boolean fileBound;
+        private long remaining;
+        private int untilCheck = CHECK_INTERVAL;
+
+        private Meter(long steps, long deadline, boolean fileBound) {
+            this.steps = steps;
+            this.remaining = steps;
+            this.deadline = deadline;
+            this.fileBound = fileBound;
+        }
+
+        /**
+         * Steps charged so far
+         */
+        long steps() {
+            return steps - remaining + CHECK_INTERVAL - untilCheck;
+        }
+
+        /**
+         * Charge one unit of work to the rule; throws once a budget is exhausted, which {@link #run}
+         * turns into an abort
+         */
+        void step() {
+            if (--untilCheck > 0) {
+                return;
+            }
+            untilCheck = CHECK_INTERVAL;
+            remaining -= CHECK_INTERVAL;
+            if (remaining <= 0) {
+                throw new Exhausted(Reason.STEP_BUDGET);
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new Exhausted(fileBound ? Reason.FILE_TIME_BUDGET : Reason.RULE_TIME_BUDGET);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new Exhausted(Reason.INTERRUPTED);
+            }
+        }
+    }
+
+    private static final class Exhausted extends RuntimeException {
+
+        private final Reason reason;
+
+        Exhausted(Reason reason) {
+            super(reason.label(), null, false, false);
+            this.reason = reason;
+        }
+    }
+}
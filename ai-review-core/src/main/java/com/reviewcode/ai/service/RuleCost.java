@@ -0,0 +1,15 @@
+package com.reviewcode.ai.service;
+
+/**
+ * What one rule has cost so far on files of one type
+ *
+ * @param tokensVisited tokens the rule walked, the unit of its step budget
+ * @param charactersScanned characters of the files it was evaluated on
+ * @param aborts evaluations its budget stopped
+ * @param skips files the cost policy kept it from running on
+ * @param policy what the cost policy currently does to the rule: NONE, DEMOTE or SKIP
+ */
+public record RuleCost(String rule, String fileType, long evaluations, double totalMillis, double averageMillis,
+                       long tokensVisited, long charactersScanned, long findings, long aborts, long skips,
+                       String policy) {
+}
@@ -0,0 +1,273 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What every rule costs, per rule and file type: evaluations, wall time, tokens visited, characters
+ * of the files it scanned, findings it reported, and evaluations its budget aborted
+ * With a policy, a rule whose recent average time per file stays over the limit for a file type is
+ * demoted or skipped on files of that type until it gets fast again
+ * One instance is shared by the validation services, so the meters and the endpoint see every rule
+ */
+@Component
+final class RuleCosts implements MeterBinder {
+
+    static final String REVIEW_FILE_TYPE = "review";
+
+    // Weight of the latest evaluation in the moving average the policy compares with its limit
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * What happens to a rule over its time budget
+     */
+    enum Action {
+        // Its findings are reported as INFO
+        DEMOTE,
+        // It runs only on one file in every probe interval
+        SKIP
+    }
+
+    /**
+     * Compiled cost policy of a {@link RuleSet}
+     */
+    record Policy(Action action, long maxAverageNanos, long minEvaluations, int probeInterval) {
+
+        /**
+         * The configured policy, or null when it is disabled
+         */
+        static Policy of(ReviewConfiguration.Rules.CostPolicy config) {
+            if (!config.isEnabled()) {
+                return null;
+            }
+            // An unknown action falls back to the milder one rather than failing every validation
+            Action action = Action.DEMOTE;
+            try {
+                action = Action.valueOf(config.getAction().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                // Keep DEMOTE
+            }
+            return new Policy(action,
+                TimeUnit.MILLISECONDS.toNanos(config.getMaxAverageMillis()),
+                Math.max(1, config.getMinEvaluations()), Math.max(1, config.getProbeInterval()));
+        }
+    }
+
+    private record Key(String rule, String fileType) {
+    }
+
+    private static final class Account {
+
+        final LongAdder evaluations = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder steps = new LongAdder();
+        final LongAdder characters = new LongAdder();
+        final LongAdder findings = new LongAdder();
+        final LongAdder aborts = new LongAdder();
+        final LongAdder skips = new LongAdder();
+        final LongAdder calls = new LongAdder();
+        private double averageNanos;
+        volatile boolean overBudget;
+
+        long evaluations() {
+            return evaluations.sum();
+        }
+
+        double totalNanos() {
+            return nanos.sum();
+        }
+
+        long steps() {
+            return steps.sum();
+        }
+
+        long characters() {
+            return characters.sum();
+        }
+
+        long findings() {
+            return findings.sum();
+        }
+
+        long skips() {
+            return skips.sum();
+        }
+
+        /**
+         * Fold one evaluation into the moving average; true when that changed whether the rule is over budget
+         * Without a policy the state is left alone, since the account is shared with services that have one
+         */
+        synchronized boolean record(long elapsed, Policy policy) {
+            averageNanos = evaluations.sum() <= 1 ? elapsed : averageNanos + SMOOTHING * (elapsed - averageNanos);
+            if (policy == null) {
+                return false;
+            }
+            boolean over = evaluations.sum() >= policy.minEvaluations() && averageNanos > policy.maxAverageNanos();
+            boolean changed = over != overBudget;
+            overBudget = over;
+            return changed;
+        }
+    }
+
+    private final Map<Key, Account> accounts = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+    private volatile String policyState = "";
+
+    /**
+     * Observer accounting the rules run on one file under the policy, which may be null
+     */
+    RuleBudget.Observer forFile(String fileName, int characters, Policy policy) {
+        return observer(fileType(fileName), characters, policy);
+    }
+
+    /**
+     * Observer accounting the rules run once over all files of a review, such as duplication across
+     * them, under the file type {@value #REVIEW_FILE_TYPE}
+     */
+    RuleBudget.Observer forReview(int characters, Policy policy) {
+        return observer(REVIEW_FILE_TYPE, characters, policy);
+    }
+
+    private RuleBudget.Observer observer(String fileType, int characters, Policy policy) {
+        return new RuleBudget.Observer() {
+
+            @Override
+            public boolean admits(String rule) {
+                if (policy == null || policy.action() != Action.SKIP) {
+                    return true;
+                }
+                Account account = account(rule, fileType);
+                account.calls.increment();
+                if (!account.overBudget || account.calls.sum() % policy.probeInterval() == 0) {
+                    return true;
+                }
+                account.skips.increment();
+                return false;
+            }
+
+            @Override
+            public void evaluated(String rule, long nanos, long steps, boolean aborted) {
+                Account account = account(rule, fileType);
+                account.evaluations.increment();
+                account.nanos.add(nanos);
+                account.steps.add(steps);
+                account.characters.add(characters);
+                if (aborted) {
+                    account.aborts.increment();
+                }
+                if (account.record(nanos, policy)) {
+                    policyState = overBudgetKeys();
+                }
+            }
+
+            @Override
+            public void reported(String rule) {
+                account(rule, fileType).findings.increment();
+            }
+
+            @Override
+            public boolean demotes(String rule) {
+                return policy != null && policy.action() == Action.DEMOTE && account(rule, fileType).overBudget;
+            }
+        };
+    }
+
+    /**
+     * The rules the policy currently acts on, as sorted text; part of the rules fingerprint, since it
+     * changes the findings of a file
+     */
+    String policyState() {
+        return policyState;
+    }
+
+    /**
+     * A snapshot of every account, the most expensive first
+     */
+    List<RuleCost> snapshot(Policy policy) {
+        List<RuleCost> costs = new ArrayList<>(accounts.size());
+        accounts.forEach((key, account) -> {
+            long evaluations = account.evaluations();
+            double totalMillis = account.totalNanos() / 1_000_000.0;
+            String action = policy != null && account.overBudget ? policy.action().name() : "NONE";
+            costs.add(new RuleCost(key.rule(), key.fileType(), evaluations, totalMillis,
+                evaluations == 0 ? 0 : totalMillis / evaluations, account.steps(), account.characters(),
+                account.findings(), account.aborts.sum(), account.skips(), action));
+        });
+        costs.sort(Comparator.comparingDouble(RuleCost::totalMillis).reversed());
+        return costs;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        accounts.forEach((key, account) -> register(registry, key, account));
+    }
+
+    private Account account(String rule, String fileType) {
+        Key key = new Key(rule, fileType);
+        Account account = accounts.get(key);
+        if (account != null) {
+            return account;
+        }
+        return accounts.computeIfAbsent(key, created -> {
+            Account fresh = new Account();
+            MeterRegistry bound = registry;
+            if (bound != null) {
+                register(bound, created, fresh);
+            }
+            return fresh;
+        });
+    }
+
+    private String overBudgetKeys() {
+        TreeSet<String> keys = new TreeSet<>();
+        accounts.forEach((key, account) -> {
+            if (account.overBudget) {
+                keys.add(key.rule() + "@" + key.fileType());
+            }
+        });
+        return String.join(",", keys);
+    }
+
+    private static void register(MeterRegistry registry, Key key, Account account) {
+        String[] tags = {"rule", key.rule(), "file.type", key.fileType()};
+        FunctionTimer.builder("review.rule.evaluations", account, Account::evaluations, Account::totalNanos,
+                TimeUnit.NANOSECONDS)
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder("review.rule.tokens", account, Account::steps)
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder("review.rule.characters", account, Account::characters)
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder("review.rule.findings", account, Account::findings)
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder("review.rule.skips", account, Account::skips)
+            .tags(tags)
+            .register(registry);
+    }
+
+    private static String fileType(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot < fileName.lastIndexOf('/')) {
+            return "none";
+        }
+        return fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,62 @@
+package com.reviewcode.ai.service;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Group of rules that make sense for the same languages, and the registry of the packs each
+ * language gets; a rule outside the packs of a file is never evaluated on it
+ */
+enum RulePack {
+
+    // Literal and line based rules that hold for any language with C-like string literals
+    COMMON(ArchitectureRules.HARDCODED_SECRET, ArchitectureRules.SQL_INJECTION, ArchitectureRules.WEAK_CRYPTO,
+        ArchitectureRules.SELECT_ALL, ArchitectureRules.DUPLICATE_CODE),
+    // Languages with try/catch blocks
+    TRY_CATCH(ArchitectureRules.EMPTY_CATCH),
+    // Java declarations, annotations and library classes
+    JAVA(SourceStructure.STRUCTURE, ArchitectureRules.MAGIC_NUMBER, ArchitectureRules.STRING_CONCAT_LOOP,
+        ArchitectureRules.FIELD_INJECTION, ArchitectureRules.HARD_DEPENDENCY, ArchitectureRules.ENTITY_WITHOUT_ID,
+        ArchitectureRules.ANEMIC_ENTITY, ArchitectureRules.INSECURE_RANDOM, ArchitectureRules.MISSING_VALIDATION,
+        ArchitectureRules.EXPOSED_EXCEPTION, ArchitectureRules.EAGER_ONE_TO_MANY);
+
+    private static final Map<Language, Set<RulePack>> REGISTRY = new EnumMap<>(Language.class);
+    private static final Map<Language, Set<String>> RULES = new EnumMap<>(Language.class);
+
+    static {
+        REGISTRY.put(Language.JAVA, EnumSet.allOf(RulePack.class));
+        REGISTRY.put(Language.JAVASCRIPT, EnumSet.of(COMMON, TRY_CATCH));
+        REGISTRY.put(Language.TYPESCRIPT, EnumSet.of(COMMON, TRY_CATCH));
+        REGISTRY.put(Language.C_FAMILY, EnumSet.of(COMMON, TRY_CATCH));
+        REGISTRY.put(Language.PYTHON, EnumSet.of(COMMON));
+        REGISTRY.put(Language.GO, EnumSet.of(COMMON));
+        REGISTRY.put(Language.RUST, EnumSet.of(COMMON));
+        REGISTRY.put(Language.OTHER, EnumSet.of(COMMON));
+
+        REGISTRY.forEach((language, packs) -> {
+            Set<String> rules = new HashSet<>();
+            packs.forEach(pack -> rules.addAll(pack.rules));
+            RULES.put(language, Set.copyOf(rules));
+        });
+    }
+
+    private final Set<String> rules;
+
+    RulePack(String... rules) {
+        this.rules = Set.of(rules);
+    }
+
+    static Set<RulePack> forLanguage(Language language) {
+        return REGISTRY.get(language);
+    }
+
+    /**
+     * Names of the rules to evaluate on the file, the union of the packs of its language
+     */
+    static Set<String> rulesFor(String fileName) {
+        return RULES.get(Language.of(fileName));
+    }
+}
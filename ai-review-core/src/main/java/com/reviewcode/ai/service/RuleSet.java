@@ -0,0 +1,329 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.ReviewFinding;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable snapshot of a {@link ReviewConfiguration}, compiled once so validating a file does no
+ * pattern compilation and answers rule, severity and whitelist lookups from hashed collections
+ */
+final class RuleSet {
+
+    private final ReviewConfiguration source;
+    private final ReviewConfiguration.Thresholds thresholds;
+    private final ReviewConfiguration.Rules rules;
+    private final ReviewConfiguration.Patterns patterns;
+    private final ReviewConfiguration.Patterns.Whitelist whitelist;
+    private final List<String> ignoreFileSource;
+    private final List<String> criticalFileSource;
+    private final List<String> skipSecuritySource;
+    private final List<String> magicNumberSource;
+    private final List<String> allowedSecretSource;
+    private final List<String> disabledSource;
+    private final Map<String, String> severitySource;
+    private final ReviewConfiguration.Rules.CostPolicy costPolicySource;
+    private final ReviewConfiguration.Rules.MagicNumbers magicNumberGroupingSource;
+
+    private final int maxMethodLength;
+    private final int maxClassLength;
+    private final int maxParameters;
+    private final long ruleStepBudget;
+    private final long ruleTimeBudgetMillis;
+    private final long fileTimeBudgetMillis;
+    private final boolean cleanCodeEnabled;
+    private final boolean solidEnabled;
+    private final boolean dddEnabled;
+    private final boolean securityEnabled;
+    private final boolean performanceEnabled;
+    private final boolean costPolicyEnabled;
+    private final String costPolicyAction;
+    private final long costPolicyMaxAverageMillis;
+    private final long costPolicyMinEvaluations;
+    private final int costPolicyProbeInterval;
+    private final String magicNumberGroupBy;
+    private final int magicNumberSampleSize;
+    private final int maxMagicNumberFindings;
+
+    private final List<Pattern> ignoreFiles;
+    private final List<Pattern> criticalFiles;
+    private final List<Pattern> skipSecurityChecks;
+    private final Set<String> magicNumberWhitelist;
+    private final List<String> allowedSecrets;
+    private final Set<String> disabledRuleIds;
+    private final Set<ReviewFinding.FindingType> disabledTypes;
+    private final Map<String, ReviewFinding.Severity> severityOverrides;
+    private final RuleCosts.Policy costPolicy;
+    private final String fingerprint;
+
+    private RuleSet(ReviewConfiguration config) {
+        this.source = config;
+        this.thresholds = config.getThresholds();
+        this.rules = config.getRules();
+        this.patterns = config.getPatterns();
+        this.whitelist = patterns.getWhitelist();
+        this.ignoreFileSource = patterns.getIgnoreFiles();
+        this.criticalFileSource = patterns.getCriticalFiles();
+        this.skipSecuritySource = whitelist.getSkipSecurityChecks();
+        this.magicNumberSource = whitelist.getMagicNumbers();
+        this.allowedSecretSource = whitelist.getAllowedSecrets();
+        this.disabledSource = rules.getDisabled();
+        this.severitySource = rules.getSeverity();
+        this.costPolicySource = rules.getCostPolicy();
+        this.magicNumberGroupingSource = rules.getMagicNumbers();
+
+        this.maxMethodLength = thresholds.getMaxMethodLength();
+        this.maxClassLength = thresholds.getMaxClassLength();
+        this.maxParameters = thresholds.getMaxParameters();
+        this.ruleStepBudget = thresholds.getRuleStepBudget();
+        this.ruleTimeBudgetMillis = thresholds.getRuleTimeBudgetMillis();
+        this.fileTimeBudgetMillis = thresholds.getFileTimeBudgetMillis();
+        this.cleanCodeEnabled = rules.isEnableCleanCode();
+        this.solidEnabled = rules.isEnableSolid();
+        this.dddEnabled = rules.isEnableDdd();
+        this.securityEnabled = rules.isEnableSecurity();
+        this.performanceEnabled = rules.isEnablePerformance();
+        this.costPolicyEnabled = costPolicySource.isEnabled();
+        this.costPolicyAction = costPolicySource.getAction();
+        this.costPolicyMaxAverageMillis = costPolicySource.getMaxAverageMillis();
+        this.costPolicyMinEvaluations = costPolicySource.getMinEvaluations();
+        this.costPolicyProbeInterval = costPolicySource.getProbeInterval();
+        this.magicNumberGroupBy = magicNumberGroupingSource.getGroupBy();
+        this.magicNumberSampleSize = Math.max(1, magicNumberGroupingSource.getSampleSize());
+        this.maxMagicNumberFindings = Math.max(1, magicNumberGroupingSource.getMaxFindingsPerFile());
+
+        this.ignoreFiles = Globs.compile(ignoreFileSource);
+        this.criticalFiles = Globs.compile(criticalFileSource);
+        this.skipSecurityChecks = Globs.compile(skipSecuritySource);
+        this.magicNumberWhitelist = new HashSet<>(magicNumberSource);
+
+        List<String> secrets = new ArrayList<>(allowedSecretSource.size());
+        for (String allowed : allowedSecretSource) {
+            secrets.add(allowed.toLowerCase());
+        }
+        this.allowedSecrets = List.copyOf(secrets);
+
+        this.disabledRuleIds = new HashSet<>(disabledSource);
+        Set<ReviewFinding.FindingType> types = EnumSet.noneOf(ReviewFinding.FindingType.class);
+        for (ReviewFinding.FindingType type : ReviewFinding.FindingType.values()) {
+            if (disabledRuleIds.contains(type.name())) {
+                types.add(type);
+            }
+        }
+        this.disabledTypes = types;
+
+        // Unknown severities are dropped here so they keep the finding's original severity
+        Map<String, ReviewFinding.Severity> overrides = new HashMap<>();
+        severitySource.forEach((ruleId, severity) -> {
+            try {
+                overrides.put(ruleId, ReviewFinding.Severity.valueOf(severity.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                // Invalid severity override, keep original
+            }
+        });
+        this.severityOverrides = Map.copyOf(overrides);
+        this.costPolicy = RuleCosts.Policy.of(costPolicySource);
+
+        this.fingerprint = FindingsCache.digest(
+            String.valueOf(maxMethodLength), String.valueOf(maxClassLength), String.valueOf(maxParameters),
+            String.valueOf(ruleStepBudget), String.valueOf(ruleTimeBudgetMillis), String.valueOf(fileTimeBudgetMillis),
+            String.valueOf(cleanCodeEnabled), String.valueOf(solidEnabled), String.valueOf(dddEnabled),
+            String.valueOf(securityEnabled), String.valueOf(performanceEnabled),
+            String.valueOf(ignoreFileSource), String.valueOf(criticalFileSource), String.valueOf(skipSecuritySource),
+            String.valueOf(magicNumberSource), String.valueOf(allowedSecretSource), String.valueOf(disabledSource),
+            String.valueOf(new TreeMap<>(severitySource)), String.valueOf(costPolicy),
+            String.valueOf(groupsMagicNumbersByMethod()), String.valueOf(magicNumberSampleSize),
+            String.valueOf(maxMagicNumberFindings));
+    }
+
+    static RuleSet compile(ReviewConfiguration config) {
+        return new RuleSet(config);
+    }
+
+    /**
+     * Whether this snapshot still reflects the configuration, i.e. no property was set since it was
+     * compiled; constant time, comparing the bound collections by identity
+     */
+    boolean isCompiledFrom(ReviewConfiguration config) {
+        ReviewConfiguration.Thresholds currentThresholds = config.getThresholds();
+        ReviewConfiguration.Rules currentRules = config.getRules();
+        ReviewConfiguration.Patterns currentPatterns = config.getPatterns();
+        ReviewConfiguration.Patterns.Whitelist currentWhitelist = currentPatterns.getWhitelist();
+        return currentThresholds == thresholds
+            && currentThresholds.getMaxMethodLength() == maxMethodLength
+            && currentThresholds.getMaxClassLength() == maxClassLength
+            && currentThresholds.getMaxParameters() == maxParameters
+            && currentThresholds.getRuleStepBudget() == ruleStepBudget
+            && currentThresholds.getRuleTimeBudgetMillis() == ruleTimeBudgetMillis
+            && currentThresholds.getFileTimeBudgetMillis() == fileTimeBudgetMillis
+            && currentRules == rules
+            && currentRules.isEnableCleanCode() == cleanCodeEnabled
+            && currentRules.isEnableSolid() == solidEnabled
+            && currentRules.isEnableDdd() == dddEnabled
+            && currentRules.isEnableSecurity() == securityEnabled
+            && currentRules.isEnablePerformance() == performanceEnabled
+            && currentRules.getDisabled() == disabledSource
+            && currentRules.getSeverity() == severitySource
+            && currentRules.getCostPolicy() == costPolicySource
+            && costPolicySource.isEnabled() == costPolicyEnabled
+            && costPolicySource.getAction() == costPolicyAction
+            && costPolicySource.getMaxAverageMillis() == costPolicyMaxAverageMillis
+            && costPolicySource.getMinEvaluations() == costPolicyMinEvaluations
+            && costPolicySource.getProbeInterval() == costPolicyProbeInterval
+            && currentRules.getMagicNumbers() == magicNumberGroupingSource
+            && magicNumberGroupingSource.getGroupBy() == magicNumberGroupBy
+            && Math.max(1, magicNumberGroupingSource.getSampleSize()) == magicNumberSampleSize
+            && Math.max(1, magicNumberGroupingSource.getMaxFindingsPerFile()) == maxMagicNumberFindings
+            && currentPatterns == patterns
+            && currentPatterns.getIgnoreFiles() == ignoreFileSource
+            && currentPatterns.getCriticalFiles() == criticalFileSource
+            && currentWhitelist == whitelist
+            && currentWhitelist.getSkipSecurityChecks() == skipSecuritySource
+            && currentWhitelist.getMagicNumbers() == magicNumberSource
+            && currentWhitelist.getAllowedSecrets() == allowedSecretSource;
+    }
+
+    /**
+     * The configuration this snapshot was compiled from, which may have been mutated since
+     */
+    ReviewConfiguration source() {
+        return source;
+    }
+
+    ReviewConfiguration.Thresholds thresholds() {
+        return thresholds;
+    }
+
+    /**
+     * Digest of every setting that can change the findings of a file, for keying cached findings
+     */
+    String fingerprint() {
+        return fingerprint;
+    }
+
+    int maxMethodLength() {
+        return maxMethodLength;
+    }
+
+    int maxClassLength() {
+        return maxClassLength;
+    }
+
+    int maxParameters() {
+        return maxParameters;
+    }
+
+    /**
+     * Start the configured CPU budget for validating one file
+     */
+    RuleBudget startBudget() {
+        return RuleBudget.start(ruleStepBudget, ruleTimeBudgetMillis, fileTimeBudgetMillis);
+    }
+
+    /**
+     * Cost policy for rules over their time budget, or null when disabled
+     */
+    RuleCosts.Policy costPolicy() {
+        return costPolicy;
+    }
+
+    /**
+     * Whether magic numbers are reported per method rather than per file
+     */
+    boolean groupsMagicNumbersByMethod() {
+        return !"FILE".equalsIgnoreCase(magicNumberGroupBy);
+    }
+
+    /**
+     * Values and line numbers quoted in an aggregated magic number finding
+     */
+    int magicNumberSampleSize() {
+        return magicNumberSampleSize;
+    }
+
+    int maxMagicNumberFindings() {
+        return maxMagicNumberFindings;
+    }
+
+    boolean isCleanCodeEnabled() {
+        return cleanCodeEnabled;
+    }
+
+    boolean isSolidEnabled() {
+        return solidEnabled;
+    }
+
+    boolean isDddEnabled() {
+        return dddEnabled;
+    }
+
+    boolean isSecurityEnabled() {
+        return securityEnabled;
+    }
+
+    boolean isPerformanceEnabled() {
+        return performanceEnabled;
+    }
+
+    boolean isIgnored(String fileName) {
+        return matchesAny(ignoreFiles, fileName);
+    }
+
+    boolean isCritical(String fileName) {
+        return matchesAny(criticalFiles, fileName);
+    }
+
+    boolean skipsSecurityChecks(String fileName) {
+        return matchesAny(skipSecurityChecks, fileName);
+    }
+
+    boolean isWhitelistedNumber(String number) {
+        return magicNumberWhitelist.contains(number);
+    }
+
+    boolean isAllowedSecret(String secret) {
+        String lowerCase = secret.toLowerCase();
+        for (String allowed : allowedSecrets) {
+            if (lowerCase.contains(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A finding is disabled by its rule id or by the name of its type
+     */
+    boolean isDisabled(ReviewFinding finding) {
+        return isDisabled(finding.getRuleId(), finding.getType());
+    }
+
+    boolean isDisabled(String ruleId, ReviewFinding.FindingType type) {
+        return disabledRuleIds.contains(ruleId) || disabledTypes.contains(type);
+    }
+
+    /**
+     * Severity configured for the rule, or null to keep the finding's own
+     */
+    ReviewFinding.Severity severityOverride(String ruleId) {
+        return ruleId == null ? null : severityOverrides.get(ruleId);
+    }
+
+    private static boolean matchesAny(List<Pattern> globs, String fileName) {
+        for (Pattern glob : globs) {
+            if (glob.matcher(fileName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
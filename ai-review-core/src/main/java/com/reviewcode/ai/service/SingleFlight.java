@@ -0,0 +1,93 @@
+package com.reviewcode.ai.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one call per key at a time: subscribers arriving while the call for their key is in
+ * flight share its outcome, and those arriving within the grace window after it produced a value get
+ * that value without a call
+ * Errors and empty results are shared only with the subscribers already waiting, so the next one
+ * calls again
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+    private final Duration grace;
+
+    SingleFlight(Duration grace) {
+        this.grace = grace;
+    }
+
+    /**
+     * The outcome of the call in flight for the key, or of a new call when there is none
+     */
+    Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean();
+            Mono<V> flight = flights.computeIfAbsent(key, k -> {
+                started.set(true);
+                return start(k, call);
+            });
+            (started.get() ? calls : joins).increment();
+            return flight;
+        });
+    }
+
+    long calls() {
+        return calls.sum();
+    }
+
+    long joins() {
+        return joins.sum();
+    }
+
+    int inFlight() {
+        return flights.size();
+    }
+
+    void bindTo(MeterRegistry registry, String mode) {
+        FunctionCounter.builder("ai.review.flights", this, SingleFlight::calls)
+            .tag("mode", mode)
+            .tag("result", "called")
+            .register(registry);
+        FunctionCounter.builder("ai.review.flights", this, SingleFlight::joins)
+            .tag("mode", mode)
+            .tag("result", "joined")
+            .register(registry);
+    }
+
+    private Mono<V> start(K key, Supplier<Mono<V>> call) {
+        Duration window = grace;
+        AtomicReference<Mono<V>> self = new AtomicReference<>();
+        AtomicBoolean produced = new AtomicBoolean();
+        Mono<V> flight = Mono.defer(call)
+            .doOnNext(value -> produced.set(true))
+            .doFinally(signal -> {
+                if (signal == SignalType.ON_COMPLETE && produced.get() && !window.isZero()) {
+                    // Late callers keep getting the value until the window closes
+                    Schedulers.parallel().schedule(() -> flights.remove(key, self.get()),
+                        window.toMillis(), TimeUnit.MILLISECONDS);
+                } else {
+                    flights.remove(key, self.get());
+                }
+            })
+            .cache(value -> window, error -> Duration.ZERO, () -> Duration.ZERO);
+        self.set(flight);
+        return flight;
+    }
+}
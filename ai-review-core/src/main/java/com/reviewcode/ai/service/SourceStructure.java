@@ -0,0 +1,397 @@
+package com.reviewcode.ai.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Structural index of one source file, built in a single pass over its {@link TokenStream}
+ * Records every method with its line span, parameter count and deepest control-flow nesting, and every
+ * class, interface, enum and record with its line span, so size and shape rules become lookups
+ */
+final class SourceStructure {
+
+    // Rule name the indexing pass is budgeted under
+    static final String STRUCTURE = "STRUCTURE";
+
+    private static final SourceStructure EMPTY = new SourceStructure(List.of(), List.of());
+
+    /**
+     * A method or constructor; the name and deepest block are token indexes, the block -1 when the
+     * body has no control-flow blocks
+     */
+    record Method(int name, int lines, int parameters, int nesting, int deepestBlock) {
+    }
+
+    /**
+     * A class, interface, enum or record; the keyword is a token index
+     */
+    record TypeDeclaration(int keyword, int lines) {
+    }
+
+    private final List<Method> methods;
+    private final List<TypeDeclaration> types;
+    private final Method longestMethod;
+    private final Method widestMethod;
+    private final Method deepestMethod;
+    private final TypeDeclaration largestType;
+
+    private SourceStructure(List<Method> methods, List<TypeDeclaration> types) {
+        this.methods = methods;
+        this.types = types;
+
+        Method longest = null;
+        Method widest = null;
+        Method deepest = null;
+        for (Method method : methods) {
+            if (longest == null || method.lines() > longest.lines()) {
+                longest = method;
+            }
+            if (widest == null || method.parameters() > widest.parameters()) {
+                widest = method;
+            }
+            if (deepest == null || method.nesting() > deepest.nesting()) {
+                deepest = method;
+            }
+        }
+        this.longestMethod = longest;
+        this.widestMethod = widest;
+        this.deepestMethod = deepest;
+
+        TypeDeclaration largest = null;
+        for (TypeDeclaration type : types) {
+            if (largest == null || type.lines() > largest.lines()) {
+                largest = type;
+            }
+        }
+        this.largestType = largest;
+    }
+
+    /**
+     * Index the file under the budget; an aborted pass leaves an empty structure, so the rules
+     * reading it find nothing
+     */
+    static SourceStructure index(TokenStream tokens, RuleBudget budget) {
+        return budget.run(STRUCTURE, EMPTY, meter -> new Indexer(tokens, meter).run());
+    }
+
+    /**
+     * The methods and types of this index whose line span includes a changed line; the tokens are the
+     * ones the index was built from
+     */
+    SourceStructure touching(TokenStream tokens, ChangedLines changes) {
+        List<Method> touchedMethods = new ArrayList<>();
+        for (Method method : methods) {
+            int first = tokens.line(method.name());
+            if (changes.intersects(first, first + method.lines() - 1)) {
+                touchedMethods.add(method);
+            }
+        }
+        List<TypeDeclaration> touchedTypes = new ArrayList<>();
+        for (TypeDeclaration type : types) {
+            int first = tokens.line(type.keyword());
+            if (changes.intersects(first, first + type.lines() - 1)) {
+                touchedTypes.add(type);
+            }
+        }
+        return new SourceStructure(Collections.unmodifiableList(touchedMethods), Collections.unmodifiableList(touchedTypes));
+    }
+
+    /**
+     * Methods in declaration order
+     */
+    List<Method> methods() {
+        return methods;
+    }
+
+    /**
+     * Types in declaration order, nested ones after their enclosing type
+     */
+    List<TypeDeclaration> types() {
+        return types;
+    }
+
+    /**
+     * The method spanning the most lines, the first one on a tie; null without methods
+     */
+    Method longestMethod() {
+        return longestMethod;
+    }
+
+    /**
+     * The method declaring the most parameters, the first one on a tie; null without methods
+     */
+    Method widestMethod() {
+        return widestMethod;
+    }
+
+    /**
+     * The method with the deepest control-flow nesting, the first one on a tie; null without methods
+     */
+    Method deepestMethod() {
+        return deepestMethod;
+    }
+
+    /**
+     * The type spanning the most lines, the first one on a tie; null without types
+     */
+    TypeDeclaration largestType() {
+        return largestType;
+    }
+
+    private static final class Indexer {
+
+        private final TokenStream tokens;
+        private final RuleBudget.Meter meter;
+
+        private final List<TypeDeclaration> types = new ArrayList<>();
+
+        // Methods by declaration order, filled in as their headers are read
+        private int[] names = new int[16];
+        private int[] lines = new int[16];
+        private int[] parameters = new int[16];
+        private int[] closes = new int[16];
+        private int[] nestings = new int[16];
+        private int[] deepestBlocks = new int[16];
+        private int methodCount;
+
+        // Methods whose body is being read, innermost last
+        private int[] openMethods = new int[16];
+        private int openMethodCount;
+
+        // Control-flow nesting level of every open brace, by brace depth
+        private int[] levels = new int[16];
+        private int depth;
+
+        private Indexer(TokenStream tokens, RuleBudget.Meter meter) {
+            this.tokens = tokens;
+            this.meter = meter;
+        }
+
+        private SourceStructure run() {
+            for (int i = 0; i < tokens.size(); i++) {
+                meter.step();
+                if (tokens.isOperator(i, '{')) {
+                    openBlock(i);
+                } else if (tokens.isOperator(i, '}')) {
+                    closeBlock(i);
+                } else if (isTypeKeyword(i)) {
+                    addType(i);
+                    // The name of a record is followed by its components, not a method's parameters
+                    i++;
+                } else {
+                    int end = declarationEnd(tokens, i);
+                    if (end >= 0) {
+                        addMethod(i, end);
+                    }
+                }
+            }
+
+            List<Method> methods = new ArrayList<>(methodCount);
+            for (int m = 0; m < methodCount; m++) {
+                methods.add(new Method(names[m], lines[m], parameters[m], nestings[m], deepestBlocks[m]));
+            }
+            return new SourceStructure(Collections.unmodifiableList(methods), Collections.unmodifiableList(types));
+        }
+
+        private void openBlock(int brace) {
+            int level = depth == 0 ? 0 : levels[depth - 1];
+            if (opensControlBlock(tokens, brace)) {
+                level++;
+            }
+            if (depth == levels.length) {
+                levels = Arrays.copyOf(levels, depth * 2);
+            }
+            levels[depth++] = level;
+
+            if (openMethodCount > 0) {
+                int method = openMethods[openMethodCount - 1];
+                if (level > nestings[method]) {
+                    nestings[method] = level;
+                    deepestBlocks[method] = brace;
+                }
+            }
+        }
+
+        private void closeBlock(int brace) {
+            if (depth > 0) {
+                depth--;
+            }
+            while (openMethodCount > 0 && closes[openMethods[openMethodCount - 1]] == brace) {
+                openMethodCount--;
+            }
+        }
+
+        private void addMethod(int name, int end) {
+            if (methodCount == names.length) {
+                int capacity = methodCount * 2;
+                names = Arrays.copyOf(names, capacity);
+                lines = Arrays.copyOf(lines, capacity);
+                parameters = Arrays.copyOf(parameters, capacity);
+                closes = Arrays.copyOf(closes, capacity);
+                nestings = Arrays.copyOf(nestings, capacity);
+                deepestBlocks = Arrays.copyOf(deepestBlocks, capacity);
+            }
+
+            int close = tokens.isOperator(end, '{') ? tokens.pair(end) : -1;
+            int method = methodCount++;
+            names[method] = name;
+            lines[method] = tokens.line(close >= 0 ? close : end) - tokens.line(name) + 1;
+            parameters[method] = parameterCount(tokens, name + 1);
+            closes[method] = close;
+            nestings[method] = 0;
+            deepestBlocks[method] = -1;
+
+            if (close >= 0) {
+                if (openMethodCount == openMethods.length) {
+                    openMethods = Arrays.copyOf(openMethods, openMethodCount * 2);
+                }
+                openMethods[openMethodCount++] = method;
+            }
+        }
+
+        private void addType(int keyword) {
+            // The body opens at the first brace after the header; record components are skipped whole
+            for (int k = keyword + 2; k < tokens.size(); k++) {
+                meter.step();
+                if (tokens.isOperator(k, '(')) {
+                    k = tokens.pair(k);
+                    if (k < 0) {
+                        return;
+                    }
+                } else if (tokens.isOperator(k, '{')) {
+                    int close = tokens.pair(k);
+                    if (close >= 0) {
+                        types.add(new TypeDeclaration(keyword, tokens.line(close) - tokens.line(keyword) + 1));
+                    }
+                    return;
+                } else if (tokens.isOperator(k, ';') || tokens.isOperator(k, '}') || tokens.isOperator(k, '=')) {
+                    return;
+                }
+            }
+        }
+
+        private boolean isTypeKeyword(int i) {
+            if (tokens.kind(i + 1) != TokenStream.Kind.IDENTIFIER || tokens.isOperator(i - 1, '.')) {
+                return false;
+            }
+            if (tokens.isIdentifier(i, "record")) {
+                return tokens.isOperator(i + 2, '(') || tokens.isOperator(i + 2, '<');
+            }
+            return tokens.isKeyword(i, "class") || tokens.isKeyword(i, "interface") || tokens.isKeyword(i, "enum");
+        }
+    }
+
+    /**
+     * Index of the token ending the header of the method or constructor whose name is at the index:
+     * the opening brace of its body or the semicolon of an abstract method; -1 if none is declared there
+     */
+    private static int declarationEnd(TokenStream tokens, int i) {
+        if (tokens.kind(i) != TokenStream.Kind.IDENTIFIER || !tokens.isOperator(i + 1, '(')) {
+            return -1;
+        }
+        int close = tokens.pair(i + 1);
+        if (close < 0) {
+            return -1;
+        }
+
+        int end = close + 1;
+        if (tokens.isKeyword(end, "default")) {
+            // Annotation member with a default value
+            return isDeclarationName(tokens, i, false) ? end : -1;
+        }
+        if (tokens.isKeyword(end, "throws") || tokens.isKeyword(end, "implements")) {
+            while (end < tokens.size() && !tokens.isOperator(end, '{') && !tokens.isOperator(end, ';')) {
+                end++;
+            }
+        }
+        boolean body = tokens.isOperator(end, '{');
+        if (!body && !tokens.isOperator(end, ';')) {
+            return -1;
+        }
+        return isDeclarationName(tokens, i, body) ? end : -1;
+    }
+
+    /**
+     * Number of parameters in the parenthesised list opening at the index
+     */
+    private static int parameterCount(TokenStream tokens, int open) {
+        int close = tokens.pair(open);
+        if (close == open + 1) {
+            return 0;
+        }
+        int count = 1;
+        int typeArguments = 0;
+        for (int k = open + 1; k < close; k++) {
+            if (tokens.isOperator(k, '(') || tokens.isOperator(k, '[') || tokens.isOperator(k, '{')) {
+                k = tokens.pair(k);
+                if (k < 0) {
+                    break;
+                }
+            } else if (tokens.isOperator(k, '<')) {
+                typeArguments++;
+            } else if (tokens.isOperator(k, '>')) {
+                typeArguments--;
+            } else if (tokens.isOperator(k, ',') && typeArguments == 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isDeclarationName(TokenStream tokens, int i, boolean hasBody) {
+        int previous = i - 1;
+        TokenStream.Kind kind = tokens.kind(previous);
+        if (kind == TokenStream.Kind.IDENTIFIER) {
+            // A return type, or the record keyword; yield is the only other word that precedes a call
+            return !tokens.is(previous, "yield");
+        }
+        if (kind == TokenStream.Kind.KEYWORD) {
+            return ArchitectureRules.DECLARATION_KEYWORDS.contains(tokens.text(previous));
+        }
+        if (tokens.isOperator(previous, '>')) {
+            return closesTypeArguments(tokens, previous);
+        }
+        if (tokens.isOperator(previous, ']')) {
+            return tokens.isOperator(previous - 1, '[');
+        }
+        // A constructor without modifiers
+        return hasBody && (tokens.isOperator(previous, '{') || tokens.isOperator(previous, '}')
+            || tokens.isOperator(previous, ';'));
+    }
+
+    /**
+     * Whether the {@code >} at the index closes the type arguments of a return type rather than
+     * comparing, or ending the explicit type arguments of a call such as {@code this.<T>of()}
+     */
+    private static boolean closesTypeArguments(TokenStream tokens, int close) {
+        int depth = 0;
+        for (int k = close; k >= 0; k--) {
+            if (tokens.isOperator(k, '>')) {
+                depth++;
+            } else if (tokens.isOperator(k, '<')) {
+                if (--depth == 0) {
+                    return !tokens.isOperator(k - 1, '.');
+                }
+            } else if (tokens.kind(k) != TokenStream.Kind.IDENTIFIER && tokens.kind(k) != TokenStream.Kind.KEYWORD
+                && !tokens.isOperator(k, '.') && !tokens.isOperator(k, ',') && !tokens.isOperator(k, '?')
+                && !tokens.isOperator(k, '[') && !tokens.isOperator(k, ']') && !tokens.isOperator(k, '&')) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean opensControlBlock(TokenStream tokens, int brace) {
+        int previous = brace - 1;
+        if (tokens.isOperator(previous, ')')) {
+            int keyword = tokens.pair(previous) - 1;
+            return tokens.isKeyword(keyword, "if") || tokens.isKeyword(keyword, "for")
+                || tokens.isKeyword(keyword, "while") || tokens.isKeyword(keyword, "switch")
+                || tokens.isKeyword(keyword, "try") || tokens.isKeyword(keyword, "catch");
+        }
+        return tokens.isKeyword(previous, "else") || tokens.isKeyword(previous, "do")
+            || tokens.isKeyword(previous, "try") || tokens.isKeyword(previous, "finally");
+    }
+}
@@ -0,0 +1,159 @@
+package com.reviewcode.ai.service;
+
+import java.util.Arrays;
+
+/**
+ * One source file as seen by the validation rules, split into lines exactly once
+ * Holds the start offset of every line so position-to-line lookups are a binary search, and hands
+ * out lines as views over the original text instead of copies
+ */
+final class SourceText {
+
+    private final String text;
+    private final int[] lineStarts;
+    private final int lineCount;
+    private final int contentLineCount;
+
+    private SourceText(String text) {
+        this.text = text;
+
+        int length = text.length();
+        int[] starts = new int[16];
+        int breaks = 0;
+        int terminators = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = text.charAt(i);
+            if (ch == '\n') {
+                if (++breaks == starts.length) {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                }
+                starts[breaks] = i + 1;
+                terminators++;
+            } else if (ch == '\r' && (i + 1 == length || text.charAt(i + 1) != '\n')) {
+                terminators++;
+            }
+        }
+        this.lineStarts = Arrays.copyOf(starts, breaks + 1);
+
+        boolean endsWithTerminator = length > 0 && (text.charAt(length - 1) == '\n' || text.charAt(length - 1) == '\r');
+        this.lineCount = length == 0 ? 0 : terminators + (endsWithTerminator ? 0 : 1);
+
+        int content = lineStarts.length;
+        while (content > 0 && lineStart(content - 1) == lineEnd(content - 1)) {
+            content--;
+        }
+        this.contentLineCount = content;
+    }
+
+    static SourceText of(String text) {
+        return new SourceText(text);
+    }
+
+    String text() {
+        return text;
+    }
+
+    int length() {
+        return text.length();
+    }
+
+    /**
+     * Number of lines as {@link String#lines()} counts them
+     */
+    int lineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Number of {@code '\n'}-separated lines up to the last non-empty one, as {@code split("\n")} returns
+     */
+    int contentLineCount() {
+        return contentLineCount;
+    }
+
+    /**
+     * Offset of the first character of a zero-based line
+     */
+    int lineStart(int line) {
+        return lineStarts[line];
+    }
+
+    /**
+     * Offset just past the last character of a zero-based line, excluding its {@code '\n'}
+     */
+    int lineEnd(int line) {
+        return line + 1 < lineStarts.length ? lineStarts[line + 1] - 1 : text.length();
+    }
+
+    /**
+     * Zero-based line as a view over the text; a {@code '\r'} before the break is kept
+     */
+    CharSequence line(int line) {
+        return new Slice(text, lineStart(line), lineEnd(line));
+    }
+
+    /**
+     * Zero-based line without leading and trailing whitespace, as {@link String#trim()} would return it
+     */
+    CharSequence trimmedLine(int line) {
+        int start = lineStart(line);
+        int end = lineEnd(line);
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return new Slice(text, start, end);
+    }
+
+    /**
+     * One-based line containing the position; positions outside the text map to line 1
+     */
+    int lineNumber(int position) {
+        if (position < 0 || position >= text.length()) {
+            return 1;
+        }
+        int index = Arrays.binarySearch(lineStarts, position);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static final class Slice implements CharSequence {
+
+        private final String text;
+        private final int start;
+        private final int end;
+
+        Slice(String text, int start, int end) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return text.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > end - start || from > to) {
+                throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", length " + length());
+            }
+            return new Slice(text, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return text.substring(start, end);
+        }
+    }
+}
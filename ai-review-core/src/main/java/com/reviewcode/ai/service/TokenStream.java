@@ -0,0 +1,222 @@
+package com.reviewcode.ai.service;
+
+/**
+ * Tokens of one Java source file as produced by {@link JavaLexer}
+ * Tokens are kept as parallel arrays of offsets into the source, together with their kind, line and
+ * matching bracket, so rules walk them without copying text; comments are held apart from the code
+ */
+final class TokenStream {
+
+    enum Kind {
+        IDENTIFIER,
+        KEYWORD,
+        NUMBER,
+        STRING,
+        CHAR,
+        OPERATOR
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final SourceText source;
+    private final String text;
+    private final byte[] kinds;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] lines;
+    private final int[] pairs;
+    private final int size;
+    private final int[] commentStarts;
+    private final int[] commentEnds;
+    private final int commentCount;
+
+    TokenStream(SourceText source, byte[] kinds, int[] starts, int[] ends, int[] lines, int[] pairs, int size,
+                int[] commentStarts, int[] commentEnds, int commentCount) {
+        this.source = source;
+        this.text = source.text();
+        this.kinds = kinds;
+        this.starts = starts;
+        this.ends = ends;
+        this.lines = lines;
+        this.pairs = pairs;
+        this.size = size;
+        this.commentStarts = commentStarts;
+        this.commentEnds = commentEnds;
+        this.commentCount = commentCount;
+    }
+
+    SourceText source() {
+        return source;
+    }
+
+    /**
+     * Number of code tokens, comments excluded
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Kind of the token, or null for an index outside the stream so rules can look around freely
+     */
+    Kind kind(int index) {
+        return index >= 0 && index < size ? KINDS[kinds[index]] : null;
+    }
+
+    int start(int index) {
+        return starts[index];
+    }
+
+    int end(int index) {
+        return ends[index];
+    }
+
+    /**
+     * One-based line the token starts on
+     */
+    int line(int index) {
+        return lines[index];
+    }
+
+    /**
+     * Index of the bracket matching the one at the index, or -1 for unbalanced and non-bracket tokens
+     */
+    int pair(int index) {
+        return index >= 0 && index < size ? pairs[index] : -1;
+    }
+
+    boolean is(int index, String value) {
+        if (index < 0 || index >= size) {
+            return false;
+        }
+        int start = starts[index];
+        return ends[index] - start == value.length() && text.startsWith(value, start);
+    }
+
+    boolean isIdentifier(int index, String name) {
+        return kind(index) == Kind.IDENTIFIER && is(index, name);
+    }
+
+    boolean isKeyword(int index, String keyword) {
+        return kind(index) == Kind.KEYWORD && is(index, keyword);
+    }
+
+    boolean isOperator(int index, char operator) {
+        return kind(index) == Kind.OPERATOR && ends[index] - starts[index] == 1 && text.charAt(starts[index]) == operator;
+    }
+
+    boolean isOperator(int index, String operator) {
+        return kind(index) == Kind.OPERATOR && is(index, operator);
+    }
+
+    /**
+     * Whether the tokens at the index are an annotation of that simple name, e.g. {@code @Entity}
+     */
+    boolean isAnnotation(int index, String name) {
+        return isOperator(index, '@') && isIdentifier(index + 1, name);
+    }
+
+    String text(int index) {
+        return text.substring(starts[index], ends[index]);
+    }
+
+    /**
+     * Source text from the start of the first token to the end of the last one, inclusive
+     */
+    String text(int from, int to) {
+        return text.substring(starts[from], ends[to]);
+    }
+
+    /**
+     * Offset of the first character inside the quotes of a string, text block or character literal
+     */
+    int contentStart(int index) {
+        int start = starts[index];
+        return isTextBlock(index) ? start + 3 : start + 1;
+    }
+
+    /**
+     * Offset just past the last character inside the quotes; unterminated literals run to their end
+     */
+    int contentEnd(int index) {
+        int start = starts[index];
+        int end = ends[index];
+        int quotes = isTextBlock(index) ? 3 : 1;
+        char quote = text.charAt(start);
+        if (end - start >= 2 * quotes && text.charAt(end - 1) == quote) {
+            return end - quotes;
+        }
+        return end;
+    }
+
+    /**
+     * Characters inside the quotes of a literal
+     */
+    String content(int index) {
+        return text.substring(contentStart(index), contentEnd(index));
+    }
+
+    /**
+     * The tokens starting on the given lines as a stream of their own, keeping their offsets and line
+     * numbers; a zero-width operator separates runs of lines that are not adjacent so no rule matches
+     * across a gap, brackets stay paired only when both ends are kept, and comments are left out
+     */
+    TokenStream onLines(ChangedLines selected) {
+        int[] kept = new int[size];
+        byte[] windowKinds = new byte[size * 2];
+        int[] windowStarts = new int[size * 2];
+        int[] windowEnds = new int[size * 2];
+        int[] windowLines = new int[size * 2];
+        int[] windowPairs = new int[size * 2];
+        int count = 0;
+
+        int previousLine = -1;
+        for (int i = 0; i < size; i++) {
+            kept[i] = -1;
+            int line = lines[i];
+            if (!selected.contains(line)) {
+                continue;
+            }
+            if (count > 0 && line > previousLine + 1 && !selected.intersects(previousLine + 1, line - 1)) {
+                windowKinds[count] = (byte) Kind.OPERATOR.ordinal();
+                windowStarts[count] = starts[i];
+                windowEnds[count] = starts[i];
+                windowLines[count] = line;
+                windowPairs[count] = -1;
+                count++;
+            }
+            kept[i] = count;
+            windowKinds[count] = kinds[i];
+            windowStarts[count] = starts[i];
+            windowEnds[count] = ends[i];
+            windowLines[count] = line;
+            windowPairs[count] = pairs[i];
+            count++;
+            previousLine = line;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int pair = windowPairs[i];
+            windowPairs[i] = pair >= 0 ? kept[pair] : -1;
+        }
+        return new TokenStream(source, windowKinds, windowStarts, windowEnds, windowLines, windowPairs, count,
+            new int[0], new int[0], 0);
+    }
+
+    int commentCount() {
+        return commentCount;
+    }
+
+    int commentStart(int comment) {
+        return commentStarts[comment];
+    }
+
+    int commentEnd(int comment) {
+        return commentEnds[comment];
+    }
+
+    private boolean isTextBlock(int index) {
+        return kinds[index] == Kind.STRING.ordinal() && ends[index] - starts[index] >= 3
+            && text.startsWith("\"\"\"", starts[index]);
+    }
+}
@@ -0,0 +1,173 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.model.ReviewFinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The part of one file the rules look at: the whole file, or the lines a change touched
+ * Line-local rules walk {@link #tokens()}, which for a change holds only the changed lines and a few
+ * lines of context around them; size and shape rules read {@link #structure()}, which keeps only the
+ * methods and types the change reaches; whole-file rules walk {@link #fileTokens()}
+ */
+final class ValidationScope {
+
+    // Lines of context kept around every changed run, so a statement cut by the hunk edge still matches
+    static final int CONTEXT_LINES = 3;
+
+    private final SourceText source;
+    private final TokenStream fileTokens;
+    private final TokenStream tokens;
+    private final ChangedLines changes;
+    private RuleBudget budget;
+    private SourceStructure indexed;
+    private SourceStructure structure;
+    // Innermost type and method spanning each line, built from the whole-file structure on first use
+    private String[] typeAtLine;
+    private String[] methodAtLine;
+
+    private ValidationScope(SourceText source, TokenStream fileTokens, TokenStream tokens,
+                            ChangedLines changes, RuleBudget budget) {
+        this.source = source;
+        this.fileTokens = fileTokens;
+        this.tokens = tokens;
+        this.changes = changes;
+        this.budget = budget;
+    }
+
+    /**
+     * Lex the file once and narrow the tokens to the changes, if any; the structure is indexed
+     * under the budget when a rule first asks for it
+     *
+     * @param changes the changed lines, or null to validate the whole file
+     */
+    static ValidationScope of(SourceText source, ChangedLines changes, RuleBudget budget) {
+        TokenStream fileTokens = JavaLexer.tokenize(source);
+        if (changes == null) {
+            return new ValidationScope(source, fileTokens, fileTokens, null, budget);
+        }
+        return new ValidationScope(source, fileTokens, fileTokens.onLines(changes.widen(CONTEXT_LINES)),
+            changes, budget);
+    }
+
+    /**
+     * Charge work still to be done on this scope, such as indexing its structure, to another budget
+     */
+    ValidationScope under(RuleBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    SourceText source() {
+        return source;
+    }
+
+    /**
+     * Every token of the file; indexes of {@link #structure()} point into these
+     */
+    TokenStream fileTokens() {
+        return fileTokens;
+    }
+
+    /**
+     * Tokens of the lines in scope
+     */
+    TokenStream tokens() {
+        return tokens;
+    }
+
+    SourceStructure structure() {
+        if (structure == null) {
+            indexed = SourceStructure.index(fileTokens, budget);
+            structure = changes == null ? indexed : indexed.touching(fileTokens, changes);
+        }
+        return structure;
+    }
+
+    boolean isWholeFile() {
+        return changes == null;
+    }
+
+    /**
+     * Whether a finding spanning the lines from first to last, both included, is in scope
+     */
+    boolean covers(int first, int last) {
+        return changes == null || changes.intersects(first, last);
+    }
+
+    /**
+     * Build the findings of the hits, fingerprinted for baselines and tagged as introduced when they
+     * sit on a changed line and as pre-existing otherwise; findings of a whole-file validation stay
+     * untagged
+     * Identical findings in one symbol are told apart by occurrence, counted over the hits in scope,
+     * so a finding of a change that repeats one outside the change can get another fingerprint than
+     * in a full scan
+     */
+    List<ReviewFinding> findings(String fileName, List<FindingTemplate.Hit> hits) {
+        return findings(fileName, hits, true);
+    }
+
+    /**
+     * @param fingerprinted whether to fingerprint the findings, which indexes the structure of the file
+     *                      when there are any; without, a scope whose rules read only tokens never
+     *                      indexes it
+     */
+    List<ReviewFinding> findings(String fileName, List<FindingTemplate.Hit> hits, boolean fingerprinted) {
+        List<ReviewFinding> findings = new ArrayList<>(hits.size());
+        FindingsBaseline.Fingerprinter fingerprinter = new FindingsBaseline.Fingerprinter();
+        for (FindingTemplate.Hit hit : hits) {
+            ReviewFinding finding = hit.toFinding(fileName);
+            int line = hit.line();
+            if (fingerprinted) {
+                finding.setFingerprint(fingerprinter.next(hit.ruleId(), symbol(fileName, line),
+                    line > 0 && line <= source.lineCount() ? source.line(line - 1) : finding.getDescription()));
+            }
+            if (changes != null) {
+                finding.setOrigin(hit.line() > 0 && changes.contains(hit.line())
+                    ? ReviewFinding.Origin.INTRODUCED : ReviewFinding.Origin.PRE_EXISTING);
+            }
+            findings.add(finding);
+        }
+        return findings;
+    }
+
+    /**
+     * The file and the innermost type and method spanning the line, looked up in the structure of
+     * the whole file so findings of a change get the same symbol as those of a full scan
+     */
+    private String symbol(String fileName, int line) {
+        if (typeAtLine == null) {
+            indexSymbols();
+        }
+        if (line < 1 || line >= typeAtLine.length) {
+            return fileName + "#.";
+        }
+        return fileName + '#' + typeAtLine[line] + '.' + methodAtLine[line];
+    }
+
+    /**
+     * Fill in the symbols of every line; a later declaration overwrites the lines of an earlier one
+     * it is nested in
+     */
+    private void indexSymbols() {
+        structure();
+        typeAtLine = new String[source.lineCount() + 1];
+        methodAtLine = new String[source.lineCount() + 1];
+        Arrays.fill(typeAtLine, "");
+        Arrays.fill(methodAtLine, "");
+        for (SourceStructure.TypeDeclaration declaration : indexed.types()) {
+            if (declaration.keyword() + 1 < fileTokens.size()) {
+                int first = fileTokens.line(declaration.keyword());
+                Arrays.fill(typeAtLine, Math.min(first, typeAtLine.length),
+                    Math.min(first + declaration.lines(), typeAtLine.length), fileTokens.text(declaration.keyword() + 1));
+            }
+        }
+        for (SourceStructure.Method declaration : indexed.methods()) {
+            int first = fileTokens.line(declaration.name());
+            Arrays.fill(methodAtLine, Math.min(first, methodAtLine.length),
+                Math.min(first + declaration.lines(), methodAtLine.length), fileTokens.text(declaration.name()));
+        }
+    }
+}
@@ -1,17 +1,39 @@
 package com.reviewcode.ai.service;
 
+import com.reviewcode.ai.config.ReviewConfiguration;
 import com.reviewcode.ai.model.CodeReview;
 import com.reviewcode.ai.model.PullRequest;
 import com.reviewcode.ai.model.ReviewFinding;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Java 21 Virtual Threads implementation for high-performance code reviews
@@ -20,19 +42,71 @@ import java.util.concurrent.StructuredTaskScope;
 @Service
 public class VirtualThreadReviewService {
 
+    // Files a repository scan picks up; the rules only understand Java
+    private static final String SOURCE_SUFFIX = ".java";
+
+    // How long the batch caller waits for a result before checking whether all files were submitted
+    private static final long RESULT_POLL_MILLIS = 50;
+
     private final ArchitectureValidationService architectureService;
     private final AiReviewService aiReviewService;
+    private final ReviewConfiguration reviewConfig;
+
+    /**
+     * Outcome of one file of a batch; a file that could not be read or validated carries the error
+     * instead of findings
+     */
+    public record FileResult(String fileName, List<ReviewFinding> findings, int characters,
+                             long validationNanos, String error) {
+
+        public boolean failed() {
+            return error != null;
+        }
+    }
+
+    /**
+     * Totals of a finished batch; validation time is summed over all threads, so dividing it by the
+     * elapsed time gives the parallelism actually reached
+     */
+    public record BatchReport(int files, int failedFiles, int findings, long characters,
+                              Duration elapsed, Duration validationTime) {
+
+        public double filesPerSecond() {
+            return perSecond(files);
+        }
+
+        public double charactersPerSecond() {
+            return perSecond(characters);
+        }
+
+        public double effectiveParallelism() {
+            long elapsedNanos = elapsed.toNanos();
+            return elapsedNanos == 0 ? 0 : (double) validationTime.toNanos() / elapsedNanos;
+        }
+
+        private double perSecond(long count) {
+            long elapsedNanos = elapsed.toNanos();
+            return elapsedNanos == 0 ? 0 : count * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    // A file to validate, with its content or the path to read it from
+    private record BatchInput(String fileName, String content, Path path) {
+    }
 
     @Autowired
     public VirtualThreadReviewService(ArchitectureValidationService architectureService,
-                                    AiReviewService aiReviewService) {
+                                    AiReviewService aiReviewService,
+                                    ReviewConfiguration reviewConfig) {
         this.architectureService = architectureService;
         this.aiReviewService = aiReviewService;
+        this.reviewConfig = reviewConfig;
     }
 
     /**
      * Java 21 - Structured Concurrency for coordinated code review
-     * Runs multiple review processes concurrently with proper error handling
+     * Runs multiple review processes concurrently with proper error handling; a file that cannot be
+     * read fails the review
      */
     public CodeReview performStructuredReview(PullRequest pullRequest, List<String> files) throws Exception {
         var startTime = Instant.now();
@@ -78,24 +152,68 @@ public class VirtualThreadReviewService {
     }
 
     /**
-     * Java 21 - Virtual Thread Pool for file processing
-     * Processes multiple files concurrently with virtual threads
+     * Validate the files at the given paths as one batch, completing with the findings of all files
+     * Files that cannot be read or validated contribute no findings
      */
     public CompletableFuture<List<ReviewFinding>> processFilesWithVirtualThreads(List<String> files) {
-        
-        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            
-            // Create tasks for each file
-            var fileTasks = files.stream()
-                .map(file -> CompletableFuture.supplyAsync(() -> 
-                    processIndividualFile(file), executor))
-                .toList();
-            
-            // Combine all results
-            return CompletableFuture.allOf(fileTasks.toArray(new CompletableFuture[0]))
-                .thenApply(v -> fileTasks.stream()
-                    .flatMap(task -> task.join().stream())
-                    .toList());
+        return CompletableFuture.supplyAsync(() -> {
+            List<ReviewFinding> findings = new ArrayList<>();
+            Iterator<BatchInput> inputs = files.stream()
+                .map(file -> new BatchInput(file, null, Path.of(file)))
+                .iterator();
+            runBatch(inputs, result -> findings.addAll(result.findings()));
+            return findings;
+        }, task -> Thread.ofVirtual().start(task));
+    }
+
+    /**
+     * Validate many files with bounded parallelism, handing each result to the consumer as soon as
+     * its file is done
+     * Results arrive in completion order on the calling thread, so the consumer needs no locking.
+     * Files are validated one by one; duplication across files is left to
+     * {@link ArchitectureValidationService#validateArchitecturalPrinciples(Map)}
+     */
+    public BatchReport validateBatch(Map<String, String> filesByName, Consumer<FileResult> onResult) {
+        Iterator<BatchInput> inputs = filesByName.entrySet().stream()
+            .map(file -> new BatchInput(file.getKey(), file.getValue(), null))
+            .iterator();
+        return runBatch(inputs, onResult);
+    }
+
+    /**
+     * Validate every Java file below the root, named by its path relative to the root
+     * Files are read on virtual threads while earlier ones are validated, and at most
+     * {@code review.batch.max-files-in-flight} contents are held at once, so memory stays flat on
+     * repositories of any size
+     */
+    public BatchReport validateRepository(Path root, Consumer<FileResult> onResult) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            Iterator<BatchInput> inputs = paths
+                .filter(path -> path.getFileName().toString().endsWith(SOURCE_SUFFIX))
+                .filter(Files::isRegularFile)
+                .map(path -> new BatchInput(relativeName(root, path), null, path))
+                .iterator();
+            return runBatch(inputs, onResult);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Validate every Java file below the root like {@link #validateRepository}, writing the findings
+     * to the output as each file completes instead of collecting them
+     */
+    public BatchReport exportRepository(Path root, FindingsExport.Format format, OutputStream out) throws IOException {
+        try (FindingsExport export = FindingsExport.open(format, out)) {
+            return validateRepository(root, result -> {
+                try {
+                    for (ReviewFinding finding : result.findings()) {
+                        export.write(finding);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
         }
     }
 
@@ -149,10 +267,13 @@ public class VirtualThreadReviewService {
     }
 
     // Helper methods for different review types
-    private List<ReviewFinding> performArchitectureReview(List<String> files) {
-        return files.parallelStream()
-            .flatMap(file -> architectureService.validateArchitecturalPrinciples(file, readFileContent(file)).stream())
-            .toList();
+    private List<ReviewFinding> performArchitectureReview(List<String> files) throws IOException {
+        // Validate the PR's files together so code copied between them is reported too
+        var contents = new LinkedHashMap<String, String>();
+        for (String file : files) {
+            contents.put(file, Files.readString(Path.of(file)));
+        }
+        return architectureService.validateArchitecturalPrinciples(contents);
     }
 
     private CodeReview performAiReview(PullRequest pullRequest, List<String> files) {
@@ -184,15 +305,129 @@ public class VirtualThreadReviewService {
             .toList();
     }
 
-    private List<ReviewFinding> processIndividualFile(String fileName) {
-        // Simulate file processing
+    private BatchReport runBatch(Iterator<BatchInput> inputs, Consumer<FileResult> onResult) {
+        long start = System.nanoTime();
+        ReviewConfiguration.Batch batch = reviewConfig.getBatch();
+        int parallelism = batch.getParallelism() > 0 ? batch.getParallelism() : Runtime.getRuntime().availableProcessors();
+        
+        // Rules are CPU-bound and run on a pool sized to the machine; reads block and get a virtual
+        // thread each. The permits bound the files read but not yet handed to the consumer
+        ForkJoinPool rulePool = new ForkJoinPool(parallelism);
+        ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+        Semaphore inFlight = new Semaphore(Math.max(1, batch.getMaxFilesInFlight()));
+        BlockingQueue<FileResult> completed = new LinkedBlockingQueue<>();
+        AtomicInteger submitted = new AtomicInteger();
+        // A worker that died without posting its result, which would otherwise leave the loop waiting forever
+        AtomicReference<RuntimeException> workerFailure = new AtomicReference<>();
+        
+        int files = 0;
+        int failedFiles = 0;
+        int findings = 0;
+        long characters = 0;
+        long validationNanos = 0;
+        
         try {
-            Thread.sleep(50); // Simulate processing time
-            return architectureService.validateArchitecturalPrinciples(fileName, readFileContent(fileName));
+            Future<?> feeder = readers.submit(() -> {
+                while (inputs.hasNext()) {
+                    BatchInput input = inputs.next();
+                    inFlight.acquire();
+                    submitted.incrementAndGet();
+                    if (input.content() != null) {
+                        rulePool.execute(guarded(input.fileName(), workerFailure,
+                            () -> completed.add(validateBatchFile(input.fileName(), input.content()))));
+                    } else {
+                        readers.execute(guarded(input.fileName(), workerFailure,
+                            () -> readBatchFile(input, rulePool, completed, workerFailure)));
+                    }
+                }
+                return null;
+            });
+            
+            while (!feeder.isDone() || files < submitted.get()) {
+                FileResult result = completed.poll(RESULT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (result == null) {
+                    if (workerFailure.get() != null) {
+                        throw workerFailure.get();
+                    }
+                    continue;
+                }
+                inFlight.release();
+                files++;
+                characters += result.characters();
+                validationNanos += result.validationNanos();
+                if (result.failed()) {
+                    failedFiles++;
+                } else {
+                    findings += result.findings().size();
+                }
+                onResult.accept(result);
+            }
+            feeder.get();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            throw new RuntimeException("File processing interrupted", e);
+            throw new RuntimeException("Batch validation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Batch validation failed", e.getCause());
+        } finally {
+            readers.shutdownNow();
+            rulePool.shutdownNow();
         }
+        
+        return new BatchReport(files, failedFiles, findings, characters,
+            Duration.ofNanos(System.nanoTime() - start), Duration.ofNanos(validationNanos));
+    }
+
+    /**
+     * Read the file unless it is too large to hold, then hand it to the rule pool
+     */
+    private void readBatchFile(BatchInput input, ForkJoinPool rulePool, BlockingQueue<FileResult> completed,
+                               AtomicReference<RuntimeException> workerFailure) {
+        String content;
+        try {
+            if (architectureService.isTooLarge(input.fileName(), Files.size(input.path()))) {
+                completed.add(new FileResult(input.fileName(), List.of(), 0, 0, null));
+                return;
+            }
+            content = Files.readString(input.path());
+        } catch (IOException | UncheckedIOException e) {
+            completed.add(new FileResult(input.fileName(), List.of(), 0, 0, "Cannot read file: " + e.getMessage()));
+            return;
+        }
+        rulePool.execute(guarded(input.fileName(), workerFailure,
+            () -> completed.add(validateBatchFile(input.fileName(), content))));
+    }
+
+    /**
+     * The task, reporting whatever it throws past its own handling, such as an {@link Error}, as the
+     * failure of the batch
+     */
+    private static Runnable guarded(String fileName, AtomicReference<RuntimeException> workerFailure, Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                workerFailure.compareAndSet(null, new IllegalStateException("Batch validation failed on " + fileName, e));
+            }
+        };
+    }
+
+    private FileResult validateBatchFile(String fileName, String content) {
+        long start = System.nanoTime();
+        try {
+            List<ReviewFinding> findings = architectureService.validateArchitecturalPrinciples(fileName, content);
+            return new FileResult(fileName, findings, content.length(), System.nanoTime() - start, null);
+        } catch (RuntimeException e) {
+            // One file the rules choke on must not stop a scan of thousands
+            return new FileResult(fileName, List.of(), content.length(), System.nanoTime() - start,
+                "Validation failed: " + e);
+        }
+    }
+
+    private static String relativeName(Path root, Path file) {
+        return root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
     }
 
     private void processReviewAsync(PullRequest pullRequest) {
@@ -265,9 +500,4 @@ public class VirtualThreadReviewService {
         
         return Math.max(0, baseScore - penalty);
     }
-
-    private String readFileContent(String fileName) {
-        // Simulate reading file content
-        return "// Sample content for " + fileName;
-    }
 }
\ No newline at end of file
@@ -317,4 +317,117 @@ class ConfigurableArchitectureValidationServiceTest {
         // Then - Should work with defaults and have minimal findings
         assertTrue(findings.size() <= 2, "Should have minimal findings with clean code and default config");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFailGateOnFirstCriticalFindingWithoutRunningCheaperRules() {
+        // Given
+        String injectable = """
+            public class UserDao {
+                public User find(String name) {
+                    return jdbcTemplate.queryForObject("SELECT id FROM users WHERE name = '" + name + "'", User.class);
+                }
+            }
+            """;
+        String nested = """
+            public class OrderService {
+                public void handle(Order order) {
+                    if (order.isOpen()) { for (Line l : order.lines()) { if (l.ok()) { while (l.next()) { l.ship(); } } } }
+                }
+            }
+            """;
+
+        // When
+        ConfigurableArchitectureValidationService.GateResult gate = validationService.validateGate(
+            Map.of("UserDao.java", injectable, "OrderService.java", nested));
+
+        // Then
+        assertFalse(gate.passed());
+        assertFalse(gate.complete());
+        assertEquals(1, gate.criticalFindings());
+        assertTrue(gate.findings().stream().allMatch(f -> f.getType() == ReviewFinding.FindingType.SECURITY));
+        // Not fingerprinted, which would index the structure the security stage never reads
+        assertTrue(gate.findings().stream().allMatch(f -> f.getFingerprint() == null));
+    }
+
+    @Test
+    void shouldPassGateOnceNoRemainingRuleCanExceedThresholds() {
+        // Given
+        String code = """
+            public class ReportService {
+                public List<Row> rows() {
+                    return jdbcTemplate.query("SELECT * FROM report", mapper);
+                }
+            }
+            """;
+
+        // When
+        ConfigurableArchitectureValidationService.GateResult gate =
+            validationService.validateGate(Map.of("ReportService.java", code));
+
+        // Then
+        assertTrue(gate.passed());
+        assertFalse(gate.complete());
+        assertTrue(gate.findings().stream().noneMatch(f -> f.getType() == ReviewFinding.FindingType.PERFORMANCE));
+        assertFalse(validationService.validateArchitecturalPrinciples("ReportService.java", code).stream()
+            .noneMatch(f -> f.getType() == ReviewFinding.FindingType.PERFORMANCE));
+    }
+
+    @Test
+    void shouldRunCategoriesRaisedBySeverityOverridesInGate() {
+        // Given
+        reviewConfig.getRules().setSeverity(Map.of("ARCH_PERFORMANCE", "CRITICAL"));
+        String code = """
+            public class ReportService {
+                public List<Row> rows() {
+                    return jdbcTemplate.query("SELECT * FROM report", mapper);
+                }
+            }
+            """;
+
+        // When
+        ConfigurableArchitectureValidationService.GateResult gate =
+            validationService.validateGate(Map.of("ReportService.java", code));
+
+        // Then
+        assertFalse(gate.passed());
+        assertEquals(1, gate.criticalFindings());
+    }
+
+    @Test
+    void shouldAggregateMagicNumbersPerMethodUpToCap() {
+        // Given
+        StringBuilder code = new StringBuilder("public class RateTable {\n");
+        for (int method = 0; method < 3; method++) {
+            code.append("    public double rate").append(method).append("(int band) {\n");
+            for (int i = 0; i < 50; i++) {
+                code.append("        if (band == ").append(1000 + i).append(") return ").append(i).append(".5;\n");
+            }
+            code.append("        return 0;\n    }\n");
+        }
+        code.append("}\n");
+
+        // When
+        List<ReviewFinding> perMethod = magicNumbers(validationService, code.toString());
+        reviewConfig.getRules().getMagicNumbers().setMaxFindingsPerFile(2);
+        List<ReviewFinding> capped = magicNumbers(validationService, code.toString());
+        reviewConfig.getRules().getMagicNumbers().setGroupBy("FILE");
+        List<ReviewFinding> perFile = magicNumbers(validationService, code.toString());
+
+        // Then
+        assertEquals(3, perMethod.size());
+        assertEquals("Magic numbers detected in rate0(): 1000, 0.5, 1001, 1.5, 1002, ... "
+            + "(100 occurrences on lines 3, 4, 5, 6, 7, ...)", perMethod.get(0).getDescription());
+        assertEquals(3, perMethod.get(0).getLineNumber());
+        assertEquals(2, capped.size());
+        assertTrue(capped.get(1).getDescription().startsWith("Magic numbers detected: "));
+        assertTrue(capped.get(1).getDescription().contains("(200 occurrences"));
+        assertEquals(1, perFile.size());
+        assertTrue(perFile.get(0).getDescription().contains("(300 occurrences"));
+    }
+
+    private static List<ReviewFinding> magicNumbers(ConfigurableArchitectureValidationService service, String code) {
+        return service.validateArchitecturalPrinciples("RateTable.java", code).stream()
+            .filter(f -> f.getDescription().startsWith("Magic number"))
+            .toList();
+    }
+}
@@ -0,0 +1,79 @@
+package com.reviewcode.ai.repository;
+
+import com.reviewcode.ai.model.CodeReview;
+import com.reviewcode.ai.model.PullRequest;
+import com.reviewcode.ai.model.ReviewFinding;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ReviewFindingRepositoryTest {
+
+    @Autowired
+    private ReviewFindingRepository reviewFindingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldStreamFindingsOfAllReviewsOfPullRequestInOrder() {
+        // Given
+        PullRequest pullRequest = entityManager.persist(pullRequest("Feature A"));
+        PullRequest other = entityManager.persist(pullRequest("Feature B"));
+        CodeReview first = entityManager.persist(review(pullRequest));
+        CodeReview second = entityManager.persist(review(pullRequest));
+        CodeReview unrelated = entityManager.persist(review(other));
+        entityManager.persist(finding(first, "A.java"));
+        entityManager.persist(finding(second, "B.java"));
+        entityManager.persist(finding(first, "C.java"));
+        entityManager.persist(finding(unrelated, "D.java"));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<String> fileNames;
+        try (Stream<ReviewFinding> findings = reviewFindingRepository.streamByPullRequestId(pullRequest.getId())) {
+            fileNames = findings.map(ReviewFinding::getFileName).toList();
+        }
+
+        // Then
+        assertEquals(List.of("A.java", "B.java", "C.java"), fileNames);
+    }
+
+    private static PullRequest pullRequest(String title) {
+        PullRequest pullRequest = new PullRequest();
+        pullRequest.setTitle(title);
+        pullRequest.setAuthor("alice");
+        pullRequest.setRepositoryUrl("https://github.com/test/repo");
+        pullRequest.setSourceBranch("feature/a");
+        pullRequest.setTargetBranch("main");
+        return pullRequest;
+    }
+
+    private static CodeReview review(PullRequest pullRequest) {
+        CodeReview review = new CodeReview();
+        review.setPullRequest(pullRequest);
+        review.setReviewer("AI-MCP");
+        review.setReviewerType(CodeReview.ReviewerType.AI_MCP);
+        return review;
+    }
+
+    private static ReviewFinding finding(CodeReview review, String fileName) {
+        ReviewFinding finding = new ReviewFinding();
+        finding.setCodeReview(review);
+        finding.setFileName(fileName);
+        finding.setType(ReviewFinding.FindingType.SECURITY);
+        finding.setSeverity(ReviewFinding.Severity.HIGH);
+        finding.setDescription("Hardcoded secret detected");
+        return finding;
+    }
+}
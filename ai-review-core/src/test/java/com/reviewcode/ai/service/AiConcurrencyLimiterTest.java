@@ -0,0 +1,163 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.AiConfiguration;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiConcurrencyLimiterTest {
+
+    @Test
+    void shouldQueueBeyondLimitAndRejectWhenQueueIsFull() {
+        // Given
+        AiConcurrencyLimiter limiter = limiter(2, 1, 5_000);
+        AiConcurrencyLimiter.Permit first = limiter.acquire().block();
+        limiter.acquire().block();
+        AtomicReference<AiConcurrencyLimiter.Permit> queued = new AtomicReference<>();
+        limiter.acquire().subscribe(queued::set);
+
+        // When
+        Mono<AiConcurrencyLimiter.Permit> rejected = limiter.acquire();
+
+        // Then
+        assertThrows(AiConcurrencyLimiter.LimitExceededException.class, rejected::block);
+        assertEquals(1, limiter.queued());
+        assertNull(queued.get());
+
+        first.release(AiConcurrencyLimiter.Outcome.IGNORED);
+        assertNotNull(queued.get());
+        assertEquals(0, limiter.queued());
+        assertEquals(2, limiter.inFlight());
+        assertEquals(1, limiter.rejected());
+    }
+
+    @Test
+    void shouldGrowLimitWhileSaturatedAndCutItOnDrops() {
+        // Given
+        AiConcurrencyLimiter limiter = limiter(10, 0, 5_000);
+        List<AiConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            permits.add(limiter.acquire().block());
+        }
+
+        // When
+        permits.forEach(permit -> permit.release(AiConcurrencyLimiter.Outcome.SUCCESS));
+        int grown = limiter.limit();
+        limiter.acquire().block().release(AiConcurrencyLimiter.Outcome.DROPPED);
+
+        // Then
+        assertTrue(grown > 10);
+        assertEquals((int) (grown * 0.9), limiter.limit());
+        assertEquals(1, limiter.drops());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void shouldFailRequestThatWaitsLongerThanQueueTimeout() {
+        // Given
+        AiConcurrencyLimiter limiter = limiter(1, 5, 50);
+        limiter.acquire().block();
+
+        // When
+        Mono<AiConcurrencyLimiter.Permit> waiting = limiter.acquire();
+
+        // Then
+        assertThrows(AiConcurrencyLimiter.LimitExceededException.class, waiting::block);
+        assertEquals(0, limiter.queued());
+        assertEquals(1, limiter.rejected());
+    }
+
+    @Test
+    void shouldReleasePermitAndCutLimitWhenEndpointThrottles() throws Exception {
+        // Given
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+            server.enqueue(new MockResponse().setBody("{}").addHeader("Content-Type", "application/json"));
+            AiConcurrencyLimiter limiter = limiter(10, 5, 5_000);
+            WebClient client = WebClient.builder().baseUrl(server.url("/").toString()).filter(limiter).build();
+
+            // When
+            Mono<String> throttled = client.post().uri("/api/review/final").retrieve().bodyToMono(String.class);
+            assertThrows(WebClientResponseException.ServiceUnavailable.class, throttled::block);
+            String answered = client.post().uri("/api/review/final").retrieve().bodyToMono(String.class).block();
+
+            // Then
+            assertEquals("{}", answered);
+            assertEquals(9, limiter.limit());
+            assertEquals(1, limiter.drops());
+            assertEquals(0, limiter.inFlight());
+        }
+    }
+
+    @Test
+    void shouldHoldPermitUntilStreamedBodyEnds() {
+        // Given
+        AiConcurrencyLimiter limiter = limiter(10, 5, 5_000);
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        ClientResponse streamed = ClientResponse.create(HttpStatus.OK).body(body.asFlux()).build();
+        ClientRequest request = ClientRequest.create(HttpMethod.POST, URI.create("http://ai/api/review/suggestions")).build();
+
+        // When
+        ClientResponse response = limiter.filter(request, r -> Mono.just(streamed)).block();
+        List<String> lines = new ArrayList<>();
+        response.bodyToFlux(DataBuffer.class)
+            .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+            .subscribe(lines::add);
+        body.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap("{}\n".getBytes(StandardCharsets.UTF_8)));
+        int inFlightWhileStreaming = limiter.inFlight();
+        body.tryEmitComplete();
+
+        // Then
+        assertEquals(1, inFlightWhileStreaming);
+        assertEquals(List.of("{}\n"), lines);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void shouldTakeLatencyOfStreamedResponseAtItsHeaders() throws InterruptedException {
+        // Given
+        AiConfiguration aiConfig = new AiConfiguration();
+        aiConfig.getLimiter().setInitialLimit(10);
+        aiConfig.getLimiter().setLatencyThresholdMillis(20);
+        AiConcurrencyLimiter limiter = new AiConcurrencyLimiter(aiConfig);
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        ClientResponse streamed = ClientResponse.create(HttpStatus.OK).body(body.asFlux()).build();
+        ClientRequest request = ClientRequest.create(HttpMethod.POST, URI.create("http://ai/api/review/suggestions")).build();
+
+        // When a healthy stream outlasts the latency threshold
+        ClientResponse response = limiter.filter(request, r -> Mono.just(streamed)).block();
+        response.bodyToFlux(DataBuffer.class).subscribe();
+        Thread.sleep(60);
+        body.tryEmitComplete();
+
+        // Then
+        assertEquals(0, limiter.inFlight());
+        assertEquals(10, limiter.limit());
+    }
+
+    private static AiConcurrencyLimiter limiter(int initialLimit, int maxQueue, long queueTimeoutMillis) {
+        AiConfiguration aiConfig = new AiConfiguration();
+        aiConfig.getLimiter().setInitialLimit(initialLimit);
+        aiConfig.getLimiter().setMaxQueue(maxQueue);
+        aiConfig.getLimiter().setQueueTimeoutMillis(queueTimeoutMillis);
+        return new AiConcurrencyLimiter(aiConfig);
+    }
+}
@@ -0,0 +1,131 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.AiConfiguration;
+import com.reviewcode.ai.mcp.EnhancedMCPClient;
+import com.reviewcode.ai.model.PullRequest;
+import com.reviewcode.ai.model.ReviewSuggestion;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AiFindingsParserTest {
+
+    @Test
+    void shouldParseNdjsonFindingsSplitAcrossChunks() {
+        // Given
+        String body = finding("UserService.java", 12) + "\n" + finding("UserController.java", 40) + "\n";
+
+        // When
+        List<AiReviewResponse.Finding> findings = AiFindingsParser.parse(chunks(body, 7), true, 1024)
+            .collectList().block();
+
+        // Then
+        assertEquals(2, findings.size());
+        assertEquals("UserService.java", findings.get(0).getFileName());
+        assertEquals(40, findings.get(1).getLineNumber());
+        assertEquals("AI_SECRET", findings.get(1).getRuleId());
+    }
+
+    @Test
+    void shouldReadFindingsArrayOfReviewAndSkipOtherFields() {
+        // Given
+        String body = "{\"decision\":\"APPROVED\",\"summary\":\"{not a finding}\",\"meta\":{\"findings\":[{\"x\":1}]},"
+            + "\"findings\":[" + finding("UserService.java", 12) + "," + finding("UserController.java", 40) + "],"
+            + "\"score\":90}";
+
+        // When
+        List<AiReviewResponse.Finding> findings = AiFindingsParser.parse(chunks(body, 16), false, 1024)
+            .collectList().block();
+
+        // Then
+        assertEquals(List.of("UserService.java", "UserController.java"),
+            findings.stream().map(AiReviewResponse.Finding::getFileName).toList());
+    }
+
+    @Test
+    void shouldFailOnFindingLargerThanLimit() {
+        // Given
+        String body = "{\"fileName\":\"UserService.java\",\"description\":\"" + "x".repeat(2048) + "\"}\n";
+
+        // When
+        Flux<AiReviewResponse.Finding> findings = AiFindingsParser.parse(chunks(body, 64), true, 1024);
+
+        // Then
+        assertThrows(DataBufferLimitException.class, findings::blockLast);
+    }
+
+    @Test
+    void shouldSaveStreamedSuggestionsInBatches() throws Exception {
+        // Given
+        try (MockWebServer server = new MockWebServer()) {
+            String body = IntStream.rangeClosed(1, 5)
+                .mapToObj(line -> finding("UserService.java", line))
+                .collect(Collectors.joining("\n"));
+            server.enqueue(new MockResponse().setBody(body).addHeader("Content-Type", "application/x-ndjson"));
+            AiConfiguration aiConfig = new AiConfiguration();
+            aiConfig.getStreaming().setBatchSize(2);
+            ReviewSuggestionService suggestionService = mock(ReviewSuggestionService.class);
+            List<Integer> batches = new ArrayList<>();
+            when(suggestionService.createSuggestionsFromFindings(any(), anyList())).thenAnswer(invocation -> {
+                List<AiReviewResponse.Finding> batch = invocation.getArgument(1);
+                batches.add(batch.size());
+                return batch.stream().map(finding -> new ReviewSuggestion()).toList();
+            });
+            AiReviewService service = new AiReviewService(WebClient.create(server.url("/").toString()), aiConfig,
+                suggestionService, mock(EnhancedMCPClient.class));
+
+            // When
+            List<ReviewSuggestion> suggestions = service.generateSuggestions(pullRequest(), List.of("UserService.java"))
+                .block();
+
+            // Then
+            assertEquals(5, suggestions.size());
+            assertEquals(List.of(2, 2, 1), batches);
+            assertTrue(server.takeRequest().getHeader("Accept").contains("application/x-ndjson"));
+        }
+    }
+
+    private static Flux<DataBuffer> chunks(String body, int size) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int start = 0; start < bytes.length; start += size) {
+            int end = Math.min(bytes.length, start + size);
+            byte[] chunk = new byte[end - start];
+            System.arraycopy(bytes, start, chunk, 0, chunk.length);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    private static String finding(String fileName, int lineNumber) {
+        return "{\"fileName\":\"" + fileName + "\",\"lineNumber\":" + lineNumber + ",\"type\":\"SECURITY\","
+            + "\"severity\":\"HIGH\",\"description\":\"Hardcoded secret\",\"ruleId\":\"AI_SECRET\",\"confidence\":0.9}";
+    }
+
+    private static PullRequest pullRequest() {
+        PullRequest pullRequest = new PullRequest();
+        pullRequest.setId(1L);
+        pullRequest.setTitle("Add users");
+        pullRequest.setDescription("User management");
+        pullRequest.setAuthor("developer");
+        pullRequest.setRepositoryUrl("https://github.com/acme/users");
+        return pullRequest;
+    }
+}
@@ -0,0 +1,166 @@
+package com.reviewcode.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcode.ai.config.AiConfiguration;
+import com.reviewcode.ai.mcp.EnhancedMCPClient;
+import com.reviewcode.ai.model.CodeReview;
+import com.reviewcode.ai.model.PullRequest;
+import com.reviewcode.ai.model.ReviewSuggestion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AiResponseCacheTest {
+
+    private static final List<String> FILES = List.of("UserService.java", "UserController.java");
+
+    @Test
+    void shouldServeCopiesUntilEntryExpires() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        AiResponseCache cache = new AiResponseCache(10, 1_000, now::get);
+        String key = key("diff-1", "final-review");
+        cache.put(key, response("APPROVED"));
+
+        // When
+        AiReviewResponse first = cache.get(key);
+        first.getFindings().get(0).setSeverity("LOW");
+        AiReviewResponse second = cache.get(key);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_000));
+
+        // Then
+        assertEquals("HIGH", second.getFindings().get(0).getSeverity());
+        assertNull(cache.get(key));
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.expirations());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedBeyondMaxEntries() {
+        // Given
+        AiResponseCache cache = new AiResponseCache(2, 60_000);
+        cache.put("a", response("APPROVED"));
+        cache.put("b", response("APPROVED"));
+        cache.get("a");
+
+        // When
+        cache.put("c", response("APPROVED"));
+
+        // Then
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void shouldKeyByDiffModeAndModel() {
+        // Then
+        assertEquals(key("diff-1", "final-review"), key("diff-1", "final-review"));
+        assertNotEquals(key("diff-1", "final-review"), key("diff-2", "final-review"));
+        assertNotEquals(key("diff-1", "final-review"), key("diff-1", "suggestions"));
+        assertNotEquals(key("diff-1", "final-review"),
+            AiResponseCache.key("diff-1", 1L, "Add users", null, FILES, "final-review", "http://ai", "v2"));
+        assertNotEquals(key("diff-1", "final-review"),
+            AiResponseCache.key("diff-1", 1L, "Add users", null, List.of("UserService.java"), "final-review", "http://ai", "v1"));
+    }
+
+    @Test
+    void shouldReviewUnchangedPullRequestWithoutCallingEndpoint() throws Exception {
+        // Given
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse()
+                .setBody(new ObjectMapper().writeValueAsString(response("APPROVED")))
+                .addHeader("Content-Type", "application/json"));
+            AiConfiguration aiConfig = new AiConfiguration();
+            aiConfig.getMcp().setEndpoint(server.url("/").toString());
+            AiReviewService service = new AiReviewService(WebClient.create(server.url("/").toString()), aiConfig,
+                mock(ReviewSuggestionService.class), mock(EnhancedMCPClient.class));
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            service.setMeterRegistry(registry);
+            PullRequest pullRequest = pullRequest();
+
+            // When
+            CodeReview first = service.performFinalReview(pullRequest, FILES, "diff-1").block();
+            CodeReview second = service.performFinalReview(pullRequest, FILES, "diff-1").block();
+
+            // Then
+            assertEquals(1, server.getRequestCount());
+            assertEquals(CodeReview.ReviewDecision.APPROVED, second.getDecision());
+            assertEquals(first.getFindings().size(), second.getFindings().size());
+            assertNotSame(first.getFindings().get(0), second.getFindings().get(0));
+            assertEquals(1.0, registry.get("ai.review.cache.requests").tag("result", "hit").functionCounter().count());
+            assertEquals(0.5, registry.get("ai.review.cache.hit.ratio").gauge().value());
+        }
+    }
+
+    @Test
+    void shouldNotCacheStreamedFindingsBeyondBound() throws Exception {
+        // Given
+        try (MockWebServer server = new MockWebServer()) {
+            String findings = new ObjectMapper().writeValueAsString(response("APPROVED").getFindings().get(0)) + "\n";
+            server.enqueue(ndjson(findings.repeat(3)));
+            server.enqueue(ndjson(findings.repeat(3)));
+            server.enqueue(ndjson(findings.repeat(2)));
+            server.enqueue(ndjson(findings.repeat(2)));
+            AiConfiguration aiConfig = new AiConfiguration();
+            aiConfig.getMcp().setEndpoint(server.url("/").toString());
+            aiConfig.getStreaming().setMaxCachedFindings(2);
+            ReviewSuggestionService suggestions = mock(ReviewSuggestionService.class);
+            when(suggestions.createSuggestionsFromFindings(any(), anyList()))
+                .thenAnswer(call -> call.<List<?>>getArgument(1).stream().map(finding -> new ReviewSuggestion()).toList());
+            AiReviewService service = new AiReviewService(WebClient.create(server.url("/").toString()), aiConfig,
+                suggestions, mock(EnhancedMCPClient.class));
+            PullRequest pullRequest = pullRequest();
+
+            // When
+            List<ReviewSuggestion> overBound = service.generateSuggestions(pullRequest, FILES, "diff-1").block();
+            service.generateSuggestions(pullRequest, FILES, "diff-1").block();
+            List<ReviewSuggestion> withinBound = service.generateSuggestions(pullRequest, FILES, "diff-2").block();
+            List<ReviewSuggestion> cached = service.generateSuggestions(pullRequest, FILES, "diff-2").block();
+
+            // Then
+            assertEquals(3, overBound.size());
+            assertEquals(2, withinBound.size());
+            assertEquals(2, cached.size());
+            assertEquals(3, server.getRequestCount());
+        }
+    }
+
+    private static String key(String diffHash, String mode) {
+        return AiResponseCache.key(diffHash, 1L, "Add users", null, FILES, mode, "http://ai", "v1");
+    }
+
+    private static MockResponse ndjson(String body) {
+        return new MockResponse().setBody(body).addHeader("Content-Type", "application/x-ndjson");
+    }
+
+    private static PullRequest pullRequest() {
+        PullRequest pullRequest = new PullRequest();
+        pullRequest.setId(1L);
+        pullRequest.setTitle("Add users");
+        pullRequest.setDescription("User management");
+        pullRequest.setAuthor("developer");
+        pullRequest.setRepositoryUrl("https://github.com/acme/users");
+        return pullRequest;
+    }
+
+    private static AiReviewResponse response(String decision) {
+        AiReviewResponse.Finding finding = new AiReviewResponse.Finding("UserService.java", 12, "SECURITY", "HIGH",
+            "Hardcoded secret", "Use environment variables", "password = \"x\"", null, "AI_SECRET");
+        return new AiReviewResponse(decision, "Looks good", 90, List.of(finding));
+    }
+}
@@ -0,0 +1,118 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.AiConfiguration;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiTransportTest {
+
+    @Test
+    void shouldRetryIdempotentRequestAfterUnavailableResponse() throws Exception {
+        // Given
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+            server.enqueue(new MockResponse().setBody("{}").addHeader("Content-Type", "application/json"));
+            AiTransport transport = new AiTransport(config(false));
+
+            // When
+            String answered = client(server, transport).post().uri("/api/review/final")
+                .attribute(AiConfiguration.IDEMPOTENT_ATTRIBUTE, true)
+                .retrieve().bodyToMono(String.class).block();
+
+            // Then
+            assertEquals("{}", answered);
+            assertEquals(2, server.getRequestCount());
+            assertEquals(1, transport.retries());
+            assertEquals(1, transport.calls(AiTransport.Outcome.FAILURE));
+            assertEquals(1, transport.calls(AiTransport.Outcome.SUCCESS));
+        }
+    }
+
+    @Test
+    void shouldNotRetryRequestNotMarkedIdempotent() throws Exception {
+        // Given
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+            AiTransport transport = new AiTransport(config(false));
+
+            // When
+            Mono<String> chat = client(server, transport).post().uri("/api/ai/chat-with-tools")
+                .retrieve().bodyToMono(String.class);
+
+            // Then
+            assertThrows(WebClientResponseException.ServiceUnavailable.class, chat::block);
+            assertEquals(1, server.getRequestCount());
+            assertEquals(0, transport.retries());
+        }
+    }
+
+    @Test
+    void shouldFailFastWithoutCallingEndpointWhileCircuitIsOpen() throws Exception {
+        // Given
+        try (MockWebServer server = new MockWebServer()) {
+            for (int i = 0; i < 3; i++) {
+                server.enqueue(new MockResponse().setResponseCode(500));
+            }
+            AiConfiguration aiConfig = config(false);
+            aiConfig.getTransport().getCircuitBreaker().setMinimumCalls(3);
+            AiTransport transport = new AiTransport(aiConfig);
+            WebClient client = client(server, transport);
+            for (int i = 0; i < 3; i++) {
+                Mono<String> failing = client.post().uri("/api/review/final").retrieve().bodyToMono(String.class);
+                assertThrows(WebClientResponseException.InternalServerError.class, failing::block);
+            }
+
+            // When
+            Mono<String> refused = client.post().uri("/api/review/final").retrieve().bodyToMono(String.class);
+
+            // Then
+            assertThrows(AiTransport.CircuitOpenException.class, refused::block);
+            assertEquals(3, server.getRequestCount());
+            assertEquals(CircuitBreaker.State.OPEN, transport.circuitState());
+            assertEquals(1, transport.calls(AiTransport.Outcome.CIRCUIT_OPEN));
+        }
+    }
+
+    @Test
+    void shouldUseHedgedResponseWhenFirstAttemptIsSlow() throws Exception {
+        // Given
+        try (MockWebServer server = new MockWebServer()) {
+            AiConfiguration aiConfig = config(true);
+            AiTransport transport = new AiTransport(aiConfig);
+            WebClient client = client(server, transport);
+            server.enqueue(new MockResponse().setBody("warm"));
+            client.get().uri("/api/review/final").retrieve().bodyToMono(String.class).block();
+            server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+            server.enqueue(new MockResponse().setBody("hedged"));
+
+            // When
+            String answered = client.get().uri("/api/review/final").retrieve().bodyToMono(String.class).block();
+
+            // Then
+            assertEquals("hedged", answered);
+            assertEquals(1, transport.hedgesSent());
+            assertEquals(1, transport.hedgesWon());
+        }
+    }
+
+    private static WebClient client(MockWebServer server, AiTransport transport) {
+        return WebClient.builder().baseUrl(server.url("/").toString()).filter(transport).build();
+    }
+
+    private static AiConfiguration config(boolean hedging) {
+        AiConfiguration aiConfig = new AiConfiguration();
+        aiConfig.getTransport().getRetry().setInitialBackoffMillis(10);
+        aiConfig.getTransport().getHedging().setEnabled(hedging);
+        aiConfig.getTransport().getHedging().setMinDelayMillis(100);
+        aiConfig.getTransport().getHedging().setMinSamples(1);
+        return aiConfig;
+    }
+}
@@ -0,0 +1,75 @@
+package com.reviewcode.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchitectureRulesTest {
+
+    @Test
+    void shouldTreatEveryRowOfFinalTableAsNamed() {
+        // Given
+        TokenStream tokens = JavaLexer.tokenize(SourceText.of("""
+            class Table {
+                static final int[][] T = {{2, 3}, {4, 5}};
+                int[][] loose = {{6, 7}};
+            }
+            """));
+        RuleBudget budget = RuleBudget.startDefault();
+
+        // When
+        List<String> magic = magicNumbers(tokens, budget);
+
+        // Then
+        assertEquals(List.of("6", "7"), magic);
+        assertTrue(budget.aborts().isEmpty());
+    }
+
+    @Test
+    void shouldScanLargeFinalTableWithinBudget() {
+        // Given
+        String rows = IntStream.range(0, 20_000)
+            .mapToObj(i -> "{" + (i + 2) + ", " + (i + 3) + "}")
+            .collect(Collectors.joining(", "));
+        TokenStream tokens = JavaLexer.tokenize(SourceText.of(
+            "class Table { static final int[][] T = {" + rows + "}; int x = 42; }"));
+        RuleBudget budget = RuleBudget.start(10_000_000, 1_000, 5_000);
+
+        // When
+        List<String> magic = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> magicNumbers(tokens, budget));
+
+        // Then
+        assertEquals(List.of("42"), magic);
+        assertTrue(budget.aborts().isEmpty());
+    }
+
+    @Test
+    void shouldFindWeakCryptoAmongManyStringsWithinBudget() {
+        // Given
+        String fields = IntStream.range(0, 80_000)
+            .mapToObj(i -> "String s" + i + " = \"v" + i + "\";")
+            .collect(Collectors.joining("\n"));
+        TokenStream tokens = JavaLexer.tokenize(SourceText.of(
+            "class Strings { " + fields + " Cipher c = Cipher.getInstance(\"DES/ECB/PKCS5Padding\"); }"));
+        RuleBudget budget = RuleBudget.start(10_000_000, 1_000, 5_000);
+
+        // When
+        int hit = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> ArchitectureRules.weakCrypto(tokens, budget));
+
+        // Then
+        assertEquals("DES/ECB/PKCS5Padding", tokens.text(hit).replace("\"", ""));
+        assertTrue(budget.aborts().isEmpty());
+    }
+
+    private static List<String> magicNumbers(TokenStream tokens, RuleBudget budget) {
+        List<String> magic = new ArrayList<>();
+        ArchitectureRules.forEachMagicNumber(tokens, budget, i -> magic.add(tokens.text(i)));
+        return magic;
+    }
+}
@@ -7,7 +7,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -327,4 +329,104 @@ class ArchitectureValidationServiceTest {
         assertNotNull(finding.getSuggestion());
         assertTrue(finding.getRuleId().startsWith("ARCH_"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldDetectDuplicateBlocksAcrossFiles() {
+        // Given
+        String copiedBlock = """
+                    String normalizedEmail = request.getEmail().trim().toLowerCase();
+                    if (userRepository.existsByEmail(normalizedEmail)) {
+                        throw new IllegalStateException("Email already registered");
+                    }
+                    User user = new User(request.getName(), normalizedEmail);
+            """;
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("UserService.java", "public class UserService {\n    public User register(Request request) {\n"
+            + copiedBlock + "        return user;\n    }\n}\n");
+        files.put("AdminService.java", "public class AdminService {\n    public User invite(Request request) {\n"
+            + copiedBlock + "        return user;\n    }\n}\n");
+
+        // When
+        List<ReviewFinding> findings = validationService.validateArchitecturalPrinciples(files);
+
+        // Then
+        assertTrue(findings.stream().anyMatch(f -> 
+            f.getType() == ReviewFinding.FindingType.DRY_VIOLATION &&
+            f.getFileName().equals("AdminService.java") &&
+            f.getDescription().contains("UserService.java:3")));
+        assertTrue(findings.stream().noneMatch(f -> 
+            f.getType() == ReviewFinding.FindingType.DRY_VIOLATION &&
+            f.getFileName().equals("UserService.java")));
+    }
+
+    @Test
+    void shouldValidateOnlyChangedLinesAndTagFindingsIntroduced() {
+        // Given
+        String code = legacyService();
+
+        // When
+        List<ReviewFinding> whole = validationService.validateArchitecturalPrinciples(testFileName, code);
+        List<ReviewFinding> changed = validationService.validateChangedLines(testFileName, code, ChangedLines.range(9, 9));
+
+        // Then
+        assertTrue(whole.stream().anyMatch(f -> f.getType() == ReviewFinding.FindingType.SECURITY));
+        assertTrue(whole.stream().allMatch(f -> f.getOrigin() == null));
+        assertEquals(1, changed.size());
+        assertEquals("Magic number detected: 7000", changed.get(0).getDescription());
+        assertEquals(9, changed.get(0).getLineNumber());
+        assertEquals(ReviewFinding.Origin.INTRODUCED, changed.get(0).getOrigin());
+    }
+
+    @Test
+    void shouldTagFindingsInContextOfChangeAsPreExisting() {
+        // When
+        List<ReviewFinding> findings = validationService.validateChangedLines(testFileName, legacyService(), ChangedLines.range(7, 7));
+
+        // Then
+        assertEquals(1, findings.size());
+        assertEquals(5, findings.get(0).getLineNumber());
+        assertEquals(ReviewFinding.Origin.PRE_EXISTING, findings.get(0).getOrigin());
+    }
+
+    @Test
+    void shouldValidateFilesOfUnifiedDiff() {
+        // Given
+        String diff = """
+            diff --git a/TestService.java b/TestService.java
+            --- a/TestService.java
+            +++ b/TestService.java
+            @@ -8,3 +8,3 @@ public class LegacyService {
+                 public void touched() {
+            -        sleep(1);
+            +        sleep(7000);
+                 }
+            """;
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put(testFileName, legacyService());
+        files.put("Untouched.java", legacyService());
+
+        // When
+        List<ReviewFinding> findings = validationService.validateDiff(files, diff);
+
+        // Then
+        assertEquals(1, findings.size());
+        assertEquals(testFileName, findings.get(0).getFileName());
+        assertEquals(9, findings.get(0).getLineNumber());
+    }
+
+    private static String legacyService() {
+        return """
+            public class LegacyService {
+                private String password = "SuperSecret123";
+
+                public void untouched() {
+                    sleep(5000);
+                }
+
+                public void touched() {
+                    sleep(7000);
+                }
+            }
+            """;
+    }
+}
@@ -0,0 +1,85 @@
+package com.reviewcode.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangedLinesTest {
+
+    private static final String DIFF = """
+        diff --git a/src/Orders.java b/src/Orders.java
+        index 3b18e51..a9c4f2d 100644
+        --- a/src/Orders.java
+        +++ b/src/Orders.java
+        @@ -2,3 +2,4 @@ public class Orders {
+             int a;
+        -    int b;
+        +    long b;
+        +    long c;
+             int d;
+        @@ -20,3 +21,2 @@
+             void run() {
+        -        --count;
+             }
+        \\ No newline at end of file
+        diff --git a/src/Gone.java b/src/Gone.java
+        deleted file mode 100644
+        --- a/src/Gone.java
+        +++ /dev/null
+        @@ -1,2 +0,0 @@
+        -class Gone {
+        -}
+        """;
+
+    @Test
+    void shouldReadChangedLinesOfEveryFileInUnifiedDiff() {
+        // When
+        Map<String, ChangedLines> files = ChangedLines.parseUnifiedDiff(DIFF);
+
+        // Then
+        assertEquals(List.of("src/Orders.java"), List.copyOf(files.keySet()));
+        ChangedLines orders = files.get("src/Orders.java");
+        assertTrue(orders.contains(3));
+        assertTrue(orders.contains(4));
+        assertTrue(orders.contains(22));
+        assertFalse(orders.contains(2));
+        assertFalse(orders.contains(5));
+        assertEquals(3, orders.size());
+    }
+
+    @Test
+    void shouldWidenEveryRunByMargin() {
+        // Given
+        ChangedLines changes = ChangedLines.range(2, 3).plus(20, 20);
+
+        // When
+        ChangedLines widened = changes.widen(3);
+
+        // Then
+        assertEquals(ChangedLines.range(1, 6).plus(17, 23), widened);
+        assertTrue(changes.intersects(10, 20));
+        assertFalse(changes.intersects(4, 19));
+        assertTrue(ChangedLines.none().isEmpty());
+    }
+
+    @Test
+    void shouldKeepOnlyTokensOfSelectedLinesWithBarrierAtGaps() {
+        // Given
+        TokenStream tokens = JavaLexer.tokenize(SourceText.of("a(\nb);\nc = \"x\" +\nd;\ne(f);"));
+
+        // When
+        TokenStream window = tokens.onLines(ChangedLines.range(1, 1).plus(3, 3).plus(5, 5));
+
+        // Then
+        assertEquals("a", window.text(0));
+        assertEquals(-1, window.pair(1));
+        assertEquals("", window.text(2));
+        assertEquals(3, window.line(3));
+        assertFalse(window.isOperator(2, '+'));
+        assertEquals(5, window.line(window.size() - 1));
+        assertEquals(window.size() - 2, window.pair(window.size() - 4));
+    }
+}
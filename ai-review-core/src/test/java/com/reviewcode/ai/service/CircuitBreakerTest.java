@@ -0,0 +1,75 @@
+package com.reviewcode.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void shouldOpenOnceFailureRateReachesThreshold() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(50, 10, 4, 1_000, 2, new AtomicLong()::get);
+        breaker.tryCall().success();
+        breaker.tryCall().failure();
+        breaker.tryCall().success();
+
+        // When
+        breaker.tryCall().failure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertNull(breaker.tryCall());
+        assertEquals(1, breaker.transitions(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void shouldCloseAfterTrialCallsSucceed() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(50, 10, 1, 1_000, 2, now::get);
+        breaker.tryCall().failure();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // When
+        CircuitBreaker.Call first = breaker.tryCall();
+        CircuitBreaker.Call second = breaker.tryCall();
+        CircuitBreaker.Call third = breaker.tryCall();
+        first.success();
+        second.success();
+
+        // Then
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(third);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(1, breaker.transitions(CircuitBreaker.State.HALF_OPEN));
+    }
+
+    @Test
+    void shouldReopenWhenTrialCallFailsAndIgnoreStaleOutcomes() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(50, 10, 1, 1_000, 2, now::get);
+        breaker.tryCall().failure();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        CircuitBreaker.Call trial = breaker.tryCall();
+        CircuitBreaker.Call slowTrial = breaker.tryCall();
+
+        // When
+        trial.failure();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        CircuitBreaker.Call nextTrial = breaker.tryCall();
+        slowTrial.success();
+
+        // Then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(2, breaker.transitions(CircuitBreaker.State.OPEN));
+        assertNotNull(nextTrial);
+        assertNotNull(breaker.tryCall());
+        assertNull(breaker.tryCall());
+    }
+}
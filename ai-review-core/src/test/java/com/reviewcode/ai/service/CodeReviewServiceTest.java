@@ -1,5 +1,6 @@
 package com.reviewcode.ai.service;
 
+import com.reviewcode.ai.config.AiConfiguration;
 import com.reviewcode.ai.model.CodeReview;
 import com.reviewcode.ai.model.PullRequest;
 import com.reviewcode.ai.repository.CodeReviewRepository;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -34,6 +36,9 @@ class CodeReviewServiceTest {
     @Mock
     private AiReviewService aiReviewService;
 
+    @Spy
+    private AiConfiguration aiConfiguration = new AiConfiguration();
+
     @InjectMocks
     private CodeReviewService codeReviewService;
 
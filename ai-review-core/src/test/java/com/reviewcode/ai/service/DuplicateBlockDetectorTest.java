@@ -0,0 +1,123 @@
+package com.reviewcode.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateBlockDetectorTest {
+
+    private static final String[] VOCABULARY = {
+        "        String userName = request.getUserName().trim();",
+        "        if (userName.isEmpty()) throw new IllegalArgumentException();",
+        "        repository.save(new User(userName, request.getEmail()));",
+        "    }",
+        "",
+        "   ",
+        "\t\r",
+        "        log.info(\"Saved user {}\", userName);   ",
+        "}"
+    };
+
+    @Test
+    void shouldMatchPairwiseComparisonOnRandomInput() {
+        // Given - small vocabulary so windows repeat, including blank and whitespace-only lines
+        Random random = new Random(42);
+
+        for (int round = 0; round < 300; round++) {
+            String[] lines = new String[random.nextInt(60)];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = VOCABULARY[random.nextInt(VOCABULARY.length)];
+            }
+            String code = String.join("\n", lines);
+
+            // When
+            List<Integer> actual = repeatedWindows(SourceText.of(code));
+
+            // Then
+            assertEquals(pairwiseRepeatedWindows(code.split("\n")), actual, code);
+        }
+    }
+
+    @Test
+    void shouldReportBlocksCopiedBetweenFiles() {
+        // Given
+        String shared = String.join("\n", VOCABULARY[0], VOCABULARY[1], VOCABULARY[2], VOCABULARY[7], VOCABULARY[3],
+            "        return userName.toUpperCase(java.util.Locale.ROOT);");
+        Map<String, SourceText> files = new LinkedHashMap<>();
+        files.put("UserService.java", SourceText.of("class UserService {\n    void create() {\n" + shared + "\n    }\n}\n"));
+        files.put("AdminService.java", SourceText.of("class AdminService {\n" + shared + "\n}\n// end\n// end\n"));
+        files.put("OtherService.java", SourceText.of("class OtherService {\n    void run() {}\n}\n// a\n// b\n// c\n"));
+
+        // When
+        List<DuplicateBlockDetector.CrossFileDuplicate> duplicates = crossFileDuplicates(files);
+
+        // Then
+        assertEquals(1, duplicates.size());
+        DuplicateBlockDetector.CrossFileDuplicate duplicate = duplicates.get(0);
+        assertEquals("AdminService.java", duplicate.fileName());
+        assertEquals(2, duplicate.startLine());
+        assertEquals(7, duplicate.endLine());
+        assertEquals("UserService.java", duplicate.originalFileName());
+        assertEquals(3, duplicate.originalLine());
+        assertTrue(duplicate.snippet().startsWith(VOCABULARY[0]));
+    }
+
+    @Test
+    void shouldNotReportShortOrUniqueBlocksAcrossFiles() {
+        // Given
+        Map<String, SourceText> files = new LinkedHashMap<>();
+        files.put("A.java", SourceText.of("a\nb\nc\nd\ne\nf\n"));
+        files.put("B.java", SourceText.of("a\nb\nc\nd\ne\nf\n"));
+
+        // Then
+        assertTrue(crossFileDuplicates(files).isEmpty());
+    }
+
+    @Test
+    void shouldChargeLinesAndWindowsToRuleBudget() {
+        // Given
+        String code = String.join("\n", Collections.nCopies(50_000, VOCABULARY[0]));
+        RuleBudget budget = RuleBudget.start(10_000, 60_000, 60_000);
+
+        // When
+        List<Integer> windows = budget.run(ArchitectureRules.DUPLICATE_CODE, List.of(),
+            meter -> DuplicateBlockDetector.repeatedWindows(SourceText.of(code), meter));
+
+        // Then
+        assertTrue(windows.isEmpty());
+        assertEquals(List.of(new RuleBudget.Abort(ArchitectureRules.DUPLICATE_CODE, RuleBudget.Reason.STEP_BUDGET)),
+            budget.aborts());
+    }
+
+    private static List<Integer> repeatedWindows(SourceText source) {
+        return RuleBudget.startDefault().run(ArchitectureRules.DUPLICATE_CODE, null,
+            meter -> DuplicateBlockDetector.repeatedWindows(source, meter));
+    }
+
+    private static List<DuplicateBlockDetector.CrossFileDuplicate> crossFileDuplicates(Map<String, SourceText> files) {
+        return RuleBudget.startDefault().run(ArchitectureRules.DUPLICATE_ACROSS_FILES, null,
+            meter -> DuplicateBlockDetector.crossFileDuplicates(files, meter));
+    }
+
+    private static List<Integer> pairwiseRepeatedWindows(String[] lines) {
+        List<Integer> repeated = new ArrayList<>();
+        for (int i = 0; i < lines.length - 5; i++) {
+            String currentBlock = String.join("\n", lines[i], lines[i + 1], lines[i + 2], lines[i + 3], lines[i + 4]);
+            for (int j = i + 5; j < lines.length - 5; j++) {
+                String compareBlock = String.join("\n", lines[j], lines[j + 1], lines[j + 2], lines[j + 3], lines[j + 4]);
+                if (currentBlock.trim().equals(compareBlock.trim()) && currentBlock.trim().length() > 50) {
+                    repeated.add(i);
+                    break;
+                }
+            }
+        }
+        return repeated;
+    }
+}
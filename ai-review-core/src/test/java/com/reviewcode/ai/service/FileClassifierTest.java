@@ -0,0 +1,76 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.AiConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileClassifierTest {
+
+    private static final String CODE = """
+        public class PaymentService {
+            private String password = "SuperSecret123";
+        }
+        """;
+
+    private final FileClassifier classifier = FileClassifier.of(new AiConfiguration.Review());
+
+    @Test
+    void shouldReviewOrdinarySource() {
+        assertNull(classifier.skipReason("src/main/java/PaymentService.java", CODE));
+    }
+
+    @Test
+    void shouldSkipVendoredAndLockFilesByPath() {
+        assertEquals(FileClassifier.Reason.VENDORED, classifier.skipReason("web/node_modules/lib/index.js", CODE));
+        assertEquals(FileClassifier.Reason.VENDORED, classifier.skipReason("vendor/github.com/x/y.go", CODE));
+        assertEquals(FileClassifier.Reason.VENDORED, classifier.skipReason("static\\app.min.js", CODE));
+        assertEquals(FileClassifier.Reason.VENDORED, classifier.skipReason("package-lock.json", CODE));
+        assertNull(classifier.skipReason("src/vendorapi/Client.java", CODE));
+        assertNull(classifier.skipReason("static/appxminxjs", CODE));
+    }
+
+    @Test
+    void shouldSkipBySizeAndSampledContent() {
+        // Given
+        FileClassifier small = new FileClassifier(100, 250, new AiConfiguration.Review().getGeneratedMarkers(),
+            new AiConfiguration.Review().getVendorPaths());
+
+        // Then
+        assertEquals(FileClassifier.Reason.TOO_LARGE, small.skipReason("A.java", CODE.repeat(5)));
+        assertEquals(FileClassifier.Reason.BINARY, classifier.skipReason("A.java", "PK\u0003\u0004\0\0" + CODE));
+        assertEquals(FileClassifier.Reason.MINIFIED, classifier.skipReason("A.js", "var a=1;".repeat(2_000)));
+        assertEquals(FileClassifier.Reason.GENERATED,
+            classifier.skipReason("A.java", "// Code generated by protoc. DO NOT EDIT.\n" + CODE));
+    }
+
+    @Test
+    void shouldSampleOnlyTheStartOfTheFile() {
+        // Given a marker and a NUL byte beyond the sample
+        String late = CODE.repeat(200) + "// DO NOT EDIT\n\0";
+
+        // Then
+        assertTrue(late.length() > FileClassifier.SAMPLE_CHARS);
+        assertNull(classifier.skipReason("A.java", late));
+    }
+
+    @Test
+    void shouldCountSkippedFilesAndNotValidateThem() {
+        // Given
+        ArchitectureValidationService service = new ArchitectureValidationService();
+        service.setFileClassifier(classifier);
+
+        // When
+        assertTrue(service.validateArchitecturalPrinciples("A.js", "var a=1;".repeat(2_000)).isEmpty());
+        assertTrue(service.validateArchitecturalPrinciples(Map.of("vendor/B.java", CODE)).isEmpty());
+
+        // Then
+        assertEquals(Map.of("MINIFIED", 1L, "VENDORED", 1L), service.getSkippedFileCounts());
+        assertEquals(List.of(new ArchitectureValidationService.SkippedFile("A.js", "MINIFIED"),
+            new ArchitectureValidationService.SkippedFile("vendor/B.java", "VENDORED")), service.getSkippedFiles());
+        assertFalse(service.validateArchitecturalPrinciples("PaymentService.java", CODE).isEmpty());
+    }
+}
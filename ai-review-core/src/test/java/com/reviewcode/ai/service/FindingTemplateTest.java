@@ -0,0 +1,72 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.model.ReviewFinding;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FindingTemplateTest {
+
+    private static final FindingTemplate SECRET = FindingTemplate.of(
+        ReviewFinding.FindingType.SECURITY, ReviewFinding.Severity.HIGH,
+        "Hardcoded secret detected", "Use environment variables.", "Hardcoded secret");
+
+    @Test
+    void shouldBuildFindingFromTemplate() {
+        // When
+        ReviewFinding finding = SECRET.at(12).toFinding("UserService.java");
+
+        // Then
+        assertEquals("UserService.java", finding.getFileName());
+        assertEquals(12, finding.getLineNumber());
+        assertEquals("ARCH_SECURITY", finding.getRuleId());
+        assertEquals(ReviewFinding.Severity.HIGH, finding.getSeverity());
+        assertEquals("Hardcoded secret detected", finding.getDescription());
+        assertEquals("Use environment variables.", finding.getSuggestion());
+        assertEquals("Hardcoded secret", finding.getCodeSnippet());
+    }
+
+    @Test
+    void shouldKeepPerHitDetailAndShareTheRest() {
+        // Given
+        FindingTemplate.Hit hit = SECRET.at(0, ReviewFinding.Severity.CRITICAL, "Secret in constant", "KEY = \"x\"");
+
+        // When
+        ReviewFinding finding = hit.toFinding("Keys.java");
+
+        // Then
+        assertNull(finding.getLineNumber());
+        assertEquals(ReviewFinding.Severity.CRITICAL, finding.getSeverity());
+        assertEquals("Secret in constant", finding.getDescription());
+        assertEquals("KEY = \"x\"", finding.getCodeSnippet());
+        assertSame(SECRET.ruleId(), FindingTemplate.ruleId(ReviewFinding.FindingType.SECURITY));
+    }
+
+    @Test
+    void shouldCopyHitOnlyWhenSeverityChanges() {
+        // Given
+        FindingTemplate.Hit hit = SECRET.at(3);
+
+        // Then
+        assertSame(hit, hit.withSeverity(ReviewFinding.Severity.HIGH));
+        assertEquals(ReviewFinding.Severity.INFO, hit.withSeverity(ReviewFinding.Severity.INFO).severity());
+        assertEquals(ReviewFinding.Severity.HIGH, hit.severity());
+    }
+
+    @Test
+    void shouldTagHitsOfAChangeWhenBuildingFindings() {
+        // Given
+        SourceText source = SourceText.of("class A {\n  int a;\n  int b;\n}\n");
+        ValidationScope scope = ValidationScope.of(source, ChangedLines.range(2, 2), RuleBudget.startDefault());
+
+        // When
+        List<ReviewFinding> findings = scope.findings("A.java", List.of(SECRET.at(2), SECRET.at(3), SECRET.at(0)));
+
+        // Then
+        assertEquals(ReviewFinding.Origin.INTRODUCED, findings.get(0).getOrigin());
+        assertEquals(ReviewFinding.Origin.PRE_EXISTING, findings.get(1).getOrigin());
+        assertEquals(ReviewFinding.Origin.PRE_EXISTING, findings.get(2).getOrigin());
+    }
+}
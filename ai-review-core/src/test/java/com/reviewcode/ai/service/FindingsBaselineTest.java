@@ -0,0 +1,144 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.ReviewFinding;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FindingsBaselineTest {
+
+    private static final String CODE = """
+        public class PaymentService {
+            private String password = "SuperSecret123";
+            public void pay(String query) {
+                db.execute("SELECT * FROM orders WHERE id = " + query);
+            }
+        }
+        """;
+
+    private static final String EDITED = """
+        public class PaymentService {
+
+            // Moved down by an unrelated edit
+            private String password  =  "SuperSecret123";
+            public void pay(String query) {
+                db.execute("SELECT * FROM orders WHERE id = " + query);
+            }
+            public void refund(String query) {
+                String password = "RefundSecret456";
+            }
+        }
+        """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldKeepFingerprintWhenFindingOnlyMoves() {
+        // Given
+        ArchitectureValidationService service = new ArchitectureValidationService();
+
+        // When
+        ReviewFinding before = secret(service.validateArchitecturalPrinciples("PaymentService.java", CODE));
+        ReviewFinding after = secret(service.validateArchitecturalPrinciples("PaymentService.java", EDITED));
+
+        // Then
+        assertNotEquals(before.getLineNumber(), after.getLineNumber());
+        assertEquals(16, before.getFingerprint().length());
+        assertEquals(before.getFingerprint(), after.getFingerprint());
+    }
+
+    @Test
+    void shouldTellApartSameCodeInOtherMethodOrOccurrence() {
+        // Given
+        FindingsBaseline.Fingerprinter fingerprinter = new FindingsBaseline.Fingerprinter();
+
+        // When
+        String first = fingerprinter.next("ARCH_SECURITY", "A.java#A.pay", "x = 1;");
+        String second = fingerprinter.next("ARCH_SECURITY", "A.java#A.pay", " x = 1; ");
+        String otherMethod = fingerprinter.next("ARCH_SECURITY", "A.java#A.refund", "x = 1;");
+
+        // Then
+        assertNotEquals(first, second);
+        assertNotEquals(first, otherMethod);
+        assertEquals(first, new FindingsBaseline.Fingerprinter().next("ARCH_SECURITY", "A.java#A.pay", "x=1;"));
+    }
+
+    @Test
+    void shouldFingerprintByInnermostTypeAndMethod() {
+        // Given
+        String code = """
+            public class PaymentService {
+                private String currency = "EUR";
+                static class Refunds {
+                    public void refund() {
+                        String password = "RefundSecret456";
+                    }
+                }
+                public void pay() {
+                }
+            }
+            """;
+
+        // When
+        ReviewFinding secret = secret(new ArchitectureValidationService()
+            .validateArchitecturalPrinciples("PaymentService.java", code));
+
+        // Then
+        assertEquals(5, secret.getLineNumber());
+        assertEquals(new FindingsBaseline.Fingerprinter().next(secret.getRuleId(), "PaymentService.java#Refunds.refund",
+            code.lines().toList().get(4)), secret.getFingerprint());
+    }
+
+    @Test
+    void shouldReportOnlyFindingsNotInBaseline() {
+        // Given
+        ConfigurableArchitectureValidationService service = new ConfigurableArchitectureValidationService(new ReviewConfiguration());
+        assertFalse(service.hasBaseline("acme/payments"));
+        int recorded = service.recordBaseline("acme/payments", Map.of("PaymentService.java", CODE));
+
+        // When
+        List<ReviewFinding> findings = service.validateAgainstBaseline("acme/payments", Map.of("PaymentService.java", EDITED));
+
+        // Then
+        assertTrue(recorded > 0);
+        assertFalse(findings.isEmpty());
+        assertTrue(findings.stream().allMatch(finding -> finding.getLineNumber() >= 8));
+        assertEquals(service.validateArchitecturalPrinciples(Map.of("PaymentService.java", EDITED)).size(),
+            service.newSinceBaseline("acme/other", service.validateArchitecturalPrinciples(Map.of("PaymentService.java", EDITED))).size());
+    }
+
+    @Test
+    void shouldKeepBaselineOnDiskAcrossRestarts() throws IOException {
+        // Given
+        List<ReviewFinding> findings = new ArchitectureValidationService().validateArchitecturalPrinciples("PaymentService.java", CODE);
+        new FindingsBaseline(directory).record("https://github.com/acme/payments", findings);
+
+        // When
+        FindingsBaseline restarted = new FindingsBaseline(directory);
+
+        // Then
+        try (Stream<Path> files = Files.list(directory)) {
+            Path file = files.findFirst().orElseThrow();
+            // Header of three ints, then eight bytes per distinct fingerprint
+            assertEquals(12 + 8L * findings.size(), Files.size(file));
+        }
+        assertTrue(restarted.has("https://github.com/acme/payments"));
+        assertTrue(restarted.newFindings("https://github.com/acme/payments", findings).isEmpty());
+    }
+
+    private static ReviewFinding secret(List<ReviewFinding> findings) {
+        return findings.stream()
+            .filter(finding -> finding.getDescription().startsWith("Hardcoded secret"))
+            .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,190 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.ReviewFinding;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FindingsCacheTest {
+
+    private static final String CODE = """
+        public class PaymentService {
+            private String password = "SuperSecret123";
+            public void pay(int a, int b, int c, int d, int e, int f) {
+                int timeout = 5000;
+            }
+        }
+        """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldServeFreshCopiesOfCachedFindings() {
+        // Given
+        FindingsCache cache = new FindingsCache(10, null, 10);
+        String key = FindingsCache.key("A.java", CODE, "rules");
+        cache.put(key, List.of(finding("A.java", 3)));
+
+        // When
+        List<ReviewFinding> first = cache.get(key);
+        first.get(0).setSeverity(ReviewFinding.Severity.INFO);
+        List<ReviewFinding> second = cache.get(key);
+
+        // Then
+        assertEquals(ReviewFinding.Severity.HIGH, second.get(0).getSeverity());
+        assertEquals(3, second.get(0).getLineNumber());
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(2, cache.hits());
+    }
+
+    @Test
+    void shouldKeySeparatelyByContentFileNameAndRules() {
+        // Then
+        String key = FindingsCache.key("A.java", CODE, "rules");
+        assertEquals(key, FindingsCache.key("A.java", CODE, "rules"));
+        assertNotEquals(key, FindingsCache.key("A.java", CODE + " ", "rules"));
+        assertNotEquals(key, FindingsCache.key("B.java", CODE, "rules"));
+        assertNotEquals(key, FindingsCache.key("A.java", CODE, "other"));
+        assertNotEquals(FindingsCache.key("ab", "c", "r"), FindingsCache.key("a", "bc", "r"));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntriesBeyondCapacity() {
+        // Given
+        FindingsCache cache = new FindingsCache(2, null, 2);
+        cache.put("a", List.of());
+        cache.put("b", List.of());
+        cache.get("a");
+
+        // When
+        cache.put("c", List.of());
+
+        // Then
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void shouldKeepEntriesOnDiskAcrossInstances() {
+        // Given
+        String key = FindingsCache.key("A.java", CODE, "rules");
+        new FindingsCache(10, directory, 10).put(key, List.of(finding("A.java", 7)));
+
+        // When
+        FindingsCache restarted = new FindingsCache(10, directory, 10);
+        List<ReviewFinding> findings = restarted.get(key);
+
+        // Then
+        assertEquals(1, findings.size());
+        assertEquals(7, findings.get(0).getLineNumber());
+        assertEquals(ReviewFinding.FindingType.SECURITY, findings.get(0).getType());
+        assertEquals(1, restarted.diskHits());
+    }
+
+    @Test
+    void shouldPruneLeastRecentlyUsedDiskEntriesBeyondLimit() throws IOException {
+        // Given
+        FindingsCache cache = new FindingsCache(20, directory, 10);
+        for (int i = 0; i < 10; i++) {
+            String key = FindingsCache.key("File" + i + ".java", CODE, "rules");
+            cache.put(key, List.of(finding("File" + i + ".java", i + 1)));
+            Files.setLastModifiedTime(entryFile(key), FileTime.fromMillis(1_000_000L * (i + 1)));
+        }
+        String readBack = FindingsCache.key("File0.java", CODE, "rules");
+        assertNotNull(new FindingsCache(10, directory, 10).get(readBack));
+
+        // When
+        cache.put(FindingsCache.key("File10.java", CODE, "rules"), List.of(finding("File10.java", 11)));
+
+        // Then
+        FindingsCache restarted = new FindingsCache(10, directory, 10);
+        assertEquals(9, diskEntryCount());
+        assertEquals(2, cache.diskEvictions());
+        assertNotNull(restarted.get(readBack));
+        assertNull(restarted.get(FindingsCache.key("File1.java", CODE, "rules")));
+        assertNull(restarted.get(FindingsCache.key("File2.java", CODE, "rules")));
+        assertNotNull(restarted.get(FindingsCache.key("File3.java", CODE, "rules")));
+        assertEquals(0, cache.evictions());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        assertEquals(2.0, registry.get("review.findings.cache.evictions").tag("tier", "disk").functionCounter().count());
+        assertEquals(0.0, registry.get("review.findings.cache.evictions").tag("tier", "memory").functionCounter().count());
+    }
+
+    @Test
+    void shouldTreatUnreadableDiskEntryAsMiss() throws IOException {
+        // Given
+        String key = FindingsCache.key("A.java", CODE, "rules");
+        new FindingsCache(10, directory, 10).put(key, List.of(finding("A.java", 7)));
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.writeString(file, "{ truncated");
+            }
+        }
+
+        // Then
+        assertNull(new FindingsCache(10, directory, 10).get(key));
+    }
+
+    @Test
+    void shouldSkipRescanningUnchangedFilesUntilRulesChange() {
+        // Given
+        ReviewConfiguration config = new ReviewConfiguration();
+        ConfigurableArchitectureValidationService service = new ConfigurableArchitectureValidationService(config);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.setMeterRegistry(registry);
+        List<ReviewFinding> scanned = service.validateArchitecturalPrinciples("PaymentService.java", CODE);
+
+        // When
+        List<ReviewFinding> cached = service.validateArchitecturalPrinciples("PaymentService.java", CODE);
+        ReviewConfiguration.Thresholds thresholds = new ReviewConfiguration.Thresholds();
+        thresholds.setMaxParameters(10);
+        config.setThresholds(thresholds);
+        List<ReviewFinding> rescanned = service.validateArchitecturalPrinciples("PaymentService.java", CODE);
+
+        // Then
+        assertEquals(scanned, cached);
+        assertTrue(scanned.stream().anyMatch(f -> f.getDescription().contains("more than 5 parameters")));
+        assertTrue(rescanned.stream().noneMatch(f -> f.getDescription().contains("parameters")));
+        assertEquals(1.0, registry.get("review.findings.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, registry.get("review.findings.cache.requests").tag("result", "miss").functionCounter().count());
+    }
+
+    private Path entryFile(String key) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName().toString().equals(key + ".json")).findFirst().orElseThrow();
+        }
+    }
+
+    private long diskEntryCount() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json")).count();
+        }
+    }
+
+    private static ReviewFinding finding(String fileName, int line) {
+        ReviewFinding finding = new ReviewFinding();
+        finding.setFileName(fileName);
+        finding.setLineNumber(line);
+        finding.setType(ReviewFinding.FindingType.SECURITY);
+        finding.setSeverity(ReviewFinding.Severity.HIGH);
+        finding.setDescription("Hardcoded secret detected");
+        finding.setRuleId("ARCH_SECURITY");
+        return finding;
+    }
+}
@@ -0,0 +1,114 @@
+package com.reviewcode.ai.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcode.ai.model.ReviewFinding;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FindingsExportTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void shouldWriteOneJsonRecordPerLine() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        try (FindingsExport export = FindingsExport.open(FindingsExport.Format.NDJSON, out)) {
+            export.write(finding(12, ReviewFinding.Severity.CRITICAL));
+            export.write(finding(null, ReviewFinding.Severity.LOW));
+        }
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals("PaymentService.java", first.get("fileName").asText());
+        assertEquals(12, first.get("lineNumber").asInt());
+        assertEquals("CRITICAL", first.get("severity").asText());
+        assertEquals("0123456789abcdef", first.get("fingerprint").asText());
+        assertFalse(mapper.readTree(lines[1]).has("lineNumber"));
+    }
+
+    @Test
+    void shouldWriteSarifLogWithOneResultPerFinding() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        try (FindingsExport export = FindingsExport.open(FindingsExport.Format.of("sarif"), out)) {
+            export.write(finding(12, ReviewFinding.Severity.HIGH));
+            export.write(finding(null, ReviewFinding.Severity.MEDIUM));
+        }
+
+        // Then
+        JsonNode log = mapper.readTree(out.toByteArray());
+        assertEquals("2.1.0", log.get("version").asText());
+        JsonNode results = log.at("/runs/0/results");
+        assertEquals(2, results.size());
+        assertEquals("ARCH_SECURITY", results.get(0).get("ruleId").asText());
+        assertEquals("error", results.get(0).get("level").asText());
+        assertEquals("Hardcoded secret detected", results.get(0).at("/message/text").asText());
+        assertEquals("PaymentService.java", results.get(0).at("/locations/0/physicalLocation/artifactLocation/uri").asText());
+        assertEquals(12, results.get(0).at("/locations/0/physicalLocation/region/startLine").asInt());
+        assertEquals("0123456789abcdef", results.get(0).at("/partialFingerprints/reviewFingerprint~1v1").asText());
+        assertEquals("warning", results.get(1).get("level").asText());
+        assertTrue(results.get(1).at("/locations/0/physicalLocation/region").isMissingNode());
+    }
+
+    @Test
+    void shouldStreamWithoutHoldingFindings() throws IOException {
+        // Given a sink that only counts bytes
+        long[] bytes = new long[1];
+        OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes[0] += len;
+            }
+        };
+        ReviewFinding finding = finding(7, ReviewFinding.Severity.HIGH);
+
+        // When
+        FindingsExport export = FindingsExport.open(FindingsExport.Format.SARIF, sink);
+        for (int i = 0; i < 100_000; i++) {
+            export.write(finding);
+        }
+        long beforeClose = bytes[0];
+        export.close();
+
+        // Then output left as the buffer filled, and the last of it on close
+        assertEquals(100_000, export.count());
+        assertTrue(beforeClose > 10_000_000);
+        assertTrue(bytes[0] > beforeClose);
+    }
+
+    @Test
+    void shouldRejectUnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> FindingsExport.Format.of("xml"));
+    }
+
+    private static ReviewFinding finding(Integer line, ReviewFinding.Severity severity) {
+        ReviewFinding finding = new ReviewFinding();
+        finding.setFileName("PaymentService.java");
+        finding.setLineNumber(line);
+        finding.setType(ReviewFinding.FindingType.SECURITY);
+        finding.setSeverity(severity);
+        finding.setDescription("Hardcoded secret detected");
+        finding.setRuleId("ARCH_SECURITY");
+        finding.setFingerprint("0123456789abcdef");
+        return finding;
+    }
+}
@@ -0,0 +1,106 @@
+package com.reviewcode.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaLexerTest {
+
+    @Test
+    void shouldClassifyKeywordsIdentifiersAndOperators() {
+        // Given
+        TokenStream tokens = lex("public void doStuff(int x) { return x >= 0 ? x : -x; }");
+
+        // Then
+        assertEquals(TokenStream.Kind.KEYWORD, tokens.kind(0));
+        assertEquals(TokenStream.Kind.KEYWORD, tokens.kind(1));
+        assertEquals(TokenStream.Kind.IDENTIFIER, tokens.kind(2));
+        assertTrue(tokens.isIdentifier(2, "doStuff"));
+        assertTrue(tokens.isKeyword(4, "int"));
+        assertTrue(tokens.isOperator(10, ">="));
+        assertNull(tokens.kind(-1));
+        assertNull(tokens.kind(tokens.size()));
+    }
+
+    @Test
+    void shouldSetCommentsApart() {
+        // Given
+        TokenStream tokens = lex("int a; // SELECT * FROM users\n/* new Random() */ int b;");
+
+        // Then
+        assertEquals(6, tokens.size());
+        assertEquals(2, tokens.commentCount());
+        assertTrue(tokens.isIdentifier(4, "b"));
+    }
+
+    @Test
+    void shouldClassifyLiteralsAndExposeTheirContent() {
+        // Given
+        TokenStream tokens = lex("s = \"a \\\"quoted\\\" word\"; t = \"\"\"\n  block \"inner\"\n\"\"\"; c = '\\'';");
+
+        // Then
+        assertEquals(TokenStream.Kind.STRING, tokens.kind(2));
+        assertEquals("a \\\"quoted\\\" word", tokens.content(2));
+        assertEquals(TokenStream.Kind.STRING, tokens.kind(6));
+        assertEquals("\n  block \"inner\"\n", tokens.content(6));
+        assertEquals(TokenStream.Kind.CHAR, tokens.kind(10));
+        assertEquals("\\'", tokens.content(10));
+    }
+
+    @Test
+    void shouldReadNumbersAsSingleTokens() {
+        // Given
+        TokenStream tokens = lex("x = 1.5e-3 + 0x1Fp+2 + 1_000L + .5f;");
+
+        // Then
+        assertEquals("1.5e-3", tokens.text(2));
+        assertEquals("0x1Fp+2", tokens.text(4));
+        assertEquals("1_000L", tokens.text(6));
+        assertEquals(".5f", tokens.text(8));
+        assertEquals(TokenStream.Kind.NUMBER, tokens.kind(8));
+    }
+
+    @Test
+    void shouldPairBracketsAndLeaveUnbalancedOnesUnpaired() {
+        // Given
+        TokenStream tokens = lex("f(a[0], { b }) ) {");
+
+        // Then
+        assertEquals(10, tokens.pair(1));
+        assertEquals(1, tokens.pair(10));
+        assertEquals(5, tokens.pair(3));
+        assertEquals(9, tokens.pair(7));
+        assertEquals(-1, tokens.pair(11));
+        assertEquals(-1, tokens.pair(12));
+        assertEquals(-1, tokens.pair(0));
+    }
+
+    @Test
+    void shouldNumberLinesFromOne() {
+        // Given
+        TokenStream tokens = lex("a\n\n  b /* one\ntwo */ c\r\nd");
+
+        // Then
+        assertEquals(1, tokens.line(0));
+        assertEquals(3, tokens.line(1));
+        assertEquals(4, tokens.line(2));
+        assertEquals(5, tokens.line(3));
+    }
+
+    @Test
+    void shouldTolerateUnterminatedInput() {
+        // Given
+        TokenStream tokens = lex("s = \"open\nt = 'x\nu = \"\"\"never closed /* and");
+
+        // Then
+        assertEquals("open", tokens.content(2));
+        assertEquals(2, tokens.line(3));
+        assertEquals("x", tokens.content(5));
+        assertEquals(TokenStream.Kind.STRING, tokens.kind(tokens.size() - 1));
+        assertEquals(0, lex("x /* open").size() - 1);
+    }
+
+    private static TokenStream lex(String code) {
+        return JavaLexer.tokenize(SourceText.of(code));
+    }
+}
@@ -0,0 +1,141 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.ReviewFinding;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewConfigurationReloaderTest {
+
+    private static final String CODE = """
+        public class UserService {
+            private String password = "SuperSecret123";
+        }
+        """;
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private ConfigurableArchitectureValidationService service;
+    private ReviewConfigurationReloader reloader;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("review.yml");
+        ReviewConfiguration config = new ReviewConfiguration();
+        config.getReload().setFile(file.toString());
+        config.getReload().setDebounceMillis(20);
+        service = new ConfigurableArchitectureValidationService(config);
+        reloader = new ReviewConfigurationReloader(config, service);
+    }
+
+    @Test
+    void shouldApplyChangedFileToSubsequentValidations() throws IOException {
+        // Given
+        assertTrue(hasSecurityFinding(service.validateArchitecturalPrinciples("UserService.java", CODE)));
+        Files.writeString(file, """
+            review:
+              rules:
+                enable-security: false
+            """);
+
+        // When
+        ReviewConfigurationReloader.Outcome outcome = reloader.reload();
+
+        // Then
+        assertEquals(ReviewConfigurationReloader.Outcome.APPLIED, outcome);
+        assertNull(reloader.getLastRejection());
+        assertFalse(hasSecurityFinding(service.validateArchitecturalPrinciples("UserService.java", CODE)));
+    }
+
+    @Test
+    void shouldRejectInvalidConfigurationAndKeepRunningRules() throws IOException {
+        // Given
+        Files.writeString(file, """
+            review:
+              thresholds:
+                max-method-length: 0
+              rules:
+                enable-security: false
+                severity:
+                  ARCH_SECURITY: "URGENT"
+            """);
+
+        // When
+        ReviewConfigurationReloader.Outcome outcome = reloader.reload();
+
+        // Then
+        assertEquals(ReviewConfigurationReloader.Outcome.REJECTED, outcome);
+        assertTrue(reloader.getLastRejection().contains("thresholds.max-method-length"));
+        assertTrue(reloader.getLastRejection().contains("rules.severity.ARCH_SECURITY"));
+        assertTrue(hasSecurityFinding(service.validateArchitecturalPrinciples("UserService.java", CODE)));
+
+        Files.writeString(file, "review: [unclosed");
+        assertEquals(ReviewConfigurationReloader.Outcome.REJECTED, reloader.reload());
+        assertTrue(reloader.getLastRejection().startsWith("Cannot bind"));
+    }
+
+    @Test
+    void shouldCountReloadsAndCompileTime() throws IOException {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        reloader.setMeterRegistry(registry);
+        Files.writeString(file, """
+            review:
+              thresholds:
+                max-parameters: 3
+            """);
+
+        // When
+        reloader.reload();
+        reloader.reload();
+
+        // Then
+        assertEquals(1L, reloader.getReloadCounts().get("APPLIED"));
+        assertEquals(1L, reloader.getReloadCounts().get("UNCHANGED"));
+        assertEquals(1.0, registry.get("review.config.reloads").tag("result", "applied").functionCounter().count());
+        assertEquals(0.0, registry.get("review.config.reloads").tag("result", "rejected").functionCounter().count());
+        assertEquals(1L, registry.get("review.config.compile").timer().count());
+    }
+
+    @Test
+    void shouldReloadWhenWatchedFileChanges() throws Exception {
+        // Given
+        reloader.start();
+
+        try {
+            // When
+            Files.writeString(file, """
+                review:
+                  rules:
+                    enable-security: false
+                """);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (reloader.getReloadCounts().get("APPLIED") == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            // Then
+            assertTrue(reloader.isRunning());
+            assertEquals(1L, reloader.getReloadCounts().get("APPLIED"));
+            assertFalse(hasSecurityFinding(service.validateArchitecturalPrinciples("UserService.java", CODE)));
+        } finally {
+            reloader.stop();
+        }
+        assertFalse(reloader.isRunning());
+    }
+
+    private static boolean hasSecurityFinding(List<ReviewFinding> findings) {
+        return findings.stream().anyMatch(finding -> finding.getType() == ReviewFinding.FindingType.SECURITY);
+    }
+}
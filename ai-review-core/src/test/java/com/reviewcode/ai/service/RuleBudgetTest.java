@@ -0,0 +1,75 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.ReviewFinding;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleBudgetTest {
+
+    // Minified file of some eighty thousand tokens, far beyond a small per-rule step budget
+    private static final String LARGE = "class Minified { void run() {" + "a = b + c;".repeat(20_000) + "} }";
+
+    @Test
+    void shouldAbortRuleOnStepBudget() {
+        // Given
+        RuleBudget budget = RuleBudget.start(10_000, 60_000, 60_000);
+        TokenStream tokens = JavaLexer.tokenize(SourceText.of(LARGE));
+
+        // When
+        SourceStructure structure = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> SourceStructure.index(tokens, budget));
+
+        // Then
+        assertTrue(structure.methods().isEmpty());
+        assertEquals(List.of(new RuleBudget.Abort(SourceStructure.STRUCTURE, RuleBudget.Reason.STEP_BUDGET)), budget.aborts());
+    }
+
+    @Test
+    void shouldSkipRemainingRulesOnceFileBudgetIsSpent() throws InterruptedException {
+        // Given
+        RuleBudget budget = RuleBudget.start(1_000_000, 1, 1);
+        TokenStream tokens = JavaLexer.tokenize(SourceText.of("public class A { private Random r = new Random(); }"));
+        Thread.sleep(5);
+
+        // When
+        int hit = ArchitectureRules.insecureRandom(tokens, budget);
+
+        // Then
+        assertEquals(-1, hit);
+        assertEquals(RuleBudget.Reason.FILE_TIME_BUDGET, budget.aborts().get(0).reason());
+    }
+
+    @Test
+    void shouldKeepCheapRulesWithinBudget() {
+        // Given
+        RuleBudget budget = RuleBudget.start(1_000_000, 60_000, 60_000);
+        TokenStream tokens = JavaLexer.tokenize(SourceText.of("public class A { private Random r = new Random(); }"));
+
+        // Then
+        assertTrue(ArchitectureRules.insecureRandom(tokens, budget) >= 0);
+        assertTrue(budget.aborts().isEmpty());
+    }
+
+    @Test
+    void shouldReportAbortedRulesAsFindings() {
+        // Given
+        ReviewConfiguration config = new ReviewConfiguration();
+        config.getThresholds().setRuleStepBudget(10_000);
+        ConfigurableArchitectureValidationService service = new ConfigurableArchitectureValidationService(config);
+
+        // When
+        List<ReviewFinding> findings = assertTimeoutPreemptively(Duration.ofSeconds(20),
+            () -> service.validateArchitecturalPrinciples("Minified.java", LARGE));
+
+        // Then
+        assertTrue(findings.stream().anyMatch(f ->
+            ArchitectureValidationService.RULE_ABORTED.equals(f.getRuleId())
+                && f.getDescription().contains(SourceStructure.STRUCTURE)));
+        assertTrue(service.getAbortedRuleCounts().get(SourceStructure.STRUCTURE) >= 1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.ReviewFinding;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleCostsTest {
+
+    private static final String CODE = "public class A { private Random r = new Random(); }";
+
+    @Test
+    void shouldAccountEveryEvaluationPerRuleAndFileType() {
+        // Given
+        ArchitectureValidationService service = new ArchitectureValidationService();
+
+        // When
+        service.validateArchitecturalPrinciples("A.java", CODE);
+        service.validateArchitecturalPrinciples("B.java", CODE);
+
+        // Then
+        RuleCost insecureRandom = service.getRuleCosts().stream()
+            .filter(cost -> cost.rule().equals(ArchitectureRules.INSECURE_RANDOM))
+            .findFirst().orElseThrow();
+        assertEquals("java", insecureRandom.fileType());
+        assertEquals(2, insecureRandom.evaluations());
+        assertEquals(2, insecureRandom.findings());
+        assertEquals(2L * CODE.length(), insecureRandom.charactersScanned());
+        assertTrue(insecureRandom.tokensVisited() > 0);
+        assertEquals(0, insecureRandom.aborts());
+        assertEquals("NONE", insecureRandom.policy());
+    }
+
+    @Test
+    void shouldShareOneAccountBetweenValidationServices() {
+        // Given
+        RuleCosts costs = new RuleCosts();
+        ArchitectureValidationService plain = new ArchitectureValidationService();
+        plain.setRuleCosts(costs);
+        ReviewConfiguration config = new ReviewConfiguration();
+        ReviewConfiguration.Rules.CostPolicy costPolicy = config.getRules().getCostPolicy();
+        costPolicy.setEnabled(true);
+        costPolicy.setAction("DEMOTE");
+        costPolicy.setMaxAverageMillis(0);
+        costPolicy.setMinEvaluations(1);
+        ConfigurableArchitectureValidationService configurable = new ConfigurableArchitectureValidationService(config);
+        configurable.setRuleCosts(costs);
+
+        // When
+        configurable.validateArchitecturalPrinciples("A.java", CODE);
+        String demoted = costs.policyState();
+        plain.validateArchitecturalPrinciples("B.java", CODE);
+
+        // Then
+        assertTrue(demoted.contains(ArchitectureRules.INSECURE_RANDOM + "@java"));
+        assertEquals(demoted, costs.policyState());
+        RuleCost insecureRandom = configurable.getRuleCosts().stream()
+            .filter(cost -> cost.rule().equals(ArchitectureRules.INSECURE_RANDOM))
+            .findFirst().orElseThrow();
+        assertEquals(2, insecureRandom.evaluations());
+        assertEquals(2, insecureRandom.findings());
+        assertEquals("DEMOTE", insecureRandom.policy());
+    }
+
+    @Test
+    void shouldSkipRuleOverBudgetButKeepProbingIt() {
+        // Given
+        RuleCosts costs = new RuleCosts();
+        RuleCosts.Policy policy = new RuleCosts.Policy(RuleCosts.Action.SKIP, 1_000, 1, 3);
+        RuleBudget.Observer observer = costs.forFile("Slow.java", 100, policy);
+        observer.evaluated("SLOW", 5_000_000, 10, false);
+
+        // When
+        List<Boolean> admitted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            admitted.add(observer.admits("SLOW"));
+        }
+
+        // Then
+        assertEquals(List.of(false, false, true), admitted);
+        assertTrue(costs.forFile("Slow.kt", 100, policy).admits("SLOW"));
+        RuleCost slow = costs.snapshot(policy).stream()
+            .filter(cost -> cost.fileType().equals("java")).findFirst().orElseThrow();
+        assertEquals(2, slow.skips());
+        assertEquals("SKIP", slow.policy());
+        assertEquals("SLOW@java", costs.policyState());
+    }
+
+    @Test
+    void shouldDemoteFindingsOfRuleOverBudget() {
+        // Given
+        ReviewConfiguration config = new ReviewConfiguration();
+        ReviewConfiguration.Rules.CostPolicy costPolicy = config.getRules().getCostPolicy();
+        costPolicy.setEnabled(true);
+        costPolicy.setAction("DEMOTE");
+        costPolicy.setMaxAverageMillis(0);
+        costPolicy.setMinEvaluations(1);
+        ConfigurableArchitectureValidationService service = new ConfigurableArchitectureValidationService(config);
+
+        // When
+        List<ReviewFinding> findings = service.validateArchitecturalPrinciples("A.java", CODE);
+
+        // Then
+        ReviewFinding insecureRandom = findings.stream()
+            .filter(finding -> "ARCH_SECURITY".equals(finding.getRuleId()))
+            .findFirst().orElseThrow();
+        assertEquals(ReviewFinding.Severity.INFO, insecureRandom.getSeverity());
+        assertTrue(service.getRuleCosts().stream()
+            .anyMatch(cost -> cost.rule().equals(ArchitectureRules.INSECURE_RANDOM) && cost.policy().equals("DEMOTE")));
+    }
+}
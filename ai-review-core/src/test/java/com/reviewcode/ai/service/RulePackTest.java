@@ -0,0 +1,64 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.model.ReviewFinding;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RulePackTest {
+
+    private static final String CODE = """
+        @Autowired
+        private UserRepository userRepository;
+        password = "SuperSecret123"
+        try { call() } catch (e) { }
+        """;
+
+    private final ArchitectureValidationService service = new ArchitectureValidationService();
+
+    @Test
+    void shouldTellLanguageByExtension() {
+        assertEquals(Language.JAVA, Language.of("src/main/java/UserService.java"));
+        assertEquals(Language.PYTHON, Language.of("scripts/deploy.PY"));
+        assertEquals(Language.C_FAMILY, Language.of("native/codec.hpp"));
+        assertEquals(Language.OTHER, Language.of("build.gradle.kts"));
+        assertEquals(Language.JAVA, Language.of("snippets.d/UserService"));
+    }
+
+    @Test
+    void shouldRunOnlyCommonPackOnPython() {
+        // When
+        List<ReviewFinding> findings = service.validateArchitecturalPrinciples("app/users.py", CODE);
+
+        // Then
+        assertEquals(Set.of(ReviewFinding.FindingType.SECURITY),
+            findings.stream().map(ReviewFinding::getType).collect(Collectors.toSet()));
+        assertTrue(service.getRuleCosts().stream()
+            .noneMatch(cost -> cost.rule().equals(ArchitectureRules.FIELD_INJECTION)
+                || cost.rule().equals(SourceStructure.STRUCTURE)));
+    }
+
+    @Test
+    void shouldAddTryCatchPackForJavaScript() {
+        // When
+        List<ReviewFinding> findings = service.validateArchitecturalPrinciples("web/users.js", CODE);
+
+        // Then
+        assertTrue(findings.stream().anyMatch(f -> f.getDescription().startsWith("Empty catch block")));
+        assertTrue(findings.stream().noneMatch(f -> f.getType() == ReviewFinding.FindingType.DEPENDENCY_INJECTION));
+    }
+
+    @Test
+    void shouldRunEveryRuleOnJava() {
+        // When
+        List<ReviewFinding> findings = service.validateArchitecturalPrinciples("UserService.java", CODE);
+
+        // Then
+        assertTrue(findings.stream().anyMatch(f -> f.getType() == ReviewFinding.FindingType.DEPENDENCY_INJECTION));
+        assertEquals(Set.of(RulePack.values()), RulePack.forLanguage(Language.JAVA));
+    }
+}
@@ -0,0 +1,96 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.ReviewFinding;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleSetTest {
+
+    @Test
+    void shouldCompileConfigurationIntoLookups() {
+        // Given
+        ReviewConfiguration config = new ReviewConfiguration();
+        config.getRules().setDisabled(List.of("ARCH_SECURITY", "PERFORMANCE"));
+        config.getRules().setSeverity(Map.of("ARCH_KISS_VIOLATION", "critical", "ARCH_BEST_PRACTICE", "bogus"));
+        config.getPatterns().setIgnoreFiles(List.of("*Test.java", "gen?.java"));
+
+        // When
+        RuleSet rules = RuleSet.compile(config);
+
+        // Then
+        assertTrue(rules.isDisabled(finding(ReviewFinding.FindingType.SECURITY)));
+        assertTrue(rules.isDisabled(finding(ReviewFinding.FindingType.PERFORMANCE)));
+        assertFalse(rules.isDisabled(finding(ReviewFinding.FindingType.KISS_VIOLATION)));
+        assertEquals(ReviewFinding.Severity.CRITICAL, rules.severityOverride("ARCH_KISS_VIOLATION"));
+        assertNull(rules.severityOverride("ARCH_BEST_PRACTICE"));
+        assertTrue(rules.isIgnored("src/test/java/UserServiceTest.java"));
+        assertTrue(rules.isIgnored("gen1.java"));
+        assertFalse(rules.isIgnored("UserService.java"));
+        assertTrue(rules.isWhitelistedNumber("100"));
+        assertTrue(rules.isAllowedSecret("password = \"LocalHost-dev\""));
+        assertEquals(5, rules.maxParameters());
+    }
+
+    @Test
+    void shouldMatchEverythingButWildcardsLiterally() {
+        // Given
+        ReviewConfiguration config = new ReviewConfiguration();
+        config.getPatterns().setIgnoreFiles(List.of("*.spec.ts", "legacy(v1)/*"));
+
+        // When
+        RuleSet rules = RuleSet.compile(config);
+
+        // Then
+        assertTrue(rules.isIgnored("web/user.spec.ts"));
+        assertFalse(rules.isIgnored("web/user_spec-ts"));
+        assertTrue(rules.isIgnored("legacy(v1)/UserService.java"));
+        assertFalse(rules.isIgnored("legacyv1/UserService.java"));
+    }
+
+    @Test
+    void shouldDetectRebindingOfConfiguration() {
+        // Given
+        ReviewConfiguration config = new ReviewConfiguration();
+        RuleSet rules = RuleSet.compile(config);
+        assertTrue(rules.isCompiledFrom(config));
+
+        // When
+        config.getThresholds().setMaxParameters(3);
+
+        // Then
+        assertFalse(rules.isCompiledFrom(config));
+        assertEquals(3, RuleSet.compile(config).maxParameters());
+    }
+
+    @Test
+    void shouldPickUpInPlaceChangesOnReload() {
+        // Given
+        ReviewConfiguration config = new ReviewConfiguration();
+        List<String> disabled = new ArrayList<>();
+        config.getRules().setDisabled(disabled);
+        ConfigurableArchitectureValidationService service = new ConfigurableArchitectureValidationService(config);
+        String code = "public class Clock {\n    private Random random = new Random();\n}\n";
+        assertFalse(service.validateArchitecturalPrinciples("Clock.java", code).isEmpty());
+
+        // When
+        disabled.add("SECURITY");
+        service.reloadRules();
+
+        // Then
+        assertTrue(service.validateArchitecturalPrinciples("Clock.java", code).stream()
+            .noneMatch(f -> f.getType() == ReviewFinding.FindingType.SECURITY));
+    }
+
+    private static ReviewFinding finding(ReviewFinding.FindingType type) {
+        ReviewFinding finding = new ReviewFinding();
+        finding.setType(type);
+        finding.setRuleId("ARCH_" + type.name());
+        return finding;
+    }
+}
@@ -0,0 +1,82 @@
+package com.reviewcode.ai.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void shouldShareOneCallBetweenConcurrentSubscribers() {
+        // Given
+        SingleFlight<String, String> flights = new SingleFlight<>(Duration.ofSeconds(5));
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one();
+
+        // When
+        Mono<String> first = flights.execute("pr-1", () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        }).cache();
+        Mono<String> second = flights.execute("pr-1", () -> {
+            calls.incrementAndGet();
+            return Mono.just("other");
+        }).cache();
+        first.subscribe();
+        second.subscribe();
+        response.tryEmitValue("review");
+
+        // Then
+        assertEquals("review", first.block());
+        assertEquals("review", second.block());
+        assertEquals(1, calls.get());
+        assertEquals(1, flights.calls());
+        assertEquals(1, flights.joins());
+    }
+
+    @Test
+    void shouldServeValueWithinGraceWindowThenCallAgain() throws InterruptedException {
+        // Given
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofMillis(100));
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        Integer first = flights.execute("pr-1", () -> Mono.fromCallable(calls::incrementAndGet)).block();
+        Integer late = flights.execute("pr-1", () -> Mono.fromCallable(calls::incrementAndGet)).block();
+        Integer otherKey = flights.execute("pr-2", () -> Mono.fromCallable(calls::incrementAndGet)).block();
+        Thread.sleep(300);
+        Integer afterWindow = flights.execute("pr-1", () -> Mono.fromCallable(calls::incrementAndGet)).block();
+
+        // Then
+        assertEquals(List.of(1, 1, 2, 3), List.of(first, late, otherKey, afterWindow));
+    }
+
+    @Test
+    void shouldNotKeepFailures() {
+        // Given
+        SingleFlight<String, String> flights = new SingleFlight<>(Duration.ofSeconds(5));
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        Mono<String> failing = flights.execute("pr-1", () -> {
+            calls.incrementAndGet();
+            return Mono.error(new IllegalStateException("AI endpoint unavailable"));
+        });
+        assertThrows(IllegalStateException.class, failing::block);
+        String retried = flights.execute("pr-1", () -> {
+            calls.incrementAndGet();
+            return Mono.just("review");
+        }).block();
+
+        // Then
+        assertEquals("review", retried);
+        assertEquals(2, calls.get());
+        assertEquals(1, flights.inFlight());
+    }
+}
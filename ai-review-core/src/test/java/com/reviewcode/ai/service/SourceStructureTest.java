@@ -0,0 +1,103 @@
+package com.reviewcode.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceStructureTest {
+
+    private static final String CODE = """
+        public class Orders {
+            private final Class<?> type = Orders.class;
+
+            public Orders(String a, Map<String, List<Integer>> b, int c) {
+                this.a = a;
+            }
+
+            void process(List<Order> orders) {
+                for (Order order : orders) {
+                    if (order.isOpen()) {
+                        try {
+                            while (order.hasNext()) {
+                                order.next();
+                            }
+                        } catch (Exception e) {
+                        }
+                    }
+                }
+            }
+
+            abstract int size();
+
+            record Line(String sku, int quantity) {
+                int total() { return quantity; }
+            }
+        }
+        """;
+
+    @Test
+    void shouldIndexMethodsWithSpansParametersAndNesting() {
+        // Given
+        SourceStructure structure = index(CODE);
+
+        // When
+        List<SourceStructure.Method> methods = structure.methods();
+
+        // Then
+        assertEquals(List.of("Orders", "process", "size", "total"),
+            methods.stream().map(m -> tokens(CODE).text(m.name())).toList());
+        assertEquals(3, methods.get(0).lines());
+        assertEquals(3, methods.get(0).parameters());
+        assertEquals(12, methods.get(1).lines());
+        assertEquals(4, methods.get(1).nesting());
+        assertEquals(12, tokens(CODE).line(methods.get(1).deepestBlock()));
+        assertEquals(1, methods.get(2).lines());
+        assertEquals(-1, methods.get(2).deepestBlock());
+        assertEquals(0, methods.get(3).parameters());
+    }
+
+    @Test
+    void shouldAnswerShapeLookupsFromTheIndex() {
+        // Given
+        SourceStructure structure = index(CODE);
+
+        // Then
+        assertSame(structure.methods().get(1), structure.longestMethod());
+        assertSame(structure.methods().get(0), structure.widestMethod());
+        assertSame(structure.methods().get(1), structure.deepestMethod());
+        assertEquals(26, structure.largestType().lines());
+    }
+
+    @Test
+    void shouldIndexTypesButNotClassLiterals() {
+        // Given
+        SourceStructure structure = index(CODE);
+
+        // Then
+        assertEquals(2, structure.types().size());
+        assertEquals(1, tokens(CODE).line(structure.types().get(0).keyword()));
+        assertEquals(23, tokens(CODE).line(structure.types().get(1).keyword()));
+        assertEquals(3, structure.types().get(1).lines());
+    }
+
+    @Test
+    void shouldLeaveEmptyIndexForCodeWithoutDeclarations() {
+        // Given
+        SourceStructure structure = index("x = compute(a, b); if (x) { y(); }");
+
+        // Then
+        assertTrue(structure.methods().isEmpty());
+        assertNull(structure.longestMethod());
+        assertNull(structure.largestType());
+    }
+
+    private static SourceStructure index(String code) {
+        return SourceStructure.index(tokens(code), RuleBudget.startDefault());
+    }
+
+    private static TokenStream tokens(String code) {
+        return JavaLexer.tokenize(SourceText.of(code));
+    }
+}
@@ -0,0 +1,66 @@
+package com.reviewcode.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceTextTest {
+
+    private static final String[] FRAGMENTS = { "a", " ", "\t", "}", "\n", "\n", "\r", "\r\n", "public void x() {" };
+
+    @Test
+    void shouldAgreeWithStringLineSemanticsOnRandomInput() {
+        // Given - fragments mixing all line terminators, blank and whitespace-only lines
+        Random random = new Random(7);
+
+        for (int round = 0; round < 500; round++) {
+            StringBuilder builder = new StringBuilder();
+            int fragments = random.nextInt(40);
+            for (int i = 0; i < fragments; i++) {
+                builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            String code = builder.toString();
+
+            // When
+            SourceText source = SourceText.of(code);
+
+            // Then
+            assertEquals(code.lines().count(), source.lineCount(), code);
+            String[] split = code.split("\n");
+            int expectedContentLines = split.length == 1 && split[0].isEmpty() ? 0 : split.length;
+            assertEquals(expectedContentLines, source.contentLineCount(), code);
+            for (int line = 0; line < source.contentLineCount(); line++) {
+                assertEquals(split[line], source.line(line).toString(), code);
+                assertEquals(split[line].trim(), source.trimmedLine(line).toString(), code);
+            }
+            for (int position = -1; position <= code.length(); position++) {
+                assertEquals(substringLineNumber(code, position), source.lineNumber(position), code);
+            }
+        }
+    }
+
+    @Test
+    void shouldExposeLinesAsViews() {
+        // Given
+        SourceText source = SourceText.of("class A {\n    int x;\n}");
+
+        // When
+        CharSequence line = source.trimmedLine(1);
+
+        // Then
+        assertEquals("int x;", line.toString());
+        assertEquals("x", line.subSequence(4, 5).toString());
+        assertEquals(10, source.lineStart(1));
+        assertEquals(20, source.lineEnd(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> line.charAt(6));
+    }
+
+    private static int substringLineNumber(String code, int position) {
+        if (position < 0 || position >= code.length()) {
+            return 1;
+        }
+        return (int) code.substring(0, position).chars().filter(ch -> ch == '\n').count() + 1;
+    }
+}
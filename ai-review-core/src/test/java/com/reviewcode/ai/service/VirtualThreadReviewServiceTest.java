@@ -0,0 +1,187 @@
+package com.reviewcode.ai.service;
+
+import com.reviewcode.ai.config.ReviewConfiguration;
+import com.reviewcode.ai.model.CodeReview;
+import com.reviewcode.ai.model.PullRequest;
+import com.reviewcode.ai.model.ReviewFinding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class VirtualThreadReviewServiceTest {
+
+    private static final String CODE = """
+        public class PaymentService {
+            private String password = "SuperSecret123";
+        }
+        """;
+
+    @TempDir
+    Path root;
+
+    private ReviewConfiguration config;
+    private VirtualThreadReviewService service;
+
+    @BeforeEach
+    void setUp() {
+        config = new ReviewConfiguration();
+        config.getBatch().setParallelism(2);
+        config.getBatch().setMaxFilesInFlight(3);
+        service = new VirtualThreadReviewService(new ArchitectureValidationService(), mock(AiReviewService.class), config);
+    }
+
+    @Test
+    void shouldStreamOneResultPerFileAndReportTotals() {
+        // Given
+        Map<String, String> files = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            files.put("File" + i + ".java", CODE);
+        }
+        List<VirtualThreadReviewService.FileResult> results = new ArrayList<>();
+
+        // When
+        VirtualThreadReviewService.BatchReport report = service.validateBatch(files, results::add);
+
+        // Then
+        assertEquals(50, results.size());
+        assertEquals(files.keySet(), results.stream().map(VirtualThreadReviewService.FileResult::fileName)
+            .collect(Collectors.toSet()));
+        assertTrue(results.stream().allMatch(r -> r.findings().stream()
+            .anyMatch(f -> f.getType() == ReviewFinding.FindingType.SECURITY)));
+        assertEquals(50, report.files());
+        assertEquals(0, report.failedFiles());
+        assertEquals(50L * CODE.length(), report.characters());
+        assertEquals(results.stream().mapToInt(r -> r.findings().size()).sum(), report.findings());
+        assertTrue(report.filesPerSecond() > 0);
+    }
+
+    @Test
+    void shouldValidateJavaFilesBelowRepositoryRoot() throws IOException {
+        // Given
+        Files.createDirectories(root.resolve("src/main"));
+        Files.writeString(root.resolve("src/main/PaymentService.java"), CODE);
+        Files.writeString(root.resolve("src/main/notes.txt"), CODE);
+        Files.writeString(root.resolve("Empty.java"), "");
+        List<String> names = new ArrayList<>();
+
+        // When
+        VirtualThreadReviewService.BatchReport report = service.validateRepository(root, result -> names.add(result.fileName()));
+
+        // Then
+        assertEquals(2, report.files());
+        assertTrue(names.containsAll(List.of("src/main/PaymentService.java", "Empty.java")));
+    }
+
+    @Test
+    void shouldExportRepositoryFindingsAsTheyComplete() throws IOException {
+        // Given
+        Files.writeString(root.resolve("PaymentService.java"), CODE);
+        Files.writeString(root.resolve("OrderService.java"), CODE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        VirtualThreadReviewService.BatchReport report = service.exportRepository(root, FindingsExport.Format.NDJSON, out);
+
+        // Then
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(report.findings(), lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"fileName\":\"OrderService.java\"")));
+    }
+
+    @Test
+    void shouldValidateFileContentInStructuredReview() throws Exception {
+        // Given
+        Path file = root.resolve("PaymentService.java");
+        Files.writeString(file, CODE);
+
+        // When
+        CodeReview review = service.performStructuredReview(new PullRequest(), List.of(file.toString()));
+
+        // Then
+        assertTrue(review.getFindings().stream()
+            .anyMatch(f -> f.getType() == ReviewFinding.FindingType.SECURITY && file.toString().equals(f.getFileName())));
+    }
+
+    @Test
+    void shouldReportUnreadableFileAndCarryOn() throws IOException {
+        // Given
+        Files.write(root.resolve("Broken.java"), new byte[] { (byte) 0xC3, (byte) 0x28 });
+        Files.writeString(root.resolve("PaymentService.java"), CODE, StandardCharsets.UTF_8);
+        List<VirtualThreadReviewService.FileResult> results = new ArrayList<>();
+
+        // When
+        VirtualThreadReviewService.BatchReport report = service.validateRepository(root, results::add);
+
+        // Then
+        assertEquals(2, report.files());
+        assertEquals(1, report.failedFiles());
+        VirtualThreadReviewService.FileResult broken = results.stream()
+            .filter(r -> r.fileName().equals("Broken.java")).findFirst().orElseThrow();
+        assertTrue(broken.failed());
+        assertTrue(broken.error().startsWith("Cannot read file"));
+        assertTrue(broken.findings().isEmpty());
+    }
+
+    @Test
+    void shouldSkipOversizedFileWithoutReadingIt() throws IOException {
+        // Given an oversized file that would not even decode
+        ArchitectureValidationService architecture = new ArchitectureValidationService();
+        architecture.setFileClassifier(new FileClassifier(100, 250, List.of(), List.of()));
+        service = new VirtualThreadReviewService(architecture, mock(AiReviewService.class), config);
+        byte[] huge = new byte[1_000];
+        huge[0] = (byte) 0xC3;
+        Files.write(root.resolve("Huge.java"), huge);
+        List<VirtualThreadReviewService.FileResult> results = new ArrayList<>();
+
+        // When
+        VirtualThreadReviewService.BatchReport report = service.validateRepository(root, results::add);
+
+        // Then
+        assertEquals(1, report.files());
+        assertEquals(0, report.failedFiles());
+        assertTrue(results.get(0).findings().isEmpty());
+        assertEquals(List.of(new ArchitectureValidationService.SkippedFile("Huge.java", "TOO_LARGE")),
+            architecture.getSkippedFiles());
+    }
+
+    @Test
+    void shouldFailBatchWhenWorkerDies() {
+        // Given rules that die on one file with an error rather than an exception
+        ArchitectureValidationService architecture = new ArchitectureValidationService() {
+            @Override
+            public List<ReviewFinding> validateArchitecturalPrinciples(String fileName, String code) {
+                if (fileName.equals("Deep.java")) {
+                    throw new StackOverflowError();
+                }
+                return super.validateArchitecturalPrinciples(fileName, code);
+            }
+        };
+        service = new VirtualThreadReviewService(architecture, mock(AiReviewService.class), config);
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("PaymentService.java", CODE);
+        files.put("Deep.java", CODE);
+
+        // When
+        IllegalStateException failure = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> assertThrows(IllegalStateException.class, () -> service.validateBatch(files, result -> { })));
+
+        // Then
+        assertTrue(failure.getMessage().contains("Deep.java"));
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+    }
+}